@@ -23,13 +23,10 @@ public class SimpleCompaction implements Compaction {
             context.clear();
             
             int startIndex = history.size() - MAX_MESSAGES_TO_KEEP;
+            // 重新追加时 Context 按消息缓存的 token 数重新累计
             for (int i = startIndex; i < history.size(); i++) {
                 context.appendMessage(history.get(i));
             }
-            
-            // 重新估算 Token
-            int estimatedTokens = MAX_MESSAGES_TO_KEEP * 100; // 简化估算
-            context.updateTokenCount(estimatedTokens);
         }
     }
 }
@@ -1,6 +1,8 @@
 package io.leavesfly.jimi.android.core.context;
 
 import io.leavesfly.jimi.android.llm.message.Message;
+import io.leavesfly.jimi.android.llm.tokenizer.EstimatingTokenizer;
+import io.leavesfly.jimi.android.llm.tokenizer.Tokenizer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -8,13 +10,32 @@ import java.util.List;
  * Context 实现类
  * 
  * 简化版实现，仅维护消息历史和 Token 计数
+ * 
+ * 追加消息时用分词器计算其 token 数（缓存在消息上）并累加到总数，
+ * 服务端返回真实用量时可通过 updateTokenCount 校准。
  */
 public class ContextImpl implements Context {
     
     private final List<Message> history = new ArrayList<>();
+    private final Tokenizer tokenizer;
     private int tokenCount = 0;
     private int checkpointCount = 0;
     
+    public ContextImpl() {
+        this(new EstimatingTokenizer());
+    }
+    
+    public ContextImpl(Tokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+    }
+    
+    /**
+     * 获取分词器
+     */
+    public Tokenizer getTokenizer() {
+        return tokenizer;
+    }
+    
     @Override
     public List<Message> getHistory() {
         return new ArrayList<>(history);
@@ -24,6 +45,7 @@ public class ContextImpl implements Context {
     public void appendMessage(Message message) {
         if (message != null) {
             history.add(message);
+            tokenCount += message.getTokenCount(tokenizer);
         }
     }
     
@@ -8,23 +8,39 @@ import io.leavesfly.jimi.android.core.wire.Wire;
 import io.leavesfly.jimi.android.core.wire.message.ContentPartMessage;
 import io.leavesfly.jimi.android.core.wire.message.StepBegin;
 import io.leavesfly.jimi.android.core.wire.message.StepInterrupted;
+import io.leavesfly.jimi.android.core.wire.message.StreamMetricsMessage;
 import io.leavesfly.jimi.android.core.wire.message.ToolCallMessage;
 import io.leavesfly.jimi.android.core.wire.message.ToolResultMessage;
 import io.leavesfly.jimi.android.llm.ChatCompletionChunk;
 import io.leavesfly.jimi.android.llm.LLM;
 import io.leavesfly.jimi.android.llm.StreamCallback;
+import io.leavesfly.jimi.android.llm.StreamHandle;
+import io.leavesfly.jimi.android.llm.StreamMetrics;
+import io.leavesfly.jimi.android.llm.StreamStats;
+import io.leavesfly.jimi.android.llm.StreamTimings;
 import io.leavesfly.jimi.android.llm.ToolCallAccumulator;
 import io.leavesfly.jimi.android.llm.ToolCallDelta;
 import io.leavesfly.jimi.android.llm.message.ContentPart;
 import io.leavesfly.jimi.android.llm.message.Message;
 import io.leavesfly.jimi.android.llm.message.ToolCall;
+import io.leavesfly.jimi.android.tool.ToolMetadata;
 import io.leavesfly.jimi.android.tool.ToolRegistry;
 import io.leavesfly.jimi.android.tool.ToolResult;
+import io.leavesfly.jimi.android.tool.ToolResultShaper;
 import io.leavesfly.jimi.android.tool.ToolSchema;
+import io.leavesfly.jimi.android.tool.ToolSelector;
+import io.leavesfly.jimi.android.tool.ToolSnapshot;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -44,9 +60,22 @@ public class AgentExecutor {
     private final Wire wire;
     private final Compaction compaction;
     private final ToolRegistry toolRegistry;
+    private final ToolResultShaper resultShaper;
+    
+    /**
+     * 本次运行使用的工具快照，运行期间注册、注销的工具从下一次运行开始生效
+     */
+    private volatile ToolSnapshot runTools;
+    private final StreamMetrics streamMetrics = new StreamMetrics();
     
     private int consecutiveNoToolCallSteps = 0;
     
+    // 当前运行的取消状态，由 cancel() 跨线程访问，每次运行开始时替换
+    private volatile Cancellation cancellation = new Cancellation();
+    
+    // 当前运行的截止时间（仅在执行线程访问）
+    private Deadline deadline = Deadline.none();
+    
     public AgentExecutor(
             Agent agent,
             Runtime runtime,
@@ -69,12 +98,59 @@ public class AgentExecutor {
         this.wire = wire;
         this.compaction = compaction;
         this.toolRegistry = toolRegistry;
+        this.resultShaper = new ToolResultShaper(
+                runtime.getConfig().getTokenizer(), runtime.getConfig().getToolResultMaxTokens());
+    }
+    
+    /**
+     * 为下一次执行创建新的取消状态，在每次执行开始前调用
+     *
+     * @return 本次执行的取消句柄，之后的执行不受它影响
+     */
+    public Cancellation resetCancellation() {
+        Cancellation next = new Cancellation();
+        cancellation = next;
+        return next;
+    }
+    
+    /**
+     * 取消当前执行（可从任意线程调用）
+     * 断开进行中的 LLM 流，跳过尚未执行的工具调用，execute 随后抛出 CancellationException
+     */
+    public void cancel() {
+        cancellation.cancel();
+    }
+    
+    /**
+     * 是否已被取消
+     */
+    public boolean isCancelled() {
+        return cancellation.isCancelled();
+    }
+    
+    /**
+     * 获取 LLM 流式请求耗时统计
+     */
+    public StreamStats getStreamStats() {
+        return streamMetrics.getStats();
     }
     
     /**
      * 执行入口（同步执行，需在后台线程调用）
      */
     public void execute(List<ContentPart> userInput) throws Exception {
+        execute(userInput, Deadline.none());
+    }
+    
+    /**
+     * 带截止时间的执行入口（同步执行，需在后台线程调用）
+     * 截止时间到达时中断当前 LLM 流或工具执行，已输出的部分回答保留在上下文中，
+     * 随后抛出 TimeoutException
+     */
+    public void execute(List<ContentPart> userInput, Deadline deadline) throws Exception {
+        this.deadline = deadline;
+        this.runTools = toolRegistry != null ? toolRegistry.snapshot() : null;
+        
         // 1. 创建检查点 0
         context.checkpoint(false);
         
@@ -82,7 +158,12 @@ public class AgentExecutor {
         context.appendMessage(Message.user(userInput));
         
         // 3. 启动主循环
-        agentLoop();
+        try {
+            agentLoop();
+        } finally {
+            // 合并中的流式内容在运行结束前送达
+            wire.flush();
+        }
     }
     
     /**
@@ -108,6 +189,9 @@ public class AgentExecutor {
             throw new RuntimeException("Max steps reached: " + maxSteps);
         }
         
+        throwIfCancelled();
+        throwIfDeadlineExceeded();
+        
         // 发送步骤开始消息
         wire.send(new StepBegin(stepNo));
         
@@ -119,7 +203,7 @@ public class AgentExecutor {
             context.checkpoint(true);
             
             // 执行单步
-            return step();
+            return step(stepNo);
         } catch (Exception e) {
             wire.send(new StepInterrupted());
             throw e;
@@ -129,7 +213,7 @@ public class AgentExecutor {
     /**
      * 执行单步 - 调用 LLM 并处理响应
      */
-    private boolean step() throws Exception {
+    private boolean step(int stepNo) throws Exception {
         LLM llm = runtime.getLLM();
         
         // 如果没有配置 LLM，使用 Mock 实现
@@ -138,29 +222,35 @@ public class AgentExecutor {
         }
         
         // 调用真实 LLM
-        return stepWithLLM(llm);
+        return stepWithLLM(llm, stepNo);
     }
     
     /**
      * 使用真实 LLM 执行单步
      */
-    private boolean stepWithLLM(LLM llm) throws Exception {
+    private boolean stepWithLLM(LLM llm, int stepNo) throws Exception {
         String systemPrompt = agent.getSystemPrompt();
         List<Message> history = context.getHistory();
         
         // 获取工具 Schema 列表
         List<ToolSchema> tools = null;
-        if (toolRegistry != null && toolRegistry.size() > 0) {
-            tools = toolRegistry.getToolSchemas(agent.getTools());
+        if (runTools != null && runTools.size() > 0) {
+            tools = runTools.getToolSchemas(selectTools(history));
         }
         
         // 使用同步回调收集流式响应
         StringBuilder contentBuilder = new StringBuilder();
-        ToolCallAccumulator toolCallAccumulator = new ToolCallAccumulator();
+        // 参数已完整的工具调用可在流结束前提前执行，key 为 tool_call id
+        Map<String, EarlyToolCall> earlyCalls = new ConcurrentHashMap<>();
+        ToolCallAccumulator toolCallAccumulator = new ToolCallAccumulator(
+                isEarlyToolDispatchEnabled()
+                        ? (index, toolCall) -> dispatchEarly(toolCall, earlyCalls)
+                        : null);
         AtomicReference<Throwable> errorRef = new AtomicReference<>();
+        AtomicReference<ChatCompletionChunk> usageRef = new AtomicReference<>();
         CountDownLatch latch = new CountDownLatch(1);
         
-        llm.getChatProvider().generateStream(
+        StreamHandle stream = llm.getChatProvider().openStream(
             systemPrompt, history, tools,
             new StreamCallback<ChatCompletionChunk>() {
                 @Override
@@ -168,10 +258,17 @@ public class AgentExecutor {
                     // 处理内容
                     if (chunk.hasContent()) {
                         String content = chunk.getContent();
-                        contentBuilder.append(content);
+                        synchronized (contentBuilder) {
+                            contentBuilder.append(content);
+                        }
                         wire.send(new ContentPartMessage(content));
                     }
                     
+                    // 记录服务端返回的 token 用量
+                    if (chunk.hasUsage()) {
+                        usageRef.set(chunk);
+                    }
+                    
                     // 累积工具调用
                     if (chunk.hasToolCalls()) {
                         for (ToolCallDelta delta : chunk.getToolCalls()) {
@@ -193,10 +290,45 @@ public class AgentExecutor {
             }
         );
         
-        // 等待流完成
-        latch.await();
+        Cancellation run = cancellation;
+        run.attach(stream);
+        
+        // 等待流完成，最多等到截止时间
+        boolean streamFinished;
+        try {
+            if (deadline.hasLimit()) {
+                streamFinished = latch.await(deadline.remainingMillis(), TimeUnit.MILLISECONDS);
+            } else {
+                latch.await();
+                streamFinished = true;
+            }
+        } finally {
+            run.detach(stream);
+        }
+        
+        if (streamFinished) {
+            recordStreamTimings(stepNo, stream.getTimings());
+        }
+        if (isCancelled() || !streamFinished || errorRef.get() != null) {
+            // 流未正常结束，提前执行的工具结果不再使用
+            cancelEarlyCalls(earlyCalls);
+        }
         
         // 检查错误
+        throwIfCancelled();
+        if (!streamFinished) {
+            stream.cancel();
+            cancelEarlyCalls(earlyCalls);
+            // 保留已输出的部分回答
+            String partial;
+            synchronized (contentBuilder) {
+                partial = contentBuilder.toString();
+            }
+            if (!partial.isEmpty()) {
+                context.appendMessage(Message.assistant(partial));
+            }
+            throw new TimeoutException("Run deadline exceeded while waiting for LLM response");
+        }
         if (errorRef.get() != null) {
             throw new RuntimeException("LLM call failed", errorRef.get());
         }
@@ -207,18 +339,33 @@ public class AgentExecutor {
         Message assistantMessage = Message.assistant(content, toolCalls);
         context.appendMessage(assistantMessage);
         
-        // 更新 Token 计数（估算）
-        int estimatedTokens = context.getTokenCount() + content.length() / 4;
-        context.updateTokenCount(estimatedTokens);
+        // Context 追加消息时已按本地分词器计数，服务端返回用量时以其校准
+        ChatCompletionChunk usage = usageRef.get();
+        if (usage != null) {
+            // 本次请求的输入即此前全部历史，加上输出即为当前上下文大小
+            context.updateTokenCount(usage.getPromptTokens() + usage.getCompletionTokens());
+        }
         
         // 处理工具调用
-        return handleToolCalls(toolCalls);
+        return handleToolCalls(toolCalls, earlyCalls);
+    }
+    
+    /**
+     * 汇总本步流式请求耗时并发送到 Wire（未启用统计时 timings 为 null）
+     */
+    private void recordStreamTimings(int stepNo, StreamTimings timings) {
+        if (timings == null) {
+            return;
+        }
+        streamMetrics.record(timings);
+        wire.send(new StreamMetricsMessage(stepNo, timings));
     }
     
     /**
      * 处理工具调用
      */
-    private boolean handleToolCalls(List<ToolCall> toolCalls) {
+    private boolean handleToolCalls(List<ToolCall> toolCalls, Map<String, EarlyToolCall> earlyCalls)
+            throws TimeoutException {
         if (toolCalls == null || toolCalls.isEmpty()) {
             // 无工具调用，增加计数器
             consecutiveNoToolCallSteps++;
@@ -235,30 +382,222 @@ public class AgentExecutor {
         // 重置计数器
         consecutiveNoToolCallSteps = 0;
         
-        // 串行执行工具调用
-        for (ToolCall toolCall : toolCalls) {
-            wire.send(new ToolCallMessage(toolCall));
+        // 按批执行：相邻的可并发工具调用同时执行，不可并发的单独执行；结果按原顺序写入上下文
+        int i = 0;
+        while (i < toolCalls.size()) {
+            throwIfStopped(toolCalls.subList(i, toolCalls.size()), earlyCalls, null);
             
-            String toolResult;
-            if (toolRegistry != null) {
-                // 执行工具
-                ToolResult result = toolRegistry.execute(
-                        toolCall.getFunction().getName(),
-                        toolCall.getFunction().getArguments()
-                );
-                toolResult = result.toResultString();
-            } else {
-                toolResult = "[工具未注册] " + toolCall.getFunction().getName();
+            int end = nextBatchEnd(toolCalls, i);
+            List<ToolCall> batch = toolCalls.subList(i, end);
+            List<Future<ToolResult>> running = new ArrayList<>(batch.size());
+            for (ToolCall toolCall : batch) {
+                wire.send(new ToolCallMessage(toolCall));
+                running.add(batch.size() > 1 ? startTool(toolCall, earlyCalls) : null);
             }
             
-            // 添加工具结果消息
-            context.appendMessage(Message.toolResult(toolCall.getId(), toolResult));
-            wire.send(new ToolResultMessage(toolCall.getId(), toolResult));
+            for (int k = 0; k < batch.size(); k++) {
+                if (k > 0) {
+                    throwIfStopped(toolCalls.subList(i + k, toolCalls.size()), earlyCalls,
+                            running.subList(k, running.size()));
+                }
+                
+                ToolCall toolCall = batch.get(k);
+                String toolName = toolCall.getFunction().getName();
+                Future<ToolResult> future = running.get(k);
+                String toolResult;
+                String contextResult;
+                if (future != null || toolRegistry != null) {
+                    // 执行工具，已提前执行的直接等待其结果
+                    ToolResult result = future != null
+                            ? toolRegistry.awaitResult(future, toolName, remainingToolBudget())
+                            : executeTool(toolCall, earlyCalls.remove(toolCall.getId()));
+                    toolResult = result.toResultString();
+                    // 写入上下文的结果按工具的 token 预算整形，界面仍收到完整结果
+                    contextResult = resultShaper.shape(toolResult, runTools.getMetadata(toolName));
+                } else {
+                    toolResult = "[工具未注册] " + toolName;
+                    contextResult = toolResult;
+                }
+                
+                // 添加工具结果消息
+                context.appendMessage(Message.toolResult(toolCall.getId(), contextResult));
+                wire.send(new ToolResultMessage(toolCall.getId(), toolResult));
+            }
+            i = end;
         }
         
         return false; // 继续循环
     }
     
+    /**
+     * 选择本步发送 Schema 的工具
+     * 未配置 ToolSelector 时发送 Agent 的全部工具
+     *
+     * @return 工具名称列表，空列表表示全部工具
+     */
+    private List<String> selectTools(List<Message> history) {
+        List<String> agentTools = agent.getTools();
+        ToolSelector selector = runtime.getConfig().getToolSelector();
+        if (selector == null) {
+            return agentTools;
+        }
+        
+        List<String> candidates = new ArrayList<>();
+        for (String name : agentTools.isEmpty() ? runTools.getToolNames() : agentTools) {
+            if (runTools.hasTool(name)) {
+                candidates.add(name);
+            }
+        }
+        List<String> selected = selector.select(runTools, candidates, history);
+        return selected.isEmpty() ? agentTools : selected;
+    }
+    
+    /**
+     * 已取消或超出截止时间时，为剩余工具调用补充结果并抛出异常
+     *
+     * @param remaining 尚未写入结果的工具调用
+     * @param running   其中正在执行、需要取消的调用，可为 null
+     */
+    private void throwIfStopped(List<ToolCall> remaining, Map<String, EarlyToolCall> earlyCalls,
+                                List<Future<ToolResult>> running) throws TimeoutException {
+        if (!isCancelled() && !deadline.isExpired()) {
+            return;
+        }
+        if (running != null) {
+            for (Future<ToolResult> future : running) {
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        }
+        cancelEarlyCalls(earlyCalls);
+        if (isCancelled()) {
+            appendSkippedResults(remaining, "[已取消] 执行被用户取消");
+            throw new CancellationException("Run cancelled");
+        }
+        appendSkippedResults(remaining, "[已超时] 运行超出截止时间");
+        throw new TimeoutException("Run deadline exceeded before tool execution");
+    }
+    
+    /**
+     * 计算从 start 开始的一批工具调用的结束位置（不含）
+     * 未开启并发或工具不允许并发时每批只有一个调用
+     */
+    private int nextBatchEnd(List<ToolCall> toolCalls, int start) {
+        if (toolRegistry == null || !runtime.getConfig().isParallelToolCalls()
+                || !toolRegistry.isConcurrent(runTools, toolCalls.get(start).getFunction().getName())) {
+            return start + 1;
+        }
+        int end = start + 1;
+        while (end < toolCalls.size()
+                && toolRegistry.isConcurrent(runTools, toolCalls.get(end).getFunction().getName())) {
+            end++;
+        }
+        return end;
+    }
+    
+    /**
+     * 在工具线程池上启动工具调用，已提前执行且参数一致的直接复用
+     *
+     * @return 执行结果的 Future，FAST 工具或线程池已满时返回 null（改由 executeTool 同步执行）
+     */
+    private Future<ToolResult> startTool(ToolCall toolCall, Map<String, EarlyToolCall> earlyCalls) {
+        String name = toolCall.getFunction().getName();
+        String arguments = toolCall.getFunction().getArguments();
+        EarlyToolCall early = earlyCalls.remove(toolCall.getId());
+        if (early != null) {
+            if (early.arguments.equals(arguments)) {
+                return early.future;
+            }
+            early.future.cancel(true);
+        }
+        if (runTools.getMetadata(name).getLatencyClass() == ToolMetadata.LatencyClass.FAST) {
+            // 本地快速工具不值得切换线程
+            return null;
+        }
+        try {
+            return toolRegistry.executeAsync(runTools, name, arguments);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * 执行工具调用
+     * 有截止时间时工具执行最多占用剩余预算
+     */
+    private ToolResult executeTool(ToolCall toolCall, EarlyToolCall early) {
+        String name = toolCall.getFunction().getName();
+        String arguments = toolCall.getFunction().getArguments();
+        long timeoutMillis = remainingToolBudget();
+        
+        if (early != null) {
+            if (early.arguments.equals(arguments)) {
+                return toolRegistry.awaitResult(early.future, name, timeoutMillis);
+            }
+            // 提前执行后参数又有变化，按最终参数重新执行
+            early.future.cancel(true);
+        }
+        return toolRegistry.execute(runTools, name, arguments, timeoutMillis);
+    }
+    
+    /**
+     * 工具执行可用的时间预算（毫秒），0 表示不限时
+     */
+    private long remainingToolBudget() {
+        return deadline.hasLimit() ? Math.max(1, deadline.remainingMillis()) : 0;
+    }
+    
+    private boolean isEarlyToolDispatchEnabled() {
+        return toolRegistry != null && runtime.getConfig().isEarlyToolDispatch();
+    }
+    
+    /**
+     * 流仍在进行时提前执行参数已完整的工具调用（在流回调线程上调用）
+     * 不允许并发的工具（有副作用）与线程池已满时不提前执行，留到流结束后按原流程执行
+     */
+    private void dispatchEarly(ToolCall toolCall, Map<String, EarlyToolCall> earlyCalls) {
+        String id = toolCall.getId();
+        String name = toolCall.getFunction().getName();
+        if (isCancelled() || id == null || !runTools.hasTool(name) || !toolRegistry.isConcurrent(runTools, name)) {
+            return;
+        }
+        String arguments = toolCall.getFunction().getArguments();
+        try {
+            earlyCalls.put(id, new EarlyToolCall(arguments, toolRegistry.executeAsync(runTools, name, arguments)));
+        } catch (RejectedExecutionException e) {
+            // 留到流结束后执行
+        }
+    }
+    
+    private void cancelEarlyCalls(Map<String, EarlyToolCall> earlyCalls) {
+        for (EarlyToolCall early : earlyCalls.values()) {
+            early.future.cancel(true);
+        }
+        earlyCalls.clear();
+    }
+    
+    /**
+     * 为未执行的工具调用补充结果，保证历史中每个 tool_call 都有对应的 tool 消息
+     */
+    private void appendSkippedResults(List<ToolCall> skipped, String reason) {
+        for (ToolCall toolCall : skipped) {
+            context.appendMessage(Message.toolResult(toolCall.getId(), reason));
+        }
+    }
+    
+    private void throwIfCancelled() {
+        if (isCancelled()) {
+            throw new CancellationException("Run cancelled");
+        }
+    }
+    
+    private void throwIfDeadlineExceeded() throws TimeoutException {
+        if (deadline.isExpired()) {
+            throw new TimeoutException("Run deadline exceeded");
+        }
+    }
+    
     /**
      * Mock 实现（当没有配置 LLM 时使用）
      */
@@ -268,9 +607,6 @@ public class AgentExecutor {
         wire.send(new ContentPartMessage(mockResponse));
         context.appendMessage(Message.assistant(mockResponse));
         
-        int estimatedTokens = context.getTokenCount() + mockResponse.length() / 4;
-        context.updateTokenCount(estimatedTokens);
-        
         consecutiveNoToolCallSteps++;
         
         if (consecutiveNoToolCallSteps >= EngineConstants.MAX_THINKING_STEPS) {
@@ -291,4 +627,66 @@ public class AgentExecutor {
             compaction.compact(context);
         }
     }
+    
+    /**
+     * 单次执行的取消状态
+     * 持有该次执行进行中的 LLM 流，取消只作用于这一次执行，不会波及之后的执行
+     */
+    public static final class Cancellation {
+        private volatile boolean cancelled = false;
+        private StreamHandle stream;
+        
+        /**
+         * 取消该次执行并断开其进行中的 LLM 流，重复调用无效果
+         */
+        public void cancel() {
+            StreamHandle current;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                cancelled = true;
+                current = stream;
+            }
+            if (current != null) {
+                current.cancel();
+            }
+        }
+        
+        public boolean isCancelled() {
+            return cancelled;
+        }
+        
+        /**
+         * 登记进行中的流，已取消时立即断开
+         */
+        void attach(StreamHandle handle) {
+            synchronized (this) {
+                if (!cancelled) {
+                    stream = handle;
+                    return;
+                }
+            }
+            handle.cancel();
+        }
+        
+        synchronized void detach(StreamHandle handle) {
+            if (stream == handle) {
+                stream = null;
+            }
+        }
+    }
+    
+    /**
+     * 流结束前提前执行的工具调用
+     */
+    private static final class EarlyToolCall {
+        final String arguments;
+        final Future<ToolResult> future;
+        
+        EarlyToolCall(String arguments, Future<ToolResult> future) {
+            this.arguments = arguments;
+            this.future = future;
+        }
+    }
 }
@@ -0,0 +1,68 @@
+package io.leavesfly.jimi.android.core.engine;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 运行截止时间
+ * 
+ * 在 Engine.run 时确定，随每一步的 LLM 调用和工具执行逐步消耗剩余预算
+ */
+public final class Deadline {
+    
+    private static final Deadline NONE = new Deadline(0, false);
+    
+    private final long deadlineNanos;
+    private final boolean limited;
+    
+    private Deadline(long deadlineNanos, boolean limited) {
+        this.deadlineNanos = deadlineNanos;
+        this.limited = limited;
+    }
+    
+    /**
+     * 不限时
+     */
+    public static Deadline none() {
+        return NONE;
+    }
+    
+    /**
+     * 从现在起 timeoutMillis 毫秒后到期，timeoutMillis <= 0 表示不限时
+     */
+    public static Deadline after(long timeoutMillis) {
+        if (timeoutMillis <= 0) {
+            return NONE;
+        }
+        return new Deadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis), true);
+    }
+    
+    /**
+     * 是否设置了截止时间
+     */
+    public boolean hasLimit() {
+        return limited;
+    }
+    
+    /**
+     * 是否已到期（不限时永不到期）
+     */
+    public boolean isExpired() {
+        return limited && deadlineNanos - System.nanoTime() <= 0;
+    }
+    
+    /**
+     * 剩余毫秒数，已到期时为 0，不限时为 Long.MAX_VALUE
+     */
+    public long remainingMillis() {
+        if (!limited) {
+            return Long.MAX_VALUE;
+        }
+        long remaining = deadlineNanos - System.nanoTime();
+        return remaining <= 0 ? 0 : Math.max(1, TimeUnit.NANOSECONDS.toMillis(remaining));
+    }
+    
+    @Override
+    public String toString() {
+        return limited ? "Deadline{remaining=" + remainingMillis() + "ms}" : "Deadline{none}";
+    }
+}
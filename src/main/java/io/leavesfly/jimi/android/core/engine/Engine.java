@@ -1,6 +1,8 @@
 package io.leavesfly.jimi.android.core.engine;
 
 import io.leavesfly.jimi.android.core.wire.WireListener;
+import io.leavesfly.jimi.android.llm.StreamMetrics;
+import io.leavesfly.jimi.android.llm.StreamStats;
 import io.leavesfly.jimi.android.llm.message.ContentPart;
 import java.util.List;
 
@@ -37,6 +39,51 @@ public interface Engine {
      */
     void run(List<ContentPart> userInput, EngineCallback callback);
     
+    /**
+     * 运行 Agent（文本输入，带截止时间）
+     * 
+     * @param userInput 用户输入文本
+     * @param timeoutMillis 从调用时起的截止时间（毫秒），<= 0 表示不限时
+     * @param callback 执行回调，超时时收到 onError(TimeoutException)
+     */
+    default void run(String userInput, long timeoutMillis, EngineCallback callback) {
+        run(ContentPart.textList(userInput), timeoutMillis, callback);
+    }
+    
+    /**
+     * 运行 Agent（多部分内容输入，带截止时间）
+     * 默认实现只支持不限时运行，指定截止时间时抛出 UnsupportedOperationException，
+     * 保证已有的 Engine 实现无需修改即可编译
+     * 
+     * @param userInput 用户输入内容部分列表
+     * @param timeoutMillis 从调用时起的截止时间（毫秒），<= 0 表示不限时
+     * @param callback 执行回调，超时时收到 onError(TimeoutException)
+     */
+    default void run(List<ContentPart> userInput, long timeoutMillis, EngineCallback callback) {
+        if (timeoutMillis > 0) {
+            throw new UnsupportedOperationException("run with timeout is not supported by " + getClass().getName());
+        }
+        run(userInput, callback);
+    }
+    
+    /**
+     * 取消正在执行和排队中的运行
+     * 进行中的 LLM 流被立即断开，未执行的工具调用被跳过，Wire 收到 StepInterrupted，
+     * 对应回调收到 onError(CancellationException)。没有运行时调用无效果。
+     * 默认实现抛出 UnsupportedOperationException，保证已有的 Engine 实现无需修改即可编译。
+     */
+    default void cancel() {
+        throw new UnsupportedOperationException("cancel is not supported by " + getClass().getName());
+    }
+    
+    /**
+     * 获取 LLM 流式请求耗时统计
+     * 需在配置中开启 streamMetrics，否则没有样本；默认实现返回没有样本的统计
+     */
+    default StreamStats getStreamStats() {
+        return new StreamMetrics().getStats();
+    }
+    
     /**
      * 添加 Wire 消息监听器
      * 
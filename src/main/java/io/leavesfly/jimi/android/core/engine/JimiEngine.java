@@ -6,10 +6,16 @@ import io.leavesfly.jimi.android.core.context.Context;
 import io.leavesfly.jimi.android.core.runtime.Runtime;
 import io.leavesfly.jimi.android.core.wire.Wire;
 import io.leavesfly.jimi.android.core.wire.WireListener;
+import io.leavesfly.jimi.android.llm.StreamStats;
 import io.leavesfly.jimi.android.llm.message.ContentPart;
 import io.leavesfly.jimi.android.tool.ToolRegistry;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -40,6 +46,8 @@ public class JimiEngine implements Engine {
     private final ExecutorService executorService = Executors.newSingleThreadExecutor();
     // 回调线程池
     private final ExecutorService callbackExecutor = Executors.newSingleThreadExecutor();
+    // 尚未结束的运行（排队中或执行中）
+    private final Set<RunTask> activeRuns = Collections.newSetFromMap(new ConcurrentHashMap<>());
     
     public JimiEngine(
             Agent agent,
@@ -85,14 +93,32 @@ public class JimiEngine implements Engine {
     
     @Override
     public void run(List<ContentPart> userInput, EngineCallback callback) {
-        executorService.execute(() -> {
-            try {
-                executor.execute(userInput);
-                notifyCallback(() -> callback.onComplete());
-            } catch (Exception e) {
-                notifyCallback(() -> callback.onError(e));
-            }
-        });
+        run(userInput, runtime.getConfig().getRunTimeoutMillis(), callback);
+    }
+    
+    @Override
+    public void run(String userInput, long timeoutMillis, EngineCallback callback) {
+        run(ContentPart.textList(userInput), timeoutMillis, callback);
+    }
+    
+    @Override
+    public void run(List<ContentPart> userInput, long timeoutMillis, EngineCallback callback) {
+        // 截止时间从调用时算起，包含排队等待时间
+        RunTask task = new RunTask(userInput, Deadline.after(timeoutMillis), callback);
+        activeRuns.add(task);
+        executorService.execute(task);
+    }
+    
+    @Override
+    public void cancel() {
+        for (RunTask task : new ArrayList<>(activeRuns)) {
+            task.cancel();
+        }
+    }
+    
+    @Override
+    public StreamStats getStreamStats() {
+        return executor.getStreamStats();
     }
     
     @Override
@@ -112,6 +138,7 @@ public class JimiEngine implements Engine {
     
     @Override
     public void shutdown() {
+        cancel();
         executorService.shutdown();
         callbackExecutor.shutdown();
     }
@@ -122,4 +149,74 @@ public class JimiEngine implements Engine {
     private void notifyCallback(Runnable action) {
         callbackExecutor.execute(action);
     }
+    
+    /**
+     * 单次运行，保证回调只收到一次结束通知
+     * 状态与本次运行的取消句柄在同一把锁下切换，迟到的 cancel() 只会作用于本次运行
+     */
+    private final class RunTask implements Runnable {
+        private static final int PENDING = 0;
+        private static final int RUNNING = 1;
+        private static final int DONE = 2;
+        
+        private final List<ContentPart> userInput;
+        private final Deadline deadline;
+        private final EngineCallback callback;
+        private int state = PENDING;
+        private AgentExecutor.Cancellation cancellation;
+        
+        RunTask(List<ContentPart> userInput, Deadline deadline, EngineCallback callback) {
+            this.userInput = userInput;
+            this.deadline = deadline;
+            this.callback = callback;
+        }
+        
+        @Override
+        public void run() {
+            AgentExecutor.Cancellation runCancellation = executor.resetCancellation();
+            synchronized (this) {
+                if (state != PENDING) {
+                    return;
+                }
+                state = RUNNING;
+                cancellation = runCancellation;
+            }
+            try {
+                executor.execute(userInput, deadline);
+                finish(null);
+            } catch (Exception e) {
+                finish(e);
+            }
+        }
+        
+        void cancel() {
+            AgentExecutor.Cancellation runCancellation;
+            synchronized (this) {
+                if (state == PENDING) {
+                    // 尚未开始，直接结束
+                    state = DONE;
+                    activeRuns.remove(this);
+                    notifyCallback(() -> callback.onError(new CancellationException("Run cancelled")));
+                    return;
+                }
+                if (state != RUNNING) {
+                    return;
+                }
+                runCancellation = cancellation;
+            }
+            runCancellation.cancel();
+        }
+        
+        private void finish(Exception error) {
+            synchronized (this) {
+                state = DONE;
+            }
+            activeRuns.remove(this);
+            if (error == null) {
+                notifyCallback(() -> callback.onComplete());
+            } else {
+                notifyCallback(() -> callback.onError(error));
+            }
+        }
+    }
 }
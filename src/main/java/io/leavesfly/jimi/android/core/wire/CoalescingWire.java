@@ -0,0 +1,121 @@
+package io.leavesfly.jimi.android.core.wire;
+
+import io.leavesfly.jimi.android.core.wire.message.ContentPartMessage;
+import io.leavesfly.jimi.android.core.wire.message.WireMessage;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 合并流式内容的 Wire 装饰器
+ * <p>
+ * - 连续的同类型 ContentPartMessage 先缓存，在时间窗口到期或累计字符数达到上限时合并为一条发送
+ * - 收到其他类型消息（工具调用、工具结果、步骤事件等）时先发送缓存内容，保证消息顺序不变
+ * - 窗口定时在所有实例共享的单个守护线程上调度
+ */
+public class CoalescingWire implements Wire {
+
+    private static final class SchedulerHolder {
+        static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jimi-wire-coalesce");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private final Wire delegate;
+    private final long windowMillis;
+    private final int maxChars;
+
+    private final StringBuilder pending = new StringBuilder();
+    private ContentPartMessage.ContentType pendingType;
+    private ScheduledFuture<?> pendingFlush;
+
+    /**
+     * @param delegate     实际分发消息的 Wire
+     * @param windowMillis 合并时间窗口（毫秒），从缓存第一段内容起计时
+     * @param maxChars     缓存内容达到该字符数时立即发送
+     */
+    public CoalescingWire(Wire delegate, long windowMillis, int maxChars) {
+        if (windowMillis <= 0) {
+            throw new IllegalArgumentException("windowMillis must be positive");
+        }
+        if (maxChars <= 0) {
+            throw new IllegalArgumentException("maxChars must be positive");
+        }
+        this.delegate = delegate;
+        this.windowMillis = windowMillis;
+        this.maxChars = maxChars;
+    }
+
+    /**
+     * 获取被装饰的 Wire
+     */
+    public Wire getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public synchronized void send(WireMessage message) {
+        if (message == null) {
+            return;
+        }
+        if (!(message instanceof ContentPartMessage)) {
+            flushPending();
+            delegate.send(message);
+            return;
+        }
+
+        ContentPartMessage part = (ContentPartMessage) message;
+        String content = part.getContent();
+        if (content == null || content.isEmpty()) {
+            return;
+        }
+        if (pendingType != null && pendingType != part.getContentType()) {
+            flushPending();
+        }
+        pendingType = part.getContentType();
+        pending.append(content);
+
+        if (pending.length() >= maxChars) {
+            flushPending();
+        } else if (pendingFlush == null) {
+            pendingFlush = SchedulerHolder.SCHEDULER.schedule(this::flush, windowMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * 立即发送缓存的内容
+     */
+    @Override
+    public synchronized void flush() {
+        flushPending();
+        delegate.flush();
+    }
+
+    @Override
+    public void addListener(WireListener listener) {
+        delegate.addListener(listener);
+    }
+
+    @Override
+    public void removeListener(WireListener listener) {
+        delegate.removeListener(listener);
+    }
+
+    private void flushPending() {
+        if (pendingFlush != null) {
+            pendingFlush.cancel(false);
+            pendingFlush = null;
+        }
+        if (pending.length() == 0) {
+            return;
+        }
+        ContentPartMessage merged = new ContentPartMessage(pending.toString(), pendingType);
+        pending.setLength(0);
+        pendingType = null;
+        delegate.send(merged);
+    }
+}
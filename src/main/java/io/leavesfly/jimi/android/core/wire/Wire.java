@@ -29,4 +29,10 @@ public interface Wire {
      * @param listener 监听器
      */
     void removeListener(WireListener listener);
+    
+    /**
+     * 立即发送缓存中尚未分发的消息（不缓存消息的实现无需处理）
+     */
+    default void flush() {
+    }
 }
@@ -11,7 +11,7 @@ import java.util.concurrent.Executors;
  * Wire 消息总线实现
  * 
  * - 使用 CopyOnWriteArrayList 保证线程安全
- * - 支持异步通知监听器
+ * - 支持异步通知监听器，每条消息只提交一个任务，按顺序通知全部监听器
  */
 public class WireImpl implements Wire {
     
@@ -42,12 +42,20 @@ public class WireImpl implements Wire {
             return;
         }
         
+        if (listeners.isEmpty()) {
+            return;
+        }
+        
+        if (notifyAsync && notifyExecutor != null) {
+            notifyExecutor.execute(() -> notifyListeners(message));
+        } else {
+            notifyListeners(message);
+        }
+    }
+    
+    private void notifyListeners(WireMessage message) {
         for (WireListener listener : listeners) {
-            if (notifyAsync && notifyExecutor != null) {
-                notifyExecutor.execute(() -> listener.onMessage(message));
-            } else {
-                listener.onMessage(message);
-            }
+            listener.onMessage(message);
         }
     }
     
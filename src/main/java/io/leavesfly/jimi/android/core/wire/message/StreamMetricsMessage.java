@@ -0,0 +1,31 @@
+package io.leavesfly.jimi.android.core.wire.message;
+
+import io.leavesfly.jimi.android.llm.StreamTimings;
+
+/**
+ * 流式请求耗时消息
+ * 启用流式耗时统计时，每步 LLM 流结束后发送
+ */
+public class StreamMetricsMessage extends WireMessage {
+    
+    private final int stepNo;
+    private final StreamTimings timings;
+    
+    public StreamMetricsMessage(int stepNo, StreamTimings timings) {
+        this.stepNo = stepNo;
+        this.timings = timings;
+    }
+    
+    @Override
+    public String getType() {
+        return "stream_metrics";
+    }
+    
+    public int getStepNo() {
+        return stepNo;
+    }
+    
+    public StreamTimings getTimings() {
+        return timings;
+    }
+}
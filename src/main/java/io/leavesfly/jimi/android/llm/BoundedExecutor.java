@@ -0,0 +1,94 @@
+package io.leavesfly.jimi.android.llm;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 有界、可观测的任务执行器
+ * <p>
+ * - 最大并发数固定，超出的任务进入有界队列等待
+ * - 队列已满时拒绝任务（抛出 RejectedExecutionException），由调用方通过回调反馈背压
+ * - 空闲线程超时后自动回收，线程为守护线程
+ */
+public class BoundedExecutor {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final int maxConcurrency;
+    private final int queueCapacity;
+    private final ThreadPoolExecutor pool;
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * @param name           线程名前缀
+     * @param maxConcurrency 最大并发任务数
+     * @param queueCapacity  等待队列容量，0 表示不排队
+     */
+    public BoundedExecutor(String name, int maxConcurrency, int queueCapacity) {
+        if (maxConcurrency <= 0) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        if (queueCapacity < 0) {
+            throw new IllegalArgumentException("queueCapacity must not be negative");
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+
+        BlockingQueue<Runnable> queue = queueCapacity > 0
+                ? new ArrayBlockingQueue<Runnable>(queueCapacity)
+                : new SynchronousQueue<Runnable>();
+        AtomicInteger threadNumber = new AtomicInteger(1);
+        this.pool = new ThreadPoolExecutor(
+                maxConcurrency, maxConcurrency,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS,
+                queue,
+                r -> {
+                    Thread thread = new Thread(r, name + "-" + threadNumber.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.pool.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 提交任务
+     *
+     * @throws RejectedExecutionException 并发与队列均已满，或执行器已关闭
+     */
+    public void execute(Runnable task) {
+        try {
+            pool.execute(task);
+        } catch (RejectedExecutionException e) {
+            rejectedCount.incrementAndGet();
+            throw new RejectedExecutionException(
+                    "Executor saturated: active=" + pool.getActiveCount()
+                            + ", queued=" + pool.getQueue().size()
+                            + ", maxConcurrency=" + maxConcurrency
+                            + ", queueCapacity=" + queueCapacity, e);
+        }
+    }
+
+    /**
+     * 获取统计快照
+     */
+    public ExecutorStats getStats() {
+        return new ExecutorStats(
+                pool.getActiveCount(),
+                pool.getQueue().size(),
+                rejectedCount.get(),
+                pool.getCompletedTaskCount(),
+                maxConcurrency,
+                queueCapacity);
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
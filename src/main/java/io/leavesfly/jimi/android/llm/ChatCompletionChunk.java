@@ -101,6 +101,13 @@ public class ChatCompletionChunk {
         return toolCalls != null && !toolCalls.isEmpty();
     }
 
+    /**
+     * 是否携带 token 用量（通常只在最后一个 chunk 中出现）
+     */
+    public boolean hasUsage() {
+        return promptTokens > 0 || completionTokens > 0;
+    }
+
     /**
      * 是否是流结束
      */
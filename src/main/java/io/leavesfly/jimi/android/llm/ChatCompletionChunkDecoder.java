@@ -0,0 +1,209 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.llm.json.JsonReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ChatCompletionChunk 专用解码器
+ * <p>
+ * 在 SSE 负载的字节区间上单遍扫描，只提取 id、choices[0].delta.content、
+ * tool_calls 增量、finish_reason 与 usage（顶层或 choice 内），其余字段按字节跳过；
+ * 不构建 JSONObject 树，只有被提取的字符串值才会解码为 String。
+ */
+public final class ChatCompletionChunkDecoder {
+
+    private static final byte[] ID = ascii("id");
+    private static final byte[] CHOICES = ascii("choices");
+    private static final byte[] DELTA = ascii("delta");
+    private static final byte[] CONTENT = ascii("content");
+    private static final byte[] TOOL_CALLS = ascii("tool_calls");
+    private static final byte[] FINISH_REASON = ascii("finish_reason");
+    private static final byte[] USAGE = ascii("usage");
+    private static final byte[] PROMPT_TOKENS = ascii("prompt_tokens");
+    private static final byte[] COMPLETION_TOKENS = ascii("completion_tokens");
+    private static final byte[] INDEX = ascii("index");
+    private static final byte[] TYPE = ascii("type");
+    private static final byte[] FUNCTION = ascii("function");
+    private static final byte[] NAME = ascii("name");
+    private static final byte[] ARGUMENTS = ascii("arguments");
+
+    private ChatCompletionChunkDecoder() {
+    }
+
+    /**
+     * 解码一个 chunk
+     *
+     * @param buffer 缓冲区
+     * @param offset 负载起始位置
+     * @param length 负载长度
+     * @return 解码结果
+     * @throws IOException JSON 格式错误
+     */
+    public static ChatCompletionChunk decode(byte[] buffer, int offset, int length) throws IOException {
+        JsonReader reader = new JsonReader(buffer, offset, length);
+        ChatCompletionChunk chunk = new ChatCompletionChunk();
+
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            if (reader.nameEquals(ID)) {
+                chunk.setId(reader.nextStringOrNull());
+            } else if (reader.nameEquals(CHOICES) && reader.peek() == JsonReader.Token.BEGIN_ARRAY) {
+                readChoices(reader, chunk);
+            } else if (reader.nameEquals(USAGE) && reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                readUsage(reader, chunk);
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return chunk;
+    }
+
+    /**
+     * 只解析第一个 choice，其余跳过
+     */
+    private static void readChoices(JsonReader reader, ChatCompletionChunk chunk) throws IOException {
+        reader.beginArray();
+        boolean first = true;
+        while (reader.hasNext()) {
+            if (first && reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                readChoice(reader, chunk);
+            } else {
+                reader.skipValue();
+            }
+            first = false;
+        }
+        reader.endArray();
+    }
+
+    private static void readChoice(JsonReader reader, ChatCompletionChunk chunk) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            if (reader.nameEquals(DELTA) && reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                readDelta(reader, chunk);
+            } else if (reader.nameEquals(USAGE) && reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                // 部分服务（如 Moonshot）把 usage 放在 choice 中
+                readUsage(reader, chunk);
+            } else if (reader.nameEquals(FINISH_REASON)) {
+                String finishReason = reader.nextStringOrNull();
+                if (finishReason != null && !"null".equals(finishReason)) {
+                    chunk.setFinishReason(finishReason);
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readDelta(JsonReader reader, ChatCompletionChunk chunk) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            if (reader.nameEquals(CONTENT) && isStringOrNull(reader)) {
+                String content = reader.nextStringOrNull();
+                if (content != null && !content.isEmpty()) {
+                    chunk.setContent(content);
+                }
+            } else if (reader.nameEquals(TOOL_CALLS) && reader.peek() == JsonReader.Token.BEGIN_ARRAY) {
+                List<ToolCallDelta> toolCalls = readToolCalls(reader);
+                if (!toolCalls.isEmpty()) {
+                    chunk.setToolCalls(toolCalls);
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static List<ToolCallDelta> readToolCalls(JsonReader reader) throws IOException {
+        List<ToolCallDelta> result = new ArrayList<>(1);
+        reader.beginArray();
+        while (reader.hasNext()) {
+            if (reader.peek() != JsonReader.Token.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+            ToolCallDelta delta = new ToolCallDelta();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                reader.nextName();
+                if (reader.nameEquals(INDEX) && reader.peek() == JsonReader.Token.NUMBER) {
+                    delta.setIndex((int) reader.nextLong());
+                } else if (reader.nameEquals(ID) && isStringOrNull(reader)) {
+                    delta.setId(reader.nextStringOrNull());
+                } else if (reader.nameEquals(TYPE) && isStringOrNull(reader)) {
+                    delta.setType(reader.nextStringOrNull());
+                } else if (reader.nameEquals(FUNCTION) && reader.peek() == JsonReader.Token.BEGIN_OBJECT) {
+                    readFunction(reader, delta);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            result.add(delta);
+        }
+        reader.endArray();
+        return result;
+    }
+
+    private static void readFunction(JsonReader reader, ToolCallDelta delta) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            if (reader.nameEquals(NAME) && isStringOrNull(reader)) {
+                String name = reader.nextStringOrNull();
+                if (name != null && !name.isEmpty()) {
+                    delta.setFunctionName(name);
+                }
+            } else if (reader.nameEquals(ARGUMENTS) && isStringOrNull(reader)) {
+                String arguments = reader.nextStringOrNull();
+                if (arguments != null) {
+                    delta.setFunctionArguments(arguments);
+                }
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static void readUsage(JsonReader reader, ChatCompletionChunk chunk) throws IOException {
+        reader.beginObject();
+        while (reader.hasNext()) {
+            reader.nextName();
+            if (reader.nameEquals(PROMPT_TOKENS) && isNumberOrNull(reader)) {
+                chunk.setPromptTokens(reader.nextIntOrDefault(0));
+            } else if (reader.nameEquals(COMPLETION_TOKENS) && isNumberOrNull(reader)) {
+                chunk.setCompletionTokens(reader.nextIntOrDefault(0));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+    }
+
+    private static boolean isStringOrNull(JsonReader reader) throws IOException {
+        JsonReader.Token token = reader.peek();
+        return token == JsonReader.Token.STRING || token == JsonReader.Token.NULL;
+    }
+
+    private static boolean isNumberOrNull(JsonReader reader) throws IOException {
+        JsonReader.Token token = reader.peek();
+        return token == JsonReader.Token.NUMBER || token == JsonReader.Token.NULL;
+    }
+
+    private static byte[] ascii(String s) {
+        byte[] bytes = new byte[s.length()];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) s.charAt(i);
+        }
+        return bytes;
+    }
+}
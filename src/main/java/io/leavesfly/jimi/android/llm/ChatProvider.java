@@ -40,6 +40,44 @@ public interface ChatProvider {
             StreamCallback<ChatCompletionChunk> callback
     );
 
+    /**
+     * 生成聊天完成（流式），并返回可取消请求的句柄
+     * <p>
+     * 默认实现为只实现了 generateStream 的 Provider 做适配：取消后回调立即收到
+     * onError(CancellationException) 且不再收到任何事件，但底层请求会继续运行到结束。
+     * 需要在取消时断开连接的实现应覆盖本方法，并让 generateStream 委托给它。
+     *
+     * @param systemPrompt 系统提示词
+     * @param history      历史消息列表
+     * @param tools        可用工具列表（可为 null）
+     * @param callback     流式响应回调
+     * @return 流句柄，可用于取消请求
+     */
+    default StreamHandle openStream(
+            String systemPrompt,
+            List<Message> history,
+            List<ToolSchema> tools,
+            StreamCallback<ChatCompletionChunk> callback) {
+        StreamCall<ChatCompletionChunk> call = new StreamCall<>(callback);
+        generateStream(systemPrompt, history, tools, new StreamCallback<ChatCompletionChunk>() {
+            @Override
+            public void onNext(ChatCompletionChunk chunk) {
+                call.next(chunk);
+            }
+
+            @Override
+            public void onComplete() {
+                call.complete();
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                call.error(error);
+            }
+        });
+        return call;
+    }
+
     /**
      * 关闭并释放资源
      */
@@ -0,0 +1,46 @@
+package io.leavesfly.jimi.android.llm;
+
+import java.io.IOException;
+
+/**
+ * LLM 服务返回非 200 响应时的异常
+ * 携带状态码与 Retry-After 提示，供重试策略判断
+ */
+public class ChatProviderException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int statusCode;
+    private final long retryAfterMillis;
+
+    /**
+     * @param statusCode       HTTP 状态码
+     * @param message          错误信息
+     * @param retryAfterMillis 服务端建议的重试等待时间，未提供时为 -1
+     */
+    public ChatProviderException(int statusCode, String message, long retryAfterMillis) {
+        super("HTTP " + statusCode + ": " + message);
+        this.statusCode = statusCode;
+        this.retryAfterMillis = retryAfterMillis;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * 服务端建议的重试等待时间（毫秒），未提供时为 -1
+     */
+    public long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    /**
+     * 是否为可重试的状态码（408、429、5xx 中的临时错误）
+     */
+    public boolean isRetryable() {
+        return statusCode == 408 || statusCode == 429
+                || statusCode == 500 || statusCode == 502
+                || statusCode == 503 || statusCode == 504;
+    }
+}
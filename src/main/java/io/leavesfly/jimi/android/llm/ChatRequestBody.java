@@ -0,0 +1,99 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.llm.http.RequestBody;
+import io.leavesfly.jimi.android.llm.json.JsonWriter;
+import io.leavesfly.jimi.android.llm.message.Message;
+import io.leavesfly.jimi.android.tool.ToolSchema;
+import io.leavesfly.jimi.android.tool.ToolSchemaSet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * Chat Completions 请求体
+ * <p>
+ * 在写入时才把系统提示词、历史消息和工具列表流式序列化到输出流，
+ * 不构建 JSONObject 树。历史消息直接写入其缓存的编码结果，
+ * 每一步只有新增消息需要序列化。
+ * 历史消息列表是快照，可重复写入（用于连接失效重试）。
+ * 开启 includeUsage 时通过 stream_options 请求服务端在流末尾返回 usage。
+ */
+class ChatRequestBody extends RequestBody {
+
+    private final String modelName;
+    private final String systemPrompt;
+    private final List<Message> history;
+    private final List<ToolSchema> tools;
+    private final boolean includeUsage;
+
+    ChatRequestBody(String modelName, String systemPrompt, List<Message> history, List<ToolSchema> tools,
+                    boolean includeUsage) {
+        this.modelName = modelName;
+        this.systemPrompt = systemPrompt;
+        this.history = history;
+        this.tools = tools;
+        this.includeUsage = includeUsage;
+    }
+
+    @Override
+    public long contentLength() {
+        return -1;
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginObject();
+        writer.name("model").value(modelName);
+        writer.name("stream").value(true);
+        if (includeUsage) {
+            writer.name("stream_options").beginObject();
+            writer.name("include_usage").value(true);
+            writer.endObject();
+        }
+
+        // messages 数组
+        writer.name("messages").beginArray();
+        if (systemPrompt != null && !systemPrompt.isEmpty()) {
+            writer.beginObject();
+            writer.name("role").value("system");
+            writer.name("content").value(systemPrompt);
+            writer.endObject();
+        }
+        if (history != null) {
+            for (Message msg : history) {
+                writer.rawValue(msg.toJsonBytes());
+            }
+        }
+        writer.endArray();
+
+        // tools 数组
+        if (tools != null && !tools.isEmpty()) {
+            writer.name("tools");
+            if (tools instanceof ToolSchemaSet) {
+                // 注册表已预先序列化
+                writer.rawValue(((ToolSchemaSet) tools).getEncodedJson());
+            } else {
+                writer.beginArray();
+                for (ToolSchema tool : tools) {
+                    tool.writeJson(writer);
+                }
+                writer.endArray();
+            }
+        }
+
+        writer.endObject();
+        writer.flush();
+    }
+
+    /**
+     * 序列化为定长请求体（用于不接受 chunked 请求的网关）
+     */
+    RequestBody toFixedLength() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(8 * 1024);
+        writeTo(out);
+        return RequestBody.of(out.toByteArray());
+    }
+}
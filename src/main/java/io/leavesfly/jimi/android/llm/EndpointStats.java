@@ -0,0 +1,90 @@
+package io.leavesfly.jimi.android.llm;
+
+import java.util.Locale;
+
+/**
+ * 负载均衡端点统计快照
+ */
+public class EndpointStats {
+
+    private final String name;
+    private final int outstanding;
+    private final long totalRequests;
+    private final long failedRequests;
+    private final double ewmaLatencyMillis;
+    private final boolean ejected;
+    private final long ejectionCount;
+
+    public EndpointStats(String name, int outstanding, long totalRequests, long failedRequests,
+                         double ewmaLatencyMillis, boolean ejected, long ejectionCount) {
+        this.name = name;
+        this.outstanding = outstanding;
+        this.totalRequests = totalRequests;
+        this.failedRequests = failedRequests;
+        this.ewmaLatencyMillis = ewmaLatencyMillis;
+        this.ejected = ejected;
+        this.ejectionCount = ejectionCount;
+    }
+
+    /**
+     * 端点名称（通常为 baseUrl）
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 进行中的请求数
+     */
+    public int getOutstanding() {
+        return outstanding;
+    }
+
+    /**
+     * 累计分配的请求数
+     */
+    public long getTotalRequests() {
+        return totalRequests;
+    }
+
+    /**
+     * 累计失败的请求数（不含取消与背压拒绝）
+     */
+    public long getFailedRequests() {
+        return failedRequests;
+    }
+
+    /**
+     * 首包延迟的指数加权移动平均（毫秒），尚无样本时为 0
+     */
+    public double getEwmaLatencyMillis() {
+        return ewmaLatencyMillis;
+    }
+
+    /**
+     * 当前是否被摘除
+     */
+    public boolean isEjected() {
+        return ejected;
+    }
+
+    /**
+     * 累计被摘除次数
+     */
+    public long getEjectionCount() {
+        return ejectionCount;
+    }
+
+    @Override
+    public String toString() {
+        return "EndpointStats{" +
+                "name='" + name + '\'' +
+                ", outstanding=" + outstanding +
+                ", total=" + totalRequests +
+                ", failed=" + failedRequests +
+                ", ewmaLatencyMillis=" + String.format(Locale.ROOT, "%.1f", ewmaLatencyMillis) +
+                ", ejected=" + ejected +
+                ", ejections=" + ejectionCount +
+                '}';
+    }
+}
@@ -0,0 +1,72 @@
+package io.leavesfly.jimi.android.llm;
+
+/**
+ * 执行器统计快照
+ */
+public class ExecutorStats {
+
+    private final int activeCount;
+    private final int queuedCount;
+    private final long rejectedCount;
+    private final long completedCount;
+    private final int maxConcurrency;
+    private final int queueCapacity;
+
+    public ExecutorStats(int activeCount, int queuedCount, long rejectedCount, long completedCount,
+                         int maxConcurrency, int queueCapacity) {
+        this.activeCount = activeCount;
+        this.queuedCount = queuedCount;
+        this.rejectedCount = rejectedCount;
+        this.completedCount = completedCount;
+        this.maxConcurrency = maxConcurrency;
+        this.queueCapacity = queueCapacity;
+    }
+
+    /**
+     * 正在执行的任务数
+     */
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    /**
+     * 排队等待的任务数
+     */
+    public int getQueuedCount() {
+        return queuedCount;
+    }
+
+    /**
+     * 累计被拒绝的任务数
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * 累计完成的任务数（近似值）
+     */
+    public long getCompletedCount() {
+        return completedCount;
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    @Override
+    public String toString() {
+        return "ExecutorStats{" +
+                "active=" + activeCount +
+                ", queued=" + queuedCount +
+                ", rejected=" + rejectedCount +
+                ", completed=" + completedCount +
+                ", maxConcurrency=" + maxConcurrency +
+                ", queueCapacity=" + queueCapacity +
+                '}';
+    }
+}
@@ -1,28 +1,30 @@
 package io.leavesfly.jimi.android.llm;
 
+import io.leavesfly.jimi.android.llm.http.HttpRequest;
+import io.leavesfly.jimi.android.llm.http.HttpResponse;
+import io.leavesfly.jimi.android.llm.http.HttpTransport;
+import io.leavesfly.jimi.android.llm.http.UrlConnectionTransport;
 import io.leavesfly.jimi.android.llm.message.Message;
 import io.leavesfly.jimi.android.tool.ToolSchema;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
-import java.util.ArrayList;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.Locale;
+import java.util.TimeZone;
+import java.util.concurrent.RejectedExecutionException;
 
 /**
- * 基于 HttpURLConnection 的 ChatProvider 实现
+ * 基于 HTTP 的 ChatProvider 实现
  * - 零第三方依赖
  * - 支持 SSE 流式响应
  * - 兼容 OpenAI API 标准（Kimi/DeepSeek/Qwen 等）
+ * - 通过 HttpTransport 发送请求，默认使用 UrlConnectionTransport（遵循系统代理，复用平台 keep-alive 连接）
+ * - 流式请求在有界执行器上运行，超出并发与队列上限时通过 onError 反馈背压
+ * - 可选记录每次请求的连接、发送、首字节、首 token 与数据块间隔耗时，关闭时不产生额外开销
  */
 public class HttpChatProvider implements ChatProvider {
 
@@ -30,20 +32,49 @@ public class HttpChatProvider implements ChatProvider {
     private static final int CONNECT_TIMEOUT = 30_000;
     private static final int READ_TIMEOUT = 120_000;
 
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+    public static final int DEFAULT_QUEUE_CAPACITY = 16;
+
     private final String modelName;
     private final String baseUrl;
     private final String apiKey;
     private final int maxContextSize;
-    private final ExecutorService executor;
+    private final HttpTransport transport;
+    private final boolean chunkedRequestBody;
+    private final boolean streamUsage;
+    private final boolean recordTimings;
+    private final BoundedExecutor executor;
 
     private volatile boolean isShutdown = false;
 
     public HttpChatProvider(String modelName, String baseUrl, String apiKey, int maxContextSize) {
-        this.modelName = modelName;
+        this(modelName, baseUrl, apiKey, maxContextSize, new UrlConnectionTransport());
+    }
+
+    /**
+     * @param transport HTTP 传输层，由本 Provider 持有并在 shutdown 时关闭
+     */
+    public HttpChatProvider(String modelName, String baseUrl, String apiKey, int maxContextSize,
+                            HttpTransport transport) {
+        this(builder()
+                .modelName(modelName)
+                .baseUrl(baseUrl)
+                .apiKey(apiKey)
+                .maxContextSize(maxContextSize)
+                .transport(transport));
+    }
+
+    private HttpChatProvider(Builder builder) {
+        String baseUrl = builder.baseUrl;
+        this.modelName = builder.modelName;
         this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
-        this.apiKey = apiKey;
-        this.maxContextSize = maxContextSize;
-        this.executor = Executors.newCachedThreadPool();
+        this.apiKey = builder.apiKey;
+        this.maxContextSize = builder.maxContextSize;
+        this.transport = builder.transport != null ? builder.transport : new UrlConnectionTransport();
+        this.chunkedRequestBody = builder.chunkedRequestBody;
+        this.streamUsage = builder.streamUsage;
+        this.recordTimings = builder.recordTimings;
+        this.executor = new BoundedExecutor("jimi-llm", builder.maxConcurrency, builder.queueCapacity);
     }
 
     @Override
@@ -56,247 +87,316 @@ public class HttpChatProvider implements ChatProvider {
         return maxContextSize;
     }
 
+    /**
+     * 获取 HTTP 传输层
+     */
+    public HttpTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * 获取执行器统计（正在执行、排队、被拒绝的请求数）
+     */
+    public ExecutorStats getExecutorStats() {
+        return executor.getStats();
+    }
+
     @Override
     public void generateStream(
             String systemPrompt,
             List<Message> history,
             List<ToolSchema> tools,
             StreamCallback<ChatCompletionChunk> callback) {
+        openStream(systemPrompt, history, tools, callback);
+    }
 
+    @Override
+    public StreamHandle openStream(
+            String systemPrompt,
+            List<Message> history,
+            List<ToolSchema> tools,
+            StreamCallback<ChatCompletionChunk> callback) {
+
+        StreamCall<ChatCompletionChunk> call = new StreamCall<>(callback);
+        if (recordTimings) {
+            call.setTimings(new StreamTimings());
+        }
         if (isShutdown) {
-            callback.onError(new IllegalStateException("ChatProvider has been shutdown"));
-            return;
+            call.error(new IllegalStateException("ChatProvider has been shutdown"));
+            return call;
         }
 
-        executor.execute(() -> {
-            HttpURLConnection connection = null;
-            try {
-                // 创建连接
-                URL url = new URL(baseUrl + "/chat/completions");
-                connection = (HttpURLConnection) url.openConnection();
-                connection.setRequestMethod("POST");
-                connection.setDoOutput(true);
-                connection.setRequestProperty("Content-Type", "application/json");
-                connection.setRequestProperty("Authorization", "Bearer " + apiKey);
-                connection.setRequestProperty("Accept", "text/event-stream");
-                connection.setConnectTimeout(CONNECT_TIMEOUT);
-                connection.setReadTimeout(READ_TIMEOUT);
-
-                // 构建请求体
-                String requestBody = buildRequestBody(systemPrompt, history, tools);
-
-                // 发送请求
-                try (OutputStream os = connection.getOutputStream()) {
-                    os.write(requestBody.getBytes("UTF-8"));
-                    os.flush();
-                }
-
-                // 检查响应码
-                int responseCode = connection.getResponseCode();
-                if (responseCode != 200) {
-                    String error = readErrorResponse(connection);
-                    callback.onError(new IOException("HTTP " + responseCode + ": " + error));
-                    return;
-                }
-
-                // 解析 SSE 流
-                parseSSEStream(connection.getInputStream(), callback);
-
-            } catch (Exception e) {
-                callback.onError(e);
-            } finally {
-                if (connection != null) {
-                    connection.disconnect();
-                }
-            }
-        });
+        try {
+            executor.execute(() -> streamChat(systemPrompt, history, tools, call));
+        } catch (RejectedExecutionException e) {
+            // 背压：并发与队列已满时立即失败，而不是无限制创建线程
+            call.error(e);
+        }
+        return call;
     }
 
     /**
-     * 构建 OpenAI 格式的请求体
+     * 在执行器线程中发送请求并解析流式响应
      */
-    private String buildRequestBody(
+    private void streamChat(
             String systemPrompt,
             List<Message> history,
-            List<ToolSchema> tools) throws Exception {
-
-        JSONObject json = new JSONObject();
-        json.put("model", modelName);
-        json.put("stream", true);
+            List<ToolSchema> tools,
+            StreamCall<ChatCompletionChunk> call) {
 
-        // 构建 messages 数组
-        JSONArray messages = new JSONArray();
+        // 排队期间已被取消
+        if (call.isCancelled()) {
+            return;
+        }
 
-        // System message
-        if (systemPrompt != null && !systemPrompt.isEmpty()) {
-            JSONObject systemMsg = new JSONObject();
-            systemMsg.put("role", "system");
-            systemMsg.put("content", systemPrompt);
-            messages.put(systemMsg);
+        StreamTimings timings = call.getTimings();
+        if (timings != null) {
+            timings.started();
         }
 
-        // History messages
-        if (history != null) {
-            for (Message msg : history) {
-                messages.put(msg.toJson());
+        HttpResponse response = null;
+        try {
+            // 请求体在发送时流式序列化
+            ChatRequestBody body = new ChatRequestBody(modelName, systemPrompt, history, tools, streamUsage);
+
+            HttpRequest request = HttpRequest.builder()
+                    .url(baseUrl + "/chat/completions")
+                    .header("Content-Type", "application/json")
+                    .header("Authorization", "Bearer " + apiKey)
+                    .header("Accept", "text/event-stream")
+                    .connectTimeout(CONNECT_TIMEOUT)
+                    .readTimeout(READ_TIMEOUT)
+                    .post(chunkedRequestBody ? body : body.toFixedLength())
+                    .eventListener(timings)
+                    .cancelSignal(call)
+                    .build();
+
+            // 发送请求；拿到响应前的取消由传输层通过 cancelSignal 关闭连接
+            response = transport.execute(request);
+
+            // 拿到响应后取消时断开连接，阻塞在读取上的线程会立即退出
+            call.onCancel(response::abort);
+
+            // 检查响应码
+            int responseCode = response.getStatusCode();
+            if (responseCode != 200) {
+                String error = readErrorResponse(response);
+                finishTimings(timings);
+                call.error(new ChatProviderException(
+                        responseCode, error, parseRetryAfter(response.getHeader("Retry-After"))));
+                return;
             }
-        }
 
-        json.put("messages", messages);
+            // 解析 SSE 流
+            parseSSEStream(response.getBody(), call, timings);
+
+            // 先归还连接再通知完成，保证下一步请求可以复用该连接
+            response.close();
+            response = null;
+            finishTimings(timings);
+            call.complete();
 
-        // Tools
-        if (tools != null && !tools.isEmpty()) {
-            JSONArray toolsArray = new JSONArray();
-            for (ToolSchema tool : tools) {
-                toolsArray.put(tool.toJson());
+        } catch (Exception e) {
+            if (response != null) {
+                // 出错的连接不再复用
+                response.abort();
+                response = null;
+            }
+            finishTimings(timings);
+            // 已取消的请求回调已终止，这里的错误会被忽略
+            call.error(e);
+        } finally {
+            if (response != null) {
+                // 响应体读完后连接归还连接池
+                response.close();
             }
-            json.put("tools", toolsArray);
         }
-
-        return json.toString();
     }
 
     /**
-     * 解析 SSE 流
+     * 解析 SSE 流，读到 [DONE] 或流结束时返回
      */
     private void parseSSEStream(
             InputStream inputStream,
-            StreamCallback<ChatCompletionChunk> callback) throws IOException {
-
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(inputStream, "UTF-8"))) {
-
-            String line;
-            while ((line = reader.readLine()) != null) {
-                // 跳过空行
-                if (line.isEmpty()) {
-                    continue;
+            StreamCall<ChatCompletionChunk> call,
+            StreamTimings timings) throws IOException {
+
+        try (InputStream in = inputStream) {
+            SseDecoder decoder = new SseDecoder(in);
+            decoder.decode((buffer, offset, length) -> {
+                // 结束标记或已取消
+                if (SseDecoder.isDone(buffer, offset, length) || call.isCancelled()) {
+                    return false;
+                }
+                if (length == 0) {
+                    return true;
                 }
 
-                // SSE 格式: "data: {...}"
-                if (line.startsWith("data: ")) {
-                    String json = line.substring(6).trim();
-
-                    // 结束标记
-                    if ("[DONE]".equals(json)) {
-                        callback.onComplete();
-                        return;
-                    }
-
-                    try {
-                        ChatCompletionChunk chunk = parseChunk(json);
-                        if (chunk != null) {
-                            callback.onNext(chunk);
-                        }
-                    } catch (Exception e) {
-                        // 解析单个 chunk 失败，记录警告但继续处理
-                        System.err.println(TAG + ": Parse chunk failed: " + e.getMessage());
+                try {
+                    ChatCompletionChunk chunk = ChatCompletionChunkDecoder.decode(buffer, offset, length);
+                    if (timings != null) {
+                        timings.chunkReceived(chunk.hasContent());
                     }
+                    call.next(chunk);
+                } catch (Exception e) {
+                    // 解析单个 chunk 失败，记录警告但继续处理
+                    System.err.println(TAG + ": Parse chunk failed: " + e.getMessage());
                 }
-            }
-            // 流结束但没有 [DONE] 标记
-            callback.onComplete();
+                return true;
+            });
         }
     }
 
-    /**
-     * 解析单个响应块
-     */
-    private ChatCompletionChunk parseChunk(String json) throws Exception {
-        JSONObject obj = new JSONObject(json);
-
-        ChatCompletionChunk chunk = new ChatCompletionChunk();
-        chunk.setId(obj.optString("id", null));
-
-        JSONArray choices = obj.optJSONArray("choices");
-        if (choices != null && choices.length() > 0) {
-            JSONObject choice = choices.getJSONObject(0);
-            JSONObject delta = choice.optJSONObject("delta");
-
-            if (delta != null) {
-                // 解析内容
-                String content = delta.optString("content", null);
-                if (content != null && !content.isEmpty()) {
-                    chunk.setContent(content);
-                }
-
-                // 解析工具调用
-                JSONArray toolCalls = delta.optJSONArray("tool_calls");
-                if (toolCalls != null && toolCalls.length() > 0) {
-                    chunk.setToolCalls(parseToolCallDeltas(toolCalls));
-                }
-            }
-
-            // 检查结束原因
-            String finishReason = choice.optString("finish_reason", null);
-            if (finishReason != null && !"null".equals(finishReason)) {
-                chunk.setFinishReason(finishReason);
-            }
-        }
-
-        // 解析 usage（部分 API 会在最后一个 chunk 返回）
-        JSONObject usage = obj.optJSONObject("usage");
-        if (usage != null) {
-            chunk.setPromptTokens(usage.optInt("prompt_tokens", 0));
-            chunk.setCompletionTokens(usage.optInt("completion_tokens", 0));
+    private static void finishTimings(StreamTimings timings) {
+        if (timings != null) {
+            timings.finished();
         }
-
-        return chunk;
     }
 
     /**
-     * 解析工具调用增量列表
+     * 读取错误响应
      */
-    private List<ToolCallDelta> parseToolCallDeltas(JSONArray array) throws Exception {
-        List<ToolCallDelta> result = new ArrayList<>();
-        for (int i = 0; i < array.length(); i++) {
-            JSONObject obj = array.getJSONObject(i);
-            ToolCallDelta delta = new ToolCallDelta();
-            delta.setIndex(obj.optInt("index", 0));
-            delta.setId(obj.optString("id", null));
-            delta.setType(obj.optString("type", null));
-
-            JSONObject function = obj.optJSONObject("function");
-            if (function != null) {
-                String name = function.optString("name", null);
-                if (name != null && !name.isEmpty()) {
-                    delta.setFunctionName(name);
-                }
-                String arguments = function.optString("arguments", null);
-                if (arguments != null) {
-                    delta.setFunctionArguments(arguments);
-                }
+    private String readErrorResponse(HttpResponse response) {
+        try {
+            String error = response.readBodyAsString();
+            if (!error.isEmpty()) {
+                return error;
             }
-            result.add(delta);
+        } catch (Exception e) {
+            // ignore
         }
-        return result;
+        return "Unknown error";
     }
 
     /**
-     * 读取错误响应
+     * 解析 Retry-After 响应头（秒数或 HTTP 日期）
+     *
+     * @return 等待毫秒数，无法解析时返回 -1
      */
-    private String readErrorResponse(HttpURLConnection connection) {
+    static long parseRetryAfter(String value) {
+        if (value == null || value.isEmpty()) {
+            return -1;
+        }
         try {
-            InputStream es = connection.getErrorStream();
-            if (es != null) {
-                BufferedReader reader = new BufferedReader(new InputStreamReader(es, "UTF-8"));
-                StringBuilder sb = new StringBuilder();
-                String line;
-                while ((line = reader.readLine()) != null) {
-                    sb.append(line);
-                }
-                reader.close();
-                return sb.toString();
-            }
-        } catch (Exception e) {
-            // ignore
+            return Math.max(0, Long.parseLong(value.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            // 继续尝试按 HTTP 日期解析
+        }
+        try {
+            SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+            format.setTimeZone(TimeZone.getTimeZone("GMT"));
+            Date date = format.parse(value.trim());
+            return Math.max(0, date.getTime() - System.currentTimeMillis());
+        } catch (ParseException e) {
+            return -1;
         }
-        return "Unknown error";
     }
 
     @Override
     public void shutdown() {
         isShutdown = true;
         executor.shutdown();
+        transport.shutdown();
+    }
+
+    /**
+     * 创建 Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private String modelName;
+        private String baseUrl;
+        private String apiKey;
+        private int maxContextSize;
+        private HttpTransport transport;
+        private boolean chunkedRequestBody = true;
+        private boolean streamUsage = true;
+        private boolean recordTimings = false;
+        private int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
+        private int queueCapacity = DEFAULT_QUEUE_CAPACITY;
+
+        public Builder modelName(String modelName) {
+            this.modelName = modelName;
+            return this;
+        }
+
+        public Builder baseUrl(String baseUrl) {
+            this.baseUrl = baseUrl;
+            return this;
+        }
+
+        public Builder apiKey(String apiKey) {
+            this.apiKey = apiKey;
+            return this;
+        }
+
+        public Builder maxContextSize(int maxContextSize) {
+            this.maxContextSize = maxContextSize;
+            return this;
+        }
+
+        /**
+         * HTTP 传输层，由 Provider 持有并在 shutdown 时关闭，默认使用 UrlConnectionTransport
+         * PooledHttpTransport 直接使用 Socket，不经过系统代理，需要时显式指定
+         */
+        public Builder transport(HttpTransport transport) {
+            this.transport = transport;
+            return this;
+        }
+
+        /**
+         * 是否以 chunked 编码流式发送请求体（默认 true）
+         * 对不接受 chunked 请求的网关可关闭，请求体将先序列化为字节数组
+         */
+        public Builder chunkedRequestBody(boolean chunkedRequestBody) {
+            this.chunkedRequestBody = chunkedRequestBody;
+            return this;
+        }
+
+        /**
+         * 是否请求服务端在流末尾返回 token 用量（stream_options.include_usage，默认 true）
+         * 对不识别 stream_options 的网关可关闭
+         */
+        public Builder streamUsage(boolean streamUsage) {
+            this.streamUsage = streamUsage;
+            return this;
+        }
+
+        /**
+         * 是否记录每次请求的耗时（默认 false），记录结果通过 StreamHandle.getTimings() 获取
+         */
+        public Builder recordTimings(boolean recordTimings) {
+            this.recordTimings = recordTimings;
+            return this;
+        }
+
+        /**
+         * 最大并发流式请求数
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * 等待执行的请求队列容量，队列满时新请求通过 onError 收到 RejectedExecutionException
+         */
+        public Builder queueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+            return this;
+        }
+
+        public HttpChatProvider build() {
+            if (modelName == null || modelName.isEmpty()) {
+                throw new IllegalArgumentException("modelName cannot be null or empty");
+            }
+            if (baseUrl == null || baseUrl.isEmpty()) {
+                throw new IllegalArgumentException("baseUrl cannot be null or empty");
+            }
+            return new HttpChatProvider(this);
+        }
     }
 }
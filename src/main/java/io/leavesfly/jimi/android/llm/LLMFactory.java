@@ -1,5 +1,9 @@
 package io.leavesfly.jimi.android.llm;
 
+import io.leavesfly.jimi.android.llm.http.ConnectionPool;
+import io.leavesfly.jimi.android.llm.http.HttpTransport;
+import io.leavesfly.jimi.android.llm.http.PooledHttpTransport;
+import io.leavesfly.jimi.android.llm.http.UrlConnectionTransport;
 import io.leavesfly.jimi.android.sdk.JimiConfig;
 
 /**
@@ -15,12 +19,51 @@ public class LLMFactory {
      * @return LLM 实例
      */
     public static LLM create(JimiConfig config) {
-        return create(
-                config.getModelName(),
-                config.getBaseUrl(),
-                config.getApiKey(),
-                config.getMaxContextSize()
-        );
+        ChatProvider endpointProvider;
+        if (config.getAdditionalEndpoints().isEmpty()) {
+            endpointProvider = createHttpProvider(config, config.getBaseUrl(), config.getApiKey());
+        } else {
+            // 多端点：每个端点独立的 HttpChatProvider，由负载均衡器分配请求
+            LoadBalancingChatProvider.Builder balancer = LoadBalancingChatProvider.builder()
+                    .strategy(config.getLoadBalancingStrategy())
+                    .addEndpoint(config.getBaseUrl(),
+                            createHttpProvider(config, config.getBaseUrl(), config.getApiKey()));
+            for (JimiConfig.Endpoint endpoint : config.getAdditionalEndpoints()) {
+                String apiKey = endpoint.getApiKey() != null ? endpoint.getApiKey() : config.getApiKey();
+                balancer.addEndpoint(endpoint.getBaseUrl(),
+                        createHttpProvider(config, endpoint.getBaseUrl(), apiKey));
+            }
+            endpointProvider = balancer.build();
+        }
+        RetryPolicy retryPolicy = RetryPolicy.builder()
+                .maxAttempts(config.getLlmMaxAttempts())
+                .initialBackoffMillis(config.getLlmRetryInitialBackoffMillis())
+                .maxBackoffMillis(config.getLlmRetryMaxBackoffMillis())
+                .hedgingEnabled(config.isLlmHedgingEnabled())
+                .build();
+        ChatProvider chatProvider = new RetryingChatProvider(endpointProvider, retryPolicy);
+        return new LLM(config.getModelName(), chatProvider, config.getMaxContextSize());
+    }
+
+    private static HttpChatProvider createHttpProvider(JimiConfig config, String baseUrl, String apiKey) {
+        // 默认走 HttpURLConnection：遵循系统代理设置，并复用平台的 keep-alive 连接
+        HttpTransport transport = config.isPooledHttpTransport()
+                ? new PooledHttpTransport(new ConnectionPool(
+                        config.getMaxIdleConnections(),
+                        config.getKeepAliveDurationMillis()))
+                : new UrlConnectionTransport();
+        return HttpChatProvider.builder()
+                .modelName(config.getModelName())
+                .baseUrl(baseUrl)
+                .apiKey(apiKey)
+                .maxContextSize(config.getMaxContextSize())
+                .transport(transport)
+                .chunkedRequestBody(config.isChunkedRequestBody())
+                .streamUsage(config.isStreamUsage())
+                .recordTimings(config.isStreamMetricsEnabled())
+                .maxConcurrency(config.getLlmMaxConcurrency())
+                .queueCapacity(config.getLlmQueueCapacity())
+                .build();
     }
 
     /**
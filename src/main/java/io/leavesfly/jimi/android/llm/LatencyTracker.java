@@ -0,0 +1,58 @@
+package io.leavesfly.jimi.android.llm;
+
+import java.util.Arrays;
+
+/**
+ * 延迟采样器
+ * 在固定大小的环形缓冲区中保留最近的样本，用于计算分位数
+ */
+public class LatencyTracker {
+
+    private final long[] samples;
+    private int next = 0;
+    private int count = 0;
+
+    /**
+     * @param capacity 保留的最近样本数
+     */
+    public LatencyTracker(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.samples = new long[capacity];
+    }
+
+    /**
+     * 记录一个样本（毫秒）
+     */
+    public synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        if (count < samples.length) {
+            count++;
+        }
+    }
+
+    /**
+     * 当前样本数
+     */
+    public synchronized int count() {
+        return count;
+    }
+
+    /**
+     * 计算分位数
+     *
+     * @param quantile 分位点，取值 (0, 1]
+     * @return 分位数（毫秒），没有样本时返回 -1
+     */
+    public synchronized long percentile(double quantile) {
+        if (count == 0) {
+            return -1;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(quantile * count) - 1;
+        return sorted[Math.max(0, Math.min(index, count - 1))];
+    }
+}
@@ -0,0 +1,329 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.llm.message.Message;
+import io.leavesfly.jimi.android.tool.ToolSchema;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多端点负载均衡 ChatProvider
+ * <p>
+ * - 在多个兼容 OpenAI API 的端点之间分配流式请求
+ * - LEAST_OUTSTANDING：选择进行中请求最少的端点
+ * - EWMA_LATENCY：按首包延迟 EWMA 与进行中请求数的乘积选择端点
+ * - 连续失败达到阈值的端点被临时摘除，到期后恢复；全部被摘除时仍在全部端点中选择
+ * - 取消、背压拒绝和 4xx 客户端错误不计入端点健康状况
+ */
+public class LoadBalancingChatProvider implements ChatProvider {
+
+    /**
+     * 端点选择策略
+     */
+    public enum Strategy {
+        LEAST_OUTSTANDING,
+        EWMA_LATENCY
+    }
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 3;
+    public static final long DEFAULT_EJECTION_MILLIS = 30_000;
+
+    /** EWMA 平滑系数，越大越偏向最近样本 */
+    private static final double EWMA_ALPHA = 0.3;
+
+    private final List<Endpoint> endpoints;
+    private final Strategy strategy;
+    private final int failureThreshold;
+    private final long ejectionNanos;
+
+    private LoadBalancingChatProvider(Builder builder) {
+        List<Endpoint> list = new ArrayList<>(builder.providers.size());
+        for (int i = 0; i < builder.providers.size(); i++) {
+            list.add(new Endpoint(builder.names.get(i), builder.providers.get(i)));
+        }
+        this.endpoints = Collections.unmodifiableList(list);
+        this.strategy = builder.strategy;
+        this.failureThreshold = builder.failureThreshold;
+        this.ejectionNanos = TimeUnit.MILLISECONDS.toNanos(builder.ejectionMillis);
+    }
+
+    @Override
+    public String getModelName() {
+        return endpoints.get(0).provider.getModelName();
+    }
+
+    @Override
+    public int getMaxContextSize() {
+        return endpoints.get(0).provider.getMaxContextSize();
+    }
+
+    public Strategy getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * 获取各端点统计快照
+     */
+    public List<EndpointStats> getEndpointStats() {
+        long now = System.nanoTime();
+        List<EndpointStats> stats = new ArrayList<>(endpoints.size());
+        for (Endpoint endpoint : endpoints) {
+            stats.add(endpoint.snapshot(now));
+        }
+        return stats;
+    }
+
+    @Override
+    public void generateStream(
+            String systemPrompt,
+            List<Message> history,
+            List<ToolSchema> tools,
+            StreamCallback<ChatCompletionChunk> callback) {
+        openStream(systemPrompt, history, tools, callback);
+    }
+
+    @Override
+    public StreamHandle openStream(
+            String systemPrompt,
+            List<Message> history,
+            List<ToolSchema> tools,
+            StreamCallback<ChatCompletionChunk> callback) {
+
+        Endpoint endpoint = select();
+        endpoint.outstanding.incrementAndGet();
+        endpoint.totalRequests.incrementAndGet();
+        return endpoint.provider.openStream(systemPrompt, history, tools,
+                new TrackingCallback(endpoint, callback));
+    }
+
+    /**
+     * 选择端点，从随机位置开始扫描使得分相同的端点轮流被选中
+     */
+    private Endpoint select() {
+        long now = System.nanoTime();
+        int size = endpoints.size();
+        int start = size == 1 ? 0 : ThreadLocalRandom.current().nextInt(size);
+
+        Endpoint best = null;
+        double bestScore = Double.MAX_VALUE;
+        for (int i = 0; i < size; i++) {
+            Endpoint endpoint = endpoints.get((start + i) % size);
+            if (endpoint.isEjected(now)) {
+                continue;
+            }
+            double score = score(endpoint);
+            if (score < bestScore) {
+                best = endpoint;
+                bestScore = score;
+            }
+        }
+        if (best != null) {
+            return best;
+        }
+
+        // 全部被摘除：选择最早恢复的端点，避免整体不可用
+        for (Endpoint endpoint : endpoints) {
+            if (best == null || endpoint.ejectedUntilNanos < best.ejectedUntilNanos) {
+                best = endpoint;
+            }
+        }
+        return best;
+    }
+
+    private double score(Endpoint endpoint) {
+        int outstanding = endpoint.outstanding.get();
+        if (strategy == Strategy.EWMA_LATENCY) {
+            // 尚无样本的端点延迟按 0 计，保证新端点会被尝试
+            return (endpoint.getEwmaLatencyMillis() + 1) * (outstanding + 1);
+        }
+        return outstanding;
+    }
+
+    /**
+     * 判断错误是否反映端点健康问题
+     */
+    private static boolean isEndpointFailure(Throwable error) {
+        if (error instanceof ChatProviderException) {
+            return ((ChatProviderException) error).isRetryable();
+        }
+        return error instanceof IOException;
+    }
+
+    @Override
+    public void shutdown() {
+        for (Endpoint endpoint : endpoints) {
+            endpoint.provider.shutdown();
+        }
+    }
+
+    /**
+     * 创建 Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 单个端点及其运行状态
+     */
+    private final class Endpoint {
+        final String name;
+        final ChatProvider provider;
+        final AtomicInteger outstanding = new AtomicInteger();
+        final AtomicLong totalRequests = new AtomicLong();
+        final AtomicLong failedRequests = new AtomicLong();
+        final AtomicLong ejectionCount = new AtomicLong();
+
+        private double ewmaLatencyMillis = 0;
+        private int consecutiveFailures = 0;
+        private volatile long ejectedUntilNanos = 0;
+
+        Endpoint(String name, ChatProvider provider) {
+            this.name = name;
+            this.provider = provider;
+        }
+
+        boolean isEjected(long now) {
+            long until = ejectedUntilNanos;
+            return until != 0 && now - until < 0;
+        }
+
+        synchronized double getEwmaLatencyMillis() {
+            return ewmaLatencyMillis;
+        }
+
+        synchronized void recordLatency(long millis) {
+            ewmaLatencyMillis = ewmaLatencyMillis == 0
+                    ? millis
+                    : EWMA_ALPHA * millis + (1 - EWMA_ALPHA) * ewmaLatencyMillis;
+        }
+
+        synchronized void recordSuccess() {
+            consecutiveFailures = 0;
+        }
+
+        synchronized void recordFailure() {
+            failedRequests.incrementAndGet();
+            consecutiveFailures++;
+            // 恢复后的端点再失败一次即重新摘除
+            long now = System.nanoTime();
+            if (consecutiveFailures >= failureThreshold && !isEjected(now)) {
+                ejectedUntilNanos = now + ejectionNanos;
+                ejectionCount.incrementAndGet();
+            }
+        }
+
+        synchronized EndpointStats snapshot(long now) {
+            return new EndpointStats(name, outstanding.get(), totalRequests.get(), failedRequests.get(),
+                    ewmaLatencyMillis, isEjected(now), ejectionCount.get());
+        }
+    }
+
+    /**
+     * 记录端点延迟与结果的回调包装
+     */
+    private static final class TrackingCallback implements StreamCallback<ChatCompletionChunk> {
+        private final Endpoint endpoint;
+        private final StreamCallback<ChatCompletionChunk> callback;
+        private final long startNanos = System.nanoTime();
+        private boolean firstEventSeen = false;
+
+        TrackingCallback(Endpoint endpoint, StreamCallback<ChatCompletionChunk> callback) {
+            this.endpoint = endpoint;
+            this.callback = callback;
+        }
+
+        private void onFirstEvent() {
+            if (!firstEventSeen) {
+                firstEventSeen = true;
+                endpoint.recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+            }
+        }
+
+        @Override
+        public void onNext(ChatCompletionChunk chunk) {
+            onFirstEvent();
+            callback.onNext(chunk);
+        }
+
+        @Override
+        public void onComplete() {
+            onFirstEvent();
+            endpoint.outstanding.decrementAndGet();
+            endpoint.recordSuccess();
+            callback.onComplete();
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            endpoint.outstanding.decrementAndGet();
+            if (isEndpointFailure(error)) {
+                endpoint.recordFailure();
+            }
+            callback.onError(error);
+        }
+    }
+
+    public static class Builder {
+        private final List<String> names = new ArrayList<>();
+        private final List<ChatProvider> providers = new ArrayList<>();
+        private Strategy strategy = Strategy.LEAST_OUTSTANDING;
+        private int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+        private long ejectionMillis = DEFAULT_EJECTION_MILLIS;
+
+        /**
+         * 添加端点
+         *
+         * @param name     端点名称，用于统计（通常为 baseUrl）
+         * @param provider 端点对应的 ChatProvider，由负载均衡器持有并在 shutdown 时关闭
+         */
+        public Builder addEndpoint(String name, ChatProvider provider) {
+            names.add(name);
+            providers.add(provider);
+            return this;
+        }
+
+        public Builder strategy(Strategy strategy) {
+            this.strategy = strategy;
+            return this;
+        }
+
+        /**
+         * 连续失败多少次后摘除端点
+         */
+        public Builder failureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+            return this;
+        }
+
+        /**
+         * 端点被摘除的时长（毫秒）
+         */
+        public Builder ejectionMillis(long ejectionMillis) {
+            this.ejectionMillis = ejectionMillis;
+            return this;
+        }
+
+        public LoadBalancingChatProvider build() {
+            if (providers.isEmpty()) {
+                throw new IllegalArgumentException("At least one endpoint is required");
+            }
+            if (strategy == null) {
+                throw new IllegalArgumentException("strategy cannot be null");
+            }
+            if (failureThreshold <= 0) {
+                throw new IllegalArgumentException("failureThreshold must be positive");
+            }
+            if (ejectionMillis <= 0) {
+                throw new IllegalArgumentException("ejectionMillis must be positive");
+            }
+            return new LoadBalancingChatProvider(this);
+        }
+    }
+}
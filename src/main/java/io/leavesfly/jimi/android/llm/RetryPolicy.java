@@ -0,0 +1,175 @@
+package io.leavesfly.jimi.android.llm;
+
+import java.io.IOException;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * LLM 请求重试与对冲策略
+ * <p>
+ * - 带抖动的指数退避，服务端返回 Retry-After 时优先采用
+ * - 对冲：首个数据块迟迟未到时再发一个相同请求，先返回者胜出
+ */
+public class RetryPolicy {
+
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+    private final double backoffMultiplier;
+    private final long maxRetryAfterMillis;
+    private final boolean hedgingEnabled;
+    private final long hedgeMinDelayMillis;
+    private final long hedgeMaxDelayMillis;
+
+    private RetryPolicy(Builder builder) {
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoffMillis = builder.initialBackoffMillis;
+        this.maxBackoffMillis = builder.maxBackoffMillis;
+        this.backoffMultiplier = builder.backoffMultiplier;
+        this.maxRetryAfterMillis = builder.maxRetryAfterMillis;
+        this.hedgingEnabled = builder.hedgingEnabled;
+        this.hedgeMinDelayMillis = builder.hedgeMinDelayMillis;
+        this.hedgeMaxDelayMillis = builder.hedgeMaxDelayMillis;
+    }
+
+    /**
+     * 最大尝试次数（含首次请求与对冲请求）
+     */
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public boolean isHedgingEnabled() {
+        return hedgingEnabled;
+    }
+
+    public long getHedgeMinDelayMillis() {
+        return hedgeMinDelayMillis;
+    }
+
+    public long getHedgeMaxDelayMillis() {
+        return hedgeMaxDelayMillis;
+    }
+
+    /**
+     * 判断错误是否值得重试
+     * 可重试的 HTTP 状态码与网络层 I/O 错误重试；取消、背压拒绝和其他错误不重试
+     */
+    public boolean isRetryable(Throwable error) {
+        if (error instanceof ChatProviderException) {
+            return ((ChatProviderException) error).isRetryable();
+        }
+        if (error instanceof CancellationException || error instanceof RejectedExecutionException) {
+            return false;
+        }
+        return error instanceof IOException;
+    }
+
+    /**
+     * 计算第 retryNumber 次重试前的等待时间
+     *
+     * @param retryNumber 重试序号，从 1 开始
+     * @param error       上一次失败的错误
+     * @return 等待毫秒数
+     */
+    public long backoffMillis(int retryNumber, Throwable error) {
+        if (error instanceof ChatProviderException) {
+            long retryAfter = ((ChatProviderException) error).getRetryAfterMillis();
+            if (retryAfter >= 0) {
+                return Math.min(retryAfter, maxRetryAfterMillis);
+            }
+        }
+        double exponential = initialBackoffMillis * Math.pow(backoffMultiplier, retryNumber - 1);
+        long ceiling = (long) Math.min(exponential, maxBackoffMillis);
+        // 等值抖动：一半固定，一半随机，避免多个客户端同时重试
+        long half = ceiling / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    /**
+     * 创建 Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private int maxAttempts = 3;
+        private long initialBackoffMillis = 500;
+        private long maxBackoffMillis = 8_000;
+        private double backoffMultiplier = 2.0;
+        private long maxRetryAfterMillis = 30_000;
+        private boolean hedgingEnabled = false;
+        private long hedgeMinDelayMillis = 300;
+        private long hedgeMaxDelayMillis = 10_000;
+
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        public Builder initialBackoffMillis(long initialBackoffMillis) {
+            this.initialBackoffMillis = initialBackoffMillis;
+            return this;
+        }
+
+        public Builder maxBackoffMillis(long maxBackoffMillis) {
+            this.maxBackoffMillis = maxBackoffMillis;
+            return this;
+        }
+
+        public Builder backoffMultiplier(double backoffMultiplier) {
+            this.backoffMultiplier = backoffMultiplier;
+            return this;
+        }
+
+        /**
+         * Retry-After 的最大采纳值，超过时按该值等待
+         */
+        public Builder maxRetryAfterMillis(long maxRetryAfterMillis) {
+            this.maxRetryAfterMillis = maxRetryAfterMillis;
+            return this;
+        }
+
+        /**
+         * 是否启用对冲请求
+         */
+        public Builder hedgingEnabled(boolean hedgingEnabled) {
+            this.hedgingEnabled = hedgingEnabled;
+            return this;
+        }
+
+        /**
+         * 对冲等待时间下限（p95 首包时间低于该值时使用该值）
+         */
+        public Builder hedgeMinDelayMillis(long hedgeMinDelayMillis) {
+            this.hedgeMinDelayMillis = hedgeMinDelayMillis;
+            return this;
+        }
+
+        /**
+         * 对冲等待时间上限（样本不足时也使用该值）
+         */
+        public Builder hedgeMaxDelayMillis(long hedgeMaxDelayMillis) {
+            this.hedgeMaxDelayMillis = hedgeMaxDelayMillis;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            if (maxAttempts <= 0) {
+                throw new IllegalArgumentException("maxAttempts must be positive");
+            }
+            if (initialBackoffMillis < 0 || maxBackoffMillis < initialBackoffMillis) {
+                throw new IllegalArgumentException("Invalid backoff range");
+            }
+            if (backoffMultiplier < 1.0) {
+                throw new IllegalArgumentException("backoffMultiplier must be >= 1.0");
+            }
+            if (hedgeMinDelayMillis <= 0 || hedgeMaxDelayMillis < hedgeMinDelayMillis) {
+                throw new IllegalArgumentException("Invalid hedge delay range");
+            }
+            return new RetryPolicy(this);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.llm.message.Message;
+import io.leavesfly.jimi.android.tool.ToolSchema;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 带重试与对冲的 ChatProvider 装饰器
+ * <p>
+ * - 可重试错误（429/5xx、连接失败等）按 RetryPolicy 退避后重发，优先遵循 Retry-After
+ * - 只在尚未向回调转发任何数据块之前重试，已输出的内容不会重复
+ * - 启用对冲时，首个数据块超过 p95 首包时间仍未到达则再发一个相同请求，
+ *   先产生数据块的请求胜出，另一个被取消
+ * - 退避与对冲定时在单个守护线程上调度，不占用请求线程
+ */
+public class RetryingChatProvider implements ChatProvider {
+
+    private static final double HEDGE_QUANTILE = 0.95;
+    private static final int HEDGE_MIN_SAMPLES = 20;
+    private static final int LATENCY_WINDOW = 100;
+
+    private final ChatProvider delegate;
+    private final RetryPolicy policy;
+    private final LatencyTracker firstChunkLatency = new LatencyTracker(LATENCY_WINDOW);
+    private final ScheduledExecutorService scheduler;
+
+    public RetryingChatProvider(ChatProvider delegate) {
+        this(delegate, RetryPolicy.builder().build());
+    }
+
+    public RetryingChatProvider(ChatProvider delegate, RetryPolicy policy) {
+        this.delegate = delegate;
+        this.policy = policy;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jimi-llm-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public String getModelName() {
+        return delegate.getModelName();
+    }
+
+    @Override
+    public int getMaxContextSize() {
+        return delegate.getMaxContextSize();
+    }
+
+    /**
+     * 获取被装饰的 ChatProvider
+     */
+    public ChatProvider getDelegate() {
+        return delegate;
+    }
+
+    public RetryPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * 当前对冲等待时间（毫秒）
+     * 样本不足时使用上限，否则为 p95 首包时间并限制在 [下限, 上限] 区间内
+     */
+    public long getHedgeDelayMillis() {
+        if (firstChunkLatency.count() < HEDGE_MIN_SAMPLES) {
+            return policy.getHedgeMaxDelayMillis();
+        }
+        long p95 = firstChunkLatency.percentile(HEDGE_QUANTILE);
+        return Math.max(policy.getHedgeMinDelayMillis(), Math.min(p95, policy.getHedgeMaxDelayMillis()));
+    }
+
+    @Override
+    public void generateStream(
+            String systemPrompt,
+            List<Message> history,
+            List<ToolSchema> tools,
+            StreamCallback<ChatCompletionChunk> callback) {
+        openStream(systemPrompt, history, tools, callback);
+    }
+
+    @Override
+    public StreamHandle openStream(
+            String systemPrompt,
+            List<Message> history,
+            List<ToolSchema> tools,
+            StreamCallback<ChatCompletionChunk> callback) {
+
+        StreamCall<ChatCompletionChunk> call = new StreamCall<>(callback);
+        new RetryingStream(systemPrompt, history, tools, call).start();
+        return call;
+    }
+
+    @Override
+    public void shutdown() {
+        scheduler.shutdownNow();
+        delegate.shutdown();
+    }
+
+    /**
+     * 一次逻辑请求，可能包含多次实际尝试
+     */
+    private class RetryingStream {
+
+        private final String systemPrompt;
+        private final List<Message> history;
+        private final List<ToolSchema> tools;
+        private final StreamCall<ChatCompletionChunk> outer;
+
+        /** 正在进行的尝试 */
+        private final List<Attempt> active = new ArrayList<>();
+        private volatile Attempt winner;
+        private int attempts = 0;
+        private boolean hedged = false;
+        private ScheduledFuture<?> pendingTimer;
+
+        RetryingStream(String systemPrompt, List<Message> history, List<ToolSchema> tools,
+                       StreamCall<ChatCompletionChunk> outer) {
+            this.systemPrompt = systemPrompt;
+            this.history = history;
+            this.tools = tools;
+            this.outer = outer;
+        }
+
+        void start() {
+            outer.onCancel(this::cancelAll);
+            launch();
+        }
+
+        /**
+         * 发起一次尝试
+         */
+        private void launch() {
+            Attempt attempt = new Attempt();
+            boolean scheduleHedge;
+            synchronized (this) {
+                if (outer.isTerminated() || winner != null) {
+                    return;
+                }
+                attempts++;
+                active.add(attempt);
+                scheduleHedge = policy.isHedgingEnabled() && !hedged && attempts < policy.getMaxAttempts();
+            }
+
+            attempt.setHandle(delegate.openStream(systemPrompt, history, tools, attempt));
+
+            if (scheduleHedge) {
+                scheduleHedge(attempt);
+            }
+        }
+
+        private void scheduleHedge(Attempt primary) {
+            long delay = getHedgeDelayMillis();
+            synchronized (this) {
+                if (winner != null || !active.contains(primary) || outer.isTerminated()) {
+                    return;
+                }
+                cancelTimer();
+                pendingTimer = schedule(() -> hedge(primary), delay);
+            }
+        }
+
+        /**
+         * 首包超时，发起对冲请求
+         */
+        private void hedge(Attempt primary) {
+            synchronized (this) {
+                if (hedged || winner != null || !active.contains(primary) || outer.isTerminated()) {
+                    return;
+                }
+                hedged = true;
+                pendingTimer = null;
+            }
+            launch();
+        }
+
+        /**
+         * 尝试产生第一个事件时认领胜出，其余尝试被取消
+         *
+         * @return 该尝试是否为胜出者
+         */
+        private boolean claim(Attempt attempt) {
+            if (winner == attempt) {
+                return true;
+            }
+            List<Attempt> losers;
+            synchronized (this) {
+                if (winner != null || attempt.abandoned) {
+                    return winner == attempt;
+                }
+                winner = attempt;
+                cancelTimer();
+                active.remove(attempt);
+                losers = new ArrayList<>(active);
+                active.clear();
+            }
+            firstChunkLatency.record(attempt.elapsedMillis());
+            attempt.publishTimings();
+            for (Attempt loser : losers) {
+                loser.abandon();
+            }
+            return true;
+        }
+
+        private void onAttemptError(Attempt attempt, Throwable error) {
+            synchronized (this) {
+                active.remove(attempt);
+                if (attempt.abandoned || outer.isTerminated()) {
+                    return;
+                }
+                if (winner != null && winner != attempt) {
+                    return;
+                }
+                if (winner == null) {
+                    // 对冲中的另一个尝试仍在进行，由它决定结果
+                    if (!active.isEmpty()) {
+                        return;
+                    }
+                    if (policy.isRetryable(error) && attempts < policy.getMaxAttempts()) {
+                        long delay = policy.backoffMillis(attempts, error);
+                        cancelTimer();
+                        pendingTimer = schedule(this::launch, delay);
+                        if (pendingTimer != null) {
+                            return;
+                        }
+                    }
+                }
+                cancelTimer();
+            }
+            // 已输出数据块、不可重试或次数用尽
+            outer.error(error);
+        }
+
+        private void cancelAll() {
+            List<Attempt> running;
+            synchronized (this) {
+                cancelTimer();
+                running = new ArrayList<>(active);
+                active.clear();
+                if (winner != null) {
+                    running.add(winner);
+                }
+            }
+            for (Attempt attempt : running) {
+                attempt.abandon();
+            }
+        }
+
+        private void cancelTimer() {
+            if (pendingTimer != null) {
+                pendingTimer.cancel(false);
+                pendingTimer = null;
+            }
+        }
+
+        /**
+         * 调度定时任务，Provider 已关闭时返回 null
+         */
+        private ScheduledFuture<?> schedule(Runnable task, long delayMillis) {
+            try {
+                return scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                return null;
+            }
+        }
+
+        /**
+         * 单次实际请求
+         */
+        private class Attempt implements StreamCallback<ChatCompletionChunk> {
+
+            private final long startNanos = System.nanoTime();
+            private volatile StreamHandle handle;
+            private volatile boolean abandoned = false;
+
+            long elapsedMillis() {
+                return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            }
+
+            void setHandle(StreamHandle handle) {
+                this.handle = handle;
+                if (abandoned) {
+                    handle.cancel();
+                } else if (winner == this) {
+                    publishTimings();
+                }
+            }
+
+            /**
+             * 外部句柄的耗时记录取自胜出的尝试
+             */
+            void publishTimings() {
+                StreamHandle h = handle;
+                if (h != null) {
+                    outer.setTimings(h.getTimings());
+                }
+            }
+
+            /**
+             * 放弃该尝试并断开其连接，之后的事件全部忽略
+             */
+            void abandon() {
+                abandoned = true;
+                StreamHandle h = handle;
+                if (h != null) {
+                    h.cancel();
+                }
+            }
+
+            @Override
+            public void onNext(ChatCompletionChunk chunk) {
+                if (claim(this)) {
+                    outer.next(chunk);
+                }
+            }
+
+            @Override
+            public void onComplete() {
+                if (claim(this)) {
+                    outer.complete();
+                }
+            }
+
+            @Override
+            public void onError(Throwable error) {
+                onAttemptError(this, error);
+            }
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package io.leavesfly.jimi.android.llm;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProtocolException;
+
+/**
+ * 字节级 SSE 解码器
+ * <p>
+ * 直接在可复用的字节缓冲区中扫描行边界，只识别 "data:" 字段，
+ * 并把负载以字节区间的形式交给处理器，不为每一行创建 String。
+ * <p>
+ * 说明：
+ * - 与 OpenAI 兼容接口一致，每个 data 行视为一个独立负载
+ * - event/id/retry 字段与注释行会被忽略
+ * - 处理器拿到的字节区间只在回调期间有效
+ */
+public class SseDecoder {
+
+    private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * 单行最大长度，防止异常响应耗尽内存
+     */
+    private static final int MAX_LINE_LENGTH = 4 * 1024 * 1024;
+
+    private static final byte[] DATA_FIELD = {'d', 'a', 't', 'a', ':'};
+    private static final byte[] DONE_MARKER = {'[', 'D', 'O', 'N', 'E', ']'};
+
+    /**
+     * data 负载处理器
+     */
+    public interface DataHandler {
+
+        /**
+         * 处理一个 data 负载
+         *
+         * @param buffer 缓冲区
+         * @param offset 负载起始位置
+         * @param length 负载长度（已去掉首尾空白）
+         * @return 是否继续解码
+         */
+        boolean onData(byte[] buffer, int offset, int length) throws IOException;
+    }
+
+    private final InputStream in;
+    private byte[] buffer;
+
+    public SseDecoder(InputStream in) {
+        this(in, INITIAL_BUFFER_SIZE);
+    }
+
+    public SseDecoder(InputStream in, int bufferSize) {
+        this.in = in;
+        this.buffer = new byte[bufferSize];
+    }
+
+    /**
+     * 解码直到流结束或处理器要求停止
+     *
+     * @param handler 负载处理器
+     * @return 是否因处理器要求而停止（false 表示流已结束）
+     */
+    public boolean decode(DataHandler handler) throws IOException {
+        int lineStart = 0;
+        int scanPos = 0;
+        int end = 0;
+
+        while (true) {
+            // 在已读数据中查找完整的行
+            while (scanPos < end) {
+                if (buffer[scanPos] == '\n') {
+                    if (!processLine(lineStart, scanPos, handler)) {
+                        return true;
+                    }
+                    lineStart = scanPos + 1;
+                }
+                scanPos++;
+            }
+
+            // 把未完成的行移动到缓冲区开头，必要时扩容
+            if (lineStart > 0) {
+                int remaining = end - lineStart;
+                System.arraycopy(buffer, lineStart, buffer, 0, remaining);
+                end = remaining;
+                scanPos = remaining;
+                lineStart = 0;
+            }
+            if (end == buffer.length) {
+                if (buffer.length >= MAX_LINE_LENGTH) {
+                    throw new ProtocolException("SSE line exceeds " + MAX_LINE_LENGTH + " bytes");
+                }
+                byte[] grown = new byte[Math.min(buffer.length * 2, MAX_LINE_LENGTH)];
+                System.arraycopy(buffer, 0, grown, 0, end);
+                buffer = grown;
+            }
+
+            int n = in.read(buffer, end, buffer.length - end);
+            if (n == -1) {
+                // 最后一行可能没有换行符
+                if (end > lineStart) {
+                    return !processLine(lineStart, end, handler);
+                }
+                return false;
+            }
+            end += n;
+        }
+    }
+
+    /**
+     * 处理一行 [start, end)，end 指向换行符或数据末尾
+     */
+    private boolean processLine(int start, int end, DataHandler handler) throws IOException {
+        if (end > start && buffer[end - 1] == '\r') {
+            end--;
+        }
+        if (end - start < DATA_FIELD.length || !regionMatches(buffer, start, DATA_FIELD)) {
+            return true;
+        }
+
+        int offset = start + DATA_FIELD.length;
+        while (offset < end && isWhitespace(buffer[offset])) {
+            offset++;
+        }
+        while (end > offset && isWhitespace(buffer[end - 1])) {
+            end--;
+        }
+        return handler.onData(buffer, offset, end - offset);
+    }
+
+    /**
+     * 判断负载是否为流结束标记 [DONE]
+     */
+    public static boolean isDone(byte[] buffer, int offset, int length) {
+        return length == DONE_MARKER.length && regionMatches(buffer, offset, DONE_MARKER);
+    }
+
+    private static boolean regionMatches(byte[] buffer, int offset, byte[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (buffer[offset + i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
@@ -0,0 +1,105 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.llm.http.CancelSignal;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * StreamHandle 的通用实现，供 ChatProvider 实现使用
+ * <p>
+ * - 保证回调最多收到一次终止事件（onComplete 或 onError），终止后不再转发 onNext
+ * - cancel() 立即以 CancellationException 终止回调，并执行登记的取消动作（如断开连接）
+ *
+ * @param <T> 数据块类型
+ */
+public class StreamCall<T> implements StreamHandle, CancelSignal {
+
+    private final StreamCallback<T> callback;
+    private final AtomicBoolean terminated = new AtomicBoolean(false);
+    private final List<Runnable> cancelActions = new CopyOnWriteArrayList<>();
+    private volatile boolean cancelled = false;
+    private volatile StreamTimings timings;
+
+    public StreamCall(StreamCallback<T> callback) {
+        this.callback = callback;
+    }
+
+    /**
+     * 转发数据块（已终止时忽略）
+     */
+    public void next(T chunk) {
+        if (!terminated.get()) {
+            callback.onNext(chunk);
+        }
+    }
+
+    /**
+     * 正常结束（仅第一次终止事件生效）
+     */
+    public void complete() {
+        if (terminated.compareAndSet(false, true)) {
+            callback.onComplete();
+        }
+    }
+
+    /**
+     * 异常结束（仅第一次终止事件生效）
+     */
+    public void error(Throwable error) {
+        if (terminated.compareAndSet(false, true)) {
+            callback.onError(error);
+        }
+    }
+
+    /**
+     * 是否已终止
+     */
+    public boolean isTerminated() {
+        return terminated.get();
+    }
+
+    /**
+     * 登记取消时执行的动作，已取消时立即执行
+     */
+    @Override
+    public void onCancel(Runnable action) {
+        cancelActions.add(action);
+        if (cancelled && cancelActions.remove(action)) {
+            action.run();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        if (cancelled) {
+            return;
+        }
+        cancelled = true;
+        error(new CancellationException("Stream cancelled"));
+        for (Runnable action : cancelActions) {
+            if (cancelActions.remove(action)) {
+                action.run();
+            }
+        }
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 设置本次请求的耗时记录
+     */
+    public void setTimings(StreamTimings timings) {
+        this.timings = timings;
+    }
+
+    @Override
+    public StreamTimings getTimings() {
+        return timings;
+    }
+}
@@ -0,0 +1,29 @@
+package io.leavesfly.jimi.android.llm;
+
+/**
+ * 流式请求句柄
+ * 由 ChatProvider.openStream 返回，用于取消进行中的请求
+ */
+public interface StreamHandle {
+
+    /**
+     * 取消请求
+     * 回调会立即收到一次 onError(CancellationException)，之后不再收到任何事件；
+     * 底层连接会被断开。对已结束的请求调用无效果。
+     */
+    void cancel();
+
+    /**
+     * 是否已被取消
+     */
+    boolean isCancelled();
+
+    /**
+     * 获取本次请求的耗时记录
+     *
+     * @return 耗时记录，未启用记录时返回 null
+     */
+    default StreamTimings getTimings() {
+        return null;
+    }
+}
@@ -0,0 +1,84 @@
+package io.leavesfly.jimi.android.llm;
+
+/**
+ * 流式请求耗时汇总
+ * 汇总最近若干次请求的 StreamTimings，分位数基于最近的样本窗口，计数与直方图为累计值
+ */
+public class StreamMetrics {
+
+    private static final int DEFAULT_WINDOW = 100;
+
+    private final LatencyTracker connect;
+    private final LatencyTracker firstByte;
+    private final LatencyTracker firstToken;
+    private final LatencyTracker total;
+    private final long[] gapHistogram = new long[StreamTimings.GAP_BUCKET_BOUNDS_MILLIS.length + 1];
+    private long streamCount;
+    private long reusedConnectionCount;
+    private long chunkCount;
+    private long maxChunkGapMillis = -1;
+
+    public StreamMetrics() {
+        this(DEFAULT_WINDOW);
+    }
+
+    /**
+     * @param window 计算分位数时保留的最近样本数
+     */
+    public StreamMetrics(int window) {
+        this.connect = new LatencyTracker(window);
+        this.firstByte = new LatencyTracker(window);
+        this.firstToken = new LatencyTracker(window);
+        this.total = new LatencyTracker(window);
+    }
+
+    /**
+     * 记录一次已结束的流式请求
+     */
+    public void record(StreamTimings timings) {
+        recordIfPresent(connect, timings.getConnectMillis());
+        recordIfPresent(firstByte, timings.getTimeToFirstByteMillis());
+        recordIfPresent(firstToken, timings.getTimeToFirstTokenMillis());
+        recordIfPresent(total, timings.getTotalMillis());
+
+        int[] gaps = timings.getChunkGapHistogram();
+        synchronized (this) {
+            streamCount++;
+            if (timings.isConnectionReused()) {
+                reusedConnectionCount++;
+            }
+            chunkCount += timings.getChunkCount();
+            maxChunkGapMillis = Math.max(maxChunkGapMillis, timings.getMaxChunkGapMillis());
+            for (int i = 0; i < gaps.length; i++) {
+                gapHistogram[i] += gaps[i];
+            }
+        }
+    }
+
+    /**
+     * 获取统计快照
+     */
+    public StreamStats getStats() {
+        synchronized (this) {
+            return new StreamStats(
+                    streamCount,
+                    reusedConnectionCount,
+                    chunkCount,
+                    connect.percentile(0.5),
+                    firstByte.percentile(0.5),
+                    firstByte.percentile(0.95),
+                    firstToken.percentile(0.5),
+                    firstToken.percentile(0.95),
+                    total.percentile(0.5),
+                    total.percentile(0.95),
+                    maxChunkGapMillis,
+                    gapHistogram.clone());
+        }
+    }
+
+    private static void recordIfPresent(LatencyTracker tracker, long millis) {
+        if (millis >= 0) {
+            tracker.record(millis);
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package io.leavesfly.jimi.android.llm;
+
+import java.util.Arrays;
+
+/**
+ * 流式请求耗时统计快照
+ * 分位数单位为毫秒，没有样本时为 -1
+ */
+public class StreamStats {
+
+    private final long streamCount;
+    private final long reusedConnectionCount;
+    private final long chunkCount;
+    private final long connectP50Millis;
+    private final long firstByteP50Millis;
+    private final long firstByteP95Millis;
+    private final long firstTokenP50Millis;
+    private final long firstTokenP95Millis;
+    private final long totalP50Millis;
+    private final long totalP95Millis;
+    private final long maxChunkGapMillis;
+    private final long[] chunkGapHistogram;
+
+    public StreamStats(long streamCount, long reusedConnectionCount, long chunkCount,
+                       long connectP50Millis,
+                       long firstByteP50Millis, long firstByteP95Millis,
+                       long firstTokenP50Millis, long firstTokenP95Millis,
+                       long totalP50Millis, long totalP95Millis,
+                       long maxChunkGapMillis, long[] chunkGapHistogram) {
+        this.streamCount = streamCount;
+        this.reusedConnectionCount = reusedConnectionCount;
+        this.chunkCount = chunkCount;
+        this.connectP50Millis = connectP50Millis;
+        this.firstByteP50Millis = firstByteP50Millis;
+        this.firstByteP95Millis = firstByteP95Millis;
+        this.firstTokenP50Millis = firstTokenP50Millis;
+        this.firstTokenP95Millis = firstTokenP95Millis;
+        this.totalP50Millis = totalP50Millis;
+        this.totalP95Millis = totalP95Millis;
+        this.maxChunkGapMillis = maxChunkGapMillis;
+        this.chunkGapHistogram = chunkGapHistogram;
+    }
+
+    /**
+     * 累计记录的流式请求数
+     */
+    public long getStreamCount() {
+        return streamCount;
+    }
+
+    /**
+     * 其中复用连接池连接的请求数
+     */
+    public long getReusedConnectionCount() {
+        return reusedConnectionCount;
+    }
+
+    /**
+     * 累计数据块数
+     */
+    public long getChunkCount() {
+        return chunkCount;
+    }
+
+    public long getConnectP50Millis() {
+        return connectP50Millis;
+    }
+
+    public long getFirstByteP50Millis() {
+        return firstByteP50Millis;
+    }
+
+    public long getFirstByteP95Millis() {
+        return firstByteP95Millis;
+    }
+
+    public long getFirstTokenP50Millis() {
+        return firstTokenP50Millis;
+    }
+
+    public long getFirstTokenP95Millis() {
+        return firstTokenP95Millis;
+    }
+
+    public long getTotalP50Millis() {
+        return totalP50Millis;
+    }
+
+    public long getTotalP95Millis() {
+        return totalP95Millis;
+    }
+
+    /**
+     * 数据块最大间隔
+     */
+    public long getMaxChunkGapMillis() {
+        return maxChunkGapMillis;
+    }
+
+    /**
+     * 数据块间隔累计直方图，区间见 StreamTimings.GAP_BUCKET_BOUNDS_MILLIS
+     */
+    public long[] getChunkGapHistogram() {
+        return Arrays.copyOf(chunkGapHistogram, chunkGapHistogram.length);
+    }
+
+    @Override
+    public String toString() {
+        return "StreamStats{" +
+                "streams=" + streamCount +
+                ", reused=" + reusedConnectionCount +
+                ", chunks=" + chunkCount +
+                ", connectP50=" + connectP50Millis +
+                "ms, ttfbP50=" + firstByteP50Millis +
+                "ms, ttfbP95=" + firstByteP95Millis +
+                "ms, ttftP50=" + firstTokenP50Millis +
+                "ms, ttftP95=" + firstTokenP95Millis +
+                "ms, totalP50=" + totalP50Millis +
+                "ms, totalP95=" + totalP95Millis +
+                "ms, maxGap=" + maxChunkGapMillis +
+                "ms, gaps=" + Arrays.toString(chunkGapHistogram) +
+                '}';
+    }
+}
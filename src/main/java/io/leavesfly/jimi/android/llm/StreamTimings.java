@@ -0,0 +1,215 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.llm.http.HttpEventListener;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次流式请求的耗时记录
+ * <p>
+ * - 由 ChatProvider 在执行请求的线程上写入，通过 StreamHandle.getTimings() 获取
+ * - "首字节"、"首 token"、"总耗时" 均从提交请求时算起，包含排队时间
+ * - 数据块间隔按固定区间计入直方图，不保存逐个样本
+ * - 应在流结束（回调收到 onComplete/onError）后读取；未到达的阶段返回 -1
+ */
+public class StreamTimings implements HttpEventListener {
+
+    /**
+     * 数据块间隔直方图的区间上界（毫秒），最后一个桶为 >= 1000ms
+     */
+    public static final long[] GAP_BUCKET_BOUNDS_MILLIS = {5, 10, 25, 50, 100, 250, 500, 1000};
+
+    private final long createdNanos = System.nanoTime();
+    private long startNanos;
+    private long connectStartNanos;
+    private long connectEndNanos;
+    private long requestSentNanos;
+    private long firstByteNanos;
+    private long firstChunkNanos;
+    private long firstContentNanos;
+    private long lastChunkNanos;
+    private long endNanos;
+    private boolean connectionReused;
+
+    private int chunkCount;
+    private long gapSumNanos;
+    private long maxGapNanos;
+    private final int[] gapHistogram = new int[GAP_BUCKET_BOUNDS_MILLIS.length + 1];
+
+    /**
+     * 请求开始在执行器线程上执行（排队结束）
+     */
+    public void started() {
+        startNanos = System.nanoTime();
+    }
+
+    @Override
+    public void connectStart() {
+        connectStartNanos = System.nanoTime();
+    }
+
+    @Override
+    public void connectEnd(boolean reused) {
+        connectEndNanos = System.nanoTime();
+        connectionReused = reused;
+    }
+
+    @Override
+    public void requestSent() {
+        requestSentNanos = System.nanoTime();
+    }
+
+    @Override
+    public void responseHeadersReceived() {
+        firstByteNanos = System.nanoTime();
+    }
+
+    /**
+     * 收到一个数据块
+     *
+     * @param hasContent 数据块是否包含正文内容
+     */
+    public void chunkReceived(boolean hasContent) {
+        long now = System.nanoTime();
+        if (chunkCount == 0) {
+            firstChunkNanos = now;
+        } else {
+            long gap = now - lastChunkNanos;
+            gapSumNanos += gap;
+            if (gap > maxGapNanos) {
+                maxGapNanos = gap;
+            }
+            gapHistogram[bucketOf(TimeUnit.NANOSECONDS.toMillis(gap))]++;
+        }
+        if (hasContent && firstContentNanos == 0) {
+            firstContentNanos = now;
+        }
+        lastChunkNanos = now;
+        chunkCount++;
+    }
+
+    /**
+     * 流结束（正常完成或出错）
+     */
+    public void finished() {
+        if (endNanos == 0) {
+            endNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * 排队等待执行的时间
+     */
+    public long getQueueMillis() {
+        return between(createdNanos, startNanos);
+    }
+
+    /**
+     * 新建连接耗时（含 TCP/TLS 握手）；复用连接时没有连接阶段，返回 -1
+     */
+    public long getConnectMillis() {
+        return between(connectStartNanos, connectEndNanos);
+    }
+
+    /**
+     * 是否复用了连接池中的连接
+     */
+    public boolean isConnectionReused() {
+        return connectionReused;
+    }
+
+    /**
+     * 写出请求头与请求体的耗时
+     */
+    public long getRequestWriteMillis() {
+        return between(connectEndNanos, requestSentNanos);
+    }
+
+    /**
+     * 首字节时间（读到响应头）
+     */
+    public long getTimeToFirstByteMillis() {
+        return between(createdNanos, firstByteNanos);
+    }
+
+    /**
+     * 首个数据块时间
+     */
+    public long getTimeToFirstChunkMillis() {
+        return between(createdNanos, firstChunkNanos);
+    }
+
+    /**
+     * 首个正文 token 时间（纯工具调用的回复没有正文，返回 -1）
+     */
+    public long getTimeToFirstTokenMillis() {
+        return between(createdNanos, firstContentNanos);
+    }
+
+    /**
+     * 总耗时
+     */
+    public long getTotalMillis() {
+        return between(createdNanos, endNanos);
+    }
+
+    public int getChunkCount() {
+        return chunkCount;
+    }
+
+    /**
+     * 数据块平均间隔（毫秒），不足两个数据块时返回 -1
+     */
+    public double getMeanChunkGapMillis() {
+        if (chunkCount < 2) {
+            return -1;
+        }
+        return gapSumNanos / 1_000_000.0 / (chunkCount - 1);
+    }
+
+    /**
+     * 数据块最大间隔，不足两个数据块时返回 -1
+     */
+    public long getMaxChunkGapMillis() {
+        return chunkCount < 2 ? -1 : TimeUnit.NANOSECONDS.toMillis(maxGapNanos);
+    }
+
+    /**
+     * 数据块间隔直方图，区间见 GAP_BUCKET_BOUNDS_MILLIS
+     */
+    public int[] getChunkGapHistogram() {
+        return Arrays.copyOf(gapHistogram, gapHistogram.length);
+    }
+
+    static int bucketOf(long gapMillis) {
+        for (int i = 0; i < GAP_BUCKET_BOUNDS_MILLIS.length; i++) {
+            if (gapMillis < GAP_BUCKET_BOUNDS_MILLIS[i]) {
+                return i;
+            }
+        }
+        return GAP_BUCKET_BOUNDS_MILLIS.length;
+    }
+
+    private static long between(long fromNanos, long toNanos) {
+        if (fromNanos == 0 || toNanos == 0) {
+            return -1;
+        }
+        return TimeUnit.NANOSECONDS.toMillis(toNanos - fromNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "StreamTimings{" +
+                "queue=" + getQueueMillis() +
+                "ms, connect=" + getConnectMillis() +
+                "ms, reused=" + connectionReused +
+                ", write=" + getRequestWriteMillis() +
+                "ms, ttfb=" + getTimeToFirstByteMillis() +
+                "ms, ttft=" + getTimeToFirstTokenMillis() +
+                "ms, total=" + getTotalMillis() +
+                "ms, chunks=" + chunkCount +
+                ", maxGap=" + getMaxChunkGapMillis() +
+                "ms}";
+    }
+}
@@ -15,14 +15,44 @@ import java.util.Map;
  * 流式响应中，工具调用信息是分片返回的：
  * - 第一个 chunk 包含 id、type 和 function.name
  * - 后续 chunks 包含 function.arguments 的增量
+ * <p>
+ * 可选设置 Listener：某个工具调用的参数 JSON 对象已闭合，或后续索引的工具调用开始时，
+ * 认为该调用已完整，立即通知，不必等待整个流结束。
  */
 public class ToolCallAccumulator {
 
+    /**
+     * 工具调用完整时的通知
+     */
+    public interface Listener {
+
+        /**
+         * 工具调用的参数已完整（在累积增量的线程上调用）
+         *
+         * @param index    工具调用索引
+         * @param toolCall 工具调用
+         */
+        void onToolCallReady(int index, ToolCall toolCall);
+    }
+
     /**
      * 按索引存储的工具调用构建器
      */
     private final Map<Integer, ToolCallBuilder> builders = new HashMap<>();
 
+    private final Listener listener;
+
+    public ToolCallAccumulator() {
+        this(null);
+    }
+
+    /**
+     * @param listener 工具调用完整时的通知，null 表示不通知
+     */
+    public ToolCallAccumulator(Listener listener) {
+        this.listener = listener;
+    }
+
     /**
      * 累积工具调用增量
      *
@@ -33,6 +63,14 @@ public class ToolCallAccumulator {
         ToolCallBuilder builder = builders.get(index);
 
         if (builder == null) {
+            // 新索引开始，之前的工具调用均已完整
+            if (listener != null) {
+                for (Map.Entry<Integer, ToolCallBuilder> entry : builders.entrySet()) {
+                    if (entry.getKey() < index) {
+                        notifyReady(entry.getKey(), entry.getValue());
+                    }
+                }
+            }
             builder = new ToolCallBuilder();
             builders.put(index, builder);
         }
@@ -55,7 +93,18 @@ public class ToolCallAccumulator {
         // 累积函数参数（增量）
         if (delta.getFunctionArguments() != null) {
             builder.argumentsBuilder.append(delta.getFunctionArguments());
+            if (listener != null && builder.scanArguments(delta.getFunctionArguments())) {
+                notifyReady(index, builder);
+            }
+        }
+    }
+
+    private void notifyReady(int index, ToolCallBuilder builder) {
+        if (builder.notified || builder.functionName == null) {
+            return;
         }
+        builder.notified = true;
+        listener.onToolCallReady(index, builder.build());
     }
 
     /**
@@ -111,6 +160,45 @@ public class ToolCallAccumulator {
         String functionName;
         StringBuilder argumentsBuilder = new StringBuilder();
 
+        // 参数 JSON 的扫描状态
+        int depth = 0;
+        boolean started = false;
+        boolean inString = false;
+        boolean escaped = false;
+        boolean notified = false;
+
+        /**
+         * 扫描新增的参数片段
+         *
+         * @return 顶层 JSON 对象是否刚好闭合
+         */
+        boolean scanArguments(String fragment) {
+            boolean closed = false;
+            for (int i = 0; i < fragment.length(); i++) {
+                char c = fragment.charAt(i);
+                if (inString) {
+                    if (escaped) {
+                        escaped = false;
+                    } else if (c == '\\') {
+                        escaped = true;
+                    } else if (c == '"') {
+                        inString = false;
+                    }
+                } else if (c == '"') {
+                    inString = true;
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                    started = true;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                    if (started && depth == 0) {
+                        closed = true;
+                    }
+                }
+            }
+            return closed;
+        }
+
         ToolCall build() {
             FunctionCall function = new FunctionCall(functionName, argumentsBuilder.toString());
             return new ToolCall(id, function);
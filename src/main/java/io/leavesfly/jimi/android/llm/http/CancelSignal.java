@@ -0,0 +1,21 @@
+package io.leavesfly.jimi.android.llm.http;
+
+/**
+ * 请求取消信号
+ * <p>
+ * 传输层在建立连接前登记取消动作，使连接、TLS 握手、写请求体以及等待响应头期间的取消
+ * 也能立即关闭底层连接，而不必等到超时。
+ */
+public interface CancelSignal {
+
+    /**
+     * 永不取消
+     */
+    CancelSignal NONE = action -> {
+    };
+
+    /**
+     * 登记取消时执行的动作，已取消时应立即执行
+     */
+    void onCancel(Runnable action);
+}
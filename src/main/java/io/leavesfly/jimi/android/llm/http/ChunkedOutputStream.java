@@ -0,0 +1,50 @@
+package io.leavesfly.jimi.android.llm.http;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+
+/**
+ * chunked 传输编码输出流
+ * 每次 write 调用输出为一个数据块，finish 时写入结束块，不关闭底层流
+ */
+class ChunkedOutputStream extends FilterOutputStream {
+
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final byte[] LAST_CHUNK = {'0', '\r', '\n', '\r', '\n'};
+
+    ChunkedOutputStream(OutputStream out) {
+        super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) throws IOException {
+        if (length == 0) {
+            return;
+        }
+        out.write(Integer.toHexString(length).getBytes(ISO_8859_1));
+        out.write(CRLF);
+        out.write(buffer, offset, length);
+        out.write(CRLF);
+    }
+
+    /**
+     * 写入结束块
+     */
+    void finish() throws IOException {
+        out.write(LAST_CHUNK);
+    }
+
+    @Override
+    public void close() throws IOException {
+        // 底层是可复用的连接，不能关闭
+        flush();
+    }
+}
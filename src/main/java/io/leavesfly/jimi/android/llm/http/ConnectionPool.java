@@ -0,0 +1,195 @@
+package io.leavesfly.jimi.android.llm.http;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 持久连接池
+ * <p>
+ * - 按路由（scheme://host:port）分组保存空闲连接，每个路由的空闲连接数有上限
+ * - 后进先出：优先复用最近使用过的连接，降低拿到已被服务端关闭连接的概率
+ * - 后台守护线程定期清理超过 keepAlive 时长的空闲连接
+ */
+public class ConnectionPool {
+
+    private final int maxIdlePerRoute;
+    private final long keepAliveMillis;
+    private final Map<String, ArrayDeque<PooledConnection>> idleConnections = new HashMap<>();
+    private final ScheduledExecutorService cleaner;
+
+    private int leasedCount = 0;
+    private long createdCount = 0;
+    private long reusedCount = 0;
+    private long evictedCount = 0;
+    private boolean isShutdown = false;
+
+    /**
+     * @param maxIdlePerRoute 每个路由最多保留的空闲连接数
+     * @param keepAliveMillis 空闲连接最长保留时间
+     */
+    public ConnectionPool(int maxIdlePerRoute, long keepAliveMillis) {
+        if (maxIdlePerRoute < 0) {
+            throw new IllegalArgumentException("maxIdlePerRoute must not be negative");
+        }
+        if (keepAliveMillis <= 0) {
+            throw new IllegalArgumentException("keepAliveMillis must be positive");
+        }
+        this.maxIdlePerRoute = maxIdlePerRoute;
+        this.keepAliveMillis = keepAliveMillis;
+        this.cleaner = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jimi-connection-pool-cleaner");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.cleaner.scheduleWithFixedDelay(
+                this::evictIdle, keepAliveMillis, keepAliveMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 获取一个可用的空闲连接
+     *
+     * @param route 路由
+     * @return 健康的空闲连接，没有则返回 null
+     */
+    PooledConnection acquire(String route) {
+        while (true) {
+            PooledConnection connection;
+            synchronized (this) {
+                ArrayDeque<PooledConnection> deque = idleConnections.get(route);
+                connection = deque != null ? deque.pollFirst() : null;
+                if (connection == null) {
+                    return null;
+                }
+                if (System.currentTimeMillis() - connection.getIdleSince() > keepAliveMillis) {
+                    evictedCount++;
+                    connection.close();
+                    continue;
+                }
+                leasedCount++;
+            }
+
+            // 健康检查涉及 I/O，不在锁内进行
+            if (connection.isHealthy()) {
+                synchronized (this) {
+                    reusedCount++;
+                }
+                return connection;
+            }
+            synchronized (this) {
+                leasedCount--;
+                evictedCount++;
+            }
+            connection.close();
+        }
+    }
+
+    /**
+     * 登记一个新建连接
+     */
+    synchronized void onConnectionCreated() {
+        createdCount++;
+        leasedCount++;
+    }
+
+    /**
+     * 归还连接，池满或已关闭时直接关闭连接
+     */
+    void release(PooledConnection connection) {
+        synchronized (this) {
+            leasedCount--;
+            if (!isShutdown) {
+                ArrayDeque<PooledConnection> deque = idleConnections.get(connection.getRoute());
+                if (deque == null) {
+                    deque = new ArrayDeque<>();
+                    idleConnections.put(connection.getRoute(), deque);
+                }
+                if (deque.size() < maxIdlePerRoute) {
+                    connection.setIdleSince(System.currentTimeMillis());
+                    deque.addFirst(connection);
+                    return;
+                }
+            }
+            evictedCount++;
+        }
+        connection.close();
+    }
+
+    /**
+     * 丢弃连接（出错、被取消或响应体未读完）
+     */
+    void discard(PooledConnection connection) {
+        synchronized (this) {
+            leasedCount--;
+        }
+        connection.close();
+    }
+
+    /**
+     * 清理超时的空闲连接
+     *
+     * @return 本次清理的连接数
+     */
+    public int evictIdle() {
+        List<PooledConnection> expired = new ArrayList<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            Iterator<ArrayDeque<PooledConnection>> routes = idleConnections.values().iterator();
+            while (routes.hasNext()) {
+                ArrayDeque<PooledConnection> deque = routes.next();
+                Iterator<PooledConnection> it = deque.iterator();
+                while (it.hasNext()) {
+                    PooledConnection connection = it.next();
+                    if (now - connection.getIdleSince() > keepAliveMillis) {
+                        it.remove();
+                        expired.add(connection);
+                    }
+                }
+                if (deque.isEmpty()) {
+                    routes.remove();
+                }
+            }
+            evictedCount += expired.size();
+        }
+        for (PooledConnection connection : expired) {
+            connection.close();
+        }
+        return expired.size();
+    }
+
+    /**
+     * 获取统计快照
+     */
+    public synchronized ConnectionPoolStats getStats() {
+        int idle = 0;
+        for (ArrayDeque<PooledConnection> deque : idleConnections.values()) {
+            idle += deque.size();
+        }
+        return new ConnectionPoolStats(idle, leasedCount, createdCount, reusedCount, evictedCount);
+    }
+
+    /**
+     * 关闭连接池，关闭所有空闲连接
+     * 正在使用的连接在归还时关闭
+     */
+    public void shutdown() {
+        List<PooledConnection> toClose = new ArrayList<>();
+        synchronized (this) {
+            isShutdown = true;
+            for (ArrayDeque<PooledConnection> deque : idleConnections.values()) {
+                toClose.addAll(deque);
+            }
+            idleConnections.clear();
+        }
+        cleaner.shutdownNow();
+        for (PooledConnection connection : toClose) {
+            connection.close();
+        }
+    }
+}
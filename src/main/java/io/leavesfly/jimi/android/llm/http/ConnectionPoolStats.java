@@ -0,0 +1,68 @@
+package io.leavesfly.jimi.android.llm.http;
+
+/**
+ * 连接池统计快照
+ */
+public class ConnectionPoolStats {
+
+    private final int idleConnections;
+    private final int leasedConnections;
+    private final long createdCount;
+    private final long reusedCount;
+    private final long evictedCount;
+
+    public ConnectionPoolStats(int idleConnections, int leasedConnections,
+                               long createdCount, long reusedCount, long evictedCount) {
+        this.idleConnections = idleConnections;
+        this.leasedConnections = leasedConnections;
+        this.createdCount = createdCount;
+        this.reusedCount = reusedCount;
+        this.evictedCount = evictedCount;
+    }
+
+    /**
+     * 当前空闲连接数
+     */
+    public int getIdleConnections() {
+        return idleConnections;
+    }
+
+    /**
+     * 当前正在使用的连接数
+     */
+    public int getLeasedConnections() {
+        return leasedConnections;
+    }
+
+    /**
+     * 累计新建连接数（每次新建都意味着一次 TCP/TLS 握手）
+     */
+    public long getCreatedCount() {
+        return createdCount;
+    }
+
+    /**
+     * 累计复用连接次数
+     */
+    public long getReusedCount() {
+        return reusedCount;
+    }
+
+    /**
+     * 累计因空闲超时、池满或失效被关闭的连接数
+     */
+    public long getEvictedCount() {
+        return evictedCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ConnectionPoolStats{" +
+                "idle=" + idleConnections +
+                ", leased=" + leasedConnections +
+                ", created=" + createdCount +
+                ", reused=" + reusedCount +
+                ", evicted=" + evictedCount +
+                '}';
+    }
+}
@@ -0,0 +1,42 @@
+package io.leavesfly.jimi.android.llm.http;
+
+/**
+ * HTTP 请求阶段事件监听器
+ * <p>
+ * 由传输层在执行请求的线程上同步回调，用于统计连接、发送与首字节耗时；
+ * 实现应尽量轻量，不得阻塞。所有方法默认为空实现。
+ */
+public interface HttpEventListener {
+
+    /**
+     * 不记录任何事件
+     */
+    HttpEventListener NONE = new HttpEventListener() {
+    };
+
+    /**
+     * 开始新建连接；复用连接池中的连接时不回调
+     */
+    default void connectStart() {
+    }
+
+    /**
+     * 已获得可用连接，新建与复用连接都会回调
+     *
+     * @param reused 是否复用了连接池中的连接
+     */
+    default void connectEnd(boolean reused) {
+    }
+
+    /**
+     * 请求头与请求体已全部写出
+     */
+    default void requestSent() {
+    }
+
+    /**
+     * 已读到响应头（首字节到达）
+     */
+    default void responseHeadersReceived() {
+    }
+}
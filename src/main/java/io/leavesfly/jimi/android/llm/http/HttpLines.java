@@ -0,0 +1,45 @@
+package io.leavesfly.jimi.android.llm.http;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProtocolException;
+
+/**
+ * HTTP/1.1 协议行读取工具
+ */
+final class HttpLines {
+
+    /**
+     * 状态行、响应头、块头的最大长度
+     */
+    private static final int MAX_LINE_LENGTH = 8192;
+
+    private HttpLines() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 读取一行（以 LF 结尾，去掉 CR），按 ISO-8859-1 解码
+     */
+    static String readLine(InputStream in) throws IOException {
+        StringBuilder sb = new StringBuilder(64);
+        while (true) {
+            int b = in.read();
+            if (b == -1) {
+                throw new EOFException("Unexpected end of stream while reading line");
+            }
+            if (b == '\n') {
+                int length = sb.length();
+                if (length > 0 && sb.charAt(length - 1) == '\r') {
+                    sb.setLength(length - 1);
+                }
+                return sb.toString();
+            }
+            if (sb.length() >= MAX_LINE_LENGTH) {
+                throw new ProtocolException("Line too long");
+            }
+            sb.append((char) b);
+        }
+    }
+}
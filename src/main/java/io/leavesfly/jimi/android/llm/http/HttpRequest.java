@@ -0,0 +1,160 @@
+package io.leavesfly.jimi.android.llm.http;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * HTTP 请求
+ * 不可变对象，可被传输层在连接失效时安全重放
+ */
+public class HttpRequest {
+
+    private final URL url;
+    private final String method;
+    private final Map<String, String> headers;
+    private final RequestBody body;
+    private final int connectTimeout;
+    private final int readTimeout;
+    private final HttpEventListener eventListener;
+    private final CancelSignal cancelSignal;
+
+    private HttpRequest(Builder builder) {
+        this.url = builder.url;
+        this.method = builder.method;
+        this.headers = Collections.unmodifiableMap(new LinkedHashMap<>(builder.headers));
+        this.body = builder.body;
+        this.connectTimeout = builder.connectTimeout;
+        this.readTimeout = builder.readTimeout;
+        this.eventListener = builder.eventListener;
+        this.cancelSignal = builder.cancelSignal;
+    }
+
+    public URL getUrl() {
+        return url;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    /**
+     * 获取请求体，无请求体时返回 null
+     */
+    public RequestBody getBody() {
+        return body;
+    }
+
+    public int getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public int getReadTimeout() {
+        return readTimeout;
+    }
+
+    /**
+     * 获取请求阶段事件监听器，未设置时为 HttpEventListener.NONE
+     */
+    public HttpEventListener getEventListener() {
+        return eventListener;
+    }
+
+    /**
+     * 获取取消信号，未设置时为 CancelSignal.NONE
+     */
+    public CancelSignal getCancelSignal() {
+        return cancelSignal;
+    }
+
+    /**
+     * 创建 Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+        private URL url;
+        private String method = "GET";
+        private final Map<String, String> headers = new LinkedHashMap<>();
+        private RequestBody body;
+        private int connectTimeout = 30_000;
+        private int readTimeout = 120_000;
+        private HttpEventListener eventListener = HttpEventListener.NONE;
+        private CancelSignal cancelSignal = CancelSignal.NONE;
+
+        public Builder url(String url) throws MalformedURLException {
+            this.url = new URL(url);
+            return this;
+        }
+
+        public Builder url(URL url) {
+            this.url = url;
+            return this;
+        }
+
+        public Builder method(String method) {
+            this.method = method;
+            return this;
+        }
+
+        public Builder header(String name, String value) {
+            this.headers.put(name, value);
+            return this;
+        }
+
+        public Builder post(byte[] body) {
+            return post(RequestBody.of(body));
+        }
+
+        public Builder post(RequestBody body) {
+            this.method = "POST";
+            this.body = body;
+            return this;
+        }
+
+        public Builder connectTimeout(int connectTimeout) {
+            this.connectTimeout = connectTimeout;
+            return this;
+        }
+
+        public Builder readTimeout(int readTimeout) {
+            this.readTimeout = readTimeout;
+            return this;
+        }
+
+        /**
+         * 请求阶段事件监听器，用于统计连接、发送与首字节耗时
+         */
+        public Builder eventListener(HttpEventListener eventListener) {
+            this.eventListener = eventListener != null ? eventListener : HttpEventListener.NONE;
+            return this;
+        }
+
+        /**
+         * 取消信号，取消时传输层关闭正在建立或等待响应的连接
+         */
+        public Builder cancelSignal(CancelSignal cancelSignal) {
+            this.cancelSignal = cancelSignal != null ? cancelSignal : CancelSignal.NONE;
+            return this;
+        }
+
+        public HttpRequest build() {
+            if (url == null) {
+                throw new IllegalArgumentException("Request url cannot be null");
+            }
+            String protocol = url.getProtocol();
+            if (!"http".equals(protocol) && !"https".equals(protocol)) {
+                throw new IllegalArgumentException("Unsupported protocol: " + protocol);
+            }
+            return new HttpRequest(this);
+        }
+    }
+}
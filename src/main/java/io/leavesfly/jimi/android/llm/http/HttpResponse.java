@@ -0,0 +1,87 @@
+package io.leavesfly.jimi.android.llm.http;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * HTTP 响应
+ * <p>
+ * - close()：正常结束，传输层会在响应体读完时回收连接
+ * - abort()：强制断开底层连接（用于取消），连接不会被复用
+ */
+public class HttpResponse implements Closeable {
+
+    private final int statusCode;
+    private final Map<String, String> headers;
+    private final InputStream body;
+    private final Runnable abortAction;
+
+    /**
+     * @param statusCode  状态码
+     * @param headers     响应头（名称需为小写）
+     * @param body        响应体
+     * @param abortAction 强制断开连接的动作
+     */
+    public HttpResponse(int statusCode, Map<String, String> headers, InputStream body, Runnable abortAction) {
+        this.statusCode = statusCode;
+        this.headers = Collections.unmodifiableMap(headers);
+        this.body = body;
+        this.abortAction = abortAction;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * 获取响应头（名称不区分大小写）
+     *
+     * @return 响应头值，不存在返回 null
+     */
+    public String getHeader(String name) {
+        return headers.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    public Map<String, String> getHeaders() {
+        return headers;
+    }
+
+    public InputStream getBody() {
+        return body;
+    }
+
+    /**
+     * 以 UTF-8 读取完整响应体（用于错误响应等小响应）
+     */
+    public String readBodyAsString() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        int n;
+        while ((n = body.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toString("UTF-8");
+    }
+
+    /**
+     * 强制断开底层连接
+     * 可在任意线程调用，正在阻塞读取响应体的线程会收到 IOException
+     */
+    public void abort() {
+        abortAction.run();
+    }
+
+    @Override
+    public void close() {
+        try {
+            body.close();
+        } catch (IOException e) {
+            abort();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package io.leavesfly.jimi.android.llm.http;
+
+import java.io.IOException;
+
+/**
+ * HTTP 传输层接口
+ * 屏蔽底层连接实现，ChatProvider 通过它发送请求并读取流式响应
+ */
+public interface HttpTransport {
+
+    /**
+     * 执行 HTTP 请求
+     * 调用方必须在使用完毕后关闭返回的响应，以便连接被回收复用
+     *
+     * @param request 请求
+     * @return 响应（响应头已读取，响应体可流式读取）
+     * @throws IOException 连接或读取响应头失败
+     */
+    HttpResponse execute(HttpRequest request) throws IOException;
+
+    /**
+     * 关闭并释放所有连接
+     */
+    void shutdown();
+}
@@ -0,0 +1,71 @@
+package io.leavesfly.jimi.android.llm.http;
+
+import java.io.InterruptedIOException;
+
+/**
+ * 传输层内部使用的单次请求取消状态
+ * <p>
+ * 在拿到响应之前，取消会执行当前挂接的中断动作（关闭 Socket 或断开连接）；
+ * finish() 之后取消不再生效，避免关闭已经交给响应体或已归还连接池的连接。
+ */
+final class InFlightRequest implements Runnable {
+
+    private boolean cancelled;
+    private boolean finished;
+    private Runnable abortAction;
+
+    /**
+     * 创建并登记到请求的取消信号上
+     */
+    static InFlightRequest register(HttpRequest request) {
+        InFlightRequest inFlight = new InFlightRequest();
+        request.getCancelSignal().onCancel(inFlight);
+        return inFlight;
+    }
+
+    /**
+     * 挂接当前阶段的中断动作；已取消时立即执行该动作并抛出 InterruptedIOException
+     */
+    void attach(Runnable abort) throws InterruptedIOException {
+        synchronized (this) {
+            if (!cancelled) {
+                abortAction = abort;
+                return;
+            }
+        }
+        abort.run();
+        throw new InterruptedIOException("Request cancelled");
+    }
+
+    /**
+     * 已取消时抛出 InterruptedIOException
+     */
+    synchronized void checkNotCancelled() throws InterruptedIOException {
+        if (cancelled) {
+            throw new InterruptedIOException("Request cancelled");
+        }
+    }
+
+    /**
+     * 请求阶段结束，之后的取消由响应自行处理
+     */
+    synchronized void finish() {
+        finished = true;
+        abortAction = null;
+    }
+
+    @Override
+    public void run() {
+        Runnable abort;
+        synchronized (this) {
+            if (finished || cancelled) {
+                return;
+            }
+            cancelled = true;
+            abort = abortAction;
+        }
+        if (abort != null) {
+            abort.run();
+        }
+    }
+}
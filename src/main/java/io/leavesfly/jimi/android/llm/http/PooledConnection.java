@@ -0,0 +1,108 @@
+package io.leavesfly.jimi.android.llm.http;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+
+/**
+ * 可复用的持久连接
+ * 封装一个已建立（含 TLS 握手）的 Socket 及其缓冲流
+ */
+class PooledConnection {
+
+    private final String route;
+    private final Socket socket;
+    private final BufferedInputStream in;
+    private final OutputStream out;
+
+    /**
+     * 进入空闲状态的时间（毫秒）
+     */
+    private long idleSince;
+
+    PooledConnection(String route, Socket socket) throws IOException {
+        this.route = route;
+        this.socket = socket;
+        this.in = new BufferedInputStream(socket.getInputStream(), 8192);
+        this.out = new BufferedOutputStream(socket.getOutputStream(), 8192);
+    }
+
+    String getRoute() {
+        return route;
+    }
+
+    InputStream getInputStream() {
+        return in;
+    }
+
+    OutputStream getOutputStream() {
+        return out;
+    }
+
+    /**
+     * 阻塞等待响应的第一个字节（不消费）
+     *
+     * @return false 表示连接在收到任何字节前已被对端关闭
+     */
+    boolean awaitFirstByte() throws IOException {
+        in.mark(1);
+        if (in.read() == -1) {
+            return false;
+        }
+        in.reset();
+        return true;
+    }
+
+    void setReadTimeout(int readTimeout) throws IOException {
+        socket.setSoTimeout(readTimeout);
+    }
+
+    long getIdleSince() {
+        return idleSince;
+    }
+
+    void setIdleSince(long idleSince) {
+        this.idleSince = idleSince;
+    }
+
+    /**
+     * 检查空闲连接是否仍然可用
+     * 服务端关闭的连接会立即读到 EOF；残留未读数据说明连接状态已不可信
+     */
+    boolean isHealthy() {
+        if (socket.isClosed() || socket.isInputShutdown() || socket.isOutputShutdown()) {
+            return false;
+        }
+        try {
+            if (in.available() > 0) {
+                return false;
+            }
+            int originalTimeout = socket.getSoTimeout();
+            try {
+                socket.setSoTimeout(1);
+                // 读到 EOF 或意外数据都视为不可用
+                in.read();
+                return false;
+            } finally {
+                socket.setSoTimeout(originalTimeout);
+            }
+        } catch (SocketTimeoutException e) {
+            // 读取超时说明连接仍然打开且没有多余数据
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    void close() {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package io.leavesfly.jimi.android.llm.http;
+
+import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLPeerUnverifiedException;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.ProtocolException;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 基于 Socket 的 HTTP/1.1 传输实现，带持久连接池
+ * <p>
+ * - 连接在响应体读完后归还连接池，后续请求复用已完成 TCP/TLS 握手的连接
+ * - 复用的连接如果已被服务端关闭（写请求失败，或未收到任何响应字节即断开），自动换新连接重试；
+ *   已开始接收响应或读取超时后不重试，避免服务端重复处理非幂等请求
+ * - 请求带有取消信号时，取消会关闭正在连接、握手、发送或等待响应头的 Socket
+ * - 零第三方依赖，HTTPS 使用系统默认 SSLSocketFactory 与 HostnameVerifier
+ * <p>
+ * 直接连接目标地址，不读取 ProxySelector 与 http.proxyHost 等代理设置，不支持 gzip 与 HTTP/2；
+ * 需经代理访问 API 的应用应使用默认的 UrlConnectionTransport。
+ */
+public class PooledHttpTransport implements HttpTransport {
+
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    public static final int DEFAULT_MAX_IDLE_PER_ROUTE = 5;
+    public static final long DEFAULT_KEEP_ALIVE_MILLIS = 60_000;
+
+    private final ConnectionPool pool;
+    private final SSLSocketFactory sslSocketFactory;
+    private final HostnameVerifier hostnameVerifier;
+
+    public PooledHttpTransport() {
+        this(new ConnectionPool(DEFAULT_MAX_IDLE_PER_ROUTE, DEFAULT_KEEP_ALIVE_MILLIS));
+    }
+
+    public PooledHttpTransport(ConnectionPool pool) {
+        this(pool, (SSLSocketFactory) SSLSocketFactory.getDefault(),
+                HttpsURLConnection.getDefaultHostnameVerifier());
+    }
+
+    public PooledHttpTransport(ConnectionPool pool, SSLSocketFactory sslSocketFactory,
+                               HostnameVerifier hostnameVerifier) {
+        this.pool = pool;
+        this.sslSocketFactory = sslSocketFactory;
+        this.hostnameVerifier = hostnameVerifier;
+    }
+
+    /**
+     * 获取连接池
+     */
+    public ConnectionPool getConnectionPool() {
+        return pool;
+    }
+
+    @Override
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        URL url = request.getUrl();
+        String route = routeOf(url);
+        HttpEventListener listener = request.getEventListener();
+        InFlightRequest inFlight = InFlightRequest.register(request);
+        try {
+            return execute(request, route, listener, inFlight);
+        } finally {
+            inFlight.finish();
+        }
+    }
+
+    private HttpResponse execute(HttpRequest request, String route, HttpEventListener listener,
+                                 InFlightRequest inFlight) throws IOException {
+        while (true) {
+            // 取消后关闭连接导致的失败不再换连接重试
+            inFlight.checkNotCancelled();
+            PooledConnection connection = pool.acquire(route);
+            boolean reused = connection != null;
+            if (connection == null) {
+                // 复用的连接没有连接阶段，只在新建连接时回调
+                listener.connectStart();
+                connection = connect(route, request, inFlight);
+            }
+            try {
+                inFlight.attach(connection::close);
+            } catch (IOException e) {
+                pool.discard(connection);
+                throw e;
+            }
+            listener.connectEnd(reused);
+
+            try {
+                connection.setReadTimeout(request.getReadTimeout());
+                writeRequest(connection, request);
+            } catch (IOException e) {
+                pool.discard(connection);
+                // 复用的连接可能已被服务端关闭，换一个连接重试
+                if (reused && !(e instanceof SocketTimeoutException)) {
+                    continue;
+                }
+                throw e;
+            }
+            listener.requestSent();
+
+            boolean responded;
+            try {
+                responded = connection.awaitFirstByte();
+            } catch (SocketTimeoutException e) {
+                // 服务端可能仍在处理请求，重发会导致重复执行
+                pool.discard(connection);
+                throw e;
+            } catch (IOException e) {
+                pool.discard(connection);
+                if (reused) {
+                    continue;
+                }
+                throw e;
+            }
+            if (!responded) {
+                // 未收到任何响应字节即被关闭：复用的连接在请求到达前已失效
+                pool.discard(connection);
+                if (reused) {
+                    continue;
+                }
+                throw new EOFException("Connection closed before response");
+            }
+
+            try {
+                return readResponse(connection, request);
+            } catch (IOException e) {
+                pool.discard(connection);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 建立新连接（含 TLS 握手）
+     */
+    private PooledConnection connect(String route, HttpRequest request, InFlightRequest inFlight)
+            throws IOException {
+        URL url = request.getUrl();
+        String host = url.getHost();
+        int port = portOf(url);
+
+        Socket socket = new Socket();
+        try {
+            // 关闭底层 Socket 同时中断 TCP 连接与 TLS 握手
+            Socket raw = socket;
+            inFlight.attach(() -> closeQuietly(raw));
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), request.getConnectTimeout());
+
+            if ("https".equals(url.getProtocol())) {
+                SSLSocket sslSocket = (SSLSocket) sslSocketFactory.createSocket(socket, host, port, true);
+                socket = sslSocket;
+                sslSocket.startHandshake();
+                if (!hostnameVerifier.verify(host, sslSocket.getSession())) {
+                    throw new SSLPeerUnverifiedException("Hostname " + host + " not verified");
+                }
+            }
+
+            PooledConnection connection = new PooledConnection(route, socket);
+            pool.onConnectionCreated();
+            return connection;
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(socket);
+            throw e;
+        }
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // ignore
+        }
+    }
+
+    private void writeRequest(PooledConnection connection, HttpRequest request) throws IOException {
+        URL url = request.getUrl();
+        String path = url.getFile();
+        if (path == null || path.isEmpty()) {
+            path = "/";
+        }
+
+        StringBuilder head = new StringBuilder(256);
+        head.append(request.getMethod()).append(' ').append(path).append(" HTTP/1.1\r\n");
+        head.append("Host: ").append(url.getHost());
+        if (url.getPort() != -1 && url.getPort() != url.getDefaultPort()) {
+            head.append(':').append(url.getPort());
+        }
+        head.append("\r\n");
+        for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+            head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+        }
+        head.append("Connection: keep-alive\r\n");
+
+        RequestBody body = request.getBody();
+        long contentLength = body != null ? body.contentLength() : -1;
+        if (body != null) {
+            if (contentLength >= 0) {
+                head.append("Content-Length: ").append(contentLength).append("\r\n");
+            } else {
+                head.append("Transfer-Encoding: chunked\r\n");
+            }
+        }
+        head.append("\r\n");
+
+        OutputStream out = connection.getOutputStream();
+        out.write(head.toString().getBytes(ISO_8859_1));
+        if (body != null) {
+            if (contentLength >= 0) {
+                body.writeTo(out);
+            } else {
+                ChunkedOutputStream chunked = new ChunkedOutputStream(out);
+                body.writeTo(chunked);
+                chunked.finish();
+            }
+        }
+        out.flush();
+    }
+
+    private HttpResponse readResponse(PooledConnection connection, HttpRequest request) throws IOException {
+        while (true) {
+            String statusLine = HttpLines.readLine(connection.getInputStream());
+            if (!statusLine.startsWith("HTTP/1.") || statusLine.length() < 12) {
+                throw new ProtocolException("Unexpected status line: " + statusLine);
+            }
+            boolean http11 = statusLine.charAt(7) == '1';
+            int statusCode;
+            try {
+                statusCode = Integer.parseInt(statusLine.substring(9, 12));
+            } catch (NumberFormatException e) {
+                throw new ProtocolException("Unexpected status line: " + statusLine);
+            }
+
+            Map<String, String> headers = readHeaders(connection);
+
+            // 跳过 1xx 临时响应
+            if (statusCode >= 100 && statusCode < 200) {
+                continue;
+            }
+
+            String connectionHeader = headers.get("connection");
+            boolean keepAlive = http11
+                    ? !"close".equalsIgnoreCase(connectionHeader)
+                    : "keep-alive".equalsIgnoreCase(connectionHeader);
+
+            request.getEventListener().responseHeadersReceived();
+            ResponseBodyStream body = createBody(connection, request, statusCode, headers, keepAlive);
+            return new HttpResponse(statusCode, headers, body, body::abort);
+        }
+    }
+
+    private Map<String, String> readHeaders(PooledConnection connection) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        String line;
+        while (!(line = HttpLines.readLine(connection.getInputStream())).isEmpty()) {
+            int colon = line.indexOf(':');
+            if (colon <= 0) {
+                continue;
+            }
+            String name = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            String existing = headers.get(name);
+            headers.put(name, existing == null ? value : existing + ", " + value);
+        }
+        return headers;
+    }
+
+    private ResponseBodyStream createBody(PooledConnection connection, HttpRequest request,
+                                          int statusCode, Map<String, String> headers,
+                                          boolean keepAlive) throws IOException {
+        if ("HEAD".equals(request.getMethod()) || statusCode == 204 || statusCode == 304) {
+            return new ResponseBodyStream(pool, connection,
+                    ResponseBodyStream.Framing.FIXED_LENGTH, 0, keepAlive);
+        }
+
+        String transferEncoding = headers.get("transfer-encoding");
+        if (transferEncoding != null && transferEncoding.toLowerCase(Locale.ROOT).contains("chunked")) {
+            return new ResponseBodyStream(pool, connection,
+                    ResponseBodyStream.Framing.CHUNKED, -1, keepAlive);
+        }
+
+        String contentLength = headers.get("content-length");
+        if (contentLength != null) {
+            try {
+                return new ResponseBodyStream(pool, connection,
+                        ResponseBodyStream.Framing.FIXED_LENGTH, Long.parseLong(contentLength), keepAlive);
+            } catch (NumberFormatException e) {
+                throw new ProtocolException("Invalid Content-Length: " + contentLength);
+            }
+        }
+
+        return new ResponseBodyStream(pool, connection,
+                ResponseBodyStream.Framing.UNTIL_CLOSE, -1, false);
+    }
+
+    private static String routeOf(URL url) {
+        return url.getProtocol() + "://" + url.getHost().toLowerCase(Locale.ROOT) + ":" + portOf(url);
+    }
+
+    private static int portOf(URL url) {
+        return url.getPort() != -1 ? url.getPort() : url.getDefaultPort();
+    }
+
+    @Override
+    public void shutdown() {
+        pool.shutdown();
+    }
+}
@@ -0,0 +1,39 @@
+package io.leavesfly.jimi.android.llm.http;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * HTTP 请求体
+ * <p>
+ * 实现必须可重复写入：连接失效重试时传输层会再次调用 writeTo
+ */
+public abstract class RequestBody {
+
+    /**
+     * 请求体长度，未知时返回 -1（传输层使用 chunked 编码发送）
+     */
+    public abstract long contentLength();
+
+    /**
+     * 把请求体写入输出流
+     */
+    public abstract void writeTo(OutputStream out) throws IOException;
+
+    /**
+     * 创建固定内容的请求体
+     */
+    public static RequestBody of(final byte[] content) {
+        return new RequestBody() {
+            @Override
+            public long contentLength() {
+                return content.length;
+            }
+
+            @Override
+            public void writeTo(OutputStream out) throws IOException {
+                out.write(content);
+            }
+        };
+    }
+}
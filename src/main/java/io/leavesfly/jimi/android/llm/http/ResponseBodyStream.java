@@ -0,0 +1,205 @@
+package io.leavesfly.jimi.android.llm.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ProtocolException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 响应体输入流
+ * <p>
+ * 按 Content-Length / chunked / 读到连接关闭 三种方式界定响应体边界。
+ * 响应体完整读完且连接允许 keep-alive 时，关闭流会把连接归还连接池；
+ * 否则关闭底层连接。
+ */
+class ResponseBodyStream extends InputStream {
+
+    /**
+     * 关闭时为复用连接而尝试丢弃剩余数据的超时时间
+     */
+    private static final int DISCARD_TIMEOUT_MILLIS = 100;
+
+    /**
+     * 关闭时最多丢弃的剩余字节数，超过则直接断开
+     */
+    private static final int DISCARD_LIMIT = 64 * 1024;
+
+    enum Framing {
+        FIXED_LENGTH,
+        CHUNKED,
+        UNTIL_CLOSE
+    }
+
+    private final ConnectionPool pool;
+    private final PooledConnection connection;
+    private final InputStream in;
+    private final Framing framing;
+    private final boolean keepAlive;
+    private final AtomicBoolean closed = new AtomicBoolean(false);
+
+    /**
+     * FIXED_LENGTH：剩余字节数；CHUNKED：当前块剩余字节数（-1 表示需要读取块头）
+     */
+    private long bytesRemaining;
+    private boolean firstChunk = true;
+    private boolean exhausted;
+
+    ResponseBodyStream(ConnectionPool pool, PooledConnection connection,
+                       Framing framing, long contentLength, boolean keepAlive) {
+        this.pool = pool;
+        this.connection = connection;
+        this.in = connection.getInputStream();
+        this.framing = framing;
+        this.keepAlive = keepAlive && framing != Framing.UNTIL_CLOSE;
+        this.bytesRemaining = framing == Framing.FIXED_LENGTH ? contentLength : -1;
+        this.exhausted = framing == Framing.FIXED_LENGTH && contentLength == 0;
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int n = read(single, 0, 1);
+        return n == -1 ? -1 : single[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (closed.get()) {
+            throw new IOException("Response body closed");
+        }
+        if (exhausted) {
+            return -1;
+        }
+        if (length == 0) {
+            return 0;
+        }
+
+        switch (framing) {
+            case FIXED_LENGTH:
+                return readFixedLength(buffer, offset, length);
+            case CHUNKED:
+                return readChunked(buffer, offset, length);
+            default:
+                int n = in.read(buffer, offset, length);
+                if (n == -1) {
+                    exhausted = true;
+                }
+                return n;
+        }
+    }
+
+    private int readFixedLength(byte[] buffer, int offset, int length) throws IOException {
+        int n = in.read(buffer, offset, (int) Math.min(length, bytesRemaining));
+        if (n == -1) {
+            throw new ProtocolException("Unexpected end of stream, " + bytesRemaining + " bytes remaining");
+        }
+        bytesRemaining -= n;
+        if (bytesRemaining == 0) {
+            exhausted = true;
+        }
+        return n;
+    }
+
+    private int readChunked(byte[] buffer, int offset, int length) throws IOException {
+        if (bytesRemaining <= 0) {
+            readChunkHeader();
+            if (exhausted) {
+                return -1;
+            }
+        }
+        int n = in.read(buffer, offset, (int) Math.min(length, bytesRemaining));
+        if (n == -1) {
+            throw new ProtocolException("Unexpected end of chunked stream");
+        }
+        bytesRemaining -= n;
+        return n;
+    }
+
+    private void readChunkHeader() throws IOException {
+        // 上一个数据块之后的 CRLF
+        if (!firstChunk) {
+            HttpLines.readLine(in);
+        }
+        firstChunk = false;
+
+        String line = HttpLines.readLine(in);
+        int extension = line.indexOf(';');
+        if (extension != -1) {
+            line = line.substring(0, extension);
+        }
+        try {
+            bytesRemaining = Long.parseLong(line.trim(), 16);
+        } catch (NumberFormatException e) {
+            throw new ProtocolException("Invalid chunk size: " + line);
+        }
+        if (bytesRemaining < 0) {
+            throw new ProtocolException("Invalid chunk size: " + line);
+        }
+        if (bytesRemaining == 0) {
+            // 跳过 trailer
+            while (!HttpLines.readLine(in).isEmpty()) {
+                // ignore
+            }
+            exhausted = true;
+        }
+    }
+
+    @Override
+    public int available() throws IOException {
+        if (closed.get() || exhausted) {
+            return 0;
+        }
+        int available = in.available();
+        if (framing == Framing.FIXED_LENGTH || (framing == Framing.CHUNKED && bytesRemaining > 0)) {
+            available = (int) Math.min(available, bytesRemaining);
+        }
+        return available;
+    }
+
+    /**
+     * 强制断开连接（可跨线程调用）
+     */
+    void abort() {
+        if (closed.compareAndSet(false, true)) {
+            pool.discard(connection);
+        }
+    }
+
+    @Override
+    public void close() {
+        if (closed.get()) {
+            return;
+        }
+        if (keepAlive && !exhausted) {
+            discardRemaining();
+        }
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        if (keepAlive && exhausted) {
+            pool.release(connection);
+        } else {
+            pool.discard(connection);
+        }
+    }
+
+    /**
+     * 在短超时内读完剩余数据，使连接可以被复用
+     */
+    private void discardRemaining() {
+        try {
+            connection.setReadTimeout(DISCARD_TIMEOUT_MILLIS);
+            byte[] skip = new byte[2048];
+            long discarded = 0;
+            while (!exhausted && discarded < DISCARD_LIMIT) {
+                int n = read(skip, 0, skip.length);
+                if (n == -1) {
+                    break;
+                }
+                discarded += n;
+            }
+        } catch (IOException e) {
+            exhausted = false;
+        }
+    }
+}
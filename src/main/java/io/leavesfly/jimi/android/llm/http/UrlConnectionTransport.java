@@ -0,0 +1,95 @@
+package io.leavesfly.jimi.android.llm.http;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 基于 HttpURLConnection 的传输实现，HttpChatProvider 的默认传输层
+ * <p>
+ * 遵循系统与 Android 的代理设置、证书策略，由平台处理 gzip 与 HTTP/2（Android）。
+ * 正常关闭响应时只关闭输入流而不调用 disconnect()，
+ * 以便连接进入平台自带的 keep-alive 缓存。
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    @Override
+    public HttpResponse execute(HttpRequest request) throws IOException {
+        HttpEventListener listener = request.getEventListener();
+        InFlightRequest inFlight = InFlightRequest.register(request);
+        HttpURLConnection connection = (HttpURLConnection) request.getUrl().openConnection();
+        try {
+            // 取消时断开连接，阻塞在连接、写请求体或等待响应头上的线程会立即退出
+            inFlight.attach(connection::disconnect);
+            connection.setRequestMethod(request.getMethod());
+            connection.setConnectTimeout(request.getConnectTimeout());
+            connection.setReadTimeout(request.getReadTimeout());
+            for (Map.Entry<String, String> header : request.getHeaders().entrySet()) {
+                connection.setRequestProperty(header.getKey(), header.getValue());
+            }
+
+            RequestBody body = request.getBody();
+            if (body != null) {
+                connection.setDoOutput(true);
+                long contentLength = body.contentLength();
+                if (contentLength >= 0) {
+                    connection.setFixedLengthStreamingMode(contentLength);
+                } else {
+                    connection.setChunkedStreamingMode(0);
+                }
+            }
+
+            // 平台连接池对调用方不可见，无法区分是否复用
+            listener.connectStart();
+            connection.connect();
+            // 连接建立前 disconnect() 不生效，这里补充检查
+            inFlight.checkNotCancelled();
+            listener.connectEnd(false);
+
+            if (body != null) {
+                try (OutputStream os = connection.getOutputStream()) {
+                    body.writeTo(os);
+                }
+            }
+
+            listener.requestSent();
+
+            int statusCode = connection.getResponseCode();
+            inFlight.checkNotCancelled();
+            listener.responseHeadersReceived();
+            InputStream stream = statusCode >= 400 ? connection.getErrorStream() : connection.getInputStream();
+            if (stream == null) {
+                stream = new ByteArrayInputStream(new byte[0]);
+            }
+
+            return new HttpResponse(statusCode, readHeaders(connection), stream, connection::disconnect);
+        } catch (IOException | RuntimeException e) {
+            connection.disconnect();
+            throw e;
+        } finally {
+            inFlight.finish();
+        }
+    }
+
+    private Map<String, String> readHeaders(HttpURLConnection connection) {
+        Map<String, String> headers = new HashMap<>();
+        for (Map.Entry<String, List<String>> entry : connection.getHeaderFields().entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null) {
+                continue;
+            }
+            headers.put(entry.getKey().toLowerCase(Locale.ROOT), String.join(", ", entry.getValue()));
+        }
+        return headers;
+    }
+
+    @Override
+    public void shutdown() {
+        // 连接由平台统一管理，无需释放
+    }
+}
@@ -0,0 +1,433 @@
+package io.leavesfly.jimi.android.llm.json;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+
+/**
+ * 字节级 JSON 拉取式读取器
+ * <p>
+ * 直接在 UTF-8 字节区间上按 token 读取，不构建 JSONObject 树；
+ * 属性名可按字节比较而不创建 String，字符串值只在读取时才解码。
+ * <p>
+ * 说明：
+ * - 对逗号位置较为宽松，主要用于解析可信服务端返回的数据
+ * - 非线程安全，字节区间在读取期间不得被修改
+ */
+public class JsonReader {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int MAX_DEPTH = 64;
+
+    /**
+     * Token 类型
+     */
+    public enum Token {
+        BEGIN_OBJECT,
+        END_OBJECT,
+        BEGIN_ARRAY,
+        END_ARRAY,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT
+    }
+
+    private final byte[] buffer;
+    private final int limit;
+    private int pos;
+
+    /**
+     * 最近一次读取的属性名区间
+     */
+    private int nameStart;
+    private int nameEnd;
+    private boolean nameEscaped;
+
+    public JsonReader(byte[] buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.pos = offset;
+        this.limit = offset + length;
+    }
+
+    /**
+     * 查看下一个 token 的类型，不消费
+     */
+    public Token peek() throws IOException {
+        skipWhitespace();
+        if (pos >= limit) {
+            return Token.END_DOCUMENT;
+        }
+        switch (buffer[pos]) {
+            case '{':
+                return Token.BEGIN_OBJECT;
+            case '}':
+                return Token.END_OBJECT;
+            case '[':
+                return Token.BEGIN_ARRAY;
+            case ']':
+                return Token.END_ARRAY;
+            case '"':
+                return Token.STRING;
+            case 't':
+            case 'f':
+                return Token.BOOLEAN;
+            case 'n':
+                return Token.NULL;
+            default:
+                byte b = buffer[pos];
+                if (b == '-' || (b >= '0' && b <= '9')) {
+                    return Token.NUMBER;
+                }
+                throw syntaxError("Unexpected character '" + (char) b + "'");
+        }
+    }
+
+    public void beginObject() throws IOException {
+        expect('{');
+    }
+
+    public void endObject() throws IOException {
+        skipComma();
+        expect('}');
+    }
+
+    public void beginArray() throws IOException {
+        expect('[');
+    }
+
+    public void endArray() throws IOException {
+        skipComma();
+        expect(']');
+    }
+
+    /**
+     * 当前对象或数组中是否还有元素（会跳过元素之间的逗号）
+     */
+    public boolean hasNext() throws IOException {
+        skipComma();
+        if (pos >= limit) {
+            throw syntaxError("Unexpected end of input");
+        }
+        byte b = buffer[pos];
+        return b != '}' && b != ']';
+    }
+
+    /**
+     * 读取属性名（连同冒号），之后可用 nameEquals 判断
+     */
+    public void nextName() throws IOException {
+        skipComma();
+        expect('"');
+        nameStart = pos;
+        nameEnd = scanString();
+        nameEscaped = false;
+        for (int i = nameStart; i < nameEnd; i++) {
+            if (buffer[i] == '\\') {
+                nameEscaped = true;
+                break;
+            }
+        }
+        pos = nameEnd + 1;
+        expect(':');
+    }
+
+    /**
+     * 最近读取的属性名是否等于给定的 ASCII 名称
+     */
+    public boolean nameEquals(byte[] name) {
+        if (nameEscaped) {
+            return decode(nameStart, nameEnd, true).equals(new String(name, UTF_8));
+        }
+        if (nameEnd - nameStart != name.length) {
+            return false;
+        }
+        for (int i = 0; i < name.length; i++) {
+            if (buffer[nameStart + i] != name[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 读取字符串值
+     */
+    public String nextString() throws IOException {
+        skipWhitespace();
+        expect('"');
+        int start = pos;
+        boolean escaped = false;
+        int end = start;
+        while (true) {
+            if (end >= limit) {
+                throw syntaxError("Unterminated string");
+            }
+            byte b = buffer[end];
+            if (b == '"') {
+                break;
+            }
+            if (b == '\\') {
+                escaped = true;
+                end += 2;
+            } else {
+                end++;
+            }
+        }
+        pos = end + 1;
+        return decode(start, end, escaped);
+    }
+
+    /**
+     * 读取字符串值，值为 null 时返回 null
+     */
+    public String nextStringOrNull() throws IOException {
+        if (peek() == Token.NULL) {
+            nextNull();
+            return null;
+        }
+        return nextString();
+    }
+
+    /**
+     * 读取整数值（带小数或指数时截断）
+     */
+    public long nextLong() throws IOException {
+        skipWhitespace();
+        int start = pos;
+        boolean integral = true;
+        while (pos < limit && !isDelimiter(buffer[pos])) {
+            byte b = buffer[pos];
+            if (b == '.' || b == 'e' || b == 'E') {
+                integral = false;
+            }
+            pos++;
+        }
+        if (start == pos) {
+            throw syntaxError("Expected number");
+        }
+        String text = new String(buffer, start, pos - start, UTF_8);
+        try {
+            return integral ? Long.parseLong(text) : (long) Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw syntaxError("Invalid number: " + text);
+        }
+    }
+
+    /**
+     * 读取 int 值，值为 null 时返回 defaultValue
+     */
+    public int nextIntOrDefault(int defaultValue) throws IOException {
+        if (peek() == Token.NULL) {
+            nextNull();
+            return defaultValue;
+        }
+        return (int) nextLong();
+    }
+
+    public boolean nextBoolean() throws IOException {
+        skipWhitespace();
+        if (matchLiteral("true")) {
+            return true;
+        }
+        if (matchLiteral("false")) {
+            return false;
+        }
+        throw syntaxError("Expected boolean");
+    }
+
+    public void nextNull() throws IOException {
+        skipWhitespace();
+        if (!matchLiteral("null")) {
+            throw syntaxError("Expected null");
+        }
+    }
+
+    /**
+     * 跳过下一个值（含嵌套对象与数组），不解码其中的字符串
+     */
+    public void skipValue() throws IOException {
+        Token token = peek();
+        switch (token) {
+            case BEGIN_OBJECT:
+            case BEGIN_ARRAY:
+                skipContainer();
+                break;
+            case STRING:
+                pos++;
+                pos = scanString() + 1;
+                break;
+            case NUMBER:
+            case BOOLEAN:
+            case NULL:
+                while (pos < limit && !isDelimiter(buffer[pos])) {
+                    pos++;
+                }
+                break;
+            default:
+                throw syntaxError("Expected value but was " + token);
+        }
+    }
+
+    private void skipContainer() throws IOException {
+        int depth = 0;
+        while (pos < limit) {
+            byte b = buffer[pos];
+            if (b == '"') {
+                pos++;
+                pos = scanString() + 1;
+                continue;
+            }
+            if (b == '{' || b == '[') {
+                if (++depth > MAX_DEPTH) {
+                    throw syntaxError("Nesting too deep");
+                }
+            } else if (b == '}' || b == ']') {
+                if (--depth == 0) {
+                    pos++;
+                    return;
+                }
+            }
+            pos++;
+        }
+        throw syntaxError("Unterminated container");
+    }
+
+    /**
+     * 从 pos（引号之后）开始查找字符串结尾，返回结束引号位置
+     */
+    private int scanString() throws IOException {
+        int i = pos;
+        while (i < limit) {
+            byte b = buffer[i];
+            if (b == '"') {
+                return i;
+            }
+            i += b == '\\' ? 2 : 1;
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    /**
+     * 解码字符串内容 [start, end)
+     * 无转义时直接按 UTF-8 解码；有转义时按转义符分段解码，转义符均为 ASCII，不会截断多字节字符
+     */
+    private String decode(int start, int end, boolean escaped) {
+        if (!escaped) {
+            return new String(buffer, start, end - start, UTF_8);
+        }
+        StringBuilder sb = new StringBuilder(end - start);
+        int segmentStart = start;
+        int i = start;
+        while (i < end) {
+            if (buffer[i] != '\\') {
+                i++;
+                continue;
+            }
+            if (i > segmentStart) {
+                sb.append(new String(buffer, segmentStart, i - segmentStart, UTF_8));
+            }
+            byte escape = i + 1 < end ? buffer[i + 1] : (byte) '\\';
+            i += 2;
+            switch (escape) {
+                case 'n':
+                    sb.append('\n');
+                    break;
+                case 'r':
+                    sb.append('\r');
+                    break;
+                case 't':
+                    sb.append('\t');
+                    break;
+                case 'b':
+                    sb.append('\b');
+                    break;
+                case 'f':
+                    sb.append('\f');
+                    break;
+                case 'u':
+                    if (i + 4 <= end) {
+                        sb.append((char) parseHex(i));
+                        i += 4;
+                    }
+                    break;
+                default:
+                    // \" \\ \/ 以及未知转义按字面处理
+                    sb.append((char) escape);
+                    break;
+            }
+            segmentStart = i;
+        }
+        if (end > segmentStart) {
+            sb.append(new String(buffer, segmentStart, end - segmentStart, UTF_8));
+        }
+        return sb.toString();
+    }
+
+    private int parseHex(int offset) {
+        int value = 0;
+        for (int i = offset; i < offset + 4; i++) {
+            byte b = buffer[i];
+            int digit;
+            if (b >= '0' && b <= '9') {
+                digit = b - '0';
+            } else if (b >= 'a' && b <= 'f') {
+                digit = b - 'a' + 10;
+            } else if (b >= 'A' && b <= 'F') {
+                digit = b - 'A' + 10;
+            } else {
+                return 0xFFFD;
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private boolean matchLiteral(String literal) {
+        int length = literal.length();
+        if (pos + length > limit) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (buffer[pos + i] != literal.charAt(i)) {
+                return false;
+            }
+        }
+        pos += length;
+        return true;
+    }
+
+    private void expect(char c) throws IOException {
+        skipWhitespace();
+        if (pos >= limit || buffer[pos] != c) {
+            throw syntaxError("Expected '" + c + "'");
+        }
+        pos++;
+    }
+
+    private void skipComma() {
+        skipWhitespace();
+        if (pos < limit && buffer[pos] == ',') {
+            pos++;
+            skipWhitespace();
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < limit) {
+            byte b = buffer[pos];
+            if (b != ' ' && b != '\n' && b != '\r' && b != '\t') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private static boolean isDelimiter(byte b) {
+        return b == ',' || b == '}' || b == ']' || b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException(message + " at offset " + pos);
+    }
+}
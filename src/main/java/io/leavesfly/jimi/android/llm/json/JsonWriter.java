@@ -0,0 +1,307 @@
+package io.leavesfly.jimi.android.llm.json;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * 流式 JSON 写入器
+ * <p>
+ * 直接把 JSON 以 UTF-8 编码写入输出流，内部只持有一个固定大小的字节缓冲区，
+ * 不构建 JSONObject 树，也不生成中间 String。
+ * <p>
+ * 非线程安全，仅做最基本的结构检查（由调用方保证调用顺序合法）。
+ */
+public class JsonWriter {
+
+    private static final int DEFAULT_BUFFER_SIZE = 8 * 1024;
+    private static final int MAX_DEPTH = 64;
+    private static final byte[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7',
+            '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'};
+    private static final byte[] NULL = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int position = 0;
+
+    /**
+     * 每一层是否还没有写入过元素
+     */
+    private final boolean[] emptyScope = new boolean[MAX_DEPTH];
+    private int depth = 0;
+
+    /**
+     * 是否刚写完属性名（下一个值不需要逗号）
+     */
+    private boolean afterName = false;
+
+    public JsonWriter(OutputStream out) {
+        this(out, DEFAULT_BUFFER_SIZE);
+    }
+
+    public JsonWriter(OutputStream out, int bufferSize) {
+        this.out = out;
+        this.buffer = new byte[bufferSize];
+    }
+
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * 写入属性名
+     */
+    public JsonWriter name(String name) throws IOException {
+        beforeValue();
+        writeString(name);
+        writeByte(':');
+        afterName = true;
+        return this;
+    }
+
+    public JsonWriter value(String value) throws IOException {
+        if (value == null) {
+            return nullValue();
+        }
+        beforeValue();
+        writeString(value);
+        return this;
+    }
+
+    public JsonWriter value(boolean value) throws IOException {
+        beforeValue();
+        writeBytes(value ? TRUE : FALSE, 0, value ? TRUE.length : FALSE.length);
+        return this;
+    }
+
+    public JsonWriter value(long value) throws IOException {
+        beforeValue();
+        writeAscii(Long.toString(value));
+        return this;
+    }
+
+    public JsonWriter value(double value) throws IOException {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            throw new IllegalArgumentException("Numeric values must be finite, but was " + value);
+        }
+        beforeValue();
+        writeAscii(Double.toString(value));
+        return this;
+    }
+
+    public JsonWriter nullValue() throws IOException {
+        beforeValue();
+        writeBytes(NULL, 0, NULL.length);
+        return this;
+    }
+
+    /**
+     * 写入一段已经编码好的 JSON 值（如 JSONObject.toString() 的结果）
+     */
+    public JsonWriter rawValue(String json) throws IOException {
+        beforeValue();
+        writeUtf8(json);
+        return this;
+    }
+
+    /**
+     * 写入一段已经编码好的 UTF-8 JSON 值
+     */
+    public JsonWriter rawValue(byte[] json) throws IOException {
+        return rawValue(json, 0, json.length);
+    }
+
+    /**
+     * 写入一段已经编码好的 UTF-8 JSON 值
+     */
+    public JsonWriter rawValue(byte[] json, int offset, int length) throws IOException {
+        beforeValue();
+        writeBytes(json, offset, length);
+        return this;
+    }
+
+    /**
+     * 把缓冲区内容写入输出流并 flush
+     */
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    private JsonWriter open(char bracket) throws IOException {
+        if (depth == MAX_DEPTH) {
+            throw new IllegalStateException("Nesting too deep");
+        }
+        beforeValue();
+        writeByte(bracket);
+        emptyScope[depth++] = true;
+        return this;
+    }
+
+    private JsonWriter close(char bracket) throws IOException {
+        if (depth == 0) {
+            throw new IllegalStateException("Nesting problem");
+        }
+        depth--;
+        writeByte(bracket);
+        return this;
+    }
+
+    /**
+     * 写值之前补逗号
+     */
+    private void beforeValue() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (depth > 0) {
+            if (emptyScope[depth - 1]) {
+                emptyScope[depth - 1] = false;
+            } else {
+                writeByte(',');
+            }
+        }
+    }
+
+    private void writeString(String value) throws IOException {
+        writeByte('"');
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                switch (c) {
+                    case '"':
+                        writeByte('\\');
+                        writeByte('"');
+                        break;
+                    case '\\':
+                        writeByte('\\');
+                        writeByte('\\');
+                        break;
+                    case '\n':
+                        writeByte('\\');
+                        writeByte('n');
+                        break;
+                    case '\r':
+                        writeByte('\\');
+                        writeByte('r');
+                        break;
+                    case '\t':
+                        writeByte('\\');
+                        writeByte('t');
+                        break;
+                    default:
+                        if (c < 0x20) {
+                            writeUnicodeEscape(c);
+                        } else {
+                            writeByte(c);
+                        }
+                        break;
+                }
+            } else if (c == 0x2028 || c == 0x2029) {
+                writeUnicodeEscape(c);
+            } else {
+                i = writeUtf8Char(value, i, length);
+            }
+        }
+        writeByte('"');
+    }
+
+    private void writeUnicodeEscape(char c) throws IOException {
+        writeByte('\\');
+        writeByte('u');
+        writeByte(HEX[(c >> 12) & 0xf]);
+        writeByte(HEX[(c >> 8) & 0xf]);
+        writeByte(HEX[(c >> 4) & 0xf]);
+        writeByte(HEX[c & 0xf]);
+    }
+
+    private void writeUtf8(String value) throws IOException {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                writeByte(c);
+            } else {
+                i = writeUtf8Char(value, i, length);
+            }
+        }
+    }
+
+    /**
+     * 写入一个非 ASCII 字符（处理代理对）
+     *
+     * @return 最后消费的字符下标
+     */
+    private int writeUtf8Char(String value, int i, int length) throws IOException {
+        char c = value.charAt(i);
+        if (c < 0x800) {
+            writeByte(0xc0 | (c >> 6));
+            writeByte(0x80 | (c & 0x3f));
+            return i;
+        }
+        if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+            int codePoint = Character.toCodePoint(c, value.charAt(i + 1));
+            writeByte(0xf0 | (codePoint >> 18));
+            writeByte(0x80 | ((codePoint >> 12) & 0x3f));
+            writeByte(0x80 | ((codePoint >> 6) & 0x3f));
+            writeByte(0x80 | (codePoint & 0x3f));
+            return i + 1;
+        }
+        if (Character.isSurrogate(c)) {
+            // 孤立代理项无法编码为合法 UTF-8
+            writeByte('?');
+            return i;
+        }
+        writeByte(0xe0 | (c >> 12));
+        writeByte(0x80 | ((c >> 6) & 0x3f));
+        writeByte(0x80 | (c & 0x3f));
+        return i;
+    }
+
+    private void writeAscii(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            writeByte(value.charAt(i));
+        }
+    }
+
+    private void writeByte(int b) throws IOException {
+        if (position == buffer.length) {
+            flushBuffer();
+        }
+        buffer[position++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int length) throws IOException {
+        if (length > buffer.length - position) {
+            flushBuffer();
+            if (length > buffer.length) {
+                out.write(bytes, offset, length);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, position, length);
+        position += length;
+    }
+
+    private void flushBuffer() throws IOException {
+        if (position > 0) {
+            out.write(buffer, 0, position);
+            position = 0;
+        }
+    }
+}
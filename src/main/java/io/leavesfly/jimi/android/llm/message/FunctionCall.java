@@ -1,8 +1,12 @@
 package io.leavesfly.jimi.android.llm.message;
 
+import io.leavesfly.jimi.android.llm.json.JsonWriter;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 /**
  * 函数调用详情
  * 包含函数名称和参数
@@ -64,6 +68,20 @@ public class FunctionCall {
         return json;
     }
 
+    /**
+     * 写入流式写入器，字段与 toJson() 一致
+     */
+    public void writeJson(JsonWriter writer) throws IOException {
+        writer.beginObject();
+        if (name != null) {
+            writer.name("name").value(name);
+        }
+        if (arguments != null) {
+            writer.name("arguments").value(arguments);
+        }
+        writer.endObject();
+    }
+
     /**
      * 从 JSON 解析
      */
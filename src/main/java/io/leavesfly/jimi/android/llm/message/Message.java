@@ -1,15 +1,25 @@
 package io.leavesfly.jimi.android.llm.message;
 
+import io.leavesfly.jimi.android.llm.json.JsonWriter;
+import io.leavesfly.jimi.android.llm.tokenizer.Tokenizer;
+
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * 消息实体
  * 支持 OpenAI API 消息格式
+ * <p>
+ * 消息创建后不可变：创建时复制传入的 ToolCall 列表及其中的 ToolCall，
+ * getToolCalls 返回副本，因此序列化结果与 token 数可以安全缓存，
+ * 多步执行时历史消息只需编码和计数一次。
  */
 public class Message {
 
@@ -19,12 +29,22 @@ public class Message {
     private final List<ToolCall> toolCalls;
     private final String toolCallId;
 
+    /**
+     * 缓存的 UTF-8 JSON 编码，首次请求时生成
+     */
+    private volatile byte[] encodedJson;
+
+    /**
+     * 缓存的 token 数及计算它的分词器
+     */
+    private volatile TokenCount tokenCount;
+
     private Message(MessageRole role, String content, List<ContentPart> contentParts,
                     List<ToolCall> toolCalls, String toolCallId) {
         this.role = role;
         this.content = content;
-        this.contentParts = contentParts;
-        this.toolCalls = toolCalls;
+        this.contentParts = contentParts != null ? new ArrayList<>(contentParts) : null;
+        this.toolCalls = toolCalls != null ? Collections.unmodifiableList(copyOf(toolCalls)) : null;
         this.toolCallId = toolCallId;
     }
 
@@ -40,8 +60,13 @@ public class Message {
         return contentParts != null ? new ArrayList<>(contentParts) : new ArrayList<>();
     }
 
+    /**
+     * 获取工具调用
+     *
+     * @return 工具调用的副本，修改不影响消息；没有工具调用时返回 null
+     */
     public List<ToolCall> getToolCalls() {
-        return toolCalls;
+        return toolCalls != null ? copyOf(toolCalls) : null;
     }
 
     public String getToolCallId() {
@@ -74,6 +99,94 @@ public class Message {
         return json;
     }
 
+    /**
+     * 以 OpenAI API JSON 格式写入流式写入器，字段与 toJson() 一致
+     */
+    public void writeJson(JsonWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("role").value(role.getValue());
+
+        if (content != null) {
+            writer.name("content").value(content);
+        }
+
+        if (toolCalls != null && !toolCalls.isEmpty()) {
+            writer.name("tool_calls").beginArray();
+            for (ToolCall tc : toolCalls) {
+                tc.writeJson(writer);
+            }
+            writer.endArray();
+        }
+
+        if (toolCallId != null) {
+            writer.name("tool_call_id").value(toolCallId);
+        }
+
+        writer.endObject();
+    }
+
+    /**
+     * 获取 OpenAI API JSON 格式的 UTF-8 编码（带缓存）
+     * 返回的数组由消息共享，调用方不得修改
+     */
+    public byte[] toJsonBytes() throws IOException {
+        byte[] encoded = encodedJson;
+        if (encoded == null) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(estimateEncodedSize());
+            JsonWriter writer = new JsonWriter(out, 512);
+            writeJson(writer);
+            writer.flush();
+            encoded = out.toByteArray();
+            encodedJson = encoded;
+        }
+        return encoded;
+    }
+
+    /**
+     * 获取消息的 token 数（带缓存，分词器变化时重新计算）
+     */
+    public int getTokenCount(Tokenizer tokenizer) {
+        TokenCount cached = tokenCount;
+        if (cached == null || cached.tokenizer != tokenizer) {
+            cached = new TokenCount(tokenizer, tokenizer.countTokens(this));
+            tokenCount = cached;
+        }
+        return cached.count;
+    }
+
+    private static final class TokenCount {
+        final Tokenizer tokenizer;
+        final int count;
+
+        TokenCount(Tokenizer tokenizer, int count) {
+            this.tokenizer = tokenizer;
+            this.count = count;
+        }
+    }
+
+    /**
+     * 深复制工具调用列表，ToolCall 与 FunctionCall 都有公开的 setter
+     */
+    private static List<ToolCall> copyOf(List<ToolCall> toolCalls) {
+        List<ToolCall> copies = new ArrayList<>(toolCalls.size());
+        for (ToolCall toolCall : toolCalls) {
+            FunctionCall function = toolCall.getFunction();
+            ToolCall copy = new ToolCall(toolCall.getId(),
+                    function != null ? new FunctionCall(function.getName(), function.getArguments()) : null);
+            copy.setType(toolCall.getType());
+            copies.add(copy);
+        }
+        return copies;
+    }
+
+    private int estimateEncodedSize() {
+        int size = 64 + (content != null ? content.length() * 3 : 0);
+        if (toolCalls != null) {
+            size += toolCalls.size() * 128;
+        }
+        return size;
+    }
+
     // 静态工厂方法
     public static Message user(String content) {
         return new Message(MessageRole.USER, content, null, null, null);
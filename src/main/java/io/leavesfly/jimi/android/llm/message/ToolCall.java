@@ -1,8 +1,12 @@
 package io.leavesfly.jimi.android.llm.message;
 
+import io.leavesfly.jimi.android.llm.json.JsonWriter;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 /**
  * 工具调用实体
  * 对应 LLM 返回的 tool_calls 中的单个调用
@@ -72,6 +76,24 @@ public class ToolCall {
         return json;
     }
 
+    /**
+     * 写入流式写入器，字段与 toJson() 一致
+     */
+    public void writeJson(JsonWriter writer) throws IOException {
+        writer.beginObject();
+        if (id != null) {
+            writer.name("id").value(id);
+        }
+        if (type != null) {
+            writer.name("type").value(type);
+        }
+        if (function != null) {
+            writer.name("function");
+            function.writeJson(writer);
+        }
+        writer.endObject();
+    }
+
     /**
      * 从 JSON 解析
      */
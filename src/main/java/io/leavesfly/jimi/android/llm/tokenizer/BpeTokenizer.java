@@ -0,0 +1,211 @@
+package io.leavesfly.jimi.android.llm.tokenizer;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 字节级 BPE 分词器
+ * <p>
+ * - 词表为 tiktoken 格式：每行 "base64(token 字节) rank"，可加载 cl100k_base 等模型词表
+ * - 先按正则预分词，再对每个片段的 UTF-8 字节按 rank 合并；中文等多字节字符
+ *   在字节层面合并，词表中没有的字节组合退化为逐字节计数，不会出错
+ * - 不可变，可在多线程间共享；单条消息的计数由 Message 缓存，不在分词器内缓存片段
+ */
+public class BpeTokenizer implements Tokenizer {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final Charset ISO_8859_1 = Charset.forName("ISO-8859-1");
+
+    /**
+     * cl100k_base 的预分词正则
+     */
+    public static final String CL100K_PATTERN =
+            "'(?i:[sdmt]|ll|ve|re)|[^\\r\\n\\p{L}\\p{N}]?+\\p{L}+|\\p{N}{1,3}"
+                    + "| ?[^\\s\\p{L}\\p{N}]++[\\r\\n]*|\\s*[\\r\\n]|\\s+(?!\\S)|\\s+";
+
+    /**
+     * token 字节（按 ISO-8859-1 映射为 String，一个字符对应一个字节）到 rank 的映射
+     */
+    private final Map<String, Integer> ranks;
+    private final Pattern pattern;
+
+    /**
+     * @param ranks   token 字节（ISO-8859-1 映射的 String）到 rank 的映射
+     * @param pattern 预分词正则
+     */
+    public BpeTokenizer(Map<String, Integer> ranks, String pattern) {
+        this.ranks = ranks;
+        this.pattern = Pattern.compile(pattern);
+    }
+
+    /**
+     * 加载 tiktoken 格式词表，使用 cl100k_base 预分词正则
+     */
+    public static BpeTokenizer load(InputStream in) throws IOException {
+        return load(in, CL100K_PATTERN);
+    }
+
+    /**
+     * 加载 tiktoken 格式词表
+     *
+     * @param in      词表输入流（读取后关闭）
+     * @param pattern 预分词正则
+     */
+    public static BpeTokenizer load(InputStream in, String pattern) throws IOException {
+        Map<String, Integer> ranks = new HashMap<>(128 * 1024);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, UTF_8))) {
+            String line;
+            int lineNo = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNo++;
+                line = line.trim();
+                if (line.isEmpty()) {
+                    continue;
+                }
+                int space = line.indexOf(' ');
+                if (space <= 0) {
+                    throw new IOException("Invalid vocab line " + lineNo + ": " + line);
+                }
+                try {
+                    byte[] token = Base64Decoder.decode(line.substring(0, space));
+                    int rank = Integer.parseInt(line.substring(space + 1).trim());
+                    ranks.put(new String(token, ISO_8859_1), rank);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Invalid vocab line " + lineNo + ": " + line, e);
+                }
+            }
+        }
+        return new BpeTokenizer(ranks, pattern);
+    }
+
+    /**
+     * 词表大小
+     */
+    public int getVocabSize() {
+        return ranks.size();
+    }
+
+    @Override
+    public int countTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int count = 0;
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            count += countPiece(matcher.group());
+        }
+        return count;
+    }
+
+    private int countPiece(String piece) {
+        String bytes = new String(piece.getBytes(UTF_8), ISO_8859_1);
+        return ranks.containsKey(bytes) ? 1 : mergeCount(bytes);
+    }
+
+    /**
+     * 按 rank 从低到高合并相邻字节段，返回最终段数
+     * 与 tiktoken 的 byte_pair_merge 一致：每轮合并 rank 最小的相邻对
+     */
+    private int mergeCount(String bytes) {
+        int n = bytes.length();
+        if (n <= 1) {
+            return n;
+        }
+        // boundaries[i] 为第 i 段的起始位置，最后一个元素为 n
+        int[] boundaries = new int[n + 1];
+        for (int i = 0; i <= n; i++) {
+            boundaries[i] = i;
+        }
+        int parts = n;
+        // pairRanks[i] 为第 i 段与第 i+1 段合并后的 rank
+        int[] pairRanks = new int[n];
+        for (int i = 0; i < parts - 1; i++) {
+            pairRanks[i] = rankOf(bytes, boundaries[i], boundaries[i + 2]);
+        }
+
+        while (parts > 1) {
+            int minRank = Integer.MAX_VALUE;
+            int minIndex = -1;
+            for (int i = 0; i < parts - 1; i++) {
+                if (pairRanks[i] < minRank) {
+                    minRank = pairRanks[i];
+                    minIndex = i;
+                }
+            }
+            if (minIndex < 0) {
+                break;
+            }
+
+            // 删除边界 minIndex + 1，合并两段
+            System.arraycopy(boundaries, minIndex + 2, boundaries, minIndex + 1, parts - minIndex - 1);
+            System.arraycopy(pairRanks, minIndex + 1, pairRanks, minIndex, parts - minIndex - 2);
+            parts--;
+
+            if (minIndex < parts - 1) {
+                pairRanks[minIndex] = rankOf(bytes, boundaries[minIndex], boundaries[minIndex + 2]);
+            }
+            if (minIndex > 0) {
+                pairRanks[minIndex - 1] = rankOf(bytes, boundaries[minIndex - 1], boundaries[minIndex + 1]);
+            }
+        }
+        return parts;
+    }
+
+    private int rankOf(String bytes, int start, int end) {
+        Integer rank = ranks.get(bytes.substring(start, end));
+        return rank != null ? rank : Integer.MAX_VALUE;
+    }
+
+    /**
+     * 最小的 Base64 解码（java.util.Base64 需要 Android API 26）
+     */
+    static final class Base64Decoder {
+
+        private static final int[] VALUES = new int[128];
+
+        static {
+            Arrays.fill(VALUES, -1);
+            String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+            for (int i = 0; i < alphabet.length(); i++) {
+                VALUES[alphabet.charAt(i)] = i;
+            }
+        }
+
+        private Base64Decoder() {
+        }
+
+        static byte[] decode(String s) {
+            int length = s.length();
+            while (length > 0 && s.charAt(length - 1) == '=') {
+                length--;
+            }
+            byte[] out = new byte[length * 3 / 4];
+            int buffer = 0;
+            int bits = 0;
+            int pos = 0;
+            for (int i = 0; i < length; i++) {
+                char c = s.charAt(i);
+                int value = c < 128 ? VALUES[c] : -1;
+                if (value < 0) {
+                    throw new IllegalArgumentException("Invalid base64 character: " + c);
+                }
+                buffer = (buffer << 6) | value;
+                bits += 6;
+                if (bits >= 8) {
+                    bits -= 8;
+                    out[pos++] = (byte) (buffer >> bits);
+                }
+            }
+            return pos == out.length ? out : Arrays.copyOf(out, pos);
+        }
+    }
+}
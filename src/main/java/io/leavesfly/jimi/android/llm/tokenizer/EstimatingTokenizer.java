@@ -0,0 +1,38 @@
+package io.leavesfly.jimi.android.llm.tokenizer;
+
+/**
+ * 估算分词器（默认实现）
+ * <p>
+ * 不需要词表：中日韩字符按每字一个 token 计，其余字符按每 4 个一个 token 计。
+ * 对中文文本比按长度除以 4 准确得多，但与真实分词结果仍有偏差，
+ * 需要精确计数时请使用 BpeTokenizer 加载模型对应的词表。
+ */
+public class EstimatingTokenizer implements Tokenizer {
+
+    @Override
+    public int countTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        int cjk = 0;
+        int other = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (isCjk(text.charAt(i))) {
+                cjk++;
+            } else {
+                other++;
+            }
+        }
+        return cjk + (other + 3) / 4;
+    }
+
+    /**
+     * 是否为中日韩文字或全角符号
+     */
+    static boolean isCjk(char c) {
+        return (c >= 0x2E80 && c <= 0x9FFF)
+                || (c >= 0xAC00 && c <= 0xD7AF)
+                || (c >= 0xF900 && c <= 0xFAFF)
+                || (c >= 0xFF00 && c <= 0xFFEF);
+    }
+}
@@ -0,0 +1,47 @@
+package io.leavesfly.jimi.android.llm.tokenizer;
+
+import io.leavesfly.jimi.android.llm.message.Message;
+import io.leavesfly.jimi.android.llm.message.ToolCall;
+
+/**
+ * 分词器接口
+ * 用于在本地计算文本与消息的 token 数，实现必须线程安全
+ */
+public interface Tokenizer {
+
+    /**
+     * 每条消息的固定开销（角色标记与分隔符）
+     */
+    int MESSAGE_OVERHEAD_TOKENS = 4;
+
+    /**
+     * 每个工具调用的固定开销（id、类型等结构字段）
+     */
+    int TOOL_CALL_OVERHEAD_TOKENS = 3;
+
+    /**
+     * 计算文本的 token 数
+     *
+     * @param text 文本，null 视为空
+     * @return token 数
+     */
+    int countTokens(String text);
+
+    /**
+     * 计算一条消息占用的 token 数（内容、工具调用与消息开销）
+     * 调用方通常应使用 Message.getTokenCount(Tokenizer)，结果会缓存在消息上
+     */
+    default int countTokens(Message message) {
+        int tokens = MESSAGE_OVERHEAD_TOKENS + countTokens(message.getContent());
+        if (message.getToolCalls() != null) {
+            for (ToolCall toolCall : message.getToolCalls()) {
+                tokens += TOOL_CALL_OVERHEAD_TOKENS;
+                if (toolCall.getFunction() != null) {
+                    tokens += countTokens(toolCall.getFunction().getName());
+                    tokens += countTokens(toolCall.getFunction().getArguments());
+                }
+            }
+        }
+        return tokens;
+    }
+}
@@ -1,5 +1,14 @@
 package io.leavesfly.jimi.android.sdk;
 
+import io.leavesfly.jimi.android.llm.LoadBalancingChatProvider;
+import io.leavesfly.jimi.android.llm.tokenizer.EstimatingTokenizer;
+import io.leavesfly.jimi.android.llm.tokenizer.Tokenizer;
+import io.leavesfly.jimi.android.tool.ToolSelector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
 /**
  * Jimi SDK 配置类
  */
@@ -10,7 +19,37 @@ public class JimiConfig {
     private String apiKey;
     private int maxContextSize = 8000;
     private int maxStepsPerRun = 10;
+    private long runTimeoutMillis = 0;
     private String workDir = "/tmp";
+    private boolean pooledHttpTransport = false;
+    private int maxIdleConnections = 5;
+    private long keepAliveDurationMillis = 60_000;
+    private boolean chunkedRequestBody = true;
+    private boolean streamUsage = true;
+    private boolean streamMetricsEnabled = false;
+    private long wireCoalesceWindowMillis = 0;
+    private int wireCoalesceMaxChars = 256;
+    private boolean earlyToolDispatch = false;
+    private boolean parallelToolCalls = false;
+    private int toolMaxConcurrency = 4;
+    private int toolQueueCapacity = 32;
+    private int toolCacheMaxEntries = 128;
+    private long toolTimeoutMillis = 0;
+    private int toolFailureThreshold = 5;
+    private long toolCircuitOpenMillis = 30_000;
+    private boolean toolArgumentValidation = true;
+    private int toolResultMaxTokens = 1000;
+    private ToolSelector toolSelector;
+    private Tokenizer tokenizer = new EstimatingTokenizer();
+    private int llmMaxConcurrency = 4;
+    private int llmQueueCapacity = 16;
+    private int llmMaxAttempts = 3;
+    private long llmRetryInitialBackoffMillis = 500;
+    private long llmRetryMaxBackoffMillis = 8_000;
+    private boolean llmHedgingEnabled = false;
+    private final List<Endpoint> additionalEndpoints = new ArrayList<>();
+    private LoadBalancingChatProvider.Strategy loadBalancingStrategy =
+            LoadBalancingChatProvider.Strategy.LEAST_OUTSTANDING;
     
     public String getModelName() {
         return modelName;
@@ -52,6 +91,17 @@ public class JimiConfig {
         this.maxStepsPerRun = maxStepsPerRun;
     }
     
+    /**
+     * 单次运行的默认截止时间（毫秒），0 表示不限时
+     */
+    public long getRunTimeoutMillis() {
+        return runTimeoutMillis;
+    }
+    
+    public void setRunTimeoutMillis(long runTimeoutMillis) {
+        this.runTimeoutMillis = runTimeoutMillis;
+    }
+    
     public String getWorkDir() {
         return workDir;
     }
@@ -60,6 +110,242 @@ public class JimiConfig {
         this.workDir = workDir;
     }
     
+    public boolean isPooledHttpTransport() {
+        return pooledHttpTransport;
+    }
+    
+    public void setPooledHttpTransport(boolean pooledHttpTransport) {
+        this.pooledHttpTransport = pooledHttpTransport;
+    }
+    
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+    
+    public void setMaxIdleConnections(int maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+    }
+    
+    public long getKeepAliveDurationMillis() {
+        return keepAliveDurationMillis;
+    }
+    
+    public void setKeepAliveDurationMillis(long keepAliveDurationMillis) {
+        this.keepAliveDurationMillis = keepAliveDurationMillis;
+    }
+    
+    public boolean isChunkedRequestBody() {
+        return chunkedRequestBody;
+    }
+    
+    public void setChunkedRequestBody(boolean chunkedRequestBody) {
+        this.chunkedRequestBody = chunkedRequestBody;
+    }
+    
+    public boolean isStreamUsage() {
+        return streamUsage;
+    }
+    
+    public void setStreamUsage(boolean streamUsage) {
+        this.streamUsage = streamUsage;
+    }
+    
+    public boolean isStreamMetricsEnabled() {
+        return streamMetricsEnabled;
+    }
+    
+    public void setStreamMetricsEnabled(boolean streamMetricsEnabled) {
+        this.streamMetricsEnabled = streamMetricsEnabled;
+    }
+    
+    /**
+     * 流式内容合并窗口（毫秒），0 表示不合并
+     */
+    public long getWireCoalesceWindowMillis() {
+        return wireCoalesceWindowMillis;
+    }
+    
+    public void setWireCoalesceWindowMillis(long wireCoalesceWindowMillis) {
+        this.wireCoalesceWindowMillis = wireCoalesceWindowMillis;
+    }
+    
+    public int getWireCoalesceMaxChars() {
+        return wireCoalesceMaxChars;
+    }
+    
+    public void setWireCoalesceMaxChars(int wireCoalesceMaxChars) {
+        this.wireCoalesceMaxChars = wireCoalesceMaxChars;
+    }
+    
+    public boolean isEarlyToolDispatch() {
+        return earlyToolDispatch;
+    }
+    
+    public void setEarlyToolDispatch(boolean earlyToolDispatch) {
+        this.earlyToolDispatch = earlyToolDispatch;
+    }
+    
+    public boolean isParallelToolCalls() {
+        return parallelToolCalls;
+    }
+    
+    public void setParallelToolCalls(boolean parallelToolCalls) {
+        this.parallelToolCalls = parallelToolCalls;
+    }
+    
+    public int getToolMaxConcurrency() {
+        return toolMaxConcurrency;
+    }
+    
+    public void setToolMaxConcurrency(int toolMaxConcurrency) {
+        this.toolMaxConcurrency = toolMaxConcurrency;
+    }
+    
+    public int getToolQueueCapacity() {
+        return toolQueueCapacity;
+    }
+    
+    public void setToolQueueCapacity(int toolQueueCapacity) {
+        this.toolQueueCapacity = toolQueueCapacity;
+    }
+    
+    public int getToolCacheMaxEntries() {
+        return toolCacheMaxEntries;
+    }
+    
+    public void setToolCacheMaxEntries(int toolCacheMaxEntries) {
+        this.toolCacheMaxEntries = toolCacheMaxEntries;
+    }
+    
+    public long getToolTimeoutMillis() {
+        return toolTimeoutMillis;
+    }
+    
+    public void setToolTimeoutMillis(long toolTimeoutMillis) {
+        this.toolTimeoutMillis = toolTimeoutMillis;
+    }
+    
+    public int getToolFailureThreshold() {
+        return toolFailureThreshold;
+    }
+    
+    public void setToolFailureThreshold(int toolFailureThreshold) {
+        this.toolFailureThreshold = toolFailureThreshold;
+    }
+    
+    public long getToolCircuitOpenMillis() {
+        return toolCircuitOpenMillis;
+    }
+    
+    public void setToolCircuitOpenMillis(long toolCircuitOpenMillis) {
+        this.toolCircuitOpenMillis = toolCircuitOpenMillis;
+    }
+    
+    public boolean isToolArgumentValidation() {
+        return toolArgumentValidation;
+    }
+    
+    public void setToolArgumentValidation(boolean toolArgumentValidation) {
+        this.toolArgumentValidation = toolArgumentValidation;
+    }
+    
+    public int getToolResultMaxTokens() {
+        return toolResultMaxTokens;
+    }
+    
+    public void setToolResultMaxTokens(int toolResultMaxTokens) {
+        this.toolResultMaxTokens = toolResultMaxTokens;
+    }
+    
+    /**
+     * 每步选择发送哪些工具 Schema，null 表示发送 Agent 的全部工具
+     */
+    public ToolSelector getToolSelector() {
+        return toolSelector;
+    }
+    
+    public void setToolSelector(ToolSelector toolSelector) {
+        this.toolSelector = toolSelector;
+    }
+    
+    /**
+     * 本地计数上下文 token 的分词器
+     */
+    public Tokenizer getTokenizer() {
+        return tokenizer;
+    }
+    
+    public void setTokenizer(Tokenizer tokenizer) {
+        this.tokenizer = tokenizer;
+    }
+    
+    public int getLlmMaxConcurrency() {
+        return llmMaxConcurrency;
+    }
+    
+    public void setLlmMaxConcurrency(int llmMaxConcurrency) {
+        this.llmMaxConcurrency = llmMaxConcurrency;
+    }
+    
+    public int getLlmQueueCapacity() {
+        return llmQueueCapacity;
+    }
+    
+    public void setLlmQueueCapacity(int llmQueueCapacity) {
+        this.llmQueueCapacity = llmQueueCapacity;
+    }
+    
+    public int getLlmMaxAttempts() {
+        return llmMaxAttempts;
+    }
+    
+    public void setLlmMaxAttempts(int llmMaxAttempts) {
+        this.llmMaxAttempts = llmMaxAttempts;
+    }
+    
+    public long getLlmRetryInitialBackoffMillis() {
+        return llmRetryInitialBackoffMillis;
+    }
+    
+    public void setLlmRetryInitialBackoffMillis(long llmRetryInitialBackoffMillis) {
+        this.llmRetryInitialBackoffMillis = llmRetryInitialBackoffMillis;
+    }
+    
+    public long getLlmRetryMaxBackoffMillis() {
+        return llmRetryMaxBackoffMillis;
+    }
+    
+    public void setLlmRetryMaxBackoffMillis(long llmRetryMaxBackoffMillis) {
+        this.llmRetryMaxBackoffMillis = llmRetryMaxBackoffMillis;
+    }
+    
+    public boolean isLlmHedgingEnabled() {
+        return llmHedgingEnabled;
+    }
+    
+    public void setLlmHedgingEnabled(boolean llmHedgingEnabled) {
+        this.llmHedgingEnabled = llmHedgingEnabled;
+    }
+    
+    /**
+     * 获取 baseUrl 之外的其他端点，非空时请求在所有端点间负载均衡
+     */
+    public List<Endpoint> getAdditionalEndpoints() {
+        return Collections.unmodifiableList(additionalEndpoints);
+    }
+    
+    public void addEndpoint(String baseUrl, String apiKey) {
+        additionalEndpoints.add(new Endpoint(baseUrl, apiKey));
+    }
+    
+    public LoadBalancingChatProvider.Strategy getLoadBalancingStrategy() {
+        return loadBalancingStrategy;
+    }
+    
+    public void setLoadBalancingStrategy(LoadBalancingChatProvider.Strategy loadBalancingStrategy) {
+        this.loadBalancingStrategy = loadBalancingStrategy;
+    }
+    
     /**
      * 验证配置
      */
@@ -79,6 +365,90 @@ public class JimiConfig {
         if (maxStepsPerRun <= 0) {
             throw new IllegalArgumentException("maxStepsPerRun must be positive");
         }
+        if (tokenizer == null) {
+            throw new IllegalArgumentException("tokenizer cannot be null");
+        }
+        if (runTimeoutMillis < 0) {
+            throw new IllegalArgumentException("runTimeoutMillis must not be negative");
+        }
+        if (toolMaxConcurrency <= 0) {
+            throw new IllegalArgumentException("toolMaxConcurrency must be positive");
+        }
+        if (toolQueueCapacity < 0) {
+            throw new IllegalArgumentException("toolQueueCapacity must not be negative");
+        }
+        if (toolCacheMaxEntries < 0) {
+            throw new IllegalArgumentException("toolCacheMaxEntries must not be negative");
+        }
+        if (toolTimeoutMillis < 0) {
+            throw new IllegalArgumentException("toolTimeoutMillis must not be negative");
+        }
+        if (toolFailureThreshold < 0) {
+            throw new IllegalArgumentException("toolFailureThreshold must not be negative");
+        }
+        if (toolCircuitOpenMillis <= 0) {
+            throw new IllegalArgumentException("toolCircuitOpenMillis must be positive");
+        }
+        if (toolResultMaxTokens < 0) {
+            throw new IllegalArgumentException("toolResultMaxTokens must not be negative");
+        }
+        if (wireCoalesceWindowMillis < 0) {
+            throw new IllegalArgumentException("wireCoalesceWindowMillis must not be negative");
+        }
+        if (wireCoalesceWindowMillis > 0 && wireCoalesceMaxChars <= 0) {
+            throw new IllegalArgumentException("wireCoalesceMaxChars must be positive");
+        }
+        if (maxIdleConnections < 0) {
+            throw new IllegalArgumentException("maxIdleConnections must not be negative");
+        }
+        if (keepAliveDurationMillis <= 0) {
+            throw new IllegalArgumentException("keepAliveDurationMillis must be positive");
+        }
+        if (llmMaxConcurrency <= 0) {
+            throw new IllegalArgumentException("llmMaxConcurrency must be positive");
+        }
+        if (llmQueueCapacity < 0) {
+            throw new IllegalArgumentException("llmQueueCapacity must not be negative");
+        }
+        if (llmMaxAttempts <= 0) {
+            throw new IllegalArgumentException("llmMaxAttempts must be positive");
+        }
+        if (llmRetryInitialBackoffMillis < 0 || llmRetryMaxBackoffMillis < llmRetryInitialBackoffMillis) {
+            throw new IllegalArgumentException("Invalid LLM retry backoff range");
+        }
+        for (Endpoint endpoint : additionalEndpoints) {
+            if (endpoint.getBaseUrl() == null || endpoint.getBaseUrl().isEmpty()) {
+                throw new IllegalArgumentException("Endpoint baseUrl cannot be null or empty");
+            }
+        }
+        if (loadBalancingStrategy == null) {
+            throw new IllegalArgumentException("loadBalancingStrategy cannot be null");
+        }
+    }
+    
+    /**
+     * 额外的 LLM 端点
+     */
+    public static class Endpoint {
+        private final String baseUrl;
+        private final String apiKey;
+        
+        /**
+         * @param baseUrl API 基础 URL
+         * @param apiKey  API Key，为 null 时使用主配置的 apiKey
+         */
+        public Endpoint(String baseUrl, String apiKey) {
+            this.baseUrl = baseUrl;
+            this.apiKey = apiKey;
+        }
+        
+        public String getBaseUrl() {
+            return baseUrl;
+        }
+        
+        public String getApiKey() {
+            return apiKey;
+        }
     }
     
     /**
@@ -112,11 +482,243 @@ public class JimiConfig {
             return this;
         }
         
+        /**
+         * 单次运行的默认截止时间（毫秒），0 表示不限时
+         * 截止时间覆盖所有步骤的 LLM 调用与工具执行
+         */
+        public Builder timeout(long runTimeoutMillis) {
+            config.runTimeoutMillis = runTimeoutMillis;
+            return this;
+        }
+        
         public Builder workDir(String workDir) {
             config.workDir = workDir;
             return this;
         }
         
+        /**
+         * 是否使用内置的 Socket 连接池传输层（默认 false，使用 HttpURLConnection）
+         * 内置传输层不经过系统代理、不支持 gzip 与 HTTP/2，只在直连 API 且需要连接级统计时开启
+         */
+        public Builder pooledHttpTransport(boolean pooledHttpTransport) {
+            config.pooledHttpTransport = pooledHttpTransport;
+            return this;
+        }
+        
+        /**
+         * 每个 API 地址保留的最大空闲连接数，仅对 pooledHttpTransport 生效
+         */
+        public Builder maxIdleConnections(int maxIdleConnections) {
+            config.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+        
+        /**
+         * 空闲连接最长保留时间（毫秒），仅对 pooledHttpTransport 生效
+         */
+        public Builder keepAliveDurationMillis(long keepAliveDurationMillis) {
+            config.keepAliveDurationMillis = keepAliveDurationMillis;
+            return this;
+        }
+        
+        /**
+         * 是否以 chunked 编码流式发送请求体，网关不支持时可关闭
+         */
+        public Builder chunkedRequestBody(boolean chunkedRequestBody) {
+            config.chunkedRequestBody = chunkedRequestBody;
+            return this;
+        }
+        
+        /**
+         * 是否请求服务端在流末尾返回 token 用量，用于准确的上下文计数
+         * 网关不支持 stream_options 时可关闭，此时回退为本地估算
+         */
+        public Builder streamUsage(boolean streamUsage) {
+            config.streamUsage = streamUsage;
+            return this;
+        }
+        
+        /**
+         * 是否记录每步 LLM 流的连接、首字节、首 token 与数据块间隔耗时
+         * 开启后通过 Engine.getStreamStats() 获取汇总，并在 Wire 上发送 StreamMetricsMessage
+         */
+        public Builder streamMetrics(boolean streamMetricsEnabled) {
+            config.streamMetricsEnabled = streamMetricsEnabled;
+            return this;
+        }
+        
+        /**
+         * 合并连续的流式内容后再分发给 Wire 监听器，减少高频数据块带来的任务与界面刷新
+         * 
+         * @param windowMillis 合并时间窗口（毫秒），0 表示不合并
+         * @param maxChars 缓存内容达到该字符数时立即分发
+         */
+        public Builder wireCoalescing(long windowMillis, int maxChars) {
+            config.wireCoalesceWindowMillis = windowMillis;
+            config.wireCoalesceMaxChars = maxChars;
+            return this;
+        }
+        
+        /**
+         * 工具调用参数一完整就在流结束前提前执行，与剩余内容的生成重叠
+         * 结果仍按原顺序写入上下文；流失败或被取消时提前执行的结果被丢弃
+         * 仅对元数据声明为无副作用（READ_ONLY / IDEMPOTENT）的工具生效
+         */
+        public Builder earlyToolDispatch(boolean earlyToolDispatch) {
+            config.earlyToolDispatch = earlyToolDispatch;
+            return this;
+        }
+        
+        /**
+         * 同一轮的多个工具调用并发执行，结果仍按调用顺序写入上下文
+         * 有副作用的工具（未声明元数据时的默认值）或通过 ToolRegistry.setConcurrent(name, false) 关闭的工具单独执行
+         */
+        public Builder parallelToolCalls(boolean parallelToolCalls) {
+            config.parallelToolCalls = parallelToolCalls;
+            return this;
+        }
+        
+        /**
+         * 工具线程池的最大并发数
+         */
+        public Builder toolMaxConcurrency(int toolMaxConcurrency) {
+            config.toolMaxConcurrency = toolMaxConcurrency;
+            return this;
+        }
+        
+        /**
+         * 工具线程池的等待队列容量，队列满时工具改为在执行线程上运行
+         */
+        public Builder toolQueueCapacity(int toolQueueCapacity) {
+            config.toolQueueCapacity = toolQueueCapacity;
+            return this;
+        }
+        
+        /**
+         * 工具结果缓存的最大条目数，0 表示不缓存
+         * 只缓存元数据声明为可缓存的只读工具
+         */
+        public Builder toolCacheMaxEntries(int toolCacheMaxEntries) {
+            config.toolCacheMaxEntries = toolCacheMaxEntries;
+            return this;
+        }
+        
+        /**
+         * 未在元数据中声明超时的工具的默认超时时间（毫秒），0 表示不限时
+         */
+        public Builder toolTimeout(long toolTimeoutMillis) {
+            config.toolTimeoutMillis = toolTimeoutMillis;
+            return this;
+        }
+        
+        /**
+         * 工具熔断：连续 failureThreshold 次抛出异常或超时后 openMillis 内直接返回错误结果，0 表示不熔断
+         */
+        public Builder toolCircuitBreaker(int failureThreshold, long openMillis) {
+            config.toolFailureThreshold = failureThreshold;
+            config.toolCircuitOpenMillis = openMillis;
+            return this;
+        }
+        
+        /**
+         * 执行前按工具的参数 Schema 校验参数，不合法时直接返回错误结果，默认开启
+         */
+        public Builder toolArgumentValidation(boolean toolArgumentValidation) {
+            config.toolArgumentValidation = toolArgumentValidation;
+            return this;
+        }
+        
+        /**
+         * 工具结果写入上下文时的默认 token 预算，超出时保留首尾、合并重复行并标注截断，0 表示不限
+         * 工具可通过 ToolMetadata.maxResultTokens 单独声明
+         */
+        public Builder toolResultMaxTokens(int toolResultMaxTokens) {
+            config.toolResultMaxTokens = toolResultMaxTokens;
+            return this;
+        }
+        
+        /**
+         * 每步只发送与对话相关的工具 Schema，默认发送 Agent 的全部工具
+         * 工具较多时可使用 LexicalToolSelector
+         */
+        public Builder toolSelector(ToolSelector toolSelector) {
+            config.toolSelector = toolSelector;
+            return this;
+        }
+        
+        /**
+         * 本地计数上下文 token 的分词器，默认按中日韩字符估算
+         * 需要精确计数时可用 BpeTokenizer.load 加载模型词表
+         */
+        public Builder tokenizer(Tokenizer tokenizer) {
+            config.tokenizer = tokenizer;
+            return this;
+        }
+        
+        /**
+         * 每个 LLM 实例的最大并发流式请求数
+         */
+        public Builder llmMaxConcurrency(int llmMaxConcurrency) {
+            config.llmMaxConcurrency = llmMaxConcurrency;
+            return this;
+        }
+        
+        /**
+         * LLM 请求等待队列容量，队列满时请求立即以 RejectedExecutionException 失败
+         */
+        public Builder llmQueueCapacity(int llmQueueCapacity) {
+            config.llmQueueCapacity = llmQueueCapacity;
+            return this;
+        }
+        
+        /**
+         * LLM 请求最大尝试次数（含首次请求），1 表示不重试
+         */
+        public Builder llmMaxAttempts(int llmMaxAttempts) {
+            config.llmMaxAttempts = llmMaxAttempts;
+            return this;
+        }
+        
+        /**
+         * 重试退避的初始等待与上限（毫秒）
+         */
+        public Builder llmRetryBackoff(long initialMillis, long maxMillis) {
+            config.llmRetryInitialBackoffMillis = initialMillis;
+            config.llmRetryMaxBackoffMillis = maxMillis;
+            return this;
+        }
+        
+        /**
+         * 是否启用对冲请求：首包超过 p95 首包时间未到时再发一个请求，先到者胜出
+         */
+        public Builder llmHedgingEnabled(boolean llmHedgingEnabled) {
+            config.llmHedgingEnabled = llmHedgingEnabled;
+            return this;
+        }
+        
+        /**
+         * 添加与主 baseUrl 并列的端点（使用主 apiKey），请求在所有端点间负载均衡
+         */
+        public Builder addEndpoint(String baseUrl) {
+            return addEndpoint(baseUrl, null);
+        }
+        
+        /**
+         * 添加与主 baseUrl 并列的端点，请求在所有端点间负载均衡
+         */
+        public Builder addEndpoint(String baseUrl, String apiKey) {
+            config.addEndpoint(baseUrl, apiKey);
+            return this;
+        }
+        
+        /**
+         * 多端点时的选择策略，默认选择进行中请求最少的端点
+         */
+        public Builder loadBalancingStrategy(LoadBalancingChatProvider.Strategy strategy) {
+            config.loadBalancingStrategy = strategy;
+            return this;
+        }
+        
         public JimiConfig build() {
             return config;
         }
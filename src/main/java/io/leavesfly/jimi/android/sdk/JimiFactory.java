@@ -9,6 +9,7 @@ import io.leavesfly.jimi.android.core.engine.Engine;
 import io.leavesfly.jimi.android.core.engine.JimiEngine;
 import io.leavesfly.jimi.android.core.runtime.Runtime;
 import io.leavesfly.jimi.android.core.runtime.RuntimeImpl;
+import io.leavesfly.jimi.android.core.wire.CoalescingWire;
 import io.leavesfly.jimi.android.core.wire.Wire;
 import io.leavesfly.jimi.android.core.wire.WireImpl;
 import io.leavesfly.jimi.android.llm.LLM;
@@ -17,6 +18,8 @@ import io.leavesfly.jimi.android.llm.LLMFactory;
 import io.leavesfly.jimi.android.tool.Tool;
 import io.leavesfly.jimi.android.tool.ToolRegistry;
 
+import java.util.List;
+
 /**
  * Jimi 工厂类
  * 
@@ -29,11 +32,11 @@ public class JimiFactory {
     private final ToolRegistry toolRegistry;
     
     public JimiFactory(JimiConfig config) {
-        this(config, new LLMCache(), new ToolRegistry());
+        this(config, new LLMCache());
     }
     
     public JimiFactory(JimiConfig config, LLMCache llmCache) {
-        this(config, llmCache, new ToolRegistry());
+        this(config, llmCache, createToolRegistry(config));
     }
     
     public JimiFactory(JimiConfig config, LLMCache llmCache, ToolRegistry toolRegistry) {
@@ -43,6 +46,15 @@ public class JimiFactory {
         this.config.validate();
     }
     
+    private static ToolRegistry createToolRegistry(JimiConfig config) {
+        ToolRegistry registry = new ToolRegistry(config.getToolMaxConcurrency(), config.getToolQueueCapacity(),
+                config.getToolCacheMaxEntries());
+        registry.setDefaultTimeoutMillis(config.getToolTimeoutMillis());
+        registry.setCircuitBreaker(config.getToolFailureThreshold(), config.getToolCircuitOpenMillis());
+        registry.setArgumentValidation(config.isToolArgumentValidation());
+        return registry;
+    }
+    
     /**
      * 创建 Engine 实例
      * 
@@ -55,8 +67,12 @@ public class JimiFactory {
         
         // 创建组件
         Runtime runtime = new RuntimeImpl(config, llm);
-        Context context = new ContextImpl();
+        Context context = new ContextImpl(config.getTokenizer());
         Wire wire = new WireImpl();
+        if (config.getWireCoalesceWindowMillis() > 0) {
+            wire = new CoalescingWire(wire,
+                    config.getWireCoalesceWindowMillis(), config.getWireCoalesceMaxChars());
+        }
         Compaction compaction = new SimpleCompaction();
         
         // 装配 Engine
@@ -72,6 +88,15 @@ public class JimiFactory {
         toolRegistry.register(tool);
     }
     
+    /**
+     * 批量注册工具，所有工具同时生效
+     * 
+     * @param tools 工具列表
+     */
+    public void registerTools(List<Tool> tools) {
+        toolRegistry.registerAll(tools);
+    }
+    
     /**
      * 获取工具注册表
      */
@@ -5,6 +5,8 @@ import io.leavesfly.jimi.android.core.engine.Engine;
 import io.leavesfly.jimi.android.tool.Tool;
 import io.leavesfly.jimi.android.tool.ToolRegistry;
 
+import java.util.Arrays;
+
 /**
  * Jimi SDK 门面类
  * 
@@ -72,15 +74,13 @@ public class JimiSDK {
     }
     
     /**
-     * 批量注册工具
+     * 批量注册工具，所有工具同时生效
      * 
      * @param tools 工具实例数组
      */
     public static void registerTools(Tool... tools) {
         checkInitialized();
-        for (Tool tool : tools) {
-            factory.registerTool(tool);
-        }
+        factory.registerTools(Arrays.asList(tools));
     }
     
     /**
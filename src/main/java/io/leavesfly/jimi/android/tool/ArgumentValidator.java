@@ -0,0 +1,375 @@
+package io.leavesfly.jimi.android.tool;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 工具参数校验器
+ * <p>
+ * 注册工具时把 ToolSchema 的 parameters（JSON Schema 子集）编译为校验树，
+ * 执行前校验 LLM 生成的参数字符串，一次返回所有问题（最多 MAX_ERRORS 条）及其 JSON 路径，
+ * 让 LLM 在下一轮即可修正。
+ * <p>
+ * 支持 type、properties、required、additionalProperties（false）、enum、items、
+ * minimum / maximum、minLength / maxLength、minItems / maxItems；
+ * 其他关键字（如 oneOf、$ref）忽略，对应位置不做限制。
+ */
+public final class ArgumentValidator {
+
+    static final int MAX_ERRORS = 10;
+
+    private static final int TYPE_OBJECT = 1;
+    private static final int TYPE_ARRAY = 1 << 1;
+    private static final int TYPE_STRING = 1 << 2;
+    private static final int TYPE_INTEGER = 1 << 3;
+    private static final int TYPE_NUMBER = 1 << 4;
+    private static final int TYPE_BOOLEAN = 1 << 5;
+    private static final int TYPE_NULL = 1 << 6;
+
+    private final Node root;
+
+    private ArgumentValidator(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * 编译参数 Schema
+     *
+     * @param parameters ToolSchema.getParameters()
+     * @return 校验器，Schema 为空时返回 null（不校验）
+     */
+    public static ArgumentValidator compile(JSONObject parameters) {
+        return parameters != null ? new ArgumentValidator(compileNode(parameters)) : null;
+    }
+
+    /**
+     * 校验参数
+     *
+     * @param arguments JSON 格式参数，空字符串视为 {}
+     * @return 错误描述，校验通过返回 null
+     */
+    public String validate(String arguments) {
+        Object value;
+        if (arguments == null || arguments.trim().isEmpty()) {
+            value = new JSONObject();
+        } else {
+            try {
+                JSONTokener tokener = new JSONTokener(arguments);
+                value = tokener.nextValue();
+                if (tokener.nextClean() != 0) {
+                    return "arguments are not valid JSON: unexpected content after the top-level value";
+                }
+            } catch (JSONException e) {
+                return "arguments are not valid JSON: " + e.getMessage();
+            }
+        }
+
+        List<String> errors = new ArrayList<>();
+        root.validate(value, "$", errors);
+        if (errors.isEmpty()) {
+            return null;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < errors.size() && i < MAX_ERRORS; i++) {
+            if (i > 0) {
+                sb.append("; ");
+            }
+            sb.append(errors.get(i));
+        }
+        if (errors.size() > MAX_ERRORS) {
+            sb.append("; ... ").append(errors.size() - MAX_ERRORS).append(" more");
+        }
+        return sb.toString();
+    }
+
+    private static Node compileNode(JSONObject schema) {
+        Node node = new Node();
+        node.types = compileTypes(schema.opt("type"));
+
+        JSONArray enumValues = schema.optJSONArray("enum");
+        if (enumValues != null) {
+            node.enumValues = new ArrayList<>();
+            for (int i = 0; i < enumValues.length(); i++) {
+                node.enumValues.add(enumValues.opt(i));
+            }
+        }
+
+        JSONObject properties = schema.optJSONObject("properties");
+        if (properties != null) {
+            node.properties = new LinkedHashMap<>();
+            Iterator<String> keys = properties.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                JSONObject propertySchema = properties.optJSONObject(key);
+                node.properties.put(key, propertySchema != null ? compileNode(propertySchema) : new Node());
+            }
+        }
+        JSONArray required = schema.optJSONArray("required");
+        if (required != null) {
+            node.required = new ArrayList<>();
+            for (int i = 0; i < required.length(); i++) {
+                String name = required.optString(i, null);
+                if (name != null) {
+                    node.required.add(name);
+                }
+            }
+        }
+        node.additionalProperties = !Boolean.FALSE.equals(schema.opt("additionalProperties"));
+
+        JSONObject items = schema.optJSONObject("items");
+        if (items != null) {
+            node.items = compileNode(items);
+        }
+
+        node.minimum = optNumber(schema, "minimum");
+        node.maximum = optNumber(schema, "maximum");
+        node.minLength = schema.optInt("minLength", -1);
+        node.maxLength = schema.optInt("maxLength", -1);
+        node.minItems = schema.optInt("minItems", -1);
+        node.maxItems = schema.optInt("maxItems", -1);
+        return node;
+    }
+
+    private static int compileTypes(Object type) {
+        if (type instanceof String) {
+            return typeBit((String) type);
+        }
+        if (type instanceof JSONArray) {
+            JSONArray array = (JSONArray) type;
+            int types = 0;
+            for (int i = 0; i < array.length(); i++) {
+                types |= typeBit(array.optString(i));
+            }
+            return types;
+        }
+        return 0;
+    }
+
+    private static int typeBit(String type) {
+        switch (type) {
+            case "object":
+                return TYPE_OBJECT;
+            case "array":
+                return TYPE_ARRAY;
+            case "string":
+                return TYPE_STRING;
+            case "integer":
+                return TYPE_INTEGER;
+            case "number":
+                return TYPE_NUMBER | TYPE_INTEGER;
+            case "boolean":
+                return TYPE_BOOLEAN;
+            case "null":
+                return TYPE_NULL;
+            default:
+                return 0;
+        }
+    }
+
+    private static Double optNumber(JSONObject schema, String key) {
+        Object value = schema.opt(key);
+        return value instanceof Number ? ((Number) value).doubleValue() : null;
+    }
+
+    private static int typeOf(Object value) {
+        if (value instanceof JSONObject) {
+            return TYPE_OBJECT;
+        }
+        if (value instanceof JSONArray) {
+            return TYPE_ARRAY;
+        }
+        if (value instanceof String) {
+            return TYPE_STRING;
+        }
+        if (value instanceof Boolean) {
+            return TYPE_BOOLEAN;
+        }
+        if (value instanceof Number) {
+            return isIntegral((Number) value) ? TYPE_INTEGER : TYPE_NUMBER;
+        }
+        return TYPE_NULL;
+    }
+
+    private static boolean isIntegral(Number number) {
+        if (number instanceof Integer || number instanceof Long || number instanceof BigInteger) {
+            return true;
+        }
+        if (number instanceof BigDecimal) {
+            BigDecimal decimal = (BigDecimal) number;
+            return decimal.signum() == 0 || decimal.stripTrailingZeros().scale() <= 0;
+        }
+        double d = number.doubleValue();
+        return !Double.isInfinite(d) && d == Math.rint(d);
+    }
+
+    private static String typeName(int type) {
+        switch (type) {
+            case TYPE_OBJECT:
+                return "object";
+            case TYPE_ARRAY:
+                return "array";
+            case TYPE_STRING:
+                return "string";
+            case TYPE_INTEGER:
+                return "integer";
+            case TYPE_NUMBER:
+                return "number";
+            case TYPE_BOOLEAN:
+                return "boolean";
+            default:
+                return "null";
+        }
+    }
+
+    private static String expectedTypes(int types) {
+        List<String> names = new ArrayList<>();
+        for (int bit = TYPE_OBJECT; bit <= TYPE_NULL; bit <<= 1) {
+            // number 包含 integer，只报告 number
+            if ((types & bit) != 0 && !(bit == TYPE_INTEGER && (types & TYPE_NUMBER) != 0)) {
+                names.add(typeName(bit));
+            }
+        }
+        return names.size() == 1 ? names.get(0) : String.join(" or ", names);
+    }
+
+    private static boolean sameValue(Object a, Object b) {
+        if (a instanceof Number && b instanceof Number) {
+            return ((Number) a).doubleValue() == ((Number) b).doubleValue();
+        }
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static String formatNumber(double value) {
+        return value == Math.rint(value) && !Double.isInfinite(value)
+                ? Long.toString((long) value)
+                : Double.toString(value);
+    }
+
+    /**
+     * 编译后的 Schema 节点，未设置的约束不检查
+     */
+    private static final class Node {
+        int types;
+        List<Object> enumValues;
+        Map<String, Node> properties;
+        List<String> required = Collections.emptyList();
+        boolean additionalProperties = true;
+        Node items;
+        Double minimum;
+        Double maximum;
+        int minLength = -1;
+        int maxLength = -1;
+        int minItems = -1;
+        int maxItems = -1;
+
+        void validate(Object value, String path, List<String> errors) {
+            if (errors.size() > MAX_ERRORS) {
+                return;
+            }
+            int type = typeOf(value);
+            if (types != 0 && (types & type) == 0) {
+                errors.add(path + ": expected " + expectedTypes(types) + " but got " + typeName(type));
+                return;
+            }
+            if (enumValues != null && !containsValue(value)) {
+                errors.add(path + ": must be one of " + new JSONArray(enumValues));
+                return;
+            }
+
+            switch (type) {
+                case TYPE_OBJECT:
+                    validateObject((JSONObject) value, path, errors);
+                    break;
+                case TYPE_ARRAY:
+                    validateArray((JSONArray) value, path, errors);
+                    break;
+                case TYPE_STRING:
+                    validateString((String) value, path, errors);
+                    break;
+                case TYPE_INTEGER:
+                case TYPE_NUMBER:
+                    validateNumber(((Number) value).doubleValue(), path, errors);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        private boolean containsValue(Object value) {
+            for (Object candidate : enumValues) {
+                if (sameValue(candidate, value)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void validateObject(JSONObject object, String path, List<String> errors) {
+            for (String name : required) {
+                if (!object.has(name) || object.isNull(name)) {
+                    errors.add(path + ": missing required property '" + name + "'");
+                }
+            }
+            if (properties == null) {
+                return;
+            }
+            Iterator<String> keys = object.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                Node property = properties.get(key);
+                if (property != null) {
+                    // 必填属性为 null 时已报告缺失，不再报告类型不符
+                    if (!(object.isNull(key) && required.contains(key))) {
+                        property.validate(object.opt(key), path + "." + key, errors);
+                    }
+                } else if (!additionalProperties) {
+                    errors.add(path + "." + key + ": unknown property, expected one of " + properties.keySet());
+                }
+            }
+        }
+
+        private void validateArray(JSONArray array, String path, List<String> errors) {
+            if (minItems >= 0 && array.length() < minItems) {
+                errors.add(path + ": must contain at least " + minItems + " items");
+            }
+            if (maxItems >= 0 && array.length() > maxItems) {
+                errors.add(path + ": must contain at most " + maxItems + " items");
+            }
+            if (items != null) {
+                for (int i = 0; i < array.length(); i++) {
+                    items.validate(array.opt(i), path + "[" + i + "]", errors);
+                }
+            }
+        }
+
+        private void validateString(String string, String path, List<String> errors) {
+            int length = string.codePointCount(0, string.length());
+            if (minLength >= 0 && length < minLength) {
+                errors.add(path + ": must be at least " + minLength + " characters");
+            }
+            if (maxLength >= 0 && length > maxLength) {
+                errors.add(path + ": must be at most " + maxLength + " characters");
+            }
+        }
+
+        private void validateNumber(double number, String path, List<String> errors) {
+            if (minimum != null && number < minimum) {
+                errors.add(path + ": must be >= " + formatNumber(minimum));
+            }
+            if (maximum != null && number > maximum) {
+                errors.add(path + ": must be <= " + formatNumber(maximum));
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package io.leavesfly.jimi.android.tool;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * 异步工具接口
+ * 适用于 I/O 密集的工具：executeAsync 发起请求后立即返回，等待期间不占用工具线程
+ * <p>
+ * 返回的 Future 被取消（超时、运行取消）时，实现应尽量中止进行中的请求，
+ * 可通过 future.whenComplete 检查 isCancelled。
+ */
+public interface AsyncTool extends Tool {
+
+    /**
+     * 异步执行工具
+     *
+     * @param arguments JSON 格式的参数字符串
+     * @return 执行结果的 Future，执行失败时可以异常完成
+     */
+    CompletableFuture<ToolResult> executeAsync(String arguments);
+
+    /**
+     * 同步执行，阻塞等待 executeAsync 的结果
+     */
+    @Override
+    default ToolResult execute(String arguments) {
+        try {
+            return executeAsync(arguments).join();
+        } catch (CancellationException e) {
+            return ToolResult.error("Tool execution cancelled: " + getName());
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            return ToolResult.error("Tool execution failed: " + cause.getMessage());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.leavesfly.jimi.android.tool;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * 同步工具到 AsyncTool 的适配器
+ * 在指定线程池上执行同步工具，取消返回的 Future 时中断工具线程
+ */
+public class AsyncToolAdapter implements AsyncTool {
+
+    private final Tool delegate;
+    private final Executor executor;
+
+    /**
+     * @param delegate 同步工具
+     * @param executor 执行同步工具的线程池
+     */
+    public AsyncToolAdapter(Tool delegate, Executor executor) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("Tool cannot be null");
+        }
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    /**
+     * 获取被适配的同步工具
+     */
+    public Tool getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public String getDescription() {
+        return delegate.getDescription();
+    }
+
+    @Override
+    public ToolSchema getSchema() {
+        return delegate.getSchema();
+    }
+
+    @Override
+    public ToolMetadata getMetadata() {
+        return delegate.getMetadata();
+    }
+
+    @Override
+    public CompletableFuture<ToolResult> executeAsync(String arguments) {
+        return runAsync(() -> delegate.execute(arguments), executor);
+    }
+
+    @Override
+    public ToolResult execute(String arguments) {
+        return delegate.execute(arguments);
+    }
+
+    /**
+     * 在线程池上执行同步任务，取消返回的 Future 时中断执行线程
+     * 任务抛出的异常转为错误结果
+     *
+     * @throws java.util.concurrent.RejectedExecutionException 线程池拒绝任务
+     */
+    static CompletableFuture<ToolResult> runAsync(Callable<ToolResult> callable, Executor executor) {
+        CompletableFuture<ToolResult> result = new CompletableFuture<>();
+        FutureTask<ToolResult> task = new FutureTask<ToolResult>(callable) {
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    result.complete(get());
+                } catch (ExecutionException e) {
+                    result.complete(ToolResult.error("Tool execution failed: " + e.getCause().getMessage()));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                task.cancel(true);
+            }
+        });
+        executor.execute(task);
+        return result;
+    }
+}
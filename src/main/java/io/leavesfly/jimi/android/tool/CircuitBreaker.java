@@ -0,0 +1,108 @@
+package io.leavesfly.jimi.android.tool;
+
+/**
+ * 工具熔断器
+ * <p>
+ * - CLOSED：正常调用，连续失败达到阈值后转为 OPEN
+ * - OPEN：直接拒绝调用，经过 openMillis 后转为 HALF_OPEN
+ * - HALF_OPEN：只放行一次试探调用，成功则恢复 CLOSED，失败则重新 OPEN
+ */
+public class CircuitBreaker {
+
+    /**
+     * 熔断状态
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean trialInFlight;
+
+    /**
+     * @param failureThreshold 触发熔断的连续失败次数，0 表示不熔断
+     * @param openMillis       熔断持续时间（毫秒），之后放行一次试探调用
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        if (failureThreshold < 0) {
+            throw new IllegalArgumentException("failureThreshold must not be negative");
+        }
+        if (openMillis <= 0) {
+            throw new IllegalArgumentException("openMillis must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openMillis * 1_000_000L;
+    }
+
+    /**
+     * 申请一次调用
+     *
+     * @return 是否放行，放行后须调用 onSuccess、onFailure 或 onAbandon 之一
+     */
+    public synchronized boolean tryAcquire() {
+        switch (state) {
+            case OPEN:
+                if (System.nanoTime() - openedAt < openNanos) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                trialInFlight = true;
+                return true;
+            case HALF_OPEN:
+                if (trialInFlight) {
+                    return false;
+                }
+                trialInFlight = true;
+                return true;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * 记录调用成功
+     */
+    public synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        trialInFlight = false;
+        state = State.CLOSED;
+    }
+
+    /**
+     * 记录调用失败
+     */
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN
+                || (failureThreshold > 0 && consecutiveFailures >= failureThreshold)) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * 调用被调用方取消，不计入成功或失败
+     */
+    public synchronized void onAbandon() {
+        trialInFlight = false;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * 连续失败次数
+     */
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+}
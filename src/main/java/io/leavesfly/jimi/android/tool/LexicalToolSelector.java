@@ -0,0 +1,312 @@
+package io.leavesfly.jimi.android.tool;
+
+import io.leavesfly.jimi.android.llm.message.Message;
+import io.leavesfly.jimi.android.llm.message.MessageRole;
+import io.leavesfly.jimi.android.llm.message.ToolCall;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 基于词项匹配的工具选择器
+ * <p>
+ * 把每个工具的名称、描述、参数名、参数描述与枚举值切分为词项（英文按单词，中日韩文字按相邻两字），
+ * 按 BM25 风格的加权（逆文档频率、词频饱和，名称中的词项权重更高）对最新一条用户消息打分，
+ * 选出得分最高的工具。以下工具总是发送：
+ * <ul>
+ *     <li>alwaysInclude 指定的工具；</li>
+ *     <li>最近 recentMessages 条消息中调用过的工具，保证多步任务中途不丢失正在使用的工具。</li>
+ * </ul>
+ * 候选工具不超过 maxTools 时全部发送；没有任何工具与用户消息匹配且最近未调用工具时也全部发送，
+ * 避免因措辞不同漏掉需要的工具。结果保持候选顺序，相同选择命中 ToolSnapshot 的 Schema 缓存。
+ */
+public class LexicalToolSelector implements ToolSelector {
+
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double TEXT_WEIGHT = 1.0;
+
+    private final int maxTools;
+    private final Set<String> alwaysInclude;
+    private final int recentMessages;
+
+    /**
+     * 最近一次使用的索引，快照或候选工具变化时重建
+     */
+    private volatile Index index;
+
+    private LexicalToolSelector(Builder builder) {
+        this.maxTools = builder.maxTools;
+        this.alwaysInclude = Collections.unmodifiableSet(new LinkedHashSet<>(builder.alwaysInclude));
+        this.recentMessages = builder.recentMessages;
+    }
+
+    @Override
+    public List<String> select(ToolSnapshot tools, List<String> candidates, List<Message> history) {
+        if (candidates.size() <= maxTools) {
+            return candidates;
+        }
+
+        Set<String> selected = new HashSet<>();
+        for (String name : candidates) {
+            if (alwaysInclude.contains(name)) {
+                selected.add(name);
+            }
+        }
+        boolean recentlyUsed = addRecentlyUsed(candidates, history, selected);
+
+        Map<String, Double> scores = indexOf(tools, candidates).score(terms(latestUserContent(history)));
+        if (scores.isEmpty() && !recentlyUsed) {
+            return candidates;
+        }
+
+        List<String> ranked = new ArrayList<>(scores.keySet());
+        // 得分相同按候选顺序
+        ranked.sort((a, b) -> {
+            int byScore = Double.compare(scores.get(b), scores.get(a));
+            return byScore != 0 ? byScore : Integer.compare(candidates.indexOf(a), candidates.indexOf(b));
+        });
+        for (String name : ranked) {
+            if (selected.size() >= maxTools) {
+                break;
+            }
+            selected.add(name);
+        }
+
+        List<String> result = new ArrayList<>(selected.size());
+        for (String name : candidates) {
+            if (selected.contains(name)) {
+                result.add(name);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 把最近调用过的候选工具加入 selected
+     *
+     * @return 是否有最近调用过的候选工具
+     */
+    private boolean addRecentlyUsed(List<String> candidates, List<Message> history, Set<String> selected) {
+        boolean found = false;
+        int from = Math.max(history.size() - recentMessages, 0);
+        for (int i = history.size() - 1; i >= from; i--) {
+            List<ToolCall> toolCalls = history.get(i).getToolCalls();
+            if (toolCalls == null) {
+                continue;
+            }
+            for (ToolCall toolCall : toolCalls) {
+                String name = toolCall.getFunction() != null ? toolCall.getFunction().getName() : null;
+                if (name != null && candidates.contains(name)) {
+                    selected.add(name);
+                    found = true;
+                }
+            }
+        }
+        return found;
+    }
+
+    private static String latestUserContent(List<Message> history) {
+        for (int i = history.size() - 1; i >= 0; i--) {
+            Message message = history.get(i);
+            if (message.getRole() == MessageRole.USER) {
+                return message.getContent();
+            }
+        }
+        return null;
+    }
+
+    private Index indexOf(ToolSnapshot tools, List<String> candidates) {
+        Index current = index;
+        if (current == null || current.snapshot != tools || !current.candidates.equals(candidates)) {
+            current = new Index(tools, candidates);
+            index = current;
+        }
+        return current;
+    }
+
+    /**
+     * 切分词项：英文与数字按单词（至少两个字符），中日韩文字按相邻两字，单独一个字时取该字
+     */
+    static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        if (text == null || text.isEmpty()) {
+            return terms;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int i = 0;
+        while (i < lower.length()) {
+            char c = lower.charAt(i);
+            if (isCjk(c)) {
+                int start = i;
+                while (i < lower.length() && isCjk(lower.charAt(i))) {
+                    i++;
+                }
+                if (i - start == 1) {
+                    terms.add(lower.substring(start, i));
+                }
+                for (int k = start; k + 1 < i; k++) {
+                    terms.add(lower.substring(k, k + 2));
+                }
+            } else if (Character.isLetterOrDigit(c)) {
+                int start = i;
+                while (i < lower.length() && Character.isLetterOrDigit(lower.charAt(i)) && !isCjk(lower.charAt(i))) {
+                    i++;
+                }
+                if (i - start >= 2) {
+                    terms.add(lower.substring(start, i));
+                }
+            } else {
+                i++;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * 是否为中日韩文字（不含全角符号）
+     */
+    private static boolean isCjk(char c) {
+        return (c >= 0x3040 && c <= 0x30FF)
+                || (c >= 0x3400 && c <= 0x9FFF)
+                || (c >= 0xAC00 && c <= 0xD7AF)
+                || (c >= 0xF900 && c <= 0xFAFF);
+    }
+
+    /**
+     * 创建 Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 候选工具的词项索引
+     */
+    private static final class Index {
+
+        final ToolSnapshot snapshot;
+        final List<String> candidates;
+        /**
+         * 词项 -> 工具名称 -> 权重
+         */
+        final Map<String, Map<String, Double>> postings = new HashMap<>();
+
+        Index(ToolSnapshot snapshot, List<String> candidates) {
+            this.snapshot = snapshot;
+            this.candidates = new ArrayList<>(candidates);
+            for (String name : candidates) {
+                Tool tool = snapshot.getTool(name);
+                ToolSchema schema = tool != null ? tool.getSchema() : null;
+                if (schema == null) {
+                    continue;
+                }
+                addTerms(name, schema.getName(), NAME_WEIGHT);
+                addTerms(name, schema.getDescription(), TEXT_WEIGHT);
+                addSchemaTerms(name, schema.getParameters());
+            }
+        }
+
+        private void addSchemaTerms(String name, JSONObject schema) {
+            if (schema == null) {
+                return;
+            }
+            addTerms(name, schema.optString("description", null), TEXT_WEIGHT);
+            JSONArray enumValues = schema.optJSONArray("enum");
+            if (enumValues != null) {
+                for (int i = 0; i < enumValues.length(); i++) {
+                    addTerms(name, enumValues.optString(i, null), TEXT_WEIGHT);
+                }
+            }
+            JSONObject properties = schema.optJSONObject("properties");
+            if (properties != null) {
+                Iterator<String> keys = properties.keys();
+                while (keys.hasNext()) {
+                    String key = keys.next();
+                    addTerms(name, key, TEXT_WEIGHT);
+                    addSchemaTerms(name, properties.optJSONObject(key));
+                }
+            }
+            addSchemaTerms(name, schema.optJSONObject("items"));
+        }
+
+        private void addTerms(String name, String text, double weight) {
+            for (String term : terms(text)) {
+                postings.computeIfAbsent(term, k -> new HashMap<>()).merge(name, weight, Double::sum);
+            }
+        }
+
+        /**
+         * 计算各工具得分
+         *
+         * @return 得分大于 0 的工具
+         */
+        Map<String, Double> score(Set<String> queryTerms) {
+            Map<String, Double> scores = new HashMap<>();
+            int n = candidates.size();
+            for (String term : queryTerms) {
+                Map<String, Double> posting = postings.get(term);
+                if (posting == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (n - posting.size() + 0.5) / (posting.size() + 0.5));
+                for (Map.Entry<String, Double> entry : posting.entrySet()) {
+                    double weight = entry.getValue();
+                    scores.merge(entry.getKey(), idf * weight / (weight + 1), Double::sum);
+                }
+            }
+            return scores;
+        }
+    }
+
+    public static class Builder {
+        private int maxTools = 8;
+        private final Set<String> alwaysInclude = new LinkedHashSet<>();
+        private int recentMessages = 10;
+
+        /**
+         * 每步最多发送的工具数，总是发送的工具超出此数时仍全部发送
+         */
+        public Builder maxTools(int maxTools) {
+            this.maxTools = maxTools;
+            return this;
+        }
+
+        /**
+         * 总是发送的工具
+         */
+        public Builder alwaysInclude(String... toolNames) {
+            this.alwaysInclude.addAll(Arrays.asList(toolNames));
+            return this;
+        }
+
+        /**
+         * 在最近多少条消息中调用过的工具总是发送，0 表示不考虑最近调用
+         */
+        public Builder recentMessages(int recentMessages) {
+            this.recentMessages = recentMessages;
+            return this;
+        }
+
+        public LexicalToolSelector build() {
+            if (maxTools <= 0) {
+                throw new IllegalArgumentException("maxTools must be positive");
+            }
+            if (recentMessages < 0) {
+                throw new IllegalArgumentException("recentMessages must not be negative");
+            }
+            return new LexicalToolSelector(this);
+        }
+    }
+}
@@ -24,6 +24,14 @@ public interface Tool {
      */
     ToolSchema getSchema();
 
+    /**
+     * 获取工具元数据
+     * 声明副作用、并发上限、预期耗时与可缓存性，默认视为有副作用的普通工具
+     */
+    default ToolMetadata getMetadata() {
+        return ToolMetadata.DEFAULT;
+    }
+
     /**
      * 执行工具
      * 注意：此方法会在后台线程调用，可以执行耗时操作
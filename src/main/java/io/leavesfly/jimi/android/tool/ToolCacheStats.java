@@ -0,0 +1,83 @@
+package io.leavesfly.jimi.android.tool;
+
+/**
+ * 工具结果缓存统计快照
+ */
+public class ToolCacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long invalidationCount;
+    private final int size;
+    private final int maxEntries;
+
+    public ToolCacheStats(long hitCount, long missCount, long evictionCount, long invalidationCount,
+                          int size, int maxEntries) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.invalidationCount = invalidationCount;
+        this.size = size;
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * 累计命中次数
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * 累计未命中次数（含已过期）
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * 命中率，没有查询时为 0
+     */
+    public double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * 因超出容量被淘汰的条目数
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * 被失效的条目数
+     */
+    public long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    /**
+     * 当前条目数
+     */
+    public int getSize() {
+        return size;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    @Override
+    public String toString() {
+        return "ToolCacheStats{" +
+                "hits=" + hitCount +
+                ", misses=" + missCount +
+                ", evictions=" + evictionCount +
+                ", invalidations=" + invalidationCount +
+                ", size=" + size +
+                "/" + maxEntries +
+                '}';
+    }
+}
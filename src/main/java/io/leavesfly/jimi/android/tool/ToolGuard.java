@@ -0,0 +1,184 @@
+package io.leavesfly.jimi.android.tool;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 单个工具的执行保护：超时、并发隔离（bulkhead）与熔断，以及对应的统计
+ */
+final class ToolGuard {
+
+    private final long timeoutMillis;
+    private final ToolPermits permits;
+    private final CircuitBreaker breaker;
+
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong failureCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong shortCircuitCount = new AtomicLong();
+
+    /**
+     * @param metadata                工具元数据
+     * @param defaultTimeoutMillis    元数据未声明超时时使用的超时时间，0 表示不限时
+     * @param defaultMaxConcurrency   元数据未声明并发上限时使用的上限，0 表示不限
+     * @param failureThreshold        触发熔断的连续失败次数，0 表示不熔断
+     * @param openMillis              熔断持续时间
+     */
+    ToolGuard(ToolMetadata metadata, long defaultTimeoutMillis, int defaultMaxConcurrency,
+              int failureThreshold, long openMillis) {
+        this.timeoutMillis = metadata.getTimeoutMillis() > 0 ? metadata.getTimeoutMillis() : defaultTimeoutMillis;
+        int maxConcurrency = metadata.getMaxConcurrency() > 0 ? metadata.getMaxConcurrency() : defaultMaxConcurrency;
+        this.permits = maxConcurrency > 0 ? new ToolPermits(maxConcurrency, metadata.getMaxQueued()) : null;
+        this.breaker = new CircuitBreaker(failureThreshold, openMillis);
+    }
+
+    /**
+     * 单次调用超时时间（毫秒），0 表示不限时
+     */
+    long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    /**
+     * 并发许可，不限并发时为 null
+     */
+    ToolPermits getPermits() {
+        return permits;
+    }
+
+    /**
+     * 开始一次调用
+     *
+     * @return 调用记录，熔断中返回 null
+     */
+    Call begin() {
+        if (!breaker.tryAcquire()) {
+            shortCircuitCount.incrementAndGet();
+            return null;
+        }
+        callCount.incrementAndGet();
+        return new Call();
+    }
+
+    ToolStats snapshot(String name) {
+        return new ToolStats(
+                name,
+                breaker.getState(),
+                breaker.getConsecutiveFailures(),
+                callCount.get(),
+                failureCount.get(),
+                timeoutCount.get(),
+                rejectedCount.get(),
+                shortCircuitCount.get(),
+                permits != null ? permits.getWaiting() : 0);
+    }
+
+    /**
+     * 一次调用的结果记录，只有第一次记录生效
+     * <p>
+     * 调用从排队（等待工具线程或并发许可）开始，start 后进入执行；超时只按执行时间计算
+     */
+    final class Call {
+
+        private static final int QUEUED = 0;
+        private static final int RUNNING = 1;
+        private static final int SETTLED = 2;
+
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+        private volatile long startNanos;
+
+        /**
+         * 开始执行，排队到此结束
+         *
+         * @return 是否可以执行，排队期间已被拒绝或取消时为 false
+         */
+        boolean start() {
+            startNanos = System.nanoTime();
+            return state.compareAndSet(QUEUED, RUNNING);
+        }
+
+        /**
+         * 已执行的时间（毫秒），尚未开始执行时返回 0
+         */
+        long getRunningMillis() {
+            long started = startNanos;
+            return state.get() == QUEUED || started == 0
+                    ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        }
+
+        /**
+         * 调用返回结果
+         * 工具正常返回的错误结果（如参数不合法、查询无结果）说明工具本身可用，不计为失败
+         */
+        void complete(ToolResult result) {
+            if (result == null) {
+                fail();
+            } else if (settle()) {
+                breaker.onSuccess();
+            }
+        }
+
+        /**
+         * 工具抛出异常或未返回结果，计为失败
+         */
+        void fail() {
+            if (settle()) {
+                failureCount.incrementAndGet();
+                breaker.onFailure();
+            }
+        }
+
+        /**
+         * 调用超时，计为失败
+         *
+         * @return 是否由本次记录生效，调用已返回结果时为 false
+         */
+        boolean timeout() {
+            if (!settle()) {
+                return false;
+            }
+            timeoutCount.incrementAndGet();
+            failureCount.incrementAndGet();
+            breaker.onFailure();
+            return true;
+        }
+
+        /**
+         * 排队已满、线程池已满或排队超时，调用未执行，不计入成功或失败
+         *
+         * @return 是否由本次记录生效，调用已开始执行或已有结果时为 false
+         */
+        boolean reject() {
+            if (!state.compareAndSet(QUEUED, SETTLED)) {
+                return false;
+            }
+            callCount.decrementAndGet();
+            rejectedCount.incrementAndGet();
+            breaker.onAbandon();
+            return true;
+        }
+
+        /**
+         * 调用被调用方取消，不计入成功或失败
+         */
+        void abandon() {
+            if (settle()) {
+                breaker.onAbandon();
+            }
+        }
+
+        private boolean settle() {
+            while (true) {
+                int current = state.get();
+                if (current == SETTLED) {
+                    return false;
+                }
+                if (state.compareAndSet(current, SETTLED)) {
+                    return true;
+                }
+            }
+        }
+    }
+}
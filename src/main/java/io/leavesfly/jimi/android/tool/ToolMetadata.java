@@ -0,0 +1,250 @@
+package io.leavesfly.jimi.android.tool;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 工具元数据
+ * 声明工具的副作用、并发上限、超时、预期耗时、结果可缓存性与结果 token 预算，供执行器、缓存与调度使用
+ * <p>
+ * 未声明元数据的工具使用 DEFAULT：视为有副作用、不限并发、不单独限时、普通耗时、不可缓存，
+ * 与引入元数据之前的执行方式一致。
+ */
+public class ToolMetadata {
+
+    /**
+     * 副作用类型
+     */
+    public enum SideEffect {
+        /** 只读，不改变任何状态 */
+        READ_ONLY,
+        /** 会改变状态，但相同参数重复执行结果相同 */
+        IDEMPOTENT,
+        /** 会改变状态，重复执行有不同效果 */
+        MUTATING
+    }
+
+    /**
+     * 预期耗时等级
+     */
+    public enum LatencyClass {
+        /** 本地计算，毫秒级 */
+        FAST,
+        /** 一次网络请求 */
+        NORMAL,
+        /** 多次请求或重计算，秒级以上 */
+        SLOW
+    }
+
+    /**
+     * 默认元数据
+     */
+    public static final ToolMetadata DEFAULT = builder().build();
+
+    private final SideEffect sideEffect;
+    private final int maxConcurrency;
+    private final int maxQueued;
+    private final long timeoutMillis;
+    private final LatencyClass latencyClass;
+    private final boolean cacheable;
+    private final long cacheTtlMillis;
+    private final Set<String> invalidates;
+    private final int maxResultTokens;
+
+    private ToolMetadata(Builder builder) {
+        this.sideEffect = builder.sideEffect;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.maxQueued = builder.maxQueued;
+        this.timeoutMillis = builder.timeoutMillis;
+        this.latencyClass = builder.latencyClass;
+        this.cacheable = builder.cacheable;
+        this.cacheTtlMillis = builder.cacheTtlMillis;
+        this.invalidates = Collections.unmodifiableSet(new LinkedHashSet<>(builder.invalidates));
+        this.maxResultTokens = builder.maxResultTokens;
+    }
+
+    public SideEffect getSideEffect() {
+        return sideEffect;
+    }
+
+    /**
+     * 同时执行的最大调用数，0 表示不限
+     */
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * 达到 maxConcurrency 时最多排队等待的调用数，-1 表示不限，超出时立即返回错误结果
+     */
+    public int getMaxQueued() {
+        return maxQueued;
+    }
+
+    /**
+     * 单次调用的超时时间（毫秒），0 表示使用注册表的默认值
+     */
+    public long getTimeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public LatencyClass getLatencyClass() {
+        return latencyClass;
+    }
+
+    /**
+     * 相同参数的执行结果是否可缓存（仅对只读工具生效）
+     */
+    public boolean isCacheable() {
+        return cacheable && sideEffect == SideEffect.READ_ONLY;
+    }
+
+    /**
+     * 缓存结果的有效期（毫秒）
+     */
+    public long getCacheTtlMillis() {
+        return cacheTtlMillis;
+    }
+
+    /**
+     * 执行后需要失效缓存的工具名称
+     */
+    public Set<String> getInvalidates() {
+        return invalidates;
+    }
+
+    /**
+     * 写入上下文的结果最多占用的 token 数，0 表示使用全局默认值，-1 表示不限
+     */
+    public int getMaxResultTokens() {
+        return maxResultTokens;
+    }
+
+    /**
+     * 是否可以与其他工具调用并发执行，或在 LLM 流结束前提前执行
+     */
+    public boolean isConcurrencySafe() {
+        return sideEffect != SideEffect.MUTATING;
+    }
+
+    /**
+     * 创建 Builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public String toString() {
+        return "ToolMetadata{" +
+                "sideEffect=" + sideEffect +
+                ", maxConcurrency=" + maxConcurrency +
+                ", maxQueued=" + maxQueued +
+                ", timeoutMillis=" + timeoutMillis +
+                ", latencyClass=" + latencyClass +
+                ", cacheable=" + isCacheable() +
+                ", cacheTtlMillis=" + cacheTtlMillis +
+                ", invalidates=" + invalidates +
+                ", maxResultTokens=" + maxResultTokens +
+                '}';
+    }
+
+    public static class Builder {
+        private SideEffect sideEffect = SideEffect.MUTATING;
+        private int maxConcurrency = 0;
+        private int maxQueued = -1;
+        private long timeoutMillis = 0;
+        private LatencyClass latencyClass = LatencyClass.NORMAL;
+        private boolean cacheable = false;
+        private long cacheTtlMillis = 0;
+        private final Set<String> invalidates = new LinkedHashSet<>();
+        private int maxResultTokens = 0;
+
+        public Builder sideEffect(SideEffect sideEffect) {
+            this.sideEffect = sideEffect;
+            return this;
+        }
+
+        /**
+         * 同时执行的最大调用数，0 表示不限
+         */
+        public Builder maxConcurrency(int maxConcurrency) {
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * 达到 maxConcurrency 时最多排队等待的调用数，-1 表示不限
+         */
+        public Builder maxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+            return this;
+        }
+
+        /**
+         * 单次调用的超时时间（毫秒），超时后取消调用并返回错误结果
+         */
+        public Builder timeoutMillis(long timeoutMillis) {
+            this.timeoutMillis = timeoutMillis;
+            return this;
+        }
+
+        public Builder latencyClass(LatencyClass latencyClass) {
+            this.latencyClass = latencyClass;
+            return this;
+        }
+
+        /**
+         * 结果可缓存，有效期为 ttlMillis（仅对只读工具生效）
+         */
+        public Builder cacheable(long ttlMillis) {
+            this.cacheable = true;
+            this.cacheTtlMillis = ttlMillis;
+            return this;
+        }
+
+        /**
+         * 执行后失效指定工具的缓存结果
+         */
+        public Builder invalidates(String... toolNames) {
+            this.invalidates.addAll(Arrays.asList(toolNames));
+            return this;
+        }
+
+        /**
+         * 写入上下文的结果最多占用的 token 数，超出时由 ToolResultShaper 压缩；
+         * 0 表示使用全局默认值，-1 表示不限
+         */
+        public Builder maxResultTokens(int maxResultTokens) {
+            this.maxResultTokens = maxResultTokens;
+            return this;
+        }
+
+        public ToolMetadata build() {
+            if (sideEffect == null) {
+                throw new IllegalArgumentException("sideEffect cannot be null");
+            }
+            if (latencyClass == null) {
+                throw new IllegalArgumentException("latencyClass cannot be null");
+            }
+            if (maxConcurrency < 0) {
+                throw new IllegalArgumentException("maxConcurrency must not be negative");
+            }
+            if (maxQueued < -1) {
+                throw new IllegalArgumentException("maxQueued must be -1 or non-negative");
+            }
+            if (timeoutMillis < 0) {
+                throw new IllegalArgumentException("timeoutMillis must not be negative");
+            }
+            if (maxResultTokens < -1) {
+                throw new IllegalArgumentException("maxResultTokens must be -1 or non-negative");
+            }
+            if (cacheable && cacheTtlMillis <= 0) {
+                throw new IllegalArgumentException("cacheTtlMillis must be positive");
+            }
+            return new ToolMetadata(this);
+        }
+    }
+}
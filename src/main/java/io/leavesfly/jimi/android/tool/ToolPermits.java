@@ -0,0 +1,102 @@
+package io.leavesfly.jimi.android.tool;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 工具并发许可
+ * 同时支持阻塞获取（同步工具）与异步获取（AsyncTool，等待许可期间不占用线程），
+ * 等待者超过 maxWaiting 时立即拒绝
+ */
+final class ToolPermits {
+
+    private final ArrayDeque<CompletableFuture<Void>> waiters = new ArrayDeque<>();
+    private final int maxWaiting;
+    private int available;
+    private int blocked;
+
+    /**
+     * @param permits    最大并发数
+     * @param maxWaiting 最多等待的调用数，-1 表示不限
+     */
+    ToolPermits(int permits, int maxWaiting) {
+        this.available = permits;
+        this.maxWaiting = maxWaiting;
+    }
+
+    /**
+     * 阻塞获取许可
+     *
+     * @return 是否获得许可，等待者已满时返回 false
+     */
+    synchronized boolean acquire() throws InterruptedException {
+        if (available > 0 && waiters.isEmpty()) {
+            available--;
+            return true;
+        }
+        if (isFull()) {
+            return false;
+        }
+        blocked++;
+        try {
+            while (available == 0) {
+                wait();
+            }
+        } finally {
+            blocked--;
+        }
+        available--;
+        return true;
+    }
+
+    /**
+     * 异步获取许可
+     * 返回的 Future 完成时已持有许可；在完成前取消则放弃等待
+     *
+     * @return 获取许可的 Future，等待者已满时返回 null
+     */
+    synchronized CompletableFuture<Void> acquireAsync() {
+        if (available > 0 && waiters.isEmpty()) {
+            available--;
+            return CompletableFuture.completedFuture(null);
+        }
+        if (isFull()) {
+            return null;
+        }
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        waiters.add(waiter);
+        return waiter;
+    }
+
+    /**
+     * 释放许可，优先交给异步等待者
+     */
+    void release() {
+        CompletableFuture<Void> next;
+        synchronized (this) {
+            do {
+                next = waiters.poll();
+            } while (next != null && next.isDone());
+            if (next == null) {
+                available++;
+                notify();
+                return;
+            }
+        }
+        if (!next.complete(null)) {
+            // 交出许可的同时等待者被取消
+            release();
+        }
+    }
+
+    /**
+     * 正在等待许可的调用数
+     */
+    synchronized int getWaiting() {
+        return waiters.size() + blocked;
+    }
+
+    private boolean isFull() {
+        return maxWaiting >= 0 && waiters.size() + blocked >= maxWaiting;
+    }
+}
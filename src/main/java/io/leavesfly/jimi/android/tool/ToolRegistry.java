@@ -1,17 +1,136 @@
 package io.leavesfly.jimi.android.tool;
 
-import java.util.ArrayList;
+import io.leavesfly.jimi.android.llm.BoundedExecutor;
+import io.leavesfly.jimi.android.llm.ExecutorStats;
+
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 /**
  * 工具注册表
  * 管理所有可用工具的注册、查找和执行
+ * <p>
+ * 工具集合以不可变的 ToolSnapshot 通过 volatile 引用发布：查找与执行不加锁，
+ * 注册、注销在写锁内复制并原子替换快照，可在运行过程中从任意线程调用。
+ * 快照内按工具名称列表缓存预序列化的 ToolSchemaSet，每一步请求不再重复构建和序列化 Schema。
+ * <p>
+ * 限时执行与异步提交的同步工具在内部有界守护线程池上运行，超时后中断工具线程并返回错误结果；
+ * AsyncTool 直接组合其 CompletableFuture，等待 I/O 期间不占用工具线程。
+ * 线程池已满时立即返回忙碌错误，不在调用方线程上不限时执行。
+ * <p>
+ * 注册时把每个工具的参数 Schema 编译为 ArgumentValidator，执行前校验参数，
+ * 不合法时直接返回错误结果而不调用工具。
+ * <p>
+ * 工具能否并发执行由其 ToolMetadata 决定（无副作用的工具可并发），也可通过 setConcurrent 覆盖。
+ * <p>
+ * 每个工具独立保护：
+ * - 超时：执行超过元数据声明（或注册表默认）的超时时间时取消调用并返回错误结果；
+ *   排队等待工具线程或并发许可的时间不计入，排队超过同样时长时返回忙碌错误，不计为失败
+ * - 并发隔离：同时执行的调用数不超过元数据声明的 maxConcurrency（未声明时为线程池并发数的一半），
+ *   排队超过 maxQueued 时立即返回错误结果；先获得许可再占用工具线程，
+ *   卡住且不响应中断的工具最多占用其上限个线程，不会占满整个线程池
+ * - 熔断：连续抛出异常或超时达到阈值后在熔断期内直接返回错误结果，期满后放行一次试探调用；
+ *   工具自身返回的错误结果（如参数不合法）不计为失败
+ * <p>
+ * 声明为可缓存的只读工具，相同参数的成功结果在 TTL 内直接返回缓存；
+ * 工具执行成功后失效其元数据 invalidates 中列出的工具的缓存。
  */
 public class ToolRegistry {
 
-    private final Map<String, Tool> tools = new HashMap<>();
+    public static final int DEFAULT_MAX_CONCURRENCY = 4;
+    public static final int DEFAULT_QUEUE_CAPACITY = 32;
+    public static final int DEFAULT_CACHE_MAX_ENTRIES = 128;
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_CIRCUIT_OPEN_MILLIS = 30_000;
+
+    /**
+     * 不限并发的工具无需归还许可
+     */
+    private static final Runnable NO_PERMIT = () -> {
+    };
+
+    private static final class TimeoutHolder {
+        static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "jimi-tool-timeout");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * 当前工具快照
+     */
+    private volatile ToolSnapshot snapshot = ToolSnapshot.EMPTY;
+
+    /**
+     * 注册、注销之间互斥，保证复制快照时不丢失并发的修改
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * 通过 setConcurrent 覆盖的并发设置
+     */
+    private final Map<String, Boolean> concurrencyOverrides = new ConcurrentHashMap<>();
+
+    /**
+     * 每个工具的超时、并发隔离与熔断状态，首次执行时按当前设置创建
+     */
+    private final Map<String, ToolGuard> guards = new ConcurrentHashMap<>();
+
+    private volatile long defaultTimeoutMillis = 0;
+    private volatile int defaultMaxConcurrencyPerTool;
+    private volatile boolean argumentValidation = true;
+    private volatile int failureThreshold = DEFAULT_FAILURE_THRESHOLD;
+    private volatile long circuitOpenMillis = DEFAULT_CIRCUIT_OPEN_MILLIS;
+
+    /**
+     * 限时执行与异步提交工具的线程池
+     */
+    private final BoundedExecutor executor;
+
+    /**
+     * 工具结果缓存，未启用时为 null
+     */
+    private final ToolResultCache resultCache;
+
+    public ToolRegistry() {
+        this(DEFAULT_MAX_CONCURRENCY, DEFAULT_QUEUE_CAPACITY);
+    }
+
+    /**
+     * @param maxConcurrency 工具线程池最大并发数
+     * @param queueCapacity  工具线程池等待队列容量
+     */
+    public ToolRegistry(int maxConcurrency, int queueCapacity) {
+        this(maxConcurrency, queueCapacity, DEFAULT_CACHE_MAX_ENTRIES);
+    }
+
+    /**
+     * @param maxConcurrency  工具线程池最大并发数
+     * @param queueCapacity   工具线程池等待队列容量
+     * @param cacheMaxEntries 工具结果缓存最大条目数，0 表示不缓存
+     */
+    public ToolRegistry(int maxConcurrency, int queueCapacity, int cacheMaxEntries) {
+        this.executor = new BoundedExecutor("jimi-tool", maxConcurrency, queueCapacity);
+        this.defaultMaxConcurrencyPerTool = Math.max(1, maxConcurrency / 2);
+        this.resultCache = cacheMaxEntries > 0 ? new ToolResultCache(cacheMaxEntries) : null;
+    }
 
     /**
      * 注册工具
@@ -19,20 +138,27 @@ public class ToolRegistry {
      * @param tool 工具实例
      */
     public void register(Tool tool) {
-        if (tool == null) {
-            throw new IllegalArgumentException("Tool cannot be null");
-        }
-        tools.put(tool.getName(), tool);
+        registerAll(Collections.singletonList(tool));
     }
 
     /**
      * 批量注册工具
+     * 所有工具在同一个新快照中生效
      *
      * @param toolList 工具列表
      */
     public void registerAll(List<Tool> toolList) {
         for (Tool tool : toolList) {
-            register(tool);
+            if (tool == null) {
+                throw new IllegalArgumentException("Tool cannot be null");
+            }
+        }
+        synchronized (writeLock) {
+            snapshot = snapshot.with(toolList, Collections.<String>emptyList());
+        }
+        for (Tool tool : toolList) {
+            guards.remove(tool.getName());
+            invalidateCache(tool.getName());
         }
     }
 
@@ -42,7 +168,11 @@ public class ToolRegistry {
      * @param name 工具名称
      */
     public void unregister(String name) {
-        tools.remove(name);
+        synchronized (writeLock) {
+            snapshot = snapshot.with(Collections.<Tool>emptyList(), Collections.singletonList(name));
+        }
+        guards.remove(name);
+        invalidateCache(name);
     }
 
     /**
@@ -52,7 +182,7 @@ public class ToolRegistry {
      * @return 工具实例，不存在返回 null
      */
     public Tool getTool(String name) {
-        return tools.get(name);
+        return snapshot.getTool(name);
     }
 
     /**
@@ -62,74 +192,675 @@ public class ToolRegistry {
      * @return 是否存在
      */
     public boolean hasTool(String name) {
-        return tools.containsKey(name);
+        return snapshot.hasTool(name);
+    }
+
+    /**
+     * 获取当前工具快照
+     * 持有快照可在一次运行中看到一致的工具集合，不受运行期间注册、注销的影响
+     */
+    public ToolSnapshot snapshot() {
+        return snapshot;
+    }
+
+    /**
+     * 获取工具元数据
+     *
+     * @param name 工具名称
+     * @return 元数据，工具不存在时返回 ToolMetadata.DEFAULT
+     */
+    public ToolMetadata getMetadata(String name) {
+        return snapshot.getMetadata(name);
+    }
+
+    private static ToolMetadata metadataOf(Tool tool) {
+        return ToolSnapshot.metadataOf(tool);
+    }
+
+    /**
+     * 覆盖工具元数据中的并发设置
+     * 不允许并发的工具执行时会等待之前的调用完成后单独执行，也不会在 LLM 流结束前提前执行
+     *
+     * @param name       工具名称
+     * @param concurrent 是否允许并发
+     */
+    public void setConcurrent(String name, boolean concurrent) {
+        concurrencyOverrides.put(name, concurrent);
+    }
+
+    /**
+     * 工具是否允许与其他工具调用并发执行
+     * 未覆盖时由元数据决定：只读与幂等工具允许，有副作用的工具不允许
+     */
+    public boolean isConcurrent(String name) {
+        return isConcurrent(snapshot, name);
+    }
+
+    /**
+     * 按指定快照中的工具元数据判断工具是否允许并发执行
+     */
+    public boolean isConcurrent(ToolSnapshot tools, String name) {
+        Boolean override = concurrencyOverrides.get(name);
+        return override != null ? override : tools.getMetadata(name).isConcurrencySafe();
+    }
+
+    /**
+     * 设置未在元数据中声明超时的工具的默认超时时间
+     *
+     * @param timeoutMillis 超时时间（毫秒），0 表示不限时
+     */
+    public void setDefaultTimeoutMillis(long timeoutMillis) {
+        if (timeoutMillis < 0) {
+            throw new IllegalArgumentException("timeoutMillis must not be negative");
+        }
+        this.defaultTimeoutMillis = timeoutMillis;
+        guards.clear();
+    }
+
+    /**
+     * 设置未在元数据中声明 maxConcurrency 的工具同时执行的最大调用数
+     * 默认为工具线程池并发数的一半，单个卡住的工具不会占满整个线程池
+     *
+     * @param maxConcurrency 最大并发调用数，0 表示不限
+     */
+    public void setDefaultMaxConcurrencyPerTool(int maxConcurrency) {
+        if (maxConcurrency < 0) {
+            throw new IllegalArgumentException("maxConcurrency must not be negative");
+        }
+        this.defaultMaxConcurrencyPerTool = maxConcurrency;
+        guards.clear();
+    }
+
+    /**
+     * 设置是否在执行前按工具的参数 Schema 校验参数（默认开启）
+     * 校验失败时不执行工具，直接返回指明字段路径与原因的错误结果
+     */
+    public void setArgumentValidation(boolean enabled) {
+        this.argumentValidation = enabled;
+    }
+
+    /**
+     * 设置熔断参数，已有的熔断状态被重置
+     * 工具连续 failureThreshold 次抛出异常或超时后熔断，openMillis 内直接返回错误结果，
+     * 之后放行一次试探调用，成功则恢复
+     *
+     * @param failureThreshold 触发熔断的连续失败次数，0 表示不熔断
+     * @param openMillis       熔断持续时间（毫秒）
+     */
+    public void setCircuitBreaker(int failureThreshold, long openMillis) {
+        if (failureThreshold < 0) {
+            throw new IllegalArgumentException("failureThreshold must not be negative");
+        }
+        if (openMillis <= 0) {
+            throw new IllegalArgumentException("openMillis must be positive");
+        }
+        this.failureThreshold = failureThreshold;
+        this.circuitOpenMillis = openMillis;
+        guards.clear();
+    }
+
+    private ToolGuard guardOf(Tool tool) {
+        return guards.computeIfAbsent(tool.getName(), name ->
+                new ToolGuard(metadataOf(tool), defaultTimeoutMillis, defaultMaxConcurrencyPerTool,
+                        failureThreshold, circuitOpenMillis));
+    }
+
+    /**
+     * 获取各工具的执行统计（熔断状态、失败、超时与拒绝次数）
+     *
+     * @return 工具名称到统计快照的映射，只包含执行过的工具
+     */
+    public Map<String, ToolStats> getToolStats() {
+        Map<String, ToolStats> stats = new HashMap<>();
+        for (Map.Entry<String, ToolGuard> entry : guards.entrySet()) {
+            stats.put(entry.getKey(), entry.getValue().snapshot(entry.getKey()));
+        }
+        return stats;
     }
 
     /**
      * 获取所有工具名称
      */
     public List<String> getToolNames() {
-        return new ArrayList<>(tools.keySet());
+        return snapshot.getToolNames();
     }
 
     /**
      * 获取指定工具的 Schema 列表
+     * 返回的列表不可修改，实际类型为预序列化的 ToolSchemaSet
      *
      * @param toolNames 工具名称列表，null 表示获取所有
      * @return Schema 列表
      */
     public List<ToolSchema> getToolSchemas(List<String> toolNames) {
-        List<ToolSchema> schemas = new ArrayList<>();
-
-        if (toolNames == null || toolNames.isEmpty()) {
-            // 返回所有工具的 Schema
-            for (Tool tool : tools.values()) {
-                schemas.add(tool.getSchema());
-            }
-        } else {
-            // 返回指定工具的 Schema
-            for (String name : toolNames) {
-                Tool tool = tools.get(name);
-                if (tool != null) {
-                    schemas.add(tool.getSchema());
-                }
-            }
-        }
+        return getToolSchemaSet(toolNames);
+    }
 
-        return schemas;
+    /**
+     * 获取指定工具的预序列化 Schema 列表
+     * 结果按工具名称列表缓存在当前快照内，返回的 ToolSchemaSet 不可修改
+     *
+     * @param toolNames 工具名称列表，null 表示获取所有
+     * @return Schema 列表
+     */
+    public ToolSchemaSet getToolSchemaSet(List<String> toolNames) {
+        return snapshot.getToolSchemas(toolNames);
     }
 
     /**
      * 执行工具
+     * 未声明超时的工具在当前线程上执行（AsyncTool 阻塞等待其异步结果），声明了超时的工具在工具线程上限时执行；
+     * 工具线程池已满时立即返回忙碌错误
      *
      * @param name      工具名称
      * @param arguments JSON 格式参数
      * @return 执行结果
      */
     public ToolResult execute(String name, String arguments) {
-        Tool tool = tools.get(name);
+        return execute(snapshot, name, arguments, 0);
+    }
+
+    /**
+     * 限时执行工具
+     * 超过 timeoutMillis 仍未返回时取消执行（同步工具中断工具线程）并返回错误结果
+     *
+     * @param name          工具名称
+     * @param arguments     JSON 格式参数
+     * @param timeoutMillis 超时时间（毫秒），<= 0 表示只受工具自身超时限制
+     * @return 执行结果
+     */
+    public ToolResult execute(String name, String arguments, long timeoutMillis) {
+        return execute(snapshot, name, arguments, timeoutMillis);
+    }
+
+    /**
+     * 执行指定快照中的工具
+     *
+     * @param tools         工具快照
+     * @param name          工具名称
+     * @param arguments     JSON 格式参数
+     * @param timeoutMillis 超时时间（毫秒），<= 0 表示只受工具自身超时限制
+     * @return 执行结果
+     */
+    public ToolResult execute(ToolSnapshot tools, String name, String arguments, long timeoutMillis) {
+        Tool tool = tools.getTool(name);
         if (tool == null) {
             return ToolResult.error("Tool not found: " + name);
         }
+        ToolResult invalid = validate(tools, name, arguments);
+        if (invalid != null) {
+            return invalid;
+        }
+
+        ToolGuard guard = guardOf(tool);
+        if (timeoutMillis > 0 || guard.getTimeoutMillis() > 0) {
+            Future<ToolResult> future;
+            try {
+                future = dispatchAsync(tool, name, arguments);
+            } catch (RejectedExecutionException e) {
+                // 不在当前线程执行：卡住的工具会让调用方无限期阻塞
+                return executorBusy(name);
+            }
+            return awaitResult(future, name, timeoutMillis);
+        }
+        return executeInline(tool, guard, name, arguments);
+    }
 
+    /**
+     * 参数校验通过后在当前线程执行：缓存、熔断与并发隔离
+     */
+    private ToolResult executeInline(Tool tool, ToolGuard guard, String name, String arguments) {
+        ToolMetadata metadata = metadataOf(tool);
+        String cacheKey = cacheKey(name, metadata, arguments);
+        long generation = cacheKey != null ? resultCache.generation(name) : 0;
+        ToolResult cached = cacheKey != null ? resultCache.get(cacheKey) : null;
+        if (cached != null) {
+            return cached;
+        }
+
+        ToolGuard.Call call = guard.begin();
+        if (call == null) {
+            return circuitOpen(name);
+        }
+        ToolResult result = invoke(tool, guard, call, arguments);
+        call.complete(result);
+        onResult(name, metadata, cacheKey, generation, result);
+        return result;
+    }
+
+    /**
+     * 异步执行工具
+     * <p>
+     * - AsyncTool 直接调用 executeAsync，等待结果期间不占用工具线程
+     * - 同步工具获得并发许可后在内部线程池上执行，取消返回的 Future 时中断工具线程
+     * - 执行超过工具的超时时间时取消调用并返回错误结果；排队超过同样时长时返回忙碌错误
+     * <p>
+     * 工具不存在或熔断中时返回已完成的错误结果；执行失败时返回错误结果而不是异常完成。
+     *
+     * @param name      工具名称
+     * @param arguments JSON 格式参数
+     * @return 执行结果的 Future
+     * @throws RejectedExecutionException 需要工具线程而线程池并发与队列均已满
+     */
+    public CompletableFuture<ToolResult> executeAsync(String name, String arguments) {
+        return executeAsync(snapshot, name, arguments);
+    }
+
+    /**
+     * 异步执行指定快照中的工具，语义同 executeAsync(name, arguments)
+     *
+     * @param tools     工具快照
+     * @param name      工具名称
+     * @param arguments JSON 格式参数
+     * @return 执行结果的 Future
+     * @throws RejectedExecutionException 需要工具线程而线程池并发与队列均已满
+     */
+    public CompletableFuture<ToolResult> executeAsync(ToolSnapshot tools, String name, String arguments) {
+        Tool tool = tools.getTool(name);
+        if (tool == null) {
+            return CompletableFuture.completedFuture(ToolResult.error("Tool not found: " + name));
+        }
+        ToolResult invalid = validate(tools, name, arguments);
+        if (invalid != null) {
+            return CompletableFuture.completedFuture(invalid);
+        }
+        return dispatchAsync(tool, name, arguments);
+    }
+
+    /**
+     * 参数校验通过后异步执行：缓存、熔断、并发隔离与超时
+     */
+    private CompletableFuture<ToolResult> dispatchAsync(Tool tool, String name, String arguments) {
+        ToolMetadata metadata = metadataOf(tool);
+        String cacheKey = cacheKey(name, metadata, arguments);
+        long generation = cacheKey != null ? resultCache.generation(name) : 0;
+        ToolResult cached = cacheKey != null ? resultCache.get(cacheKey) : null;
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        ToolGuard guard = guardOf(tool);
+        ToolGuard.Call call = guard.begin();
+        if (call == null) {
+            return CompletableFuture.completedFuture(circuitOpen(name));
+        }
+
+        CompletableFuture<ToolResult> invocation;
+        try {
+            invocation = withPermit(guard, call, name, tool instanceof AsyncTool
+                    ? release -> startAsync((AsyncTool) tool, call, arguments, release)
+                    : release -> runOnExecutor(tool, call, arguments, release));
+        } catch (RejectedExecutionException e) {
+            call.reject();
+            throw e;
+        }
+
+        CompletableFuture<ToolResult> result = new CompletableFuture<>();
+        invocation.thenAccept(r -> {
+            call.complete(r);
+            onResult(name, metadata, cacheKey, generation, r);
+            result.complete(r);
+        });
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                call.abandon();
+            }
+            // 超时或被取消时结果先于调用完成，一并取消调用
+            invocation.cancel(true);
+        });
+
+        long timeoutMillis = guard.getTimeoutMillis();
+        if (timeoutMillis > 0 && !result.isDone()) {
+            scheduleTimeout(result, call, name, timeoutMillis, timeoutMillis);
+        }
+        return result;
+    }
+
+    /**
+     * 限时调用的计时
+     * 到期时仍在排队则返回忙碌错误（不计为失败）；已开始执行则按执行时间判断，未满 timeoutMillis 时继续计时
+     */
+    private static void scheduleTimeout(CompletableFuture<ToolResult> result, ToolGuard.Call call, String name,
+                                        long timeoutMillis, long delayMillis) {
+        ScheduledFuture<?> timer = TimeoutHolder.SCHEDULER.schedule(() -> {
+            if (call.reject()) {
+                result.complete(queueTimedOut(name, timeoutMillis));
+                return;
+            }
+            long remaining = timeoutMillis - call.getRunningMillis();
+            if (remaining > 0) {
+                scheduleTimeout(result, call, name, timeoutMillis, remaining);
+            } else if (call.timeout()) {
+                // 先记录超时再完成结果，调用方拿到超时结果时统计与熔断状态已更新
+                result.complete(ToolResult.error(
+                        "Tool execution timed out after " + timeoutMillis + "ms: " + name));
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+        result.whenComplete((r, e) -> timer.cancel(false));
+    }
+
+    /**
+     * 按注册时编译的 Schema 校验参数
+     *
+     * @return 校验失败时返回错误结果，通过返回 null
+     */
+    private ToolResult validate(ToolSnapshot tools, String name, String arguments) {
+        if (!argumentValidation) {
+            return null;
+        }
+        ArgumentValidator validator = tools.getValidator(name);
+        String error = validator != null ? validator.validate(arguments) : null;
+        return error != null ? ToolResult.error("Invalid arguments for " + name + ": " + error) : null;
+    }
+
+    /**
+     * 工具可缓存时返回缓存 key，否则返回 null
+     */
+    private String cacheKey(String name, ToolMetadata metadata, String arguments) {
+        return resultCache != null && metadata.isCacheable() ? ToolResultCache.key(name, arguments) : null;
+    }
+
+    /**
+     * 执行成功后写入缓存，并失效元数据声明的工具缓存
+     */
+    private void onResult(String name, ToolMetadata metadata, String cacheKey, long generation, ToolResult result) {
+        if (resultCache == null || result == null || !result.isSuccess()) {
+            return;
+        }
+        if (cacheKey != null) {
+            resultCache.put(name, cacheKey, result, metadata.getCacheTtlMillis(), generation);
+        }
+        for (String invalidated : metadata.getInvalidates()) {
+            resultCache.invalidate(invalidated);
+        }
+    }
+
+    private static ToolResult circuitOpen(String name) {
+        return ToolResult.error("Tool temporarily unavailable after repeated failures: " + name);
+    }
+
+    private static ToolResult bulkheadFull(String name) {
+        return ToolResult.error("Tool busy, too many concurrent calls: " + name);
+    }
+
+    private static ToolResult executorBusy(String name) {
+        return ToolResult.error("Tool busy, tool executor saturated: " + name);
+    }
+
+    private static ToolResult queueTimedOut(String name, long timeoutMillis) {
+        return ToolResult.error("Tool busy, not started within " + timeoutMillis + "ms: " + name);
+    }
+
+    /**
+     * 在并发许可内于当前线程调用工具，异常转为错误结果
+     */
+    private ToolResult invoke(Tool tool, ToolGuard guard, ToolGuard.Call call, String arguments) {
+        String name = tool.getName();
+        ToolPermits permit = guard.getPermits();
+        if (permit != null) {
+            try {
+                if (!permit.acquire()) {
+                    call.reject();
+                    return bulkheadFull(name);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                call.abandon();
+                return ToolResult.error("Tool execution interrupted: " + name);
+            }
+        }
+        try {
+            return run(tool, call, arguments);
+        } finally {
+            if (permit != null) {
+                permit.release();
+            }
+        }
+    }
+
+    /**
+     * 执行同步工具，异常转为错误结果并计为失败
+     */
+    private static ToolResult run(Tool tool, ToolGuard.Call call, String arguments) {
+        if (!call.start()) {
+            return ToolResult.error("Tool execution cancelled: " + tool.getName());
+        }
         try {
             return tool.execute(arguments);
         } catch (Exception e) {
+            call.fail();
             return ToolResult.error("Tool execution failed: " + e.getMessage());
         }
     }
 
+    /**
+     * 获得并发许可后启动调用
+     * 许可已满时排队等待，等待期间不占用线程；start 负责在调用结束后通过传入的 release 归还许可
+     *
+     * @throws RejectedExecutionException 许可立即可得而工具线程池已满
+     */
+    private static CompletableFuture<ToolResult> withPermit(
+            ToolGuard guard, ToolGuard.Call call, String name,
+            Function<Runnable, CompletableFuture<ToolResult>> start) {
+        ToolPermits permit = guard.getPermits();
+        if (permit == null) {
+            return start.apply(NO_PERMIT);
+        }
+
+        CompletableFuture<Void> acquired = permit.acquireAsync();
+        if (acquired == null) {
+            call.reject();
+            return CompletableFuture.completedFuture(bulkheadFull(name));
+        }
+        if (acquired.isDone()) {
+            return start.apply(permit::release);
+        }
+        CompletableFuture<ToolResult> result = new CompletableFuture<>();
+        acquired.thenRun(() -> {
+            if (result.isDone()) {
+                // 等待许可期间已被取消或排队超时
+                permit.release();
+                return;
+            }
+            CompletableFuture<ToolResult> invocation;
+            try {
+                invocation = start.apply(permit::release);
+            } catch (RejectedExecutionException e) {
+                call.reject();
+                result.complete(executorBusy(name));
+                return;
+            }
+            invocation.whenComplete((r, e) -> result.complete(r));
+            cancelling(result, invocation);
+        });
+        result.whenComplete((r, e) -> {
+            if (result.isCancelled()) {
+                acquired.cancel(false);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * 在工具线程池上执行同步工具
+     * 许可由执行完工具的线程归还；取消时工具尚未开始执行则立即归还，
+     * 已开始执行而不响应中断的工具在返回前一直占用许可
+     *
+     * @throws RejectedExecutionException 工具线程池已满，许可已归还
+     */
+    private CompletableFuture<ToolResult> runOnExecutor(Tool tool, ToolGuard.Call call, String arguments,
+                                                        Runnable release) {
+        AtomicBoolean claimed = new AtomicBoolean();
+        CompletableFuture<ToolResult> invocation;
+        try {
+            invocation = AsyncToolAdapter.runAsync(() -> {
+                if (!claimed.compareAndSet(false, true)) {
+                    // 已被取消，许可已归还
+                    return null;
+                }
+                try {
+                    return run(tool, call, arguments);
+                } finally {
+                    release.run();
+                }
+            }, executor::execute);
+        } catch (RejectedExecutionException e) {
+            release.run();
+            throw e;
+        }
+        invocation.whenComplete((r, e) -> {
+            if (claimed.compareAndSet(false, true)) {
+                release.run();
+            }
+        });
+        return invocation;
+    }
+
+    /**
+     * 调用 AsyncTool.executeAsync，抛出异常或异常完成时转为错误结果并计为失败；调用结束后归还许可
+     */
+    private static CompletableFuture<ToolResult> startAsync(AsyncTool tool, ToolGuard.Call call, String arguments,
+                                                            Runnable release) {
+        CompletableFuture<ToolResult> invocation = startAsync(tool, call, arguments);
+        invocation.whenComplete((r, e) -> release.run());
+        return invocation;
+    }
+
+    private static CompletableFuture<ToolResult> startAsync(AsyncTool tool, ToolGuard.Call call, String arguments) {
+        String name = tool.getName();
+        if (!call.start()) {
+            return CompletableFuture.completedFuture(ToolResult.error("Tool execution cancelled: " + name));
+        }
+        CompletableFuture<ToolResult> invocation;
+        try {
+            invocation = tool.executeAsync(arguments);
+        } catch (Exception e) {
+            call.fail();
+            return CompletableFuture.completedFuture(ToolResult.error("Tool execution failed: " + e.getMessage()));
+        }
+        if (invocation == null) {
+            call.fail();
+            return CompletableFuture.completedFuture(ToolResult.error("Tool returned no result: " + name));
+        }
+        return cancelling(invocation.handle((result, error) -> {
+            if (error == null) {
+                return result;
+            }
+            Throwable cause = error instanceof CompletionException && error.getCause() != null
+                    ? error.getCause() : error;
+            if (cause instanceof CancellationException) {
+                call.abandon();
+                return ToolResult.error("Tool execution cancelled: " + name);
+            }
+            call.fail();
+            return ToolResult.error("Tool execution failed: " + cause.getMessage());
+        }), invocation);
+    }
+
+    /**
+     * 取消 dependent 时一并取消其上游 source
+     */
+    private static <T> CompletableFuture<T> cancelling(CompletableFuture<T> dependent, CompletableFuture<?> source) {
+        dependent.whenComplete((result, error) -> {
+            if (dependent.isCancelled()) {
+                source.cancel(true);
+            }
+        });
+        return dependent;
+    }
+
+    /**
+     * 异步执行工具，等同于 executeAsync
+     *
+     * @param name      工具名称
+     * @param arguments JSON 格式参数
+     * @return 执行结果的 Future，取消时中止执行
+     * @throws RejectedExecutionException 需要工具线程而线程池并发与队列均已满
+     */
+    public Future<ToolResult> submit(String name, String arguments) {
+        return executeAsync(name, arguments);
+    }
+
+    /**
+     * 等待 submit 返回的执行结果
+     * 超时或被中断时取消执行（中断工具线程）并返回错误结果
+     *
+     * @param future        submit 返回的 Future
+     * @param name          工具名称（用于错误信息）
+     * @param timeoutMillis 超时时间（毫秒），<= 0 表示不限时
+     * @return 执行结果
+     */
+    public ToolResult awaitResult(Future<ToolResult> future, String name, long timeoutMillis) {
+        try {
+            return timeoutMillis > 0
+                    ? future.get(timeoutMillis, TimeUnit.MILLISECONDS)
+                    : future.get();
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            return ToolResult.error("Tool execution timed out after " + timeoutMillis + "ms: " + name);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            return ToolResult.error("Tool execution interrupted: " + name);
+        } catch (CancellationException e) {
+            return ToolResult.error("Tool execution cancelled: " + name);
+        } catch (ExecutionException e) {
+            return ToolResult.error("Tool execution failed: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * 失效指定工具的缓存结果
+     * 工具依赖的数据在外部被修改时调用
+     *
+     * @param name 工具名称
+     */
+    public void invalidateCache(String name) {
+        if (resultCache != null) {
+            resultCache.invalidate(name);
+        }
+    }
+
+    /**
+     * 清空工具结果缓存
+     */
+    public void clearCache() {
+        if (resultCache != null) {
+            resultCache.clear();
+        }
+    }
+
+    /**
+     * 获取工具结果缓存统计
+     *
+     * @return 统计快照，未启用缓存时返回 null
+     */
+    public ToolCacheStats getCacheStats() {
+        return resultCache != null ? resultCache.getStats() : null;
+    }
+
+    /**
+     * 获取工具线程池统计
+     */
+    public ExecutorStats getExecutorStats() {
+        return executor.getStats();
+    }
+
     /**
      * 获取已注册工具数量
      */
     public int size() {
-        return tools.size();
+        return snapshot.size();
     }
 
     /**
      * 清空所有工具
      */
     public void clear() {
-        tools.clear();
+        synchronized (writeLock) {
+            snapshot = snapshot.cleared();
+        }
+        guards.clear();
+        clearCache();
     }
 }
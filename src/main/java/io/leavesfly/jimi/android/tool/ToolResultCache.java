@@ -0,0 +1,202 @@
+package io.leavesfly.jimi.android.tool;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 工具结果缓存
+ * <p>
+ * - key 为工具名称加规范化后的参数 JSON（对象按键名排序、去除空白），键顺序或格式不同的相同参数命中同一条目
+ * - 每个条目按工具元数据声明的 TTL 过期，条目数超过上限时淘汰最久未访问的条目
+ * - 按工具名称失效：失效后仍在执行中的调用结果不再写入缓存，避免写回过期数据
+ */
+public class ToolResultCache {
+
+    private final int maxEntries;
+    private final LinkedHashMap<String, Entry> entries;
+
+    /**
+     * 每个工具的失效代数，失效时递增
+     */
+    private final Map<String, Long> generations = new HashMap<>();
+
+    /**
+     * clear 的次数，计入所有工具的失效代数
+     */
+    private long clearCount;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long invalidationCount;
+
+    /**
+     * @param maxEntries 最大缓存条目数
+     */
+    public ToolResultCache(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * 生成缓存 key
+     *
+     * @param toolName  工具名称
+     * @param arguments JSON 格式参数
+     */
+    public static String key(String toolName, String arguments) {
+        return toolName + '\n' + canonicalize(arguments);
+    }
+
+    /**
+     * 查找未过期的缓存结果
+     *
+     * @return 缓存结果，未命中返回 null
+     */
+    public synchronized ToolResult get(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.expiresAt - System.nanoTime() <= 0) {
+            entries.remove(key);
+            entry = null;
+        }
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.result;
+    }
+
+    /**
+     * 获取工具当前的失效代数，在执行工具前读取，写入缓存时传回
+     */
+    public synchronized long generation(String toolName) {
+        Long generation = generations.get(toolName);
+        return (generation != null ? generation : 0) + clearCount;
+    }
+
+    /**
+     * 写入缓存
+     * 读取 generation 之后工具被失效过时不写入
+     *
+     * @param toolName   工具名称
+     * @param key        key(toolName, arguments) 生成的 key
+     * @param result     执行结果
+     * @param ttlMillis  有效期（毫秒）
+     * @param generation 执行前读取的失效代数
+     */
+    public synchronized void put(String toolName, String key, ToolResult result, long ttlMillis, long generation) {
+        if (generation != generation(toolName)) {
+            return;
+        }
+        entries.put(key, new Entry(toolName, result, System.nanoTime() + ttlMillis * 1_000_000L));
+        Iterator<Entry> it = entries.values().iterator();
+        while (entries.size() > maxEntries && it.hasNext()) {
+            it.next();
+            it.remove();
+            evictionCount++;
+        }
+    }
+
+    /**
+     * 失效指定工具的全部缓存结果
+     */
+    public synchronized void invalidate(String toolName) {
+        Long generation = generations.get(toolName);
+        generations.put(toolName, generation != null ? generation + 1 : 1);
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            if (it.next().toolName.equals(toolName)) {
+                it.remove();
+                invalidationCount++;
+            }
+        }
+    }
+
+    /**
+     * 清空缓存
+     */
+    public synchronized void clear() {
+        clearCount++;
+        invalidationCount += entries.size();
+        entries.clear();
+    }
+
+    /**
+     * 获取统计快照
+     */
+    public synchronized ToolCacheStats getStats() {
+        return new ToolCacheStats(hitCount, missCount, evictionCount, invalidationCount,
+                entries.size(), maxEntries);
+    }
+
+    /**
+     * 规范化参数 JSON，无法解析时返回去除首尾空白的原文
+     */
+    static String canonicalize(String arguments) {
+        if (arguments == null || arguments.trim().isEmpty()) {
+            return "{}";
+        }
+        try {
+            StringBuilder sb = new StringBuilder(arguments.length());
+            appendCanonical(sb, new JSONTokener(arguments).nextValue());
+            return sb.toString();
+        } catch (JSONException e) {
+            return arguments.trim();
+        }
+    }
+
+    private static void appendCanonical(StringBuilder sb, Object value) {
+        if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            List<String> names = new ArrayList<>(object.keySet());
+            Collections.sort(names);
+            sb.append('{');
+            for (int i = 0; i < names.size(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                sb.append(JSONObject.quote(names.get(i))).append(':');
+                appendCanonical(sb, object.opt(names.get(i)));
+            }
+            sb.append('}');
+        } else if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            sb.append('[');
+            for (int i = 0; i < array.length(); i++) {
+                if (i > 0) {
+                    sb.append(',');
+                }
+                appendCanonical(sb, array.opt(i));
+            }
+            sb.append(']');
+        } else {
+            sb.append(JSONObject.valueToString(value));
+        }
+    }
+
+    private static final class Entry {
+        final String toolName;
+        final ToolResult result;
+        final long expiresAt;
+
+        Entry(String toolName, ToolResult result, long expiresAt) {
+            this.toolName = toolName;
+            this.result = result;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package io.leavesfly.jimi.android.tool;
+
+import io.leavesfly.jimi.android.llm.tokenizer.Tokenizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 工具结果整形
+ * <p>
+ * 工具结果写入上下文后会随之后的每次请求重复发送，超出 token 预算的结果按以下步骤压缩：
+ * <ol>
+ *     <li>合并连续重复的行（忽略行首序号），标注省略的行数；</li>
+ *     <li>仍超出预算时保留开头约 2/3 与结尾约 1/3 的内容，中间替换为截断标记；
+ *     边界落在长行内时截取该行的一部分，单行结果同样适用。</li>
+ * </ol>
+ * 未超出预算的结果原样返回。实现线程安全。
+ */
+public class ToolResultShaper {
+
+    /**
+     * 截断标记预留的 token 数
+     */
+    private static final int MARKER_TOKENS = 32;
+
+    /**
+     * 剩余预算低于此值时不再截取半行
+     */
+    private static final int MIN_PARTIAL_TOKENS = 8;
+
+    /**
+     * 连续相同的行达到此数量才合并
+     */
+    private static final int MIN_REPEATS = 3;
+
+    /**
+     * 行首序号，如 "12. "、"3) "、"4、"
+     */
+    private static final Pattern LIST_INDEX = Pattern.compile("^\\s*\\d+\\s*[.)、]\\s*");
+
+    private final Tokenizer tokenizer;
+    private final int defaultMaxTokens;
+
+    /**
+     * @param tokenizer        分词器
+     * @param defaultMaxTokens 工具未声明预算时的默认预算，0 表示不限
+     */
+    public ToolResultShaper(Tokenizer tokenizer, int defaultMaxTokens) {
+        if (tokenizer == null) {
+            throw new IllegalArgumentException("tokenizer cannot be null");
+        }
+        this.tokenizer = tokenizer;
+        this.defaultMaxTokens = Math.max(defaultMaxTokens, 0);
+    }
+
+    /**
+     * 按工具元数据声明的预算整形结果
+     *
+     * @param text     ToolResult.toResultString() 的结果
+     * @param metadata 工具元数据，null 时使用默认预算
+     * @return 写入上下文的文本
+     */
+    public String shape(String text, ToolMetadata metadata) {
+        return shape(text, budgetOf(metadata));
+    }
+
+    /**
+     * 按指定预算整形结果
+     *
+     * @param text      结果文本
+     * @param maxTokens token 预算，0 表示不限
+     * @return 不超出预算时原样返回，否则返回压缩后的文本
+     */
+    public String shape(String text, int maxTokens) {
+        if (text == null || maxTokens <= 0) {
+            return text;
+        }
+        int total = tokenizer.countTokens(text);
+        if (total <= maxTokens) {
+            return text;
+        }
+
+        List<String> lines = collapseRepeats(text.split("\n", -1));
+        String collapsed = String.join("\n", lines);
+        if (tokenizer.countTokens(collapsed) <= maxTokens) {
+            return collapsed;
+        }
+        return truncate(lines, total, maxTokens);
+    }
+
+    /**
+     * 工具的结果预算
+     */
+    int budgetOf(ToolMetadata metadata) {
+        int declared = metadata != null ? metadata.getMaxResultTokens() : 0;
+        if (declared > 0) {
+            return declared;
+        }
+        return declared < 0 ? 0 : defaultMaxTokens;
+    }
+
+    /**
+     * 合并连续重复的行：保留第一行，其余替换为一行标记；连续空行合并为一行
+     */
+    private static List<String> collapseRepeats(String[] lines) {
+        List<String> result = new ArrayList<>(lines.length);
+        int i = 0;
+        while (i < lines.length) {
+            String key = rowKey(lines[i]);
+            int j = i + 1;
+            while (j < lines.length && rowKey(lines[j]).equals(key)) {
+                j++;
+            }
+            int repeats = j - i;
+            if (key.isEmpty() && repeats > 1) {
+                result.add(lines[i]);
+            } else if (repeats >= MIN_REPEATS) {
+                result.add(lines[i]);
+                result.add("[以下 " + (repeats - 1) + " 行与上一行相同，已省略]");
+            } else {
+                for (int k = i; k < j; k++) {
+                    result.add(lines[k]);
+                }
+            }
+            i = j;
+        }
+        return result;
+    }
+
+    private static String rowKey(String line) {
+        return LIST_INDEX.matcher(line).replaceFirst("").trim();
+    }
+
+    /**
+     * 保留首尾，中间替换为截断标记
+     *
+     * @param lines     合并重复行后的各行
+     * @param total     原结果的 token 数
+     * @param maxTokens token 预算
+     */
+    private String truncate(List<String> lines, int total, int maxTokens) {
+        int available = Math.max(maxTokens - MARKER_TOKENS, maxTokens / 2);
+        int[] costs = new int[lines.size()];
+        for (int i = 0; i < costs.length; i++) {
+            // 每行加 1 计入换行符
+            costs[i] = tokenizer.countTokens(lines.get(i)) + 1;
+        }
+
+        // 开头：整行优先，剩余预算足够时截取下一行的开头
+        int headBudget = available * 2 / 3;
+        int used = 0;
+        int head = 0;
+        while (head < costs.length && used + costs[head] <= headBudget) {
+            used += costs[head++];
+        }
+        String headPartial = "";
+        if (head < costs.length && headBudget - used >= MIN_PARTIAL_TOKENS) {
+            headPartial = prefixWithin(lines.get(head), headBudget - used);
+            used += tokenizer.countTokens(headPartial);
+        }
+
+        // 结尾：使用剩余的全部预算
+        int tail = costs.length;
+        while (tail > head && used + costs[tail - 1] <= available) {
+            used += costs[--tail];
+        }
+        String tailPartial = "";
+        if (tail > head && available - used >= MIN_PARTIAL_TOKENS) {
+            tailPartial = suffixWithin(lines.get(tail - 1), available - used);
+            used += tokenizer.countTokens(tailPartial);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < head; i++) {
+            sb.append(lines.get(i)).append('\n');
+        }
+        if (!headPartial.isEmpty()) {
+            sb.append(headPartial).append(headPartial.length() < lines.get(head).length() ? "…\n" : "\n");
+        }
+        sb.append("[已截断：原结果约 ").append(total).append(" tokens，省略中间约 ")
+                .append(Math.max(total - used, 0)).append(" tokens]");
+        if (!tailPartial.isEmpty()) {
+            sb.append(tailPartial.length() < lines.get(tail - 1).length() ? "\n…" : "\n").append(tailPartial);
+        }
+        for (int i = tail; i < lines.size(); i++) {
+            sb.append('\n').append(lines.get(i));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 不超过 maxTokens 的最长前缀
+     */
+    private String prefixWithin(String line, int maxTokens) {
+        int low = 0;
+        int high = line.length();
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (tokenizer.countTokens(line.substring(0, mid)) <= maxTokens) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        if (low > 0 && low < line.length() && Character.isHighSurrogate(line.charAt(low - 1))) {
+            low--;
+        }
+        return line.substring(0, low);
+    }
+
+    /**
+     * 不超过 maxTokens 的最长后缀
+     */
+    private String suffixWithin(String line, int maxTokens) {
+        int low = 0;
+        int high = line.length();
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (tokenizer.countTokens(line.substring(line.length() - mid)) <= maxTokens) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        int start = line.length() - low;
+        if (low > 0 && start > 0 && Character.isLowSurrogate(line.charAt(start))) {
+            start++;
+        }
+        return line.substring(start);
+    }
+}
@@ -1,8 +1,12 @@
 package io.leavesfly.jimi.android.tool;
 
+import io.leavesfly.jimi.android.llm.json.JsonWriter;
+
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.IOException;
+
 /**
  * 工具 Schema 定义
  * 用于描述工具的参数格式，遵循 OpenAI Function Calling 标准
@@ -49,6 +53,22 @@ public class ToolSchema {
         return json;
     }
 
+    /**
+     * 以 OpenAI Function Calling 格式写入流式写入器，字段与 toJson() 一致
+     */
+    public void writeJson(JsonWriter writer) throws IOException {
+        writer.beginObject();
+        writer.name("type").value("function");
+        writer.name("function").beginObject();
+        writer.name("name").value(name);
+        writer.name("description").value(description);
+        if (parameters != null) {
+            writer.name("parameters").rawValue(parameters.toString());
+        }
+        writer.endObject();
+        writer.endObject();
+    }
+
     /**
      * Builder 模式创建 ToolSchema
      */
@@ -0,0 +1,62 @@
+package io.leavesfly.jimi.android.tool;
+
+import io.leavesfly.jimi.android.llm.json.JsonWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 不可变的工具 Schema 集合
+ * <p>
+ * 创建时即把整个 "tools" 数组预先序列化为 UTF-8 JSON，
+ * 请求构建时可直接写入这段字节，无需逐个调用 ToolSchema 序列化。
+ */
+public final class ToolSchemaSet extends AbstractList<ToolSchema> {
+
+    private final List<ToolSchema> schemas;
+    private final byte[] encodedJson;
+
+    public ToolSchemaSet(List<ToolSchema> schemas) {
+        this.schemas = Collections.unmodifiableList(new ArrayList<>(schemas));
+        this.encodedJson = encode(this.schemas);
+    }
+
+    @Override
+    public ToolSchema get(int index) {
+        return schemas.get(index);
+    }
+
+    @Override
+    public int size() {
+        return schemas.size();
+    }
+
+    /**
+     * 获取预序列化的 "tools" 数组（UTF-8 JSON）
+     * 返回的数组被共享，调用方不得修改
+     */
+    public byte[] getEncodedJson() {
+        return encodedJson;
+    }
+
+    private static byte[] encode(List<ToolSchema> schemas) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(schemas.size() * 512 + 2);
+            JsonWriter writer = new JsonWriter(out, 1024);
+            writer.beginArray();
+            for (ToolSchema schema : schemas) {
+                schema.writeJson(writer);
+            }
+            writer.endArray();
+            writer.flush();
+            return out.toByteArray();
+        } catch (IOException e) {
+            // 写入内存流不会发生 I/O 错误
+            throw new IllegalStateException("Failed to encode tool schemas", e);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package io.leavesfly.jimi.android.tool;
+
+import io.leavesfly.jimi.android.llm.message.Message;
+
+import java.util.List;
+
+/**
+ * 工具选择器
+ * <p>
+ * 每一步请求前从 Agent 的可用工具中挑出与当前对话相关的子集，只发送这些工具的 Schema，
+ * 工具较多时可明显减少请求体积与首 token 延迟。实现必须线程安全。
+ */
+public interface ToolSelector {
+
+    /**
+     * 选择本步发送的工具
+     *
+     * @param tools      本次运行的工具快照
+     * @param candidates 候选工具名称（Agent 可用且已注册的工具，按注册顺序）
+     * @param history    对话历史
+     * @return 选中的工具名称，应为 candidates 的子集并保持其顺序
+     */
+    List<String> select(ToolSnapshot tools, List<String> candidates, List<Message> history);
+}
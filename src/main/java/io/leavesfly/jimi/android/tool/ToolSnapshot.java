@@ -0,0 +1,198 @@
+package io.leavesfly.jimi.android.tool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 工具集合的不可变快照
+ * <p>
+ * ToolRegistry 每次注册、注销都发布一个新快照，读取无需加锁；
+ * 一次运行持有同一个快照，运行期间注册的工具从下一次运行开始生效。
+ * 预序列化的 ToolSchemaSet 按工具名称列表缓存在快照内（最近使用的 SCHEMA_CACHE_MAX_ENTRIES 个），随快照一起失效；
+ * 参数校验器在工具加入快照时编译一次。
+ */
+public final class ToolSnapshot {
+
+    /**
+     * 每个快照最多缓存的 Schema 列表数，按工具选择器产生的不同子集计
+     */
+    static final int SCHEMA_CACHE_MAX_ENTRIES = 32;
+
+    static final ToolSnapshot EMPTY = new ToolSnapshot(
+            Collections.<String, Tool>emptyMap(), Collections.<String, ArgumentValidator>emptyMap(), 0);
+
+    private final Map<String, Tool> tools;
+    private final Map<String, ArgumentValidator> validators;
+    private final long version;
+
+    /**
+     * Schema 缓存，key 为工具名称列表（空列表表示全部工具），按访问顺序淘汰，访问时锁定自身
+     */
+    private final Map<List<String>, ToolSchemaSet> schemaCache =
+            new LinkedHashMap<List<String>, ToolSchemaSet>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<List<String>, ToolSchemaSet> eldest) {
+                    return size() > SCHEMA_CACHE_MAX_ENTRIES;
+                }
+            };
+
+    private ToolSnapshot(Map<String, Tool> tools, Map<String, ArgumentValidator> validators, long version) {
+        this.tools = tools;
+        this.validators = validators;
+        this.version = version;
+    }
+
+    /**
+     * 在当前快照基础上修改，生成新快照
+     *
+     * @param added   新增或替换的工具
+     * @param removed 移除的工具名称
+     */
+    ToolSnapshot with(List<Tool> added, List<String> removed) {
+        Map<String, Tool> copy = new LinkedHashMap<>(tools);
+        Map<String, ArgumentValidator> validatorCopy = new HashMap<>(validators);
+        for (String name : removed) {
+            copy.remove(name);
+            validatorCopy.remove(name);
+        }
+        for (Tool tool : added) {
+            copy.put(tool.getName(), tool);
+            ToolSchema schema = tool.getSchema();
+            ArgumentValidator validator = schema != null ? ArgumentValidator.compile(schema.getParameters()) : null;
+            if (validator != null) {
+                validatorCopy.put(tool.getName(), validator);
+            } else {
+                validatorCopy.remove(tool.getName());
+            }
+        }
+        return new ToolSnapshot(Collections.unmodifiableMap(copy), validatorCopy, version + 1);
+    }
+
+    /**
+     * 生成不含任何工具的新快照
+     */
+    ToolSnapshot cleared() {
+        return new ToolSnapshot(
+                Collections.<String, Tool>emptyMap(), Collections.<String, ArgumentValidator>emptyMap(), version + 1);
+    }
+
+    /**
+     * 快照版本，每次修改递增
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * 获取工具
+     *
+     * @param name 工具名称
+     * @return 工具实例，不存在返回 null
+     */
+    public Tool getTool(String name) {
+        return tools.get(name);
+    }
+
+    public boolean hasTool(String name) {
+        return tools.containsKey(name);
+    }
+
+    /**
+     * 获取工具元数据
+     *
+     * @return 元数据，工具不存在时返回 ToolMetadata.DEFAULT
+     */
+    public ToolMetadata getMetadata(String name) {
+        Tool tool = tools.get(name);
+        return tool != null ? metadataOf(tool) : ToolMetadata.DEFAULT;
+    }
+
+    /**
+     * 获取注册时编译的参数校验器
+     *
+     * @return 校验器，工具不存在或未声明参数 Schema 时返回 null
+     */
+    public ArgumentValidator getValidator(String name) {
+        return validators.get(name);
+    }
+
+    static ToolMetadata metadataOf(Tool tool) {
+        ToolMetadata metadata = tool.getMetadata();
+        return metadata != null ? metadata : ToolMetadata.DEFAULT;
+    }
+
+    /**
+     * 获取所有工具名称（按注册顺序）
+     */
+    public List<String> getToolNames() {
+        return new ArrayList<>(tools.keySet());
+    }
+
+    /**
+     * 获取指定工具的 Schema 列表
+     * 结果按工具名称列表缓存，返回的 ToolSchemaSet 不可修改
+     *
+     * @param toolNames 工具名称列表，null 表示获取所有
+     * @return Schema 列表
+     */
+    public ToolSchemaSet getToolSchemas(List<String> toolNames) {
+        List<String> key = toolNames == null
+                ? Collections.<String>emptyList()
+                : new ArrayList<>(toolNames);
+        ToolSchemaSet cached;
+        synchronized (schemaCache) {
+            cached = schemaCache.get(key);
+        }
+        if (cached != null) {
+            return cached;
+        }
+        // 在锁外序列化，并发构建同一列表时保留先写入的结果
+        ToolSchemaSet built = new ToolSchemaSet(collectSchemas(key));
+        synchronized (schemaCache) {
+            ToolSchemaSet existing = schemaCache.get(key);
+            if (existing != null) {
+                return existing;
+            }
+            schemaCache.put(key, built);
+        }
+        return built;
+    }
+
+    /**
+     * 当前缓存的 Schema 列表数
+     */
+    int schemaCacheSize() {
+        synchronized (schemaCache) {
+            return schemaCache.size();
+        }
+    }
+
+    private List<ToolSchema> collectSchemas(List<String> toolNames) {
+        List<ToolSchema> schemas = new ArrayList<>();
+
+        if (toolNames.isEmpty()) {
+            // 返回所有工具的 Schema
+            for (Tool tool : tools.values()) {
+                schemas.add(tool.getSchema());
+            }
+        } else {
+            // 返回指定工具的 Schema
+            for (String name : toolNames) {
+                Tool tool = tools.get(name);
+                if (tool != null) {
+                    schemas.add(tool.getSchema());
+                }
+            }
+        }
+
+        return schemas;
+    }
+
+    public int size() {
+        return tools.size();
+    }
+}
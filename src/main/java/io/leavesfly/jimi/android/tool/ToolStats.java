@@ -0,0 +1,106 @@
+package io.leavesfly.jimi.android.tool;
+
+/**
+ * 单个工具的执行统计快照
+ */
+public class ToolStats {
+
+    private final String name;
+    private final CircuitBreaker.State circuitState;
+    private final int consecutiveFailures;
+    private final long callCount;
+    private final long failureCount;
+    private final long timeoutCount;
+    private final long rejectedCount;
+    private final long shortCircuitCount;
+    private final int waitingCount;
+
+    public ToolStats(String name, CircuitBreaker.State circuitState, int consecutiveFailures,
+                     long callCount, long failureCount, long timeoutCount,
+                     long rejectedCount, long shortCircuitCount, int waitingCount) {
+        this.name = name;
+        this.circuitState = circuitState;
+        this.consecutiveFailures = consecutiveFailures;
+        this.callCount = callCount;
+        this.failureCount = failureCount;
+        this.timeoutCount = timeoutCount;
+        this.rejectedCount = rejectedCount;
+        this.shortCircuitCount = shortCircuitCount;
+        this.waitingCount = waitingCount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 熔断状态
+     */
+    public CircuitBreaker.State getCircuitState() {
+        return circuitState;
+    }
+
+    /**
+     * 当前连续失败次数
+     */
+    public int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * 实际执行的调用数（不含缓存命中与被拒绝的调用）
+     */
+    public long getCallCount() {
+        return callCount;
+    }
+
+    /**
+     * 失败的调用数：抛出异常或超时，工具返回的错误结果不计入
+     */
+    public long getFailureCount() {
+        return failureCount;
+    }
+
+    /**
+     * 超时的调用数
+     */
+    public long getTimeoutCount() {
+        return timeoutCount;
+    }
+
+    /**
+     * 因并发排队已满被拒绝的调用数
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * 因熔断被直接拒绝的调用数
+     */
+    public long getShortCircuitCount() {
+        return shortCircuitCount;
+    }
+
+    /**
+     * 正在等待并发许可的调用数
+     */
+    public int getWaitingCount() {
+        return waitingCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ToolStats{" +
+                "name='" + name + '\'' +
+                ", circuit=" + circuitState +
+                ", consecutiveFailures=" + consecutiveFailures +
+                ", calls=" + callCount +
+                ", failures=" + failureCount +
+                ", timeouts=" + timeoutCount +
+                ", rejected=" + rejectedCount +
+                ", shortCircuited=" + shortCircuitCount +
+                ", waiting=" + waitingCount +
+                '}';
+    }
+}
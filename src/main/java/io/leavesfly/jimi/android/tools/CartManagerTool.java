@@ -1,11 +1,13 @@
 package io.leavesfly.jimi.android.tools;
 
 import io.leavesfly.jimi.android.tool.Tool;
+import io.leavesfly.jimi.android.tool.ToolMetadata;
 import io.leavesfly.jimi.android.tool.ToolResult;
 import io.leavesfly.jimi.android.tool.ToolSchema;
 import io.leavesfly.jimi.android.tools.ecommerce.Cart;
 import io.leavesfly.jimi.android.tools.ecommerce.EcommerceApi;
 
+import org.json.JSONException;
 import org.json.JSONObject;
 
 /**
@@ -16,6 +18,14 @@ public class CartManagerTool implements Tool {
 
     public static final String NAME = "cart_manager";
 
+    /**
+     * 修改购物车，同一时间只允许一个调用
+     */
+    private static final ToolMetadata METADATA = ToolMetadata.builder()
+            .sideEffect(ToolMetadata.SideEffect.MUTATING)
+            .maxConcurrency(1)
+            .build();
+
     private final EcommerceApi api;
 
     public CartManagerTool(EcommerceApi api) {
@@ -68,6 +78,11 @@ public class CartManagerTool implements Tool {
         }
     }
 
+    @Override
+    public ToolMetadata getMetadata() {
+        return METADATA;
+    }
+
     @Override
     public ToolResult execute(String arguments) {
         try {
@@ -103,7 +118,8 @@ public class CartManagerTool implements Tool {
                     return ToolResult.error("不支持的操作: " + action);
             }
 
-        } catch (Exception e) {
+        } catch (JSONException e) {
+            // 只把参数错误转为错误结果，API 异常交给 ToolRegistry 计入熔断
             return ToolResult.error("购物车操作失败: " + e.getMessage());
         }
     }
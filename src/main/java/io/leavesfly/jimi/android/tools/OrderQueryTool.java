@@ -1,11 +1,13 @@
 package io.leavesfly.jimi.android.tools;
 
 import io.leavesfly.jimi.android.tool.Tool;
+import io.leavesfly.jimi.android.tool.ToolMetadata;
 import io.leavesfly.jimi.android.tool.ToolResult;
 import io.leavesfly.jimi.android.tool.ToolSchema;
 import io.leavesfly.jimi.android.tools.ecommerce.EcommerceApi;
 import io.leavesfly.jimi.android.tools.ecommerce.Order;
 
+import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.List;
@@ -18,6 +20,14 @@ public class OrderQueryTool implements Tool {
 
     public static final String NAME = "order_query";
 
+    /**
+     * 只读查询，订单状态会变化，缓存有效期较短
+     */
+    private static final ToolMetadata METADATA = ToolMetadata.builder()
+            .sideEffect(ToolMetadata.SideEffect.READ_ONLY)
+            .cacheable(10_000)
+            .build();
+
     private final EcommerceApi api;
 
     public OrderQueryTool(EcommerceApi api) {
@@ -69,6 +79,11 @@ public class OrderQueryTool implements Tool {
         }
     }
 
+    @Override
+    public ToolMetadata getMetadata() {
+        return METADATA;
+    }
+
     @Override
     public ToolResult execute(String arguments) {
         try {
@@ -104,7 +119,8 @@ public class OrderQueryTool implements Tool {
 
             return ToolResult.success(sb.toString().trim());
 
-        } catch (Exception e) {
+        } catch (JSONException e) {
+            // 只把参数错误转为错误结果，API 异常交给 ToolRegistry 计入熔断
             return ToolResult.error("查询订单失败: " + e.getMessage());
         }
     }
@@ -1,11 +1,13 @@
 package io.leavesfly.jimi.android.tools;
 
 import io.leavesfly.jimi.android.tool.Tool;
+import io.leavesfly.jimi.android.tool.ToolMetadata;
 import io.leavesfly.jimi.android.tool.ToolResult;
 import io.leavesfly.jimi.android.tool.ToolSchema;
 import io.leavesfly.jimi.android.tools.ecommerce.EcommerceApi;
 import io.leavesfly.jimi.android.tools.ecommerce.Product;
 
+import org.json.JSONException;
 import org.json.JSONObject;
 
 import java.util.List;
@@ -18,6 +20,14 @@ public class ProductSearchTool implements Tool {
 
     public static final String NAME = "product_search";
 
+    /**
+     * 只读查询，结果可短时缓存
+     */
+    private static final ToolMetadata METADATA = ToolMetadata.builder()
+            .sideEffect(ToolMetadata.SideEffect.READ_ONLY)
+            .cacheable(60_000)
+            .build();
+
     private final EcommerceApi api;
 
     public ProductSearchTool(EcommerceApi api) {
@@ -88,6 +98,11 @@ public class ProductSearchTool implements Tool {
         }
     }
 
+    @Override
+    public ToolMetadata getMetadata() {
+        return METADATA;
+    }
+
     @Override
     public ToolResult execute(String arguments) {
         try {
@@ -119,7 +134,8 @@ public class ProductSearchTool implements Tool {
 
             return ToolResult.success(sb.toString().trim());
 
-        } catch (Exception e) {
+        } catch (JSONException e) {
+            // 只把参数错误转为错误结果，API 异常交给 ToolRegistry 计入熔断
             return ToolResult.error("搜索商品失败: " + e.getMessage());
         }
     }
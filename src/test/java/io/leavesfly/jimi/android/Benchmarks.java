@@ -0,0 +1,63 @@
+package io.leavesfly.jimi.android;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 测试中的简易基准工具：测量当前线程的分配字节数与耗时
+ * <p>
+ * 分配字节数依赖 HotSpot 的 com.sun.management.ThreadMXBean，不支持时跳过相关测试。
+ */
+public final class Benchmarks {
+
+    /**
+     * 被测代码
+     */
+    public interface Body {
+        void run() throws Exception;
+    }
+
+    private Benchmarks() {
+        // 工具类，禁止实例化
+    }
+
+    /**
+     * 预热后测量 body 执行一次在当前线程上分配的字节数（取多次中的最小值，排除偶发分配）
+     */
+    public static long allocatedBytes(Body body) throws Exception {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean, "thread allocation counter unavailable");
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported(), "thread allocation counter unavailable");
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < 5; i++) {
+            body.run();
+        }
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < 5; i++) {
+            long before = threads.getThreadAllocatedBytes(threadId);
+            body.run();
+            min = Math.min(min, threads.getThreadAllocatedBytes(threadId) - before);
+        }
+        return min;
+    }
+
+    /**
+     * 预热后测量 body 执行一次的耗时（纳秒，取多次中的最小值）
+     */
+    public static long nanos(Body body) throws Exception {
+        for (int i = 0; i < 5; i++) {
+            body.run();
+        }
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < 10; i++) {
+            long start = System.nanoTime();
+            body.run();
+            min = Math.min(min, System.nanoTime() - start);
+        }
+        return min;
+    }
+}
@@ -0,0 +1,34 @@
+package io.leavesfly.jimi.android.core.context;
+
+import io.leavesfly.jimi.android.llm.message.Message;
+import io.leavesfly.jimi.android.llm.tokenizer.EstimatingTokenizer;
+import io.leavesfly.jimi.android.llm.tokenizer.Tokenizer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContextImplTest {
+
+    @Test
+    void accumulatesTokenCountOnAppendAndAcceptsCalibration() {
+        Tokenizer tokenizer = new EstimatingTokenizer();
+        ContextImpl context = new ContextImpl(tokenizer);
+        Message user = Message.user("有没有降噪耳机");
+        Message assistant = Message.assistant("有的，推荐以下几款");
+
+        context.appendMessage(user);
+        context.appendMessage(null);
+        context.appendMessage(assistant);
+
+        assertEquals(user.getTokenCount(tokenizer) + assistant.getTokenCount(tokenizer), context.getTokenCount());
+
+        // 服务端返回真实用量后校准，之后继续累加
+        context.updateTokenCount(100);
+        context.appendMessage(user);
+        assertEquals(100 + user.getTokenCount(tokenizer), context.getTokenCount());
+
+        context.clear();
+        assertEquals(0, context.getTokenCount());
+        assertEquals(0, context.getHistory().size());
+    }
+}
@@ -0,0 +1,273 @@
+package io.leavesfly.jimi.android.core.engine;
+
+import io.leavesfly.jimi.android.core.agent.Agent;
+import io.leavesfly.jimi.android.core.compaction.SimpleCompaction;
+import io.leavesfly.jimi.android.core.context.ContextImpl;
+import io.leavesfly.jimi.android.core.runtime.RuntimeImpl;
+import io.leavesfly.jimi.android.core.wire.WireImpl;
+import io.leavesfly.jimi.android.llm.LLM;
+import io.leavesfly.jimi.android.llm.ScriptedChatProvider;
+import io.leavesfly.jimi.android.llm.message.ContentPart;
+import io.leavesfly.jimi.android.llm.message.Message;
+import io.leavesfly.jimi.android.sdk.JimiConfig;
+import io.leavesfly.jimi.android.tool.TestTool;
+import io.leavesfly.jimi.android.tool.ToolMetadata;
+import io.leavesfly.jimi.android.tool.ToolRegistry;
+import io.leavesfly.jimi.android.tool.ToolResult;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 一步中的多个工具调用：按批并发、MUTATING 串行、FAST 在当前线程执行、提前执行，结果按 tool_call 顺序写入
+ */
+class AgentExecutorToolBatchTest {
+
+    private static final ToolMetadata READ_ONLY = ToolMetadata.builder()
+            .sideEffect(ToolMetadata.SideEffect.READ_ONLY)
+            .build();
+    private static final ToolMetadata FAST = ToolMetadata.builder()
+            .sideEffect(ToolMetadata.SideEffect.READ_ONLY)
+            .latencyClass(ToolMetadata.LatencyClass.FAST)
+            .build();
+    private static final ToolMetadata MUTATING = ToolMetadata.builder()
+            .sideEffect(ToolMetadata.SideEffect.MUTATING)
+            .build();
+
+    /**
+     * 工具开始与结束事件，按发生顺序记录
+     */
+    private final List<String> events = new CopyOnWriteArrayList<>();
+    private final Map<String, Thread> threads = new ConcurrentHashMap<>();
+    private final ToolRegistry registry = new ToolRegistry(4, 4, 0);
+    private final ContextImpl context = new ContextImpl();
+
+    @Test
+    void resultsFollowToolCallOrderWhenToolsFinishOutOfOrder() throws Exception {
+        CountDownLatch lastFinished = new CountDownLatch(1);
+        register("a", READ_ONLY, args -> ToolResult.success(await(lastFinished) ? "A" : "A-serial"));
+        register("b", READ_ONLY, args -> ToolResult.success("B"));
+        register("c", READ_ONLY, args -> {
+            lastFinished.countDown();
+            return ToolResult.success("C");
+        });
+
+        executor(false, toolCalls("a", "b", "c")).execute(ContentPart.textList("查一下"));
+
+        // a 等到 c 开始执行才返回，说明三者同时执行
+        assertTrue(events.indexOf("start:c") < events.indexOf("end:a"), events.toString());
+        assertEquals(Arrays.asList("call_a=A", "call_b=B", "call_c=C"), toolResults());
+        assertEquals("完成", lastMessage().getContent());
+    }
+
+    @Test
+    void mutatingToolsRunAloneBetweenBatches() throws Exception {
+        CountDownLatch bothReading = new CountDownLatch(2);
+        Function<String, ToolResult> overlapping = args -> {
+            bothReading.countDown();
+            return ToolResult.success(await(bothReading) ? "read" : "read-serial");
+        };
+        register("r1", READ_ONLY, overlapping);
+        register("r2", READ_ONLY, overlapping);
+        register("m1", MUTATING, args -> ToolResult.success("m1"));
+        register("m2", MUTATING, args -> ToolResult.success("m2"));
+        register("r3", READ_ONLY, args -> ToolResult.success("r3"));
+
+        executor(false, toolCalls("r1", "r2", "m1", "m2", "r3")).execute(ContentPart.textList("下单"));
+
+        assertEquals(Arrays.asList("call_r1=read", "call_r2=read", "call_m1=m1", "call_m2=m2", "call_r3=r3"),
+                toolResults());
+        int m1Start = events.indexOf("start:m1");
+        assertTrue(events.indexOf("end:r1") < m1Start && events.indexOf("end:r2") < m1Start, events.toString());
+        assertEquals(Arrays.asList("start:m1", "end:m1", "start:m2", "end:m2", "start:r3", "end:r3"),
+                events.subList(m1Start, events.size()));
+    }
+
+    @Test
+    void fastToolsRunInlineInsideBatch() throws Exception {
+        register("n1", READ_ONLY, args -> ToolResult.success("n1"));
+        register("f", FAST, args -> ToolResult.success("f"));
+        register("n2", READ_ONLY, args -> ToolResult.success("n2"));
+
+        executor(false, toolCalls("n1", "f", "n2")).execute(ContentPart.textList("查一下"));
+
+        assertEquals(Arrays.asList("call_n1=n1", "call_f=f", "call_n2=n2"), toolResults());
+        assertSame(Thread.currentThread(), threads.get("f"));
+        assertNotSame(Thread.currentThread(), threads.get("n1"));
+        assertNotSame(Thread.currentThread(), threads.get("n2"));
+    }
+
+    @Test
+    void onlyConcurrencySafeToolsAreDispatchedEarly() throws Exception {
+        CountDownLatch readStarted = new CountDownLatch(1);
+        register("r", READ_ONLY, args -> {
+            readStarted.countDown();
+            return ToolResult.success("r");
+        });
+        register("m", MUTATING, args -> ToolResult.success("m"));
+        register("r2", READ_ONLY, args -> ToolResult.success("r2"));
+
+        executor(true, (n, call) -> {
+            if (n > 1) {
+                ScriptedChatProvider.reply(call, "完成");
+                return;
+            }
+            call.next(ScriptedChatProvider.toolCall(0, "call_r", "r", "{}"));
+            call.next(ScriptedChatProvider.toolCall(1, "call_m", "m", "{}"));
+            // 第三个调用开始时前两个的参数已完整
+            call.next(ScriptedChatProvider.toolCall(2, "call_r2", "r2", "{}"));
+            events.add(readStarted.await(5, TimeUnit.SECONDS) ? "stream:end" : "stream:end-without-early");
+            call.complete();
+        }).execute(ContentPart.textList("查一下再下单"));
+
+        int streamEnd = events.indexOf("stream:end");
+        assertTrue(streamEnd >= 0, events.toString());
+        assertTrue(events.indexOf("start:r") < streamEnd, events.toString());
+        assertTrue(events.indexOf("start:m") > streamEnd, events.toString());
+        assertEquals(Arrays.asList("call_r=r", "call_m=m", "call_r2=r2"), toolResults());
+        assertEquals(1, ((TestTool) registry.snapshot().getTool("r")).calls.get());
+    }
+
+    @Test
+    void failedAndTimedOutToolsInBatchReturnErrors() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        register("ok", READ_ONLY, args -> ToolResult.success("ok"));
+        register("boom", READ_ONLY, args -> {
+            throw new IllegalStateException("backend down");
+        });
+        register("slow", ToolMetadata.builder()
+                .sideEffect(ToolMetadata.SideEffect.READ_ONLY)
+                .timeoutMillis(50)
+                .build(), args -> ToolResult.success(await(release) ? "late" : "interrupted"));
+
+        try {
+            executor(false, toolCalls("ok", "boom", "slow")).execute(ContentPart.textList("查一下"));
+        } finally {
+            release.countDown();
+        }
+
+        assertEquals(Arrays.asList("call_ok=ok",
+                "call_boom=[Error] Tool execution failed: backend down",
+                "call_slow=[Error] Tool execution timed out after 50ms: slow"), toolResults());
+        // 出错的工具结果交给模型，运行继续
+        assertEquals("完成", lastMessage().getContent());
+    }
+
+    @Test
+    void cancelDuringBatchInterruptsRemainingTools() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        register("first", READ_ONLY, args -> {
+            started.countDown();
+            return ToolResult.success(await(releaseFirst) ? "first" : "first-timeout");
+        });
+        register("second", READ_ONLY, args -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+                return ToolResult.success("second");
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                return ToolResult.error("interrupted");
+            }
+        });
+        AgentExecutor executor = executor(false, toolCalls("first", "second"));
+
+        Thread canceller = new Thread(() -> {
+            if (await(started)) {
+                executor.cancel();
+            }
+            releaseFirst.countDown();
+        }, "canceller");
+        canceller.start();
+
+        assertThrows(CancellationException.class, () -> executor.execute(ContentPart.textList("查一下")));
+        canceller.join(5000);
+
+        // 已在等待的结果照常写入，其余调用被中断并补充取消结果
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "second tool was not interrupted");
+        assertEquals(Arrays.asList("call_first=first", "call_second=[已取消] 执行被用户取消"), toolResults());
+    }
+
+    private void register(String name, ToolMetadata metadata, Function<String, ToolResult> body) {
+        registry.register(new TestTool(name, metadata, args -> {
+            threads.put(name, Thread.currentThread());
+            events.add("start:" + name);
+            try {
+                return body.apply(args);
+            } finally {
+                events.add("end:" + name);
+            }
+        }));
+    }
+
+    /**
+     * 第一次请求一次性返回给定的工具调用，之后的请求返回最终回答
+     */
+    private static ScriptedChatProvider.Script toolCalls(String... names) {
+        return (n, call) -> {
+            if (n > 1) {
+                ScriptedChatProvider.reply(call, "完成");
+                return;
+            }
+            for (int i = 0; i < names.length; i++) {
+                call.next(ScriptedChatProvider.toolCall(i, "call_" + names[i], names[i], "{}"));
+            }
+            call.complete();
+        };
+    }
+
+    private AgentExecutor executor(boolean earlyToolDispatch, ScriptedChatProvider.Script script) {
+        JimiConfig config = new JimiConfig.Builder()
+                .apiKey("test")
+                .apiEndpoint("http://127.0.0.1:1/v1")
+                .modelName("scripted")
+                .parallelToolCalls(true)
+                .earlyToolDispatch(earlyToolDispatch)
+                .build();
+        ScriptedChatProvider provider = new ScriptedChatProvider("scripted", script);
+        return new AgentExecutor(Agent.builder().name("test").systemPrompt("sys").build(),
+                new RuntimeImpl(config, new LLM("scripted", provider, 8000)),
+                context, new WireImpl(), new SimpleCompaction(), registry);
+    }
+
+    private List<String> toolResults() {
+        List<String> results = new ArrayList<>();
+        for (Message message : context.getHistory()) {
+            if (message.getToolCallId() != null) {
+                results.add(message.getToolCallId() + "=" + message.getContent());
+            }
+        }
+        return results;
+    }
+
+    private Message lastMessage() {
+        List<Message> history = context.getHistory();
+        return history.get(history.size() - 1);
+    }
+
+    private static boolean await(CountDownLatch latch) {
+        try {
+            return latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
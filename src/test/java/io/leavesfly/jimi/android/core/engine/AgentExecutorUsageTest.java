@@ -0,0 +1,169 @@
+package io.leavesfly.jimi.android.core.engine;
+
+import io.leavesfly.jimi.android.core.agent.Agent;
+import io.leavesfly.jimi.android.core.compaction.SimpleCompaction;
+import io.leavesfly.jimi.android.core.context.ContextImpl;
+import io.leavesfly.jimi.android.core.runtime.RuntimeImpl;
+import io.leavesfly.jimi.android.core.wire.WireImpl;
+import io.leavesfly.jimi.android.llm.HttpChatProvider;
+import io.leavesfly.jimi.android.llm.LLM;
+import io.leavesfly.jimi.android.llm.http.HttpRequest;
+import io.leavesfly.jimi.android.llm.http.HttpResponse;
+import io.leavesfly.jimi.android.llm.http.HttpTransport;
+import io.leavesfly.jimi.android.llm.message.ContentPart;
+import io.leavesfly.jimi.android.llm.message.Message;
+import io.leavesfly.jimi.android.sdk.JimiConfig;
+import io.leavesfly.jimi.android.tool.Tool;
+import io.leavesfly.jimi.android.tool.ToolRegistry;
+import io.leavesfly.jimi.android.tool.ToolResult;
+import io.leavesfly.jimi.android.tool.ToolSchema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 上下文 token 计数：服务端返回 usage 时以其为准，否则使用本地估算
+ */
+class AgentExecutorUsageTest {
+
+    private static final String CONTENT = "data: {\"id\":\"c1\",\"choices\":[{\"index\":0,"
+            + "\"delta\":{\"content\":\"您的订单已发货\"},\"finish_reason\":null}]}\n\n";
+    private static final String STOP = "data: {\"id\":\"c1\",\"choices\":[{\"index\":0,\"delta\":{},"
+            + "\"finish_reason\":\"stop\"}]}\n\n";
+    private static final String TOOL_CALL = "data: {\"id\":\"c1\",\"choices\":[{\"index\":0,\"delta\":{"
+            + "\"tool_calls\":[{\"index\":0,\"id\":\"call_1\",\"type\":\"function\",\"function\":{"
+            + "\"name\":\"order_query\",\"arguments\":\"{}\"}}]},\"finish_reason\":\"tool_calls\"}]}\n\n";
+    private static final String DONE = "data: [DONE]\n\n";
+
+    private HttpChatProvider provider;
+
+    @AfterEach
+    void tearDown() {
+        if (provider != null) {
+            provider.shutdown();
+        }
+    }
+
+    @Test
+    void usageOnlyFinalChunkSetsTokenCount() throws Exception {
+        // OpenAI 在 stream_options.include_usage 下的最后一个数据块：choices 为空，只有 usage
+        ContextImpl context = new ContextImpl();
+        AgentExecutor executor = executor(context, null, CONTENT + STOP
+                + "data: {\"id\":\"c1\",\"choices\":[],\"usage\":{\"prompt_tokens\":812,"
+                + "\"completion_tokens\":96,\"total_tokens\":908}}\n\n" + DONE);
+
+        executor.execute(ContentPart.textList("我的订单到哪了"));
+
+        assertEquals(908, context.getTokenCount());
+    }
+
+    @Test
+    void fallsBackToEstimateWithoutUsage() throws Exception {
+        ContextImpl context = new ContextImpl();
+        AgentExecutor executor = executor(context, null, CONTENT + STOP + DONE);
+
+        executor.execute(ContentPart.textList("我的订单到哪了"));
+
+        assertEquals(2, context.getHistory().size());
+        assertEquals(estimate(context, context.getHistory()), context.getTokenCount());
+    }
+
+    @Test
+    void messagesAfterLastUsageAreAddedByEstimate() throws Exception {
+        ContextImpl context = new ContextImpl();
+        ToolRegistry registry = new ToolRegistry();
+        registry.register(new OrderQuery());
+        AgentExecutor executor = executor(context, registry,
+                TOOL_CALL + "data: {\"choices\":[],\"usage\":{\"prompt_tokens\":500,\"completion_tokens\":20}}\n\n"
+                        + DONE,
+                CONTENT + STOP + DONE);
+
+        executor.execute(ContentPart.textList("我的订单到哪了"));
+
+        // 用户消息、工具调用、工具结果、最终回答；第二步没有 usage，工具结果与回答按估算累加
+        List<Message> history = context.getHistory();
+        assertEquals(4, history.size());
+        assertEquals(520 + estimate(context, history.subList(2, 4)), context.getTokenCount());
+    }
+
+    private AgentExecutor executor(ContextImpl context, ToolRegistry registry, String... responses) {
+        JimiConfig config = new JimiConfig.Builder()
+                .apiKey("test")
+                .apiEndpoint("http://127.0.0.1:1/v1")
+                .modelName("gpt-4o-mini")
+                .build();
+        provider = HttpChatProvider.builder()
+                .modelName("gpt-4o-mini")
+                .baseUrl("http://127.0.0.1:1/v1")
+                .apiKey("test")
+                .maxContextSize(8000)
+                .transport(new SseTransport(responses))
+                .build();
+        return new AgentExecutor(Agent.builder().name("test").systemPrompt("sys").build(),
+                new RuntimeImpl(config, new LLM("gpt-4o-mini", provider, 8000)),
+                context, new WireImpl(), new SimpleCompaction(), registry);
+    }
+
+    private static int estimate(ContextImpl context, List<Message> messages) {
+        int total = 0;
+        for (Message message : messages) {
+            total += message.getTokenCount(context.getTokenizer());
+        }
+        return total;
+    }
+
+    /**
+     * 依次返回预先给定的 SSE 响应体
+     */
+    private static final class SseTransport implements HttpTransport {
+        private final List<String> responses;
+        private final AtomicInteger calls = new AtomicInteger();
+
+        SseTransport(String... responses) {
+            this.responses = Arrays.asList(responses);
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            String body = responses.get(calls.getAndIncrement());
+            return new HttpResponse(200, Collections.<String, String>emptyMap(),
+                    new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), () -> {
+            });
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+
+    private static final class OrderQuery implements Tool {
+
+        @Override
+        public String getName() {
+            return "order_query";
+        }
+
+        @Override
+        public String getDescription() {
+            return "查询订单";
+        }
+
+        @Override
+        public ToolSchema getSchema() {
+            return new ToolSchema("order_query", "查询订单", null);
+        }
+
+        @Override
+        public ToolResult execute(String arguments) {
+            return ToolResult.success("订单 O1001 已发货，预计明天送达");
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package io.leavesfly.jimi.android.core.engine;
+
+import io.leavesfly.jimi.android.core.wire.WireListener;
+import io.leavesfly.jimi.android.llm.StreamStats;
+import io.leavesfly.jimi.android.llm.message.ContentPart;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 只实现原有抽象方法的 Engine 仍可编译，新增方法有明确的默认行为
+ */
+class EngineDefaultsTest {
+
+    @Test
+    void runWithoutTimeoutDelegatesToRun() {
+        LegacyEngine engine = new LegacyEngine();
+
+        engine.run("你好", 0, null);
+
+        assertEquals(1, engine.runs.size());
+        assertEquals("你好", engine.runs.get(0).get(0).getText());
+    }
+
+    @Test
+    void unsupportedFeaturesFailLoudly() {
+        LegacyEngine engine = new LegacyEngine();
+
+        assertThrows(UnsupportedOperationException.class, () -> engine.run("你好", 1000, null));
+        assertThrows(UnsupportedOperationException.class, engine::cancel);
+        assertEquals(0, engine.runs.size());
+    }
+
+    @Test
+    void streamStatsDefaultToNoSamples() {
+        StreamStats stats = new LegacyEngine().getStreamStats();
+
+        assertEquals(0, stats.getStreamCount());
+        assertEquals(-1, stats.getFirstTokenP95Millis());
+    }
+
+    /**
+     * 扩展点加入前的 Engine 实现
+     */
+    private static final class LegacyEngine implements Engine {
+
+        final List<List<ContentPart>> runs = new ArrayList<>();
+
+        @Override
+        public String getName() {
+            return "legacy";
+        }
+
+        @Override
+        public String getModel() {
+            return "model";
+        }
+
+        @Override
+        public void run(String userInput, EngineCallback callback) {
+            run(ContentPart.textList(userInput), callback);
+        }
+
+        @Override
+        public void run(List<ContentPart> userInput, EngineCallback callback) {
+            runs.add(userInput);
+        }
+
+        @Override
+        public void addWireListener(WireListener listener) {
+        }
+
+        @Override
+        public void removeWireListener(WireListener listener) {
+        }
+
+        @Override
+        public void clearHistory() {
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package io.leavesfly.jimi.android.core.engine;
+
+import io.leavesfly.jimi.android.core.agent.Agent;
+import io.leavesfly.jimi.android.core.compaction.SimpleCompaction;
+import io.leavesfly.jimi.android.core.context.ContextImpl;
+import io.leavesfly.jimi.android.core.runtime.RuntimeImpl;
+import io.leavesfly.jimi.android.core.wire.WireImpl;
+import io.leavesfly.jimi.android.core.wire.message.ContentPartMessage;
+import io.leavesfly.jimi.android.core.wire.message.StepInterrupted;
+import io.leavesfly.jimi.android.llm.HttpChatProvider;
+import io.leavesfly.jimi.android.llm.LLM;
+import io.leavesfly.jimi.android.sdk.JimiConfig;
+import io.leavesfly.jimi.android.tool.ToolRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JimiEngineCancelTest {
+
+    private SlowSseServer server;
+    private JimiEngine engine;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (engine != null) {
+            engine.shutdown();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void cancelReleasesRunAndConnectionPromptly() throws Exception {
+        server = new SlowSseServer();
+        JimiConfig config = config("http://127.0.0.1:" + server.getPort() + "/v1");
+        HttpChatProvider provider = new HttpChatProvider(config.getModelName(), config.getBaseUrl(), "test", 8000);
+        engine = new JimiEngine(Agent.builder().name("test").systemPrompt("sys").build(),
+                new RuntimeImpl(config, new LLM(config.getModelName(), provider, 8000)),
+                new ContextImpl(), new WireImpl(), new SimpleCompaction(), new ToolRegistry());
+
+        CountDownLatch firstContent = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        engine.addWireListener(message -> {
+            if (message instanceof ContentPartMessage) {
+                firstContent.countDown();
+            } else if (message instanceof StepInterrupted) {
+                interrupted.countDown();
+            }
+        });
+
+        Outcome first = new Outcome();
+        engine.run("你好", first);
+        assertTrue(firstContent.await(5, TimeUnit.SECONDS), "no content streamed");
+
+        long cancelNanos = System.nanoTime();
+        engine.cancel();
+        Throwable error = first.await();
+        long callbackMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - cancelNanos);
+        assertTrue(server.firstConnectionClosed.await(5, TimeUnit.SECONDS), "connection not closed");
+        long connectionMillis = TimeUnit.NANOSECONDS.toMillis(server.firstConnectionClosedAt - cancelNanos);
+
+        System.out.printf("cancel -> onError %d ms, cancel -> connection closed %d ms%n",
+                callbackMillis, connectionMillis);
+        assertInstanceOf(CancellationException.class, error);
+        // Wire 在自己的线程上通知监听器，可能晚于回调到达
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "StepInterrupted not sent");
+        // 服务端仍在挂起，释放只能来自取消而不是超时或流结束
+        assertTrue(callbackMillis < 1000, "onError " + callbackMillis + " ms after cancel");
+        assertTrue(connectionMillis < 1000, "connection closed " + connectionMillis + " ms after cancel");
+
+        // 取消不影响下一次运行
+        Outcome second = new Outcome();
+        engine.run("再来一次", second);
+        assertNull(second.await());
+    }
+
+    @Test
+    void cancellingEarlierRunDoesNotAffectLaterRun() {
+        JimiConfig config = config("http://127.0.0.1:1/v1");
+        AgentExecutor executor = new AgentExecutor(Agent.builder().name("test").systemPrompt("sys").build(),
+                new RuntimeImpl(config), new ContextImpl(), new WireImpl(), new SimpleCompaction());
+
+        AgentExecutor.Cancellation earlier = executor.resetCancellation();
+        AgentExecutor.Cancellation later = executor.resetCancellation();
+        // 上一次运行结束后才到达的取消
+        earlier.cancel();
+
+        assertTrue(earlier.isCancelled());
+        assertFalse(later.isCancelled());
+        assertFalse(executor.isCancelled());
+        executor.cancel();
+        assertTrue(later.isCancelled());
+    }
+
+    private static JimiConfig config(String baseUrl) {
+        return new JimiConfig.Builder()
+                .apiKey("test")
+                .apiEndpoint(baseUrl)
+                .modelName("gpt-4o-mini")
+                .build();
+    }
+
+    private static final class Outcome implements EngineCallback {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error.set(error);
+            done.countDown();
+        }
+
+        Throwable await() throws InterruptedException {
+            if (!done.await(5, TimeUnit.SECONDS)) {
+                throw new AssertionError("Run did not finish");
+            }
+            return error.get();
+        }
+    }
+
+    /**
+     * 第一个连接输出一个数据块后一直挂起，记录连接被客户端关闭的时间；之后的连接正常结束
+     * 请求很小，服务端先应答再读请求
+     */
+    private static final class SlowSseServer {
+
+        final CountDownLatch firstConnectionClosed = new CountDownLatch(1);
+        volatile long firstConnectionClosedAt;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final ServerSocket serverSocket;
+
+        SlowSseServer() throws IOException {
+            serverSocket = new ServerSocket(0);
+            Thread acceptor = new Thread(this::acceptLoop, "slow-sse-server");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    int connectionNo = connections.incrementAndGet();
+                    Thread worker = new Thread(() -> serve(socket, connectionNo == 1), "slow-sse-conn");
+                    worker.setDaemon(true);
+                    worker.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket, boolean hang) {
+            try (Socket s = socket) {
+                s.setTcpNoDelay(true);
+                OutputStream out = s.getOutputStream();
+                String chunk = "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"正在思考\"},"
+                        + "\"finish_reason\":null}]}\n\n";
+                out.write(("HTTP/1.1 200 OK\r\nContent-Type: text/event-stream\r\nConnection: close\r\n\r\n" + chunk
+                        + (hang ? "" : "data: [DONE]\n\n")).getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                if (!hang) {
+                    // 响应体以连接关闭界定；先读完请求再关闭，避免连接被重置
+                    s.shutdownOutput();
+                }
+                InputStream in = s.getInputStream();
+                while (in.read() != -1) {
+                    // 丢弃请求，直到客户端断开
+                }
+            } catch (IOException e) {
+                // 客户端断开
+            }
+            if (hang) {
+                firstConnectionClosedAt = System.nanoTime();
+                firstConnectionClosed.countDown();
+            }
+        }
+
+        void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
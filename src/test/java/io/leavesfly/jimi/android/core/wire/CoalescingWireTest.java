@@ -0,0 +1,214 @@
+package io.leavesfly.jimi.android.core.wire;
+
+import io.leavesfly.jimi.android.core.agent.Agent;
+import io.leavesfly.jimi.android.core.compaction.SimpleCompaction;
+import io.leavesfly.jimi.android.core.context.ContextImpl;
+import io.leavesfly.jimi.android.core.engine.AgentExecutor;
+import io.leavesfly.jimi.android.core.runtime.RuntimeImpl;
+import io.leavesfly.jimi.android.core.wire.message.ContentPartMessage;
+import io.leavesfly.jimi.android.core.wire.message.StepBegin;
+import io.leavesfly.jimi.android.core.wire.message.WireMessage;
+import io.leavesfly.jimi.android.llm.LLM;
+import io.leavesfly.jimi.android.llm.ScriptedChatProvider;
+import io.leavesfly.jimi.android.llm.message.ContentPart;
+import io.leavesfly.jimi.android.sdk.JimiConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CoalescingWireTest {
+
+    /**
+     * 足够长的窗口，测试期间不会由定时器发送
+     */
+    private static final long NEVER = 60_000;
+
+    @Test
+    void mergesConsecutiveContentInOrder() {
+        RecordingWire delegate = new RecordingWire();
+        CoalescingWire wire = new CoalescingWire(delegate, NEVER, 1000);
+
+        wire.send(new ContentPartMessage("您的"));
+        wire.send(new ContentPartMessage("订单"));
+        wire.send(new ContentPartMessage(""));
+        wire.send(new ContentPartMessage("已发货"));
+        assertEquals(0, delegate.messages().size());
+
+        wire.flush();
+
+        assertEquals(Arrays.asList("您的订单已发货"), delegate.describe());
+        assertEquals(1, delegate.flushes);
+    }
+
+    @Test
+    void sendsImmediatelyWhenMaxCharsReached() {
+        RecordingWire delegate = new RecordingWire();
+        CoalescingWire wire = new CoalescingWire(delegate, NEVER, 4);
+
+        wire.send(new ContentPartMessage("ab"));
+        wire.send(new ContentPartMessage("cde"));
+        wire.send(new ContentPartMessage("f"));
+
+        assertEquals(Arrays.asList("abcde"), delegate.describe());
+        wire.flush();
+        assertEquals(Arrays.asList("abcde", "f"), delegate.describe());
+    }
+
+    @Test
+    void otherMessagesFlushPendingContentFirst() {
+        RecordingWire delegate = new RecordingWire();
+        CoalescingWire wire = new CoalescingWire(delegate, NEVER, 1000);
+
+        wire.send(new ContentPartMessage("思考", ContentPartMessage.ContentType.REASONING));
+        wire.send(new ContentPartMessage("中", ContentPartMessage.ContentType.REASONING));
+        wire.send(new ContentPartMessage("答"));
+        wire.send(new ContentPartMessage("案"));
+        wire.send(new StepBegin(2));
+        wire.send(new ContentPartMessage("下一步"));
+        wire.flush();
+
+        assertEquals(Arrays.asList("REASONING:思考中", "答案", "step 2", "下一步"), delegate.describe());
+    }
+
+    @Test
+    void windowSendsPendingContentWithoutFlush() throws Exception {
+        RecordingWire delegate = new RecordingWire();
+        CoalescingWire wire = new CoalescingWire(delegate, 20, 1000);
+
+        wire.send(new ContentPartMessage("你"));
+        wire.send(new ContentPartMessage("好"));
+
+        assertTrue(delegate.firstMessage.await(5, TimeUnit.SECONDS), "window did not fire");
+        assertEquals(Arrays.asList("你好"), delegate.describe());
+    }
+
+    @Test
+    void windowFlushDoesNotReorderConcurrentSends() throws Exception {
+        RecordingWire delegate = new RecordingWire();
+        // 1ms 窗口让定时发送与调用线程上的 send 不断交错
+        CoalescingWire wire = new CoalescingWire(delegate, 1, 1_000_000);
+        StringBuilder expected = new StringBuilder();
+
+        for (int i = 0; i < 5000; i++) {
+            if (i % 100 == 99) {
+                wire.send(new StepBegin(i));
+                expected.append("|step ").append(i).append('|');
+            } else {
+                String piece = i + ",";
+                wire.send(new ContentPartMessage(piece));
+                expected.append(piece);
+            }
+            if (i % 500 == 0) {
+                Thread.sleep(2);
+            }
+        }
+        wire.flush();
+
+        StringBuilder actual = new StringBuilder();
+        for (String message : delegate.describe()) {
+            actual.append(message.startsWith("step ") ? "|" + message + "|" : message);
+        }
+        assertEquals(expected.toString(), actual.toString());
+    }
+
+    @Test
+    void executorFlushesTailWhenRunEnds() throws Exception {
+        RecordingWire delegate = new RecordingWire();
+        CoalescingWire wire = new CoalescingWire(delegate, NEVER, 1000);
+        AgentExecutor executor = executor(wire, (n, call) -> {
+            call.next(ScriptedChatProvider.chunk("您的订单"));
+            call.next(ScriptedChatProvider.chunk("已发货"));
+            call.complete();
+        });
+
+        executor.execute(ContentPart.textList("我的订单到哪了"));
+
+        assertEquals(Arrays.asList("step 1", "您的订单已发货"), delegate.describe());
+    }
+
+    @Test
+    void executorFlushesTailWhenRunFails() throws Exception {
+        RecordingWire delegate = new RecordingWire();
+        CoalescingWire wire = new CoalescingWire(delegate, NEVER, 1000);
+        AgentExecutor executor = executor(wire, (n, call) -> {
+            call.next(ScriptedChatProvider.chunk("您的订单"));
+            call.error(new IOException("connection reset"));
+        });
+
+        assertThrows(Exception.class, () -> executor.execute(ContentPart.textList("我的订单到哪了")));
+
+        List<String> messages = delegate.describe();
+        assertEquals("step 1", messages.get(0));
+        assertTrue(messages.contains("您的订单"), messages.toString());
+    }
+
+    private static AgentExecutor executor(Wire wire, ScriptedChatProvider.Script script) {
+        JimiConfig config = new JimiConfig.Builder()
+                .apiKey("test")
+                .apiEndpoint("http://127.0.0.1:1/v1")
+                .modelName("scripted")
+                .build();
+        ScriptedChatProvider provider = new ScriptedChatProvider("scripted", script);
+        return new AgentExecutor(Agent.builder().name("test").systemPrompt("sys").build(),
+                new RuntimeImpl(config, new LLM("scripted", provider, 8000)),
+                new ContextImpl(), wire, new SimpleCompaction(), null);
+    }
+
+    /**
+     * 记录收到的消息，不做任何缓存
+     */
+    private static final class RecordingWire implements Wire {
+
+        final CountDownLatch firstMessage = new CountDownLatch(1);
+        private final List<WireMessage> messages = new ArrayList<>();
+        volatile int flushes;
+
+        @Override
+        public synchronized void send(WireMessage message) {
+            messages.add(message);
+            firstMessage.countDown();
+        }
+
+        @Override
+        public synchronized void flush() {
+            flushes++;
+        }
+
+        @Override
+        public void addListener(WireListener listener) {
+        }
+
+        @Override
+        public void removeListener(WireListener listener) {
+        }
+
+        synchronized List<WireMessage> messages() {
+            return new ArrayList<>(messages);
+        }
+
+        List<String> describe() {
+            List<String> result = new ArrayList<>();
+            for (WireMessage message : messages()) {
+                if (message instanceof ContentPartMessage) {
+                    ContentPartMessage part = (ContentPartMessage) message;
+                    result.add(part.getContentType() == ContentPartMessage.ContentType.NORMAL
+                            ? part.getContent() : part.getContentType() + ":" + part.getContent());
+                } else if (message instanceof StepBegin) {
+                    result.add("step " + ((StepBegin) message).getStepNo());
+                } else {
+                    result.add(message.getType());
+                }
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.Benchmarks;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.leavesfly.jimi.android.llm.ChatCompletionChunkDecoderBenchmarkTest.CHUNKS;
+
+/**
+ * chunk 解析耗时基准，只输出数字，不做断言
+ * <p>
+ * 类名不匹配 surefire 默认的 *Test 规则，mvn test 不会运行；
+ * 手动执行：mvn test -Dtest=ChatCompletionChunkDecoderBenchmark
+ */
+class ChatCompletionChunkDecoderBenchmark {
+
+    @Test
+    void printTimings() throws Exception {
+        List<byte[]> payloads = ChatCompletionChunkDecoderBenchmarkTest.samplePayloads(CHUNKS);
+        Benchmarks.Body jsonTree = ChatCompletionChunkDecoderBenchmarkTest.jsonTree(payloads);
+        Benchmarks.Body decoder = ChatCompletionChunkDecoderBenchmarkTest.decoder(payloads);
+
+        long treeBytes = Benchmarks.allocatedBytes(jsonTree);
+        long decoderBytes = Benchmarks.allocatedBytes(decoder);
+        long treeNanos = Benchmarks.nanos(jsonTree);
+        long decoderNanos = Benchmarks.nanos(decoder);
+
+        System.out.printf("chunk decoding per chunk: org.json %.0f bytes / %.2f us, decoder %.0f bytes / %.2f us%n",
+                (double) treeBytes / CHUNKS, treeNanos / 1e3 / CHUNKS,
+                (double) decoderBytes / CHUNKS, decoderNanos / 1e3 / CHUNKS);
+    }
+}
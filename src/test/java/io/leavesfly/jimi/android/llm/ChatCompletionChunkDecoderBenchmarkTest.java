@@ -0,0 +1,166 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.Benchmarks;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * chunk 解析对比：org.json 构建对象树（原实现）与 ChatCompletionChunkDecoder 单遍扫描
+ * <p>
+ * 只断言解析结果一致与分配量，耗时见 ChatCompletionChunkDecoderBenchmark
+ */
+class ChatCompletionChunkDecoderBenchmarkTest {
+
+    static final int CHUNKS = 2000;
+
+    @Test
+    void decoderMatchesJsonTreeAndAllocatesLess() throws Exception {
+        List<byte[]> payloads = samplePayloads(CHUNKS);
+        for (byte[] payload : payloads) {
+            String json = new String(payload, StandardCharsets.UTF_8);
+            assertEquals(describe(parseWithJsonTree(json)),
+                    describe(ChatCompletionChunkDecoder.decode(payload, 0, payload.length)), json);
+        }
+
+        long treeBytes = Benchmarks.allocatedBytes(jsonTree(payloads));
+        long decoderBytes = Benchmarks.allocatedBytes(decoder(payloads));
+
+        System.out.printf("chunk decoding per chunk: org.json %.0f bytes, decoder %.0f bytes%n",
+                (double) treeBytes / CHUNKS, (double) decoderBytes / CHUNKS);
+        assertTrue(decoderBytes * 3 < treeBytes, "decoder " + decoderBytes + " vs org.json " + treeBytes);
+    }
+
+    static Benchmarks.Body jsonTree(List<byte[]> payloads) {
+        return () -> {
+            for (byte[] payload : payloads) {
+                parseWithJsonTree(new String(payload, StandardCharsets.UTF_8));
+            }
+        };
+    }
+
+    static Benchmarks.Body decoder(List<byte[]> payloads) {
+        return () -> {
+            for (byte[] payload : payloads) {
+                ChatCompletionChunkDecoder.decode(payload, 0, payload.length);
+            }
+        };
+    }
+
+    /**
+     * 原 HttpChatProvider.parseChunk 的实现
+     */
+    private static ChatCompletionChunk parseWithJsonTree(String json) {
+        JSONObject obj = new JSONObject(json);
+        ChatCompletionChunk chunk = new ChatCompletionChunk();
+        chunk.setId(obj.optString("id", null));
+
+        JSONArray choices = obj.optJSONArray("choices");
+        if (choices != null && choices.length() > 0) {
+            JSONObject choice = choices.getJSONObject(0);
+            JSONObject delta = choice.optJSONObject("delta");
+            if (delta != null) {
+                String content = delta.optString("content", null);
+                if (content != null && !content.isEmpty()) {
+                    chunk.setContent(content);
+                }
+                JSONArray toolCalls = delta.optJSONArray("tool_calls");
+                if (toolCalls != null && toolCalls.length() > 0) {
+                    List<ToolCallDelta> result = new ArrayList<>();
+                    for (int i = 0; i < toolCalls.length(); i++) {
+                        JSONObject call = toolCalls.getJSONObject(i);
+                        ToolCallDelta toolCall = new ToolCallDelta();
+                        toolCall.setIndex(call.optInt("index", 0));
+                        toolCall.setId(call.optString("id", null));
+                        toolCall.setType(call.optString("type", null));
+                        JSONObject function = call.optJSONObject("function");
+                        if (function != null) {
+                            String name = function.optString("name", null);
+                            if (name != null && !name.isEmpty()) {
+                                toolCall.setFunctionName(name);
+                            }
+                            String arguments = function.optString("arguments", null);
+                            if (arguments != null) {
+                                toolCall.setFunctionArguments(arguments);
+                            }
+                        }
+                        result.add(toolCall);
+                    }
+                    chunk.setToolCalls(result);
+                }
+            }
+            String finishReason = choice.optString("finish_reason", null);
+            if (finishReason != null && !"null".equals(finishReason)) {
+                chunk.setFinishReason(finishReason);
+            }
+        }
+
+        JSONObject usage = obj.optJSONObject("usage");
+        if (usage != null) {
+            chunk.setPromptTokens(usage.optInt("prompt_tokens", 0));
+            chunk.setCompletionTokens(usage.optInt("completion_tokens", 0));
+        }
+        return chunk;
+    }
+
+    private static String describe(ChatCompletionChunk chunk) {
+        StringBuilder sb = new StringBuilder()
+                .append(chunk.getId()).append('|').append(chunk.getContent()).append('|')
+                .append(chunk.getFinishReason()).append('|')
+                .append(chunk.getPromptTokens()).append('|').append(chunk.getCompletionTokens());
+        if (chunk.getToolCalls() != null) {
+            for (ToolCallDelta delta : chunk.getToolCalls()) {
+                sb.append('|').append(delta.getIndex()).append(',').append(delta.getId()).append(',')
+                        .append(delta.getType()).append(',').append(delta.getFunctionName()).append(',')
+                        .append(delta.getFunctionArguments());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 以内容增量为主，穿插工具调用、结束与用量事件（Kimi、DeepSeek 的格式）
+     * usage 都放在顶层，choice 内的 usage 原实现不解析，见 ChatCompletionChunkDecoderTest
+     */
+    static List<byte[]> samplePayloads(int count) {
+        List<byte[]> payloads = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String json;
+            switch (i % 20) {
+                case 17:
+                    json = "{\"id\":\"chatcmpl-9f2c\",\"object\":\"chat.completion.chunk\",\"created\":1718000000,"
+                            + "\"model\":\"moonshot-v1-8k\",\"choices\":[{\"index\":0,\"delta\":{\"tool_calls\":[{"
+                            + "\"index\":0,\"id\":\"call_" + i + "\",\"type\":\"function\",\"function\":{"
+                            + "\"name\":\"order_query\",\"arguments\":\"{\\\"status\\\":\\\"已发货\\\"}\"}}]},"
+                            + "\"finish_reason\":null}]}";
+                    break;
+                case 18:
+                    json = "{\"id\":\"chatcmpl-9f2c\",\"object\":\"chat.completion.chunk\",\"created\":1718000000,"
+                            + "\"model\":\"moonshot-v1-8k\",\"choices\":[{\"index\":0,\"delta\":{},"
+                            + "\"finish_reason\":\"stop\"}],\"usage\":{\"prompt_tokens\":812,\"completion_tokens\":96,"
+                            + "\"total_tokens\":908}}";
+                    break;
+                case 19:
+                    json = "{\"id\":\"d7a1\",\"object\":\"chat.completion.chunk\",\"created\":1718000000,"
+                            + "\"model\":\"deepseek-chat\",\"system_fingerprint\":\"fp_1c14\",\"choices\":[],"
+                            + "\"usage\":{\"prompt_tokens\":812,\"completion_tokens\":96,\"total_tokens\":908,"
+                            + "\"prompt_cache_hit_tokens\":768,\"prompt_cache_miss_tokens\":44}}";
+                    break;
+                default:
+                    json = "{\"id\":\"d7a1\",\"object\":\"chat.completion.chunk\",\"created\":1718000000,"
+                            + "\"model\":\"deepseek-chat\",\"system_fingerprint\":\"fp_1c14\",\"choices\":[{"
+                            + "\"index\":0,\"delta\":{\"content\":\"商品" + (i % 10) + "号 \\u2014 ok\"},"
+                            + "\"logprobs\":null,\"finish_reason\":null}]}";
+            }
+            payloads.add(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return payloads;
+    }
+}
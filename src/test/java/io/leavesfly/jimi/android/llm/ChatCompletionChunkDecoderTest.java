@@ -0,0 +1,115 @@
+package io.leavesfly.jimi.android.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ChatCompletionChunkDecoderTest {
+
+    @Test
+    void decodesContentWithMultibyteAndEscapedCharacters() throws IOException {
+        ChatCompletionChunk chunk = decode("{\"id\":\"chatcmpl-1\",\"object\":\"chat.completion.chunk\","
+                + "\"choices\":[{\"index\":0,\"delta\":{\"role\":\"assistant\","
+                + "\"content\":\"你好😀 \\\"引号\\\"\\n\\u4e16\\u754c\\ud83d\\ude00\\t\\\\\"},\"finish_reason\":null}]}");
+
+        assertEquals("chatcmpl-1", chunk.getId());
+        assertEquals("你好😀 \"引号\"\n世界😀\t\\", chunk.getContent());
+        assertNull(chunk.getFinishReason());
+        assertNull(chunk.getToolCalls());
+        assertFalse(chunk.hasUsage());
+    }
+
+    @Test
+    void decodesToolCallDeltas() throws IOException {
+        ChatCompletionChunk chunk = decode("{\"choices\":[{\"index\":0,\"delta\":{\"content\":null,\"tool_calls\":["
+                + "{\"index\":0,\"id\":\"call_1\",\"type\":\"function\","
+                + "\"function\":{\"name\":\"product_search\",\"arguments\":\"{\\\"keyword\\\":\\\"耳机\\\"\"}},"
+                + "{\"index\":1,\"function\":{\"name\":\"\",\"arguments\":\"\"}}]},\"finish_reason\":null}]}");
+
+        assertNull(chunk.getContent());
+        List<ToolCallDelta> toolCalls = chunk.getToolCalls();
+        assertEquals(2, toolCalls.size());
+        ToolCallDelta first = toolCalls.get(0);
+        assertEquals(0, first.getIndex());
+        assertEquals("call_1", first.getId());
+        assertEquals("function", first.getType());
+        assertEquals("product_search", first.getFunctionName());
+        assertEquals("{\"keyword\":\"耳机\"", first.getFunctionArguments());
+        ToolCallDelta second = toolCalls.get(1);
+        assertEquals(1, second.getIndex());
+        assertNull(second.getId());
+        // 空名称视为未提供，空参数片段保留
+        assertNull(second.getFunctionName());
+        assertEquals("", second.getFunctionArguments());
+    }
+
+    @Test
+    void decodesFinishReasonAndUsageAtTopLevelOrInChoice() throws IOException {
+        ChatCompletionChunk topLevel = decode("{\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"stop\"}],"
+                + "\"usage\":{\"prompt_tokens\":120,\"completion_tokens\":45,\"total_tokens\":165}}");
+        ChatCompletionChunk inChoice = decode("{\"choices\":[{\"index\":0,\"delta\":{},\"finish_reason\":\"tool_calls\","
+                + "\"usage\":{\"prompt_tokens\":7,\"completion_tokens\":null}}]}");
+
+        assertEquals("stop", topLevel.getFinishReason());
+        assertEquals(120, topLevel.getPromptTokens());
+        assertEquals(45, topLevel.getCompletionTokens());
+        assertEquals("tool_calls", inChoice.getFinishReason());
+        assertEquals(7, inChoice.getPromptTokens());
+        assertEquals(0, inChoice.getCompletionTokens());
+    }
+
+    @Test
+    void treatsNullAndEmptyFieldsAsAbsent() throws IOException {
+        ChatCompletionChunk chunk = decode("{\"id\":null,\"choices\":[{\"index\":0,"
+                + "\"delta\":{\"content\":\"\",\"tool_calls\":[]},\"finish_reason\":\"null\"}],\"usage\":null}");
+
+        assertNull(chunk.getId());
+        assertFalse(chunk.hasContent());
+        assertFalse(chunk.hasToolCalls());
+        assertFalse(chunk.isFinished());
+        assertFalse(chunk.hasUsage());
+    }
+
+    @Test
+    void onlyReadsFirstChoiceAndSkipsUnknownValues() throws IOException {
+        ChatCompletionChunk chunk = decode("{\"x\":{\"content\":\"no\",\"nested\":[1,2.5e3,true,false,null,\"}]\"]},"
+                + "\"choices\":[{\"logprobs\":{\"content\":[{\"token\":\"a\"}]},\"delta\":{\"content\":\"yes\","
+                + "\"reasoning_content\":\"skip\"}},{\"delta\":{\"content\":\"second\"}}]}");
+
+        assertEquals("yes", chunk.getContent());
+    }
+
+    @Test
+    void decodesPayloadWithinLargerBuffer() throws IOException {
+        byte[] buffer = ("data: {\"choices\":[{\"delta\":{\"content\":\"片段\"}}]}\n\n").getBytes(StandardCharsets.UTF_8);
+        int offset = 6;
+        int length = buffer.length - offset - 2;
+
+        assertEquals("片段", ChatCompletionChunkDecoder.decode(buffer, offset, length).getContent());
+    }
+
+    @Test
+    void rejectsMalformedJson() {
+        assertThrows(IOException.class, () -> decode("{\"choices\":[{\"delta\":{\"content\":\"unterminated}}]}"));
+        assertThrows(IOException.class, () -> decode("{\"choices\":[{\"delta\":}]}"));
+        assertThrows(IOException.class, () -> decode("not json"));
+    }
+
+    @Test
+    void hasToolCallsReflectsDecodedDeltas() throws IOException {
+        assertTrue(decode("{\"choices\":[{\"delta\":{\"tool_calls\":[{\"index\":0}]}}]}").hasToolCalls());
+    }
+
+    static ChatCompletionChunk decode(String json) throws IOException {
+        byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        return ChatCompletionChunkDecoder.decode(bytes, 0, bytes.length);
+    }
+}
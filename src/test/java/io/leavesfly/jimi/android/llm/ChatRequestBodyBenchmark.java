@@ -0,0 +1,39 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.Benchmarks;
+import io.leavesfly.jimi.android.llm.message.Message;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static io.leavesfly.jimi.android.llm.ChatRequestBodyBenchmarkTest.HISTORY_SIZE;
+
+/**
+ * 请求体序列化耗时基准，只输出数字，不做断言
+ * <p>
+ * 类名不匹配 surefire 默认的 *Test 规则，mvn test 不会运行；
+ * 手动执行：mvn test -Dtest=ChatRequestBodyBenchmark
+ */
+class ChatRequestBodyBenchmark {
+
+    @Test
+    void printTimings() throws Exception {
+        List<Message> history = ChatRequestBodyBenchmarkTest.sampleHistory(HISTORY_SIZE);
+        Benchmarks.Body jsonTree = ChatRequestBodyBenchmarkTest.jsonTree(history);
+        Benchmarks.Body streamingUncached = ChatRequestBodyBenchmarkTest.streamingUncached(history);
+        Benchmarks.Body cached = ChatRequestBodyBenchmarkTest.cached(
+                ChatRequestBodyBenchmarkTest.freshHistories(40));
+
+        long treeBytes = Benchmarks.allocatedBytes(jsonTree);
+        long uncachedBytes = Benchmarks.allocatedBytes(streamingUncached);
+        long cachedBytes = Benchmarks.allocatedBytes(cached);
+        long treeNanos = Benchmarks.nanos(jsonTree);
+        long uncachedNanos = Benchmarks.nanos(streamingUncached);
+        long cachedNanos = Benchmarks.nanos(cached);
+
+        System.out.printf("%d-step run over %d messages: toJson %d KB / %.2f ms, writeJson %d KB / %.2f ms, "
+                        + "cached %d KB / %.2f ms%n", HISTORY_SIZE, HISTORY_SIZE,
+                treeBytes / 1024, treeNanos / 1e6, uncachedBytes / 1024, uncachedNanos / 1e6,
+                cachedBytes / 1024, cachedNanos / 1e6);
+    }
+}
@@ -0,0 +1,167 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.Benchmarks;
+import io.leavesfly.jimi.android.llm.json.JsonWriter;
+import io.leavesfly.jimi.android.llm.message.FunctionCall;
+import io.leavesfly.jimi.android.llm.message.Message;
+import io.leavesfly.jimi.android.llm.message.ToolCall;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 50 条消息的多步运行中，请求体序列化的分配对比：
+ * 每步重新编码全部历史（toJson 或 writeJson）与复用 Message 缓存的编码
+ * <p>
+ * 只断言与机器负载无关的性质（分配量、缓存命中、输出一致），耗时见 ChatRequestBodyBenchmark
+ */
+class ChatRequestBodyBenchmarkTest {
+
+    static final int HISTORY_SIZE = 50;
+
+    @Test
+    void cachedEncodingMakesEachStepProportionalToNewMessages() throws Exception {
+        List<Message> history = sampleHistory(HISTORY_SIZE);
+        Iterator<List<Message>> freshHistories = freshHistories(20);
+
+        long treeBytes = Benchmarks.allocatedBytes(jsonTree(history));
+        long cachedBytes = Benchmarks.allocatedBytes(cached(freshHistories));
+
+        System.out.printf("%d-step run over %d messages: toJson %d KB, cached %d KB%n",
+                HISTORY_SIZE, HISTORY_SIZE, treeBytes / 1024, cachedBytes / 1024);
+        assertTrue(cachedBytes * 3 < treeBytes, "cached " + cachedBytes + " vs toJson " + treeBytes);
+    }
+
+    @Test
+    void cachedHistoryCostsTheSameWhateverItsLength() throws Exception {
+        List<Message> history = sampleHistory(HISTORY_SIZE);
+        ChatRequestBody shortBody = new ChatRequestBody("gpt-4o-mini", "你是购物助手", history.subList(0, 5),
+                Collections.emptyList(), false);
+        ChatRequestBody longBody = new ChatRequestBody("gpt-4o-mini", "你是购物助手", history,
+                Collections.emptyList(), false);
+
+        // 预热后所有消息都已缓存编码，每次写入只分配 JsonWriter 的缓冲区
+        long shortBytes = Benchmarks.allocatedBytes(() -> shortBody.writeTo(SINK));
+        long longBytes = Benchmarks.allocatedBytes(() -> longBody.writeTo(SINK));
+
+        assertTrue(longBytes < shortBytes + 1024, "50 messages " + longBytes + " vs 5 messages " + shortBytes);
+    }
+
+    @Test
+    void cachedEncodingIsReusedAndIdenticalToWriteJson() throws Exception {
+        List<Message> history = sampleHistory(HISTORY_SIZE);
+
+        ByteArrayOutputStream uncached = new ByteArrayOutputStream();
+        JsonWriter writer = new JsonWriter(uncached);
+        writer.beginArray();
+        for (Message message : history) {
+            message.writeJson(writer);
+        }
+        writer.endArray();
+        writer.flush();
+
+        ByteArrayOutputStream cached = new ByteArrayOutputStream();
+        cached.write('[');
+        for (int i = 0; i < history.size(); i++) {
+            byte[] encoded = history.get(i).toJsonBytes();
+            assertSame(encoded, history.get(i).toJsonBytes());
+            cached.write(encoded);
+            if (i < history.size() - 1) {
+                cached.write(',');
+            }
+        }
+        cached.write(']');
+
+        assertArrayEquals(uncached.toByteArray(), cached.toByteArray());
+    }
+
+    /**
+     * 模拟一次运行：第 i 步发送前 i 条消息，每条消息都重新构建 JSONObject
+     */
+    static Benchmarks.Body jsonTree(List<Message> history) {
+        return () -> {
+            for (int step = 1; step <= HISTORY_SIZE; step++) {
+                for (Message message : history.subList(0, step)) {
+                    byte[] bytes = message.toJson().toString().getBytes(StandardCharsets.UTF_8);
+                    SINK.write(bytes);
+                }
+            }
+        };
+    }
+
+    /**
+     * 模拟一次运行：每步用 writeJson 重新编码全部历史
+     */
+    static Benchmarks.Body streamingUncached(List<Message> history) {
+        return () -> {
+            for (int step = 1; step <= HISTORY_SIZE; step++) {
+                JsonWriter writer = new JsonWriter(SINK);
+                writer.beginArray();
+                for (Message message : history.subList(0, step)) {
+                    message.writeJson(writer);
+                }
+                writer.endArray();
+                writer.flush();
+            }
+        };
+    }
+
+    /**
+     * 模拟一次运行：每次测量使用预先创建的新消息对象，编码缓存随运行逐步建立
+     */
+    static Benchmarks.Body cached(Iterator<List<Message>> freshHistories) {
+        return () -> {
+            List<Message> run = freshHistories.next();
+            for (int step = 1; step <= HISTORY_SIZE; step++) {
+                new ChatRequestBody("gpt-4o-mini", "你是购物助手", run.subList(0, step),
+                        Collections.emptyList(), false).writeTo(SINK);
+            }
+        };
+    }
+
+    static Iterator<List<Message>> freshHistories(int count) {
+        List<List<Message>> histories = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            histories.add(sampleHistory(HISTORY_SIZE));
+        }
+        return histories.iterator();
+    }
+
+    /**
+     * 典型的对话历史：用户消息、带工具调用的助手消息与工具结果交替出现
+     */
+    static List<Message> sampleHistory(int size) {
+        List<Message> history = new ArrayList<>(size);
+        for (int i = 0; history.size() < size; i++) {
+            history.add(Message.user("帮我找一下第 " + i + " 个订单，顺便看看购物车里有什么"));
+            List<ToolCall> toolCalls = new ArrayList<>();
+            toolCalls.add(new ToolCall("call_" + i,
+                    new FunctionCall("order_query", "{\"status\":\"shipped\",\"limit\":" + i + "}")));
+            history.add(Message.assistant(null, toolCalls));
+            history.add(Message.toolResult("call_" + i,
+                    "找到 3 个订单:\n1. O100" + i + " 已发货 ￥199.00\n2. O200" + i + " 待付款 ￥59.90"));
+            history.add(Message.assistant("订单 O100" + i + " 已发货，预计明天送达。"));
+        }
+        return history.subList(0, size);
+    }
+
+    static final OutputStream SINK = new OutputStream() {
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+}
@@ -0,0 +1,128 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.llm.message.FunctionCall;
+import io.leavesfly.jimi.android.llm.message.Message;
+import io.leavesfly.jimi.android.llm.message.ToolCall;
+import io.leavesfly.jimi.android.tool.ToolSchema;
+import io.leavesfly.jimi.android.tool.ToolSchemaSet;
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 流式请求体与原先基于 JSONObject 构建的请求体解析结果一致
+ */
+class ChatRequestBodyTest {
+
+    private static final String SYSTEM_PROMPT = "你是购物助手。\n回答要简洁，金额用 \"￥\" 表示\u2028😀";
+
+    private final List<ToolSchema> tools = Arrays.asList(
+            ToolSchema.builder()
+                    .name("product_search")
+                    .description("搜索商品")
+                    .parametersFromJson("{\"type\":\"object\",\"required\":[\"keyword\"],\"properties\":"
+                            + "{\"keyword\":{\"type\":\"string\",\"description\":\"关键词\"}}}")
+                    .build(),
+            ToolSchema.builder().name("coupon_list").description("列出优惠券").build());
+
+    @Test
+    void matchesJsonObjectEncoding() throws IOException {
+        List<Message> history = history();
+
+        for (List<ToolSchema> toolList : Arrays.asList(tools, new ToolSchemaSet(tools))) {
+            JSONObject streamed = parse(new ChatRequestBody("gpt-4o-mini", SYSTEM_PROMPT, history, toolList, false));
+
+            assertTrue(baseline(SYSTEM_PROMPT, history, tools).similar(streamed), streamed.toString());
+        }
+    }
+
+    @Test
+    void omitsEmptySystemPromptAndTools() throws IOException {
+        List<Message> history = history();
+
+        JSONObject streamed = parse(new ChatRequestBody("gpt-4o-mini", "", history,
+                Collections.<ToolSchema>emptyList(), false));
+
+        assertTrue(baseline("", history, null).similar(streamed), streamed.toString());
+        assertFalse(streamed.has("tools"));
+    }
+
+    @Test
+    void addsStreamOptionsOnlyWhenUsageRequested() throws IOException {
+        List<Message> history = history();
+        JSONObject expected = baseline(SYSTEM_PROMPT, history, tools)
+                .put("stream_options", new JSONObject().put("include_usage", true));
+
+        JSONObject streamed = parse(new ChatRequestBody("gpt-4o-mini", SYSTEM_PROMPT, history, tools, true));
+
+        assertTrue(expected.similar(streamed), streamed.toString());
+    }
+
+    @Test
+    void fixedLengthBodyHasSameBytes() throws IOException {
+        ChatRequestBody body = new ChatRequestBody("gpt-4o-mini", SYSTEM_PROMPT, history(), tools, true);
+
+        ByteArrayOutputStream fixed = new ByteArrayOutputStream();
+        body.toFixedLength().writeTo(fixed);
+
+        assertArrayEquals(bytes(body), fixed.toByteArray());
+        // 可重复写入（连接失效时重放）
+        assertArrayEquals(bytes(body), bytes(body));
+    }
+
+    /**
+     * 原 HttpChatProvider.buildRequestBody 的 JSONObject 实现
+     */
+    private JSONObject baseline(String systemPrompt, List<Message> history, List<ToolSchema> tools) {
+        JSONObject json = new JSONObject();
+        json.put("model", "gpt-4o-mini");
+        json.put("stream", true);
+        JSONArray messages = new JSONArray();
+        if (systemPrompt != null && !systemPrompt.isEmpty()) {
+            messages.put(new JSONObject().put("role", "system").put("content", systemPrompt));
+        }
+        for (Message msg : history) {
+            messages.put(msg.toJson());
+        }
+        json.put("messages", messages);
+        if (tools != null && !tools.isEmpty()) {
+            JSONArray toolsArray = new JSONArray();
+            for (ToolSchema tool : tools) {
+                toolsArray.put(tool.toJson());
+            }
+            json.put("tools", toolsArray);
+        }
+        return json;
+    }
+
+    private static List<Message> history() {
+        List<Message> history = new ArrayList<>(ChatRequestBodyBenchmarkTest.sampleHistory(8));
+        history.add(Message.user("控制字符 \u0001\t\"引号\" 与反斜杠 \\ 😀"));
+        history.add(Message.assistant(null, Collections.singletonList(new ToolCall("call_x",
+                new FunctionCall("product_search", "{\"keyword\":\"耳机\\n\"}")))));
+        history.add(Message.toolResult("call_x", "找到 0 个商品\u2029"));
+        return history;
+    }
+
+    private static JSONObject parse(ChatRequestBody body) throws IOException {
+        return new JSONObject(new String(bytes(body), StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bytes(ChatRequestBody body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toByteArray();
+    }
+}
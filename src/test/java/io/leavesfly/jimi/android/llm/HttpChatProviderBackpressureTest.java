@@ -0,0 +1,172 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.llm.http.HttpRequest;
+import io.leavesfly.jimi.android.llm.http.HttpResponse;
+import io.leavesfly.jimi.android.llm.http.HttpTransport;
+import io.leavesfly.jimi.android.llm.message.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * llmMaxConcurrency / llmQueueCapacity 的背压：超出的请求通过 onError 收到 RejectedExecutionException
+ */
+class HttpChatProviderBackpressureTest {
+
+    private HttpChatProvider provider;
+
+    @AfterEach
+    void tearDown() {
+        if (provider != null) {
+            provider.shutdown();
+        }
+    }
+
+    @Test
+    void saturatedQueueRejectsThroughOnErrorAndDropsNoCallback() throws Exception {
+        BlockingTransport transport = new BlockingTransport();
+        provider = HttpChatProvider.builder()
+                .modelName("gpt-4o-mini")
+                .baseUrl("http://127.0.0.1:1/v1")
+                .apiKey("test")
+                .maxContextSize(8000)
+                .transport(transport)
+                .maxConcurrency(1)
+                .queueCapacity(1)
+                .build();
+
+        // 第 1 个占用唯一的执行线程，第 2 个排队，其余立即被拒绝
+        List<Outcome> outcomes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Outcome outcome = new Outcome();
+            provider.generateStream("sys", Collections.singletonList(Message.user("第 " + i + " 个")),
+                    null, outcome);
+            outcomes.add(outcome);
+            if (i == 0) {
+                assertTrue(transport.entered.await(5, TimeUnit.SECONDS), "first request not started");
+            }
+        }
+
+        for (Outcome rejected : outcomes.subList(2, 5)) {
+            assertTrue(rejected.done.getCount() == 0, "rejection must be reported synchronously");
+            assertInstanceOf(RejectedExecutionException.class, rejected.error.get());
+        }
+        assertEquals(3, provider.getExecutorStats().getRejectedCount());
+        assertEquals(1, provider.getExecutorStats().getQueuedCount());
+
+        transport.release.countDown();
+        assertNull(outcomes.get(0).await());
+        assertNull(outcomes.get(1).await());
+        assertEquals(2, transport.requests.get());
+
+        // 每个回调恰好收到一次终止事件
+        for (Outcome outcome : outcomes) {
+            assertEquals(1, outcome.terminalEvents.get());
+        }
+    }
+
+    @Test
+    void cancelledQueuedRequestIsReportedAndNeverSent() throws Exception {
+        BlockingTransport transport = new BlockingTransport();
+        provider = HttpChatProvider.builder()
+                .modelName("gpt-4o-mini")
+                .baseUrl("http://127.0.0.1:1/v1")
+                .apiKey("test")
+                .maxContextSize(8000)
+                .transport(transport)
+                .maxConcurrency(1)
+                .queueCapacity(1)
+                .build();
+
+        Outcome running = new Outcome();
+        provider.generateStream("sys", Collections.singletonList(Message.user("a")), null, running);
+        assertTrue(transport.entered.await(5, TimeUnit.SECONDS), "first request not started");
+        Outcome queued = new Outcome();
+        provider.openStream("sys", Collections.singletonList(Message.user("b")), null, queued).cancel();
+
+        assertInstanceOf(CancellationException.class, queued.await());
+        transport.release.countDown();
+        assertNull(running.await());
+
+        // 排队任务出队后直接跳过，不再发送请求
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (provider.getExecutorStats().getCompletedCount() < 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, provider.getExecutorStats().getCompletedCount());
+        assertEquals(1, transport.requests.get());
+        assertEquals(1, queued.terminalEvents.get());
+    }
+
+    /**
+     * 第一次请求阻塞到 release，之后立即返回只含 [DONE] 的流
+     */
+    private static final class BlockingTransport implements HttpTransport {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger requests = new AtomicInteger();
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            requests.incrementAndGet();
+            entered.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return new HttpResponse(200, Collections.<String, String>emptyMap(),
+                    new ByteArrayInputStream("data: [DONE]\n\n".getBytes()), () -> {
+            });
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+
+    private static final class Outcome implements StreamCallback<ChatCompletionChunk> {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        final AtomicInteger terminalEvents = new AtomicInteger();
+
+        @Override
+        public void onNext(ChatCompletionChunk chunk) {
+        }
+
+        @Override
+        public void onComplete() {
+            terminalEvents.incrementAndGet();
+            done.countDown();
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            terminalEvents.incrementAndGet();
+            this.error.set(error);
+            done.countDown();
+        }
+
+        Throwable await() throws InterruptedException {
+            if (!done.await(5, TimeUnit.SECONDS)) {
+                throw new AssertionError("Stream did not finish");
+            }
+            return error.get();
+        }
+    }
+}
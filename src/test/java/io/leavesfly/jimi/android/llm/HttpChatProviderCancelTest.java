@@ -0,0 +1,151 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.llm.http.HttpTransport;
+import io.leavesfly.jimi.android.llm.http.PooledHttpTransport;
+import io.leavesfly.jimi.android.llm.http.UrlConnectionTransport;
+import io.leavesfly.jimi.android.llm.message.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Collections;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 收到响应头之前取消：连接必须立即关闭，而不是等到读取超时
+ */
+class HttpChatProviderCancelTest {
+
+    private SilentServer server;
+    private HttpChatProvider provider;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (provider != null) {
+            provider.shutdown();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void cancelWhileAwaitingHeadersClosesPooledConnection() throws Exception {
+        assertCancelClosesConnection(new PooledHttpTransport());
+    }
+
+    @Test
+    void cancelWhileAwaitingHeadersClosesUrlConnection() throws Exception {
+        assertCancelClosesConnection(new UrlConnectionTransport());
+    }
+
+    private void assertCancelClosesConnection(HttpTransport transport) throws Exception {
+        server = new SilentServer();
+        provider = HttpChatProvider.builder()
+                .modelName("gpt-4o-mini")
+                .baseUrl("http://127.0.0.1:" + server.getPort() + "/v1")
+                .apiKey("test")
+                .maxContextSize(8000)
+                .transport(transport)
+                .build();
+
+        Outcome outcome = new Outcome();
+        StreamHandle handle = provider.openStream("sys",
+                Collections.singletonList(Message.user("你好")), null, outcome);
+        assertTrue(server.accepted.await(5, TimeUnit.SECONDS), "no connection");
+        // 让请求进入等待响应头的阶段
+        Thread.sleep(100);
+
+        long cancelNanos = System.nanoTime();
+        handle.cancel();
+
+        assertInstanceOf(CancellationException.class, outcome.await());
+        assertTrue(server.closed.await(2, TimeUnit.SECONDS), "connection not closed after cancel");
+        long closedMillis = TimeUnit.NANOSECONDS.toMillis(server.closedAt - cancelNanos);
+        assertTrue(closedMillis < 1000, "connection closed " + closedMillis + " ms after cancel");
+
+        // 执行线程随之释放（读取超时为 120 秒，释放只能来自取消）
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+        while (provider.getExecutorStats().getActiveCount() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, provider.getExecutorStats().getActiveCount());
+    }
+
+    private static final class Outcome implements StreamCallback<ChatCompletionChunk> {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+        @Override
+        public void onNext(ChatCompletionChunk chunk) {
+        }
+
+        @Override
+        public void onComplete() {
+            done.countDown();
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error.set(error);
+            done.countDown();
+        }
+
+        Throwable await() throws InterruptedException {
+            if (!done.await(5, TimeUnit.SECONDS)) {
+                throw new AssertionError("Stream did not finish");
+            }
+            return error.get();
+        }
+    }
+
+    /**
+     * 接受连接并读取请求，但从不应答；记录客户端关闭连接的时间
+     */
+    private static final class SilentServer {
+
+        final CountDownLatch accepted = new CountDownLatch(1);
+        final CountDownLatch closed = new CountDownLatch(1);
+        volatile long closedAt;
+        private final ServerSocket serverSocket;
+
+        SilentServer() throws IOException {
+            serverSocket = new ServerSocket(0);
+            Thread acceptor = new Thread(this::serve, "silent-server");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void serve() {
+            try (Socket socket = serverSocket.accept()) {
+                accepted.countDown();
+                InputStream in = socket.getInputStream();
+                while (in.read() != -1) {
+                    // 丢弃请求，直到客户端断开
+                }
+            } catch (IOException e) {
+                // 客户端断开
+            }
+            closedAt = System.nanoTime();
+            closed.countDown();
+        }
+
+        void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
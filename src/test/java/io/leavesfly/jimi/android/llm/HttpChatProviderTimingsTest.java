@@ -0,0 +1,212 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.llm.http.PooledHttpTransport;
+import io.leavesfly.jimi.android.llm.message.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 流式请求各阶段耗时：连接、首字节、首个数据块、完成依次发生，复用的连接没有连接阶段
+ */
+class HttpChatProviderTimingsTest {
+
+    private static final String SSE = "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"你好\"}}]}\n\n"
+            + "data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"！\"}}]}\n\n"
+            + "data: [DONE]\n\n";
+
+    private SseServer server;
+    private HttpChatProvider provider;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (provider != null) {
+            provider.shutdown();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void recordsPhasesInOrderAndNoConnectPhaseOnReuse() throws Exception {
+        server = new SseServer();
+        provider = HttpChatProvider.builder()
+                .modelName("gpt-4o-mini")
+                .baseUrl("http://127.0.0.1:" + server.getPort() + "/v1")
+                .apiKey("test")
+                .maxContextSize(8000)
+                .transport(new PooledHttpTransport())
+                .chunkedRequestBody(false)
+                .recordTimings(true)
+                .build();
+
+        StreamTimings first = stream();
+        assertFalse(first.isConnectionReused());
+        assertTrue(first.getConnectMillis() >= 0, first.toString());
+        assertPhasesInOrder(first);
+
+        StreamTimings second = stream();
+        assertTrue(second.isConnectionReused());
+        assertEquals(-1, second.getConnectMillis(), second.toString());
+        assertPhasesInOrder(second);
+        assertEquals(1, server.connections.get());
+
+        StreamMetrics metrics = new StreamMetrics(8);
+        metrics.record(first);
+        metrics.record(second);
+        StreamStats stats = metrics.getStats();
+        assertEquals(2, stats.getStreamCount());
+        assertEquals(1, stats.getReusedConnectionCount());
+        // 复用连接不计入连接耗时，分位数只来自新建的连接
+        assertEquals(first.getConnectMillis(), stats.getConnectP50Millis());
+    }
+
+    private StreamTimings stream() throws Exception {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        StreamHandle handle = provider.openStream("sys", Collections.singletonList(Message.user("你好")), null,
+                new StreamCallback<ChatCompletionChunk>() {
+                    @Override
+                    public void onNext(ChatCompletionChunk chunk) {
+                    }
+
+                    @Override
+                    public void onComplete() {
+                        done.countDown();
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        error.set(e);
+                        done.countDown();
+                    }
+                });
+        assertTrue(done.await(5, TimeUnit.SECONDS), "stream did not finish");
+        assertNull(error.get());
+        StreamTimings timings = handle.getTimings();
+        assertNotNull(timings);
+        return timings;
+    }
+
+    private static void assertPhasesInOrder(StreamTimings timings) {
+        String detail = timings.toString();
+        assertEquals(2, timings.getChunkCount(), detail);
+        assertTrue(timings.getQueueMillis() >= 0, detail);
+        assertTrue(timings.getRequestWriteMillis() >= 0, detail);
+        long firstByte = timings.getTimeToFirstByteMillis();
+        assertTrue(firstByte >= 0, detail);
+        assertTrue(timings.getTimeToFirstChunkMillis() >= firstByte, detail);
+        assertTrue(timings.getTimeToFirstTokenMillis() >= timings.getTimeToFirstChunkMillis(), detail);
+        assertTrue(timings.getTotalMillis() >= timings.getTimeToFirstTokenMillis(), detail);
+    }
+
+    /**
+     * 以 Content-Length 应答固定 SSE 正文并保持连接，每个连接一个线程
+     */
+    private static final class SseServer {
+
+        final AtomicInteger connections = new AtomicInteger();
+        private final ServerSocket serverSocket;
+
+        SseServer() throws IOException {
+            serverSocket = new ServerSocket(0);
+            Thread acceptor = new Thread(this::acceptLoop, "sse-server");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    socket.setTcpNoDelay(true);
+                    connections.incrementAndGet();
+                    Thread worker = new Thread(() -> serve(socket), "sse-server-conn");
+                    worker.setDaemon(true);
+                    worker.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private static void serve(Socket socket) {
+            byte[] body = SSE.getBytes(StandardCharsets.UTF_8);
+            try (Socket s = socket) {
+                InputStream in = s.getInputStream();
+                OutputStream out = s.getOutputStream();
+                while (readRequest(in)) {
+                    out.write(("HTTP/1.1 200 OK\r\nContent-Type: text/event-stream\r\n"
+                            + "Content-Length: " + body.length + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+                    out.write(body);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // 客户端断开
+            }
+        }
+
+        private static boolean readRequest(InputStream in) throws IOException {
+            if (readLine(in) == null) {
+                return false;
+            }
+            int contentLength = 0;
+            String line;
+            while (!(line = readLine(in)).isEmpty()) {
+                if (line.toLowerCase().startsWith("content-length:")) {
+                    contentLength = Integer.parseInt(line.substring(15).trim());
+                }
+            }
+            for (int i = 0; i < contentLength; i++) {
+                if (in.read() == -1) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b == -1) {
+                    if (line.size() == 0) {
+                        return null;
+                    }
+                    throw new IOException("Unexpected end of stream");
+                }
+                if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            return new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+        }
+
+        void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.llm.message.Message;
+import io.leavesfly.jimi.android.tool.ToolSchema;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 只实现 void generateStream 的旧 Provider 通过 openStream 的默认适配继续可用
+ */
+class LegacyChatProviderTest {
+
+    @Test
+    void openStreamForwardsEventsOfLegacyProvider() {
+        LegacyProvider provider = new LegacyProvider();
+        Events events = new Events();
+
+        StreamHandle handle = provider.openStream("sys", Collections.singletonList(Message.user("hi")), null, events);
+        provider.callback.onNext(ScriptedChatProvider.chunk("你好"));
+        provider.callback.onComplete();
+
+        assertEquals(Collections.singletonList("你好"), events.contents);
+        assertTrue(events.completed);
+        assertFalse(handle.isCancelled());
+    }
+
+    @Test
+    void cancelEndsCallbackAndDropsLaterEvents() {
+        LegacyProvider provider = new LegacyProvider();
+        Events events = new Events();
+
+        StreamHandle handle = provider.openStream("sys", Collections.singletonList(Message.user("hi")), null, events);
+        handle.cancel();
+        // 旧 Provider 无法中断请求，之后到达的事件被丢弃
+        provider.callback.onNext(ScriptedChatProvider.chunk("迟到的内容"));
+        provider.callback.onComplete();
+
+        assertTrue(handle.isCancelled());
+        assertInstanceOf(CancellationException.class, events.error);
+        assertTrue(events.contents.isEmpty());
+        assertFalse(events.completed);
+    }
+
+    /**
+     * 升级前编写的 Provider：只实现了返回 void 的 generateStream
+     */
+    private static final class LegacyProvider implements ChatProvider {
+        StreamCallback<ChatCompletionChunk> callback;
+
+        @Override
+        public String getModelName() {
+            return "legacy";
+        }
+
+        @Override
+        public int getMaxContextSize() {
+            return 8000;
+        }
+
+        @Override
+        public void generateStream(String systemPrompt, List<Message> history, List<ToolSchema> tools,
+                                   StreamCallback<ChatCompletionChunk> callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void shutdown() {
+        }
+    }
+
+    private static final class Events implements StreamCallback<ChatCompletionChunk> {
+        final List<String> contents = new ArrayList<>();
+        boolean completed;
+        Throwable error;
+
+        @Override
+        public void onNext(ChatCompletionChunk chunk) {
+            contents.add(chunk.getContent());
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.llm.message.Message;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static io.leavesfly.jimi.android.llm.ScriptedChatProvider.reply;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadBalancingChatProviderTest {
+
+    private final List<StubServer> servers = new ArrayList<>();
+    private LoadBalancingChatProvider balancer;
+
+    @AfterEach
+    void tearDown() {
+        if (balancer != null) {
+            balancer.shutdown();
+        }
+        for (StubServer server : servers) {
+            server.stop();
+        }
+    }
+
+    @Test
+    void ejectsFailingEndpointAndRecoversAfterEjectionPeriod() throws Exception {
+        StubServer healthy = startServer(200);
+        StubServer failing = startServer(503);
+        balancer = LoadBalancingChatProvider.builder()
+                .addEndpoint("healthy", httpProvider(healthy))
+                .addEndpoint("failing", httpProvider(failing))
+                .failureThreshold(2)
+                .ejectionMillis(1000)
+                .build();
+
+        // 直到失败端点累计两次失败
+        for (int i = 0; i < 100 && failing.requests.get() < 2; i++) {
+            request(balancer);
+        }
+        assertEquals(2, failing.requests.get());
+        assertTrue(stats("failing").isEjected());
+        assertEquals(1, stats("failing").getEjectionCount());
+
+        // 摘除期间请求全部落在健康端点
+        for (int i = 0; i < 20; i++) {
+            assertNull(request(balancer));
+        }
+        assertEquals(2, failing.requests.get());
+
+        // 到期后恢复，端点重新接收请求
+        failing.status = 200;
+        Thread.sleep(1050);
+        assertFalse(stats("failing").isEjected());
+        for (int i = 0; i < 100 && failing.requests.get() == 2; i++) {
+            assertNull(request(balancer));
+        }
+        assertTrue(failing.requests.get() > 2, "recovered endpoint should receive traffic");
+        assertEquals(2, stats("failing").getFailedRequests());
+    }
+
+    @Test
+    void recoveredEndpointIsEjectedAgainOnNextFailure() throws Exception {
+        StubServer healthy = startServer(200);
+        StubServer failing = startServer(503);
+        balancer = LoadBalancingChatProvider.builder()
+                .addEndpoint("healthy", httpProvider(healthy))
+                .addEndpoint("failing", httpProvider(failing))
+                .failureThreshold(2)
+                .ejectionMillis(200)
+                .build();
+
+        for (int i = 0; i < 100 && failing.requests.get() < 2; i++) {
+            request(balancer);
+        }
+        Thread.sleep(250);
+        for (int i = 0; i < 100 && failing.requests.get() < 3; i++) {
+            request(balancer);
+        }
+
+        assertTrue(stats("failing").isEjected());
+        assertEquals(2, stats("failing").getEjectionCount());
+    }
+
+    @Test
+    void clientErrorsDoNotEjectEndpoint() throws Exception {
+        ScriptedChatProvider rejecting = new ScriptedChatProvider("a",
+                (n, call) -> call.error(new ChatProviderException(400, "bad request", -1)));
+        balancer = LoadBalancingChatProvider.builder()
+                .addEndpoint("a", rejecting)
+                .failureThreshold(1)
+                .build();
+
+        for (int i = 0; i < 5; i++) {
+            request(balancer);
+        }
+
+        assertEquals(5, rejecting.calls.get());
+        assertFalse(stats("a").isEjected());
+        assertEquals(0, stats("a").getFailedRequests());
+        assertEquals(0, stats("a").getOutstanding());
+    }
+
+    @Test
+    void keepsServingWhenAllEndpointsAreEjected() throws Exception {
+        ScriptedChatProvider failing = new ScriptedChatProvider("a",
+                (n, call) -> call.error(new ChatProviderException(503, "busy", -1)));
+        balancer = LoadBalancingChatProvider.builder()
+                .addEndpoint("a", failing)
+                .failureThreshold(1)
+                .build();
+
+        request(balancer);
+        assertTrue(stats("a").isEjected());
+        request(balancer);
+
+        assertEquals(2, failing.calls.get());
+    }
+
+    @Test
+    void ewmaStrategyPrefersFasterEndpoint() throws Exception {
+        ScriptedChatProvider slow = new ScriptedChatProvider("slow", (n, call) -> {
+            Thread.sleep(60);
+            reply(call, "slow");
+        });
+        ScriptedChatProvider fast = new ScriptedChatProvider("fast", (n, call) -> reply(call, "fast"));
+        balancer = LoadBalancingChatProvider.builder()
+                .addEndpoint("slow", slow)
+                .addEndpoint("fast", fast)
+                .strategy(LoadBalancingChatProvider.Strategy.EWMA_LATENCY)
+                .build();
+
+        // 两个端点都有延迟样本后再比较
+        for (int i = 0; i < 100 && (slow.calls.get() == 0 || fast.calls.get() == 0); i++) {
+            request(balancer);
+        }
+        int slowBefore = slow.calls.get();
+        for (int i = 0; i < 20; i++) {
+            assertNull(request(balancer));
+        }
+
+        assertEquals(slowBefore, slow.calls.get());
+    }
+
+    /**
+     * 发送一个请求并等待结束
+     *
+     * @return 错误，成功时为 null
+     */
+    private static Throwable request(ChatProvider provider) throws InterruptedException {
+        ScriptedChatProvider.Recorder recorder = new ScriptedChatProvider.Recorder();
+        provider.generateStream("sys", Collections.singletonList(Message.user("hi")), null, recorder);
+        return recorder.await();
+    }
+
+    private EndpointStats stats(String name) {
+        for (EndpointStats stats : balancer.getEndpointStats()) {
+            if (stats.getName().equals(name)) {
+                return stats;
+            }
+        }
+        throw new AssertionError("No endpoint " + name);
+    }
+
+    private static ChatProvider httpProvider(StubServer server) {
+        return HttpChatProvider.builder()
+                .modelName("gpt-4o-mini")
+                .baseUrl("http://127.0.0.1:" + server.getPort() + "/v1")
+                .apiKey("test")
+                .maxContextSize(8000)
+                .build();
+    }
+
+    private StubServer startServer(int status) throws IOException {
+        StubServer server = new StubServer(status);
+        servers.add(server);
+        return server;
+    }
+
+    /**
+     * 本地 OpenAI 兼容端点：status 为 200 时返回一个数据块的 SSE 流，否则返回该状态码
+     * 每个连接一个线程，支持 keep-alive 与 chunked 请求体
+     */
+    static final class StubServer {
+
+        private static final byte[] SSE_BODY = ("data: {\"choices\":[{\"index\":0,\"delta\":{\"content\":\"ok\"},"
+                + "\"finish_reason\":null}]}\n\ndata: [DONE]\n\n").getBytes(StandardCharsets.UTF_8);
+        private static final byte[] ERROR_BODY = "{\"error\":\"unavailable\"}".getBytes(StandardCharsets.UTF_8);
+
+        final AtomicInteger requests = new AtomicInteger();
+        volatile int status;
+        private final ServerSocket serverSocket;
+
+        StubServer(int status) throws IOException {
+            this.status = status;
+            this.serverSocket = new ServerSocket(0);
+            Thread acceptor = new Thread(this::acceptLoop, "stub-llm-server");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    Thread worker = new Thread(() -> serve(socket), "stub-llm-conn");
+                    worker.setDaemon(true);
+                    worker.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (Socket s = socket) {
+                s.setTcpNoDelay(true);
+                InputStream in = new BufferedInputStream(s.getInputStream());
+                OutputStream out = s.getOutputStream();
+                while (readRequest(in)) {
+                    requests.incrementAndGet();
+                    int code = status;
+                    byte[] body = code == 200 ? SSE_BODY : ERROR_BODY;
+                    out.write(("HTTP/1.1 " + code + " " + (code == 200 ? "OK" : "Error") + "\r\n"
+                            + "Content-Type: " + (code == 200 ? "text/event-stream" : "application/json") + "\r\n"
+                            + "Content-Length: " + body.length + "\r\n\r\n").getBytes(StandardCharsets.ISO_8859_1));
+                    out.write(body);
+                    out.flush();
+                }
+            } catch (IOException e) {
+                // 连接被客户端关闭
+            }
+        }
+
+        /**
+         * 读取一个请求并丢弃请求体
+         *
+         * @return false 表示连接已关闭
+         */
+        private static boolean readRequest(InputStream in) throws IOException {
+            if (readLine(in) == null) {
+                return false;
+            }
+            long contentLength = 0;
+            boolean chunked = false;
+            String line;
+            while (!(line = readLine(in)).isEmpty()) {
+                String lower = line.toLowerCase(Locale.ROOT);
+                if (lower.startsWith("content-length:")) {
+                    contentLength = Long.parseLong(line.substring(15).trim());
+                } else if (lower.startsWith("transfer-encoding:") && lower.contains("chunked")) {
+                    chunked = true;
+                }
+            }
+            if (!chunked) {
+                return skip(in, contentLength);
+            }
+            long size;
+            do {
+                size = Long.parseLong(readLine(in).trim(), 16);
+                if (!skip(in, size + (size > 0 ? 2 : 0))) {
+                    return false;
+                }
+            } while (size > 0);
+            // 结束块之后的空行
+            return readLine(in) != null;
+        }
+
+        private static boolean skip(InputStream in, long count) throws IOException {
+            for (long i = 0; i < count; i++) {
+                if (in.read() == -1) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b == -1) {
+                    if (line.length() == 0) {
+                        return null;
+                    }
+                    throw new IOException("Unexpected end of stream");
+                }
+                if (b != '\r') {
+                    line.append((char) b);
+                }
+            }
+            return line.toString();
+        }
+
+        void stop() {
+            try {
+                serverSocket.close();
+            } catch (IOException e) {
+                // 忽略
+            }
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package io.leavesfly.jimi.android.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.CancellationException;
+
+import static io.leavesfly.jimi.android.llm.ScriptedChatProvider.chunk;
+import static io.leavesfly.jimi.android.llm.ScriptedChatProvider.hangUntilCancelled;
+import static io.leavesfly.jimi.android.llm.ScriptedChatProvider.reply;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RetryingChatProviderTest {
+
+    private static final RetryPolicy FAST_RETRY = RetryPolicy.builder()
+            .maxAttempts(3)
+            .initialBackoffMillis(1)
+            .maxBackoffMillis(5)
+            .build();
+
+    @Test
+    void retriesRetryableErrorBeforeFirstChunk() throws Exception {
+        ScriptedChatProvider delegate = new ScriptedChatProvider("llm", (n, call) -> {
+            if (n < 3) {
+                call.error(new ChatProviderException(503, "busy", -1));
+            } else {
+                reply(call, "ok");
+            }
+        });
+        ScriptedChatProvider.Recorder recorder = new ScriptedChatProvider.Recorder();
+
+        new RetryingChatProvider(delegate, FAST_RETRY).generateStream("sys", Collections.emptyList(), null, recorder);
+
+        assertNull(recorder.await());
+        assertEquals(3, delegate.calls.get());
+        assertEquals(Arrays.asList("ok"), recorder.contents);
+    }
+
+    @Test
+    void doesNotRetryAfterFirstChunk() throws Exception {
+        IOException failure = new IOException("connection reset");
+        ScriptedChatProvider delegate = new ScriptedChatProvider("llm", (n, call) -> {
+            call.next(chunk("partial-" + n));
+            call.error(failure);
+        });
+        ScriptedChatProvider.Recorder recorder = new ScriptedChatProvider.Recorder();
+
+        new RetryingChatProvider(delegate, FAST_RETRY).generateStream("sys", Collections.emptyList(), null, recorder);
+
+        assertSame(failure, recorder.await());
+        Thread.sleep(50);
+        assertEquals(1, delegate.calls.get());
+        assertEquals(Arrays.asList("partial-1"), recorder.contents);
+    }
+
+    @Test
+    void doesNotRetryNonRetryableStatus() throws Exception {
+        ScriptedChatProvider delegate = new ScriptedChatProvider("llm",
+                (n, call) -> call.error(new ChatProviderException(400, "bad request", -1)));
+        ScriptedChatProvider.Recorder recorder = new ScriptedChatProvider.Recorder();
+
+        new RetryingChatProvider(delegate, FAST_RETRY).generateStream("sys", Collections.emptyList(), null, recorder);
+
+        assertEquals(400, ((ChatProviderException) recorder.await()).getStatusCode());
+        Thread.sleep(50);
+        assertEquals(1, delegate.calls.get());
+    }
+
+    @Test
+    void hedgeWinsAndSlowAttemptIsCancelled() throws Exception {
+        ScriptedChatProvider delegate = new ScriptedChatProvider("llm", (n, call) -> {
+            if (n == 1) {
+                hangUntilCancelled(call);
+                call.next(chunk("late"));
+                call.complete();
+            } else {
+                reply(call, "hedged");
+            }
+        });
+        RetryPolicy policy = RetryPolicy.builder()
+                .hedgingEnabled(true)
+                .hedgeMinDelayMillis(20)
+                .hedgeMaxDelayMillis(50)
+                .build();
+        ScriptedChatProvider.Recorder recorder = new ScriptedChatProvider.Recorder();
+
+        new RetryingChatProvider(delegate, policy).generateStream("sys", Collections.emptyList(), null, recorder);
+
+        assertNull(recorder.await());
+        assertEquals(2, delegate.calls.get());
+        assertTrue(delegate.handles.get(0).isCancelled(), "slow attempt should be cancelled");
+        assertFalse(delegate.handles.get(1).isCancelled());
+        Thread.sleep(50);
+        assertEquals(Arrays.asList("hedged"), recorder.contents);
+        assertEquals(1, recorder.terminalEvents());
+    }
+
+    @Test
+    void cancelPropagatesToRunningAttempt() throws Exception {
+        ScriptedChatProvider delegate = new ScriptedChatProvider("llm", (n, call) -> hangUntilCancelled(call));
+        ScriptedChatProvider.Recorder recorder = new ScriptedChatProvider.Recorder();
+
+        StreamHandle handle = new RetryingChatProvider(delegate, FAST_RETRY)
+                .openStream("sys", Collections.emptyList(), null, recorder);
+        while (delegate.handles.isEmpty()) {
+            Thread.sleep(1);
+        }
+        handle.cancel();
+
+        assertInstanceOf(CancellationException.class, recorder.await());
+        assertTrue(delegate.handles.get(0).isCancelled());
+        Thread.sleep(50);
+        assertEquals(1, delegate.calls.get());
+    }
+}
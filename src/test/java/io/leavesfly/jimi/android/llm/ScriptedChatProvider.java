@@ -0,0 +1,166 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.llm.message.Message;
+import io.leavesfly.jimi.android.tool.ToolSchema;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按脚本应答的 ChatProvider，每次请求在独立线程上执行脚本，模拟异步的网络请求
+ */
+public final class ScriptedChatProvider implements ChatProvider {
+
+    /**
+     * 按请求序号（从 1 开始）决定如何应答
+     */
+    public interface Script {
+        void run(int callNo, StreamCall<ChatCompletionChunk> call) throws Exception;
+    }
+
+    public final AtomicInteger calls = new AtomicInteger();
+    public final List<StreamCall<ChatCompletionChunk>> handles = new CopyOnWriteArrayList<>();
+    private final String name;
+    private final Script script;
+
+    public ScriptedChatProvider(String name, Script script) {
+        this.name = name;
+        this.script = script;
+    }
+
+    @Override
+    public String getModelName() {
+        return name;
+    }
+
+    @Override
+    public int getMaxContextSize() {
+        return 8000;
+    }
+
+    @Override
+    public void generateStream(String systemPrompt, List<Message> history, List<ToolSchema> tools,
+                               StreamCallback<ChatCompletionChunk> callback) {
+        openStream(systemPrompt, history, tools, callback);
+    }
+
+    @Override
+    public StreamHandle openStream(String systemPrompt, List<Message> history, List<ToolSchema> tools,
+                                   StreamCallback<ChatCompletionChunk> callback) {
+        StreamCall<ChatCompletionChunk> call = new StreamCall<>(callback);
+        handles.add(call);
+        int callNo = calls.incrementAndGet();
+        Thread thread = new Thread(() -> {
+            try {
+                script.run(callNo, call);
+            } catch (Exception e) {
+                call.error(e);
+            }
+        }, "scripted-llm-" + name);
+        thread.setDaemon(true);
+        thread.start();
+        return call;
+    }
+
+    @Override
+    public void shutdown() {
+    }
+
+    public static ChatCompletionChunk chunk(String content) {
+        ChatCompletionChunk chunk = new ChatCompletionChunk();
+        chunk.setContent(content);
+        return chunk;
+    }
+
+    /**
+     * 只含 token 用量、不含 choices 的数据块（流末尾的 usage 事件）
+     */
+    public static ChatCompletionChunk usage(int promptTokens, int completionTokens) {
+        ChatCompletionChunk chunk = new ChatCompletionChunk();
+        chunk.setPromptTokens(promptTokens);
+        chunk.setCompletionTokens(completionTokens);
+        return chunk;
+    }
+
+    /**
+     * 一次性给出完整参数的工具调用数据块
+     */
+    public static ChatCompletionChunk toolCall(int index, String id, String name, String arguments) {
+        ToolCallDelta delta = new ToolCallDelta();
+        delta.setIndex(index);
+        delta.setId(id);
+        delta.setType("function");
+        delta.setFunctionName(name);
+        delta.setFunctionArguments(arguments);
+        ChatCompletionChunk chunk = new ChatCompletionChunk();
+        chunk.setToolCalls(Collections.singletonList(delta));
+        return chunk;
+    }
+
+    /**
+     * 输出一个数据块并正常结束
+     */
+    public static void reply(StreamCall<ChatCompletionChunk> call, String content) {
+        call.next(chunk(content));
+        call.complete();
+    }
+
+    /**
+     * 一直挂起直到请求被取消
+     */
+    public static void hangUntilCancelled(StreamCall<ChatCompletionChunk> call) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!call.isCancelled() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    /**
+     * 记录回调事件
+     */
+    static final class Recorder implements StreamCallback<ChatCompletionChunk> {
+
+        final List<String> contents = new CopyOnWriteArrayList<>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private final AtomicInteger terminalEvents = new AtomicInteger();
+        private volatile Throwable error;
+
+        @Override
+        public void onNext(ChatCompletionChunk chunk) {
+            contents.add(chunk.getContent());
+        }
+
+        @Override
+        public void onComplete() {
+            terminalEvents.incrementAndGet();
+            done.countDown();
+        }
+
+        @Override
+        public void onError(Throwable error) {
+            this.error = error;
+            terminalEvents.incrementAndGet();
+            done.countDown();
+        }
+
+        /**
+         * 等待终止事件
+         *
+         * @return 错误，正常结束时为 null
+         */
+        Throwable await() throws InterruptedException {
+            if (!done.await(5, TimeUnit.SECONDS)) {
+                throw new AssertionError("Stream did not terminate");
+            }
+            return error;
+        }
+
+        int terminalEvents() {
+            return terminalEvents.get();
+        }
+    }
+}
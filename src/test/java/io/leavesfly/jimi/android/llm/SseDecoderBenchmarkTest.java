@@ -0,0 +1,91 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.Benchmarks;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SSE 分帧的分配对比：BufferedReader.readLine + substring(6).trim()（原实现）与 SseDecoder
+ * 只比较分帧本身，chunk JSON 的解析见 ChatCompletionChunkDecoderBenchmarkTest
+ */
+class SseDecoderBenchmarkTest {
+
+    private static final int CHUNKS = 2000;
+
+    @Test
+    void allocatesLessPerChunkThanReaderBasedParsing() throws Exception {
+        byte[] stream = sampleStream(CHUNKS);
+
+        long readerBytes = Benchmarks.allocatedBytes(() -> assertEquals(CHUNKS, readerFraming(stream)));
+        long decoderBytes = Benchmarks.allocatedBytes(() -> assertEquals(CHUNKS, decoderFraming(stream)));
+
+        System.out.printf("SSE framing, bytes allocated per chunk: BufferedReader=%.1f, SseDecoder=%.1f%n",
+                (double) readerBytes / CHUNKS, (double) decoderBytes / CHUNKS);
+        // SseDecoder 只分配一次缓冲区，每个 chunk 不应再有分配
+        assertTrue(decoderBytes * 10 < readerBytes,
+                "SseDecoder allocated " + decoderBytes + " bytes, reader " + readerBytes);
+    }
+
+    /**
+     * 原实现的分帧方式
+     *
+     * @return data 负载数
+     */
+    private static int readerFraming(byte[] stream) throws IOException {
+        int count = 0;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(stream), "UTF-8"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                if (line.startsWith("data: ")) {
+                    String json = line.substring(6).trim();
+                    if ("[DONE]".equals(json)) {
+                        break;
+                    }
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int decoderFraming(byte[] stream) throws IOException {
+        int[] count = new int[1];
+        InputStream in = new ByteArrayInputStream(stream);
+        new SseDecoder(in).decode((buffer, offset, length) -> {
+            if (SseDecoder.isDone(buffer, offset, length)) {
+                return false;
+            }
+            count[0]++;
+            return true;
+        });
+        return count[0];
+    }
+
+    /**
+     * 典型的 OpenAI 兼容流：每个 chunk 带少量中文内容
+     */
+    static byte[] sampleStream(int chunks) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < chunks; i++) {
+            sb.append("data: {\"id\":\"chatcmpl-9f2c\",\"object\":\"chat.completion.chunk\",")
+                    .append("\"created\":1718000000,\"model\":\"gpt-4o-mini\",\"choices\":[{\"index\":0,")
+                    .append("\"delta\":{\"content\":\"商品").append(i % 10).append("号\"},")
+                    .append("\"finish_reason\":null}]}\n\n");
+        }
+        sb.append("data: [DONE]\n\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,144 @@
+package io.leavesfly.jimi.android.llm;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseDecoderTest {
+
+    @Test
+    void extractsDataPayloadsAndIgnoresOtherFields() throws IOException {
+        String stream = ": keep-alive comment\n"
+                + "event: message\n"
+                + "id: 7\n"
+                + "data: {\"a\":1}\n\n"
+                + "data:{\"b\":2}  \r\n\r\n"
+                + "retry: 1000\n"
+                + "data: \n\n"
+                + "data: [DONE]\n\n";
+
+        List<String> payloads = decodeAll(new ByteArrayInputStream(bytes(stream)), 8 * 1024);
+
+        assertEquals(Arrays.asList("{\"a\":1}", "{\"b\":2}", "", "[DONE]"), payloads);
+    }
+
+    @Test
+    void reassemblesFramesSplitAcrossReadsAndGrowsBuffer() throws IOException {
+        StringBuilder stream = new StringBuilder();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            String payload = "{\"content\":\"chunk-" + i + "-" + repeat('x', i * 7) + "\"}";
+            expected.add(payload);
+            stream.append("data: ").append(payload).append("\r\n\r\n");
+        }
+
+        // 每次只读 1~5 个字节，初始缓冲区只有 16 字节，行会跨越多次读取并触发扩容
+        List<String> payloads = decodeAll(new TrickleInputStream(bytes(stream.toString()), 5), 16);
+
+        assertEquals(expected, payloads);
+    }
+
+    @Test
+    void keepsMultibyteUtf8IntactAcrossReadBoundaries() throws IOException {
+        String text = "你好，世界😀 café";
+        String stream = "data: {\"content\":\"" + text + "\"}\n\n";
+
+        for (int maxRead = 1; maxRead <= 4; maxRead++) {
+            List<String> payloads = decodeAll(new TrickleInputStream(bytes(stream), maxRead), 4);
+            assertEquals(Arrays.asList("{\"content\":\"" + text + "\"}"), payloads);
+        }
+    }
+
+    @Test
+    void handlesLastLineWithoutNewline() throws IOException {
+        List<String> payloads = decodeAll(new ByteArrayInputStream(bytes("data: {\"a\":1}\ndata: tail")), 64);
+
+        assertEquals(Arrays.asList("{\"a\":1}", "tail"), payloads);
+    }
+
+    @Test
+    void stopsWhenHandlerReturnsFalse() throws IOException {
+        SseDecoder decoder = new SseDecoder(new ByteArrayInputStream(
+                bytes("data: 1\n\ndata: [DONE]\n\ndata: 2\n\n")));
+        List<String> payloads = new ArrayList<>();
+
+        boolean stopped = decoder.decode((buffer, offset, length) -> {
+            if (SseDecoder.isDone(buffer, offset, length)) {
+                return false;
+            }
+            payloads.add(new String(buffer, offset, length, StandardCharsets.UTF_8));
+            return true;
+        });
+
+        assertTrue(stopped);
+        assertEquals(Arrays.asList("1"), payloads);
+    }
+
+    @Test
+    void returnsFalseAtEndOfStream() throws IOException {
+        SseDecoder decoder = new SseDecoder(new ByteArrayInputStream(bytes("data: 1\n\n")));
+
+        assertFalse(decoder.decode((buffer, offset, length) -> true));
+    }
+
+    static List<String> decodeAll(InputStream in, int bufferSize) throws IOException {
+        List<String> payloads = new ArrayList<>();
+        new SseDecoder(in, bufferSize).decode((buffer, offset, length) -> {
+            payloads.add(new String(buffer, offset, length, StandardCharsets.UTF_8));
+            return true;
+        });
+        return payloads;
+    }
+
+    static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+
+    /**
+     * 每次 read 最多返回 maxRead 个字节，模拟网络分片
+     */
+    static final class TrickleInputStream extends InputStream {
+
+        private final byte[] data;
+        private final int maxRead;
+        private int pos;
+        private int turn;
+
+        TrickleInputStream(byte[] data, int maxRead) {
+            this.data = data;
+            this.maxRead = maxRead;
+        }
+
+        @Override
+        public int read() {
+            return pos < data.length ? data[pos++] & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (pos >= data.length) {
+                return -1;
+            }
+            int n = Math.min(Math.min(len, data.length - pos), 1 + (turn++ % maxRead));
+            System.arraycopy(data, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package io.leavesfly.jimi.android.llm;
+
+import io.leavesfly.jimi.android.llm.message.ToolCall;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ToolCallAccumulatorTest {
+
+    private final List<String> ready = new ArrayList<>();
+    private final ToolCallAccumulator accumulator = new ToolCallAccumulator(
+            (index, toolCall) -> ready.add(index + ":" + toolCall.getFunction().getName() + ":"
+                    + toolCall.getFunction().getArguments()));
+
+    @Test
+    void bracesAndQuotesInsideStringsDoNotCloseArguments() {
+        accumulator.accumulate(delta(0, "call_1", "product_search", ""));
+        String[] fragments = {"{\"keyword\":\"a}b", "\\\"}{\\\\", "\",\"tags\":[\"]\",{\"x\":\"}\"}]", "}"};
+        StringBuilder arguments = new StringBuilder();
+        for (String fragment : fragments) {
+            assertTrue(ready.isEmpty(), "notified early before " + fragment);
+            accumulator.accumulate(delta(0, null, null, fragment));
+            arguments.append(fragment);
+        }
+
+        assertEquals(1, ready.size());
+        assertEquals("0:product_search:" + arguments, ready.get(0));
+        assertEquals(arguments.toString(), accumulator.build().get(0).getFunction().getArguments());
+    }
+
+    @Test
+    void escapedBackslashBeforeQuoteEndsString() {
+        accumulator.accumulate(delta(0, "call_1", "order_query", "{\"path\":\"C:\\\\"));
+        // 上一片段以转义的反斜杠结尾，这里的引号结束字符串
+        accumulator.accumulate(delta(0, null, null, "\"}"));
+
+        assertEquals(1, ready.size());
+    }
+
+    @Test
+    void startOfNextIndexCompletesPreviousCalls() {
+        accumulator.accumulate(delta(0, "call_1", "cart_manager", "{\"action\":\"list\""));
+        accumulator.accumulate(delta(1, "call_2", "order_query", "{"));
+        assertEquals(1, ready.size());
+        assertEquals("0:cart_manager:{\"action\":\"list\"", ready.get(0));
+
+        accumulator.accumulate(delta(1, null, null, "\"status\":\"已发货\"}"));
+        accumulator.accumulate(delta(2, "call_3", "product_search", "{}"));
+
+        assertEquals(3, ready.size());
+        assertEquals("1:order_query:{\"status\":\"已发货\"}", ready.get(1));
+        assertEquals("2:product_search:{}", ready.get(2));
+    }
+
+    @Test
+    void notifiesEachCallAtMostOnce() {
+        accumulator.accumulate(delta(0, "call_1", "product_search", "{\"a\":1}"));
+        // 闭合之后的多余片段不会再次通知
+        accumulator.accumulate(delta(0, null, null, " {}"));
+        accumulator.accumulate(delta(1, "call_2", "order_query", "{}"));
+
+        assertEquals(2, ready.size());
+        assertEquals("0:product_search:{\"a\":1}", ready.get(0));
+        assertEquals("{\"a\":1} {}", accumulator.build().get(0).getFunction().getArguments());
+    }
+
+    @Test
+    void waitsForFunctionName() {
+        accumulator.accumulate(delta(0, "call_1", null, "{}"));
+        assertTrue(ready.isEmpty());
+
+        accumulator.accumulate(delta(0, null, "cart_manager", null));
+        accumulator.accumulate(delta(1, "call_2", "order_query", null));
+
+        assertEquals(1, ready.size());
+        assertEquals("0:cart_manager:{}", ready.get(0));
+    }
+
+    @Test
+    void buildsCallsInIndexOrder() {
+        ToolCallAccumulator plain = new ToolCallAccumulator();
+        assertFalse(plain.hasToolCalls());
+        assertNull(plain.build());
+
+        plain.accumulate(delta(2, "call_3", "order_query", "{}"));
+        plain.accumulate(delta(0, "call_1", "product_search", "{\"keyword\":"));
+        plain.accumulate(delta(0, null, null, "\"耳机\"}"));
+
+        List<ToolCall> calls = plain.build();
+        assertEquals(2, calls.size());
+        assertEquals("call_1", calls.get(0).getId());
+        assertEquals("{\"keyword\":\"耳机\"}", calls.get(0).getFunction().getArguments());
+        assertEquals("call_3", calls.get(1).getId());
+
+        plain.clear();
+        assertNull(plain.build());
+    }
+
+    private static ToolCallDelta delta(int index, String id, String name, String arguments) {
+        ToolCallDelta delta = new ToolCallDelta();
+        delta.setIndex(index);
+        delta.setId(id);
+        delta.setFunctionName(name);
+        delta.setFunctionArguments(arguments);
+        return delta;
+    }
+}
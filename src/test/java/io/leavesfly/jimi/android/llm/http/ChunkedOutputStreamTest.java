@@ -0,0 +1,60 @@
+package io.leavesfly.jimi.android.llm.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChunkedOutputStreamTest {
+
+    @Test
+    void framesEachWriteWithHexSizeAndEndsWithLastChunk() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ChunkedOutputStream chunked = new ChunkedOutputStream(out);
+        byte[] large = new byte[4096];
+        Arrays.fill(large, (byte) 'x');
+
+        chunked.write('a');
+        chunked.write("abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII));
+        chunked.write(large, 0, 0);
+        chunked.write(large, 1, 4095);
+        chunked.write("中".getBytes(StandardCharsets.UTF_8));
+        chunked.finish();
+
+        String expected = "1\r\na\r\n"
+                + "1a\r\nabcdefghijklmnopqrstuvwxyz\r\n"
+                + "fff\r\n" + new String(large, 1, 4095, StandardCharsets.US_ASCII) + "\r\n"
+                + "3\r\n中\r\n"
+                + "0\r\n\r\n";
+        assertEquals(expected, new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void emptyBodyIsOnlyLastChunk() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ChunkedOutputStream chunked = new ChunkedOutputStream(out);
+
+        chunked.finish();
+
+        assertEquals("0\r\n\r\n", new String(out.toByteArray(), StandardCharsets.US_ASCII));
+    }
+
+    @Test
+    void closeLeavesUnderlyingStreamOpen() throws IOException {
+        boolean[] closed = {false};
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+
+        new ChunkedOutputStream(out).close();
+
+        assertEquals(false, closed[0]);
+    }
+}
@@ -0,0 +1,292 @@
+package io.leavesfly.jimi.android.llm.http;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PooledHttpTransportTest {
+
+    /**
+     * 按收到请求的序号（从 1 开始）决定如何应答
+     */
+    interface Handler {
+        /**
+         * @return false 表示应答后关闭连接
+         */
+        boolean handle(int requestNo, OutputStream out) throws IOException;
+    }
+
+    private TestServer server;
+    private PooledHttpTransport transport;
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (transport != null) {
+            transport.shutdown();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    void retriesWhenReusedConnectionClosesBeforeResponding() throws Exception {
+        // 第二个请求到达时连接被关闭（模拟服务端已回收空闲连接），应换新连接重发
+        server = new TestServer((n, out) -> {
+            if (n == 2) {
+                return false;
+            }
+            respond(out, "ok" + n);
+            return true;
+        });
+        transport = new PooledHttpTransport();
+
+        assertEquals("ok1", post("a", 5000));
+        assertEquals("ok3", post("b", 5000));
+        assertEquals(3, server.requests.get());
+        assertEquals(2, server.connections.get());
+    }
+
+    @Test
+    void doesNotRetryAfterReadTimeout() throws Exception {
+        server = new TestServer((n, out) -> {
+            if (n == 2) {
+                // 收到请求但迟迟不应答
+                sleep(1000);
+                return false;
+            }
+            respond(out, "ok" + n);
+            return true;
+        });
+        transport = new PooledHttpTransport();
+
+        assertEquals("ok1", post("a", 5000));
+        assertThrows(SocketTimeoutException.class, () -> post("b", 200));
+        sleep(1200);
+        assertEquals(2, server.requests.get());
+    }
+
+    @Test
+    void doesNotRetryAfterPartialResponse() throws Exception {
+        server = new TestServer((n, out) -> {
+            if (n == 2) {
+                out.write("HTTP/1.1 200".getBytes(StandardCharsets.ISO_8859_1));
+                out.flush();
+                return false;
+            }
+            respond(out, "ok" + n);
+            return true;
+        });
+        transport = new PooledHttpTransport();
+
+        assertEquals("ok1", post("a", 5000));
+        assertThrows(IOException.class, () -> post("b", 5000));
+        assertEquals(2, server.requests.get());
+    }
+
+    @Test
+    void reportsConnectPhaseOnlyForNewConnections() throws Exception {
+        server = new TestServer((n, out) -> {
+            respond(out, "ok" + n);
+            return true;
+        });
+        transport = new PooledHttpTransport();
+
+        RecordingListener first = new RecordingListener();
+        assertEquals("ok1", post("a", 5000, first));
+        RecordingListener second = new RecordingListener();
+        assertEquals("ok2", post("b", 5000, second));
+
+        assertEquals(Arrays.asList("connectStart", "connectEnd(false)", "requestSent", "responseHeadersReceived"),
+                first.events);
+        assertEquals(Arrays.asList("connectEnd(true)", "requestSent", "responseHeadersReceived"), second.events);
+        assertEquals(1, server.connections.get());
+    }
+
+    @Test
+    void reportsConnectPhaseWhenRetryingOnNewConnection() throws Exception {
+        server = new TestServer((n, out) -> {
+            if (n == 2) {
+                return false;
+            }
+            respond(out, "ok" + n);
+            return true;
+        });
+        transport = new PooledHttpTransport();
+
+        assertEquals("ok1", post("a", 5000));
+        RecordingListener retried = new RecordingListener();
+        assertEquals("ok3", post("b", 5000, retried));
+
+        assertEquals(Arrays.asList("connectEnd(true)", "requestSent",
+                "connectStart", "connectEnd(false)", "requestSent", "responseHeadersReceived"), retried.events);
+    }
+
+    private String post(String body, int readTimeout) throws IOException {
+        return post(body, readTimeout, HttpEventListener.NONE);
+    }
+
+    private String post(String body, int readTimeout, HttpEventListener listener) throws IOException {
+        HttpRequest request = HttpRequest.builder()
+                .url("http://127.0.0.1:" + server.getPort() + "/v1/chat")
+                .post(body.getBytes(StandardCharsets.UTF_8))
+                .readTimeout(readTimeout)
+                .eventListener(listener)
+                .build();
+        try (HttpResponse response = transport.execute(request)) {
+            return response.readBodyAsString();
+        }
+    }
+
+    private static void respond(OutputStream out, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        out.write(("HTTP/1.1 200 OK\r\nContent-Length: " + bytes.length + "\r\n\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1));
+        out.write(bytes);
+        out.flush();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class RecordingListener implements HttpEventListener {
+
+        final List<String> events = new ArrayList<>();
+
+        @Override
+        public void connectStart() {
+            events.add("connectStart");
+        }
+
+        @Override
+        public void connectEnd(boolean reused) {
+            events.add("connectEnd(" + reused + ")");
+        }
+
+        @Override
+        public void requestSent() {
+            events.add("requestSent");
+        }
+
+        @Override
+        public void responseHeadersReceived() {
+            events.add("responseHeadersReceived");
+        }
+    }
+
+    /**
+     * 最小的 HTTP/1.1 服务端，每个连接一个线程
+     */
+    static final class TestServer {
+
+        final AtomicInteger requests = new AtomicInteger();
+        final AtomicInteger connections = new AtomicInteger();
+        private final ServerSocket serverSocket;
+        private final Handler handler;
+
+        TestServer(Handler handler) throws IOException {
+            this.serverSocket = new ServerSocket(0);
+            this.handler = handler;
+            Thread acceptor = new Thread(this::acceptLoop, "test-http-server");
+            acceptor.setDaemon(true);
+            acceptor.start();
+        }
+
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+
+        private void acceptLoop() {
+            while (!serverSocket.isClosed()) {
+                try {
+                    Socket socket = serverSocket.accept();
+                    connections.incrementAndGet();
+                    Thread worker = new Thread(() -> serve(socket), "test-http-conn");
+                    worker.setDaemon(true);
+                    worker.start();
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+
+        private void serve(Socket socket) {
+            try (Socket s = socket) {
+                InputStream in = s.getInputStream();
+                OutputStream out = s.getOutputStream();
+                while (readRequest(in)) {
+                    if (!handler.handle(requests.incrementAndGet(), out)) {
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                // 连接被客户端关闭
+            }
+        }
+
+        /**
+         * 读取一个请求（请求头与 Content-Length 指定的请求体）
+         *
+         * @return false 表示连接已关闭
+         */
+        private static boolean readRequest(InputStream in) throws IOException {
+            if (readLine(in) == null) {
+                return false;
+            }
+            int contentLength = 0;
+            String line;
+            while (!(line = readLine(in)).isEmpty()) {
+                if (line.toLowerCase().startsWith("content-length:")) {
+                    contentLength = Integer.parseInt(line.substring(15).trim());
+                }
+            }
+            for (int i = 0; i < contentLength; i++) {
+                if (in.read() == -1) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            ByteArrayOutputStream line = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != '\n') {
+                if (b == -1) {
+                    if (line.size() == 0) {
+                        return null;
+                    }
+                    throw new IOException("Unexpected end of stream");
+                }
+                if (b != '\r') {
+                    line.write(b);
+                }
+            }
+            return new String(line.toByteArray(), StandardCharsets.ISO_8859_1);
+        }
+
+        void close() throws IOException {
+            serverSocket.close();
+        }
+    }
+}
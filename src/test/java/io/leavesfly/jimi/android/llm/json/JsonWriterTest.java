@@ -0,0 +1,100 @@
+package io.leavesfly.jimi.android.llm.json;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JsonWriterTest {
+
+    @Test
+    void escapesQuotesBackslashesAndControlCharacters() throws IOException {
+        String value = "\"a\\b\"\n\r\t\u0000\u0001\b\f\u001f\u007f";
+
+        String json = write(8192, writer -> writer.value(value));
+
+        assertEquals("\"\\\"a\\\\b\\\"\\n\\r\\t\\u0000\\u0001\\u0008\\u000c\\u001f\u007f\"", json);
+        assertEquals(value, new JSONArray("[" + json + "]").getString(0));
+    }
+
+    @Test
+    void escapesLineAndParagraphSeparators() throws IOException {
+        // U+2028/2029 在 JSON 中合法，但会截断把响应当作 JavaScript 执行的解析器
+        String json = write(8192, writer -> writer.value("a\u2028b\u2029c"));
+
+        assertEquals("\"a\\u2028b\\u2029c\"", json);
+        assertEquals("a\u2028b\u2029c", new JSONArray("[" + json + "]").getString(0));
+    }
+
+    @Test
+    void encodesSurrogatePairsSplitAcrossBufferBoundaries() throws IOException {
+        // 让 4 字节的表情符号与 3 字节的汉字落在缓冲区边界的每一个位置上
+        for (int bufferSize = 1; bufferSize <= 9; bufferSize++) {
+            for (int prefix = 0; prefix <= 9; prefix++) {
+                StringBuilder value = new StringBuilder();
+                for (int i = 0; i < prefix; i++) {
+                    value.append('x');
+                }
+                value.append("😀汉😀é");
+
+                String text = value.toString();
+                byte[] bytes = writeBytes(bufferSize, writer -> writer.value(text));
+
+                assertArrayEquals(("\"" + text + "\"").getBytes(StandardCharsets.UTF_8), bytes,
+                        "bufferSize " + bufferSize + ", prefix " + prefix);
+            }
+        }
+    }
+
+    @Test
+    void replacesLoneSurrogates() throws IOException {
+        assertEquals("\"a?b?\"", write(8192, writer -> writer.value("a\ud83db\ude00")));
+    }
+
+    @Test
+    void writesNestedStructuresWithCommas() throws IOException {
+        String json = write(4, writer -> writer.beginObject()
+                .name("model").value("gpt")
+                .name("stream").value(true)
+                .name("n").value(3L)
+                .name("t").value(0.5)
+                .name("none").nullValue()
+                .name("list").beginArray().value(1L).beginObject().endObject().beginArray().endArray().endArray()
+                .name("raw").rawValue("{\"k\":[1,2]}")
+                .name("bytes").rawValue("[\"长\"]".getBytes(StandardCharsets.UTF_8))
+                .endObject());
+
+        assertEquals("{\"model\":\"gpt\",\"stream\":true,\"n\":3,\"t\":0.5,\"none\":null,"
+                + "\"list\":[1,{},[]],\"raw\":{\"k\":[1,2]},\"bytes\":[\"长\"]}", json);
+        new JSONObject(json);
+    }
+
+    @Test
+    void rejectsNonFiniteNumbersAndUnbalancedNesting() {
+        assertThrows(IllegalArgumentException.class, () -> write(16, writer -> writer.value(Double.NaN)));
+        assertThrows(IllegalStateException.class, () -> write(16, JsonWriter::endArray));
+    }
+
+    private interface Writes {
+        void to(JsonWriter writer) throws IOException;
+    }
+
+    private static String write(int bufferSize, Writes writes) throws IOException {
+        return new String(writeBytes(bufferSize, writes), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] writeBytes(int bufferSize, Writes writes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonWriter writer = new JsonWriter(out, bufferSize);
+        writes.to(writer);
+        writer.flush();
+        return out.toByteArray();
+    }
+}
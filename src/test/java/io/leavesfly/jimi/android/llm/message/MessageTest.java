@@ -0,0 +1,67 @@
+package io.leavesfly.jimi.android.llm.message;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MessageTest {
+
+    @Test
+    void encodedJsonMatchesToJson() throws Exception {
+        List<ToolCall> toolCalls = new ArrayList<>();
+        toolCalls.add(new ToolCall("call_1", new FunctionCall("order_query", "{\"status\":\"已发货\"}")));
+        Message message = Message.assistant("查询中\n\"引号\"", toolCalls);
+
+        JSONObject encoded = new JSONObject(new String(message.toJsonBytes(), StandardCharsets.UTF_8));
+
+        assertEquals(message.toJson().toString(), encoded.toString());
+    }
+
+    @Test
+    void toolCallsAreCopiedOnCreation() throws Exception {
+        List<ToolCall> toolCalls = new ArrayList<>();
+        ToolCall call = new ToolCall("call_1", new FunctionCall("cart_manager", "{\"action\":\"view\"}"));
+        toolCalls.add(call);
+        Message message = Message.assistant(null, toolCalls);
+        byte[] before = message.toJsonBytes().clone();
+
+        // 修改调用方的列表与 ToolCall 不影响消息
+        call.getFunction().setArguments("{\"action\":\"add\"}");
+        call.setId("changed");
+        toolCalls.add(new ToolCall("call_2", new FunctionCall("order_query", "{}")));
+
+        assertEquals(1, message.getToolCalls().size());
+        assertEquals("{\"action\":\"view\"}", message.getToolCalls().get(0).getFunction().getArguments());
+        assertArrayEquals(before, message.toJsonBytes());
+        assertEquals(new JSONObject(new String(before, StandardCharsets.UTF_8)).toString(),
+                message.toJson().toString());
+    }
+
+    @Test
+    void getToolCallsReturnsIndependentCopies() throws Exception {
+        List<ToolCall> toolCalls = new ArrayList<>();
+        toolCalls.add(new ToolCall("call_1", new FunctionCall("cart_manager", "{}")));
+        Message message = Message.assistant(null, toolCalls);
+        String encoded = new String(message.toJsonBytes(), StandardCharsets.UTF_8);
+
+        List<ToolCall> returned = message.getToolCalls();
+        returned.get(0).getFunction().setName("other");
+        returned.clear();
+
+        assertEquals("cart_manager", message.getToolCalls().get(0).getFunction().getName());
+        assertEquals(encoded, new String(message.toJsonBytes(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void messagesWithoutToolCallsReturnNull() {
+        assertNull(Message.user("你好").getToolCalls());
+        assertNull(Message.toolResult("call_1", "ok").getToolCalls());
+    }
+}
@@ -0,0 +1,125 @@
+package io.leavesfly.jimi.android.llm.tokenizer;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BpeTokenizerTest {
+
+    @Test
+    void mergesLowestRankPairFirst() {
+        Map<String, Integer> ranks = new HashMap<>();
+        ranks.put("ab", 10);
+        ranks.put("bc", 5);
+        BpeTokenizer tokenizer = new BpeTokenizer(ranks, BpeTokenizer.CL100K_PATTERN);
+
+        // bc 先合并后只剩 a|bc，没有 abc 时为两个 token
+        assertEquals(2, tokenizer.countTokens("abc"));
+
+        ranks.put("abc", 20);
+        assertEquals(1, new BpeTokenizer(ranks, BpeTokenizer.CL100K_PATTERN).countTokens("abc"));
+    }
+
+    @Test
+    void repeatedPairsMergeLeftToRight() {
+        Map<String, Integer> ranks = new HashMap<>();
+        ranks.put("ab", 10);
+        BpeTokenizer tokenizer = new BpeTokenizer(ranks, BpeTokenizer.CL100K_PATTERN);
+
+        assertEquals(2, tokenizer.countTokens("abab"));
+        // 预分词后空格归入下一个片段: "abab" + " abab"，空格字节无法合并
+        assertEquals(5, tokenizer.countTokens("abab abab"));
+
+        ranks.put("abab", 30);
+        assertEquals(1, new BpeTokenizer(ranks, BpeTokenizer.CL100K_PATTERN).countTokens("abab"));
+    }
+
+    @Test
+    void unknownMultibyteCharactersFallBackToBytes() {
+        Map<String, Integer> ranks = new HashMap<>();
+        BpeTokenizer empty = new BpeTokenizer(ranks, BpeTokenizer.CL100K_PATTERN);
+        // "耳机" 各 3 个 UTF-8 字节
+        assertEquals(6, empty.countTokens("耳机"));
+
+        // 与真实词表一样，多字节 token 的中间合并结果也在词表中
+        ranks.put(latin1("耳").substring(0, 2), 100);
+        ranks.put(latin1("耳"), 101);
+        ranks.put(latin1("机").substring(0, 2), 102);
+        ranks.put(latin1("机"), 103);
+        assertEquals(2, new BpeTokenizer(ranks, BpeTokenizer.CL100K_PATTERN).countTokens("耳机"));
+
+        ranks.put(latin1("耳机"), 104);
+        assertEquals(1, new BpeTokenizer(ranks, BpeTokenizer.CL100K_PATTERN).countTokens("耳机"));
+    }
+
+    @Test
+    void countsEachPreTokenizedPieceIndependently() {
+        Map<String, Integer> ranks = new HashMap<>();
+        ranks.put("ab", 1);
+        ranks.put(" a", 2);
+        ranks.put(latin1("耳").substring(0, 2), 3);
+        ranks.put(latin1("耳"), 4);
+        BpeTokenizer tokenizer = new BpeTokenizer(ranks, BpeTokenizer.CL100K_PATTERN);
+        String text = "abab ab 耳机 abc, 123456 \n\n  ab耳";
+
+        int pieces = 0;
+        Matcher matcher = Pattern.compile(BpeTokenizer.CL100K_PATTERN).matcher(text);
+        while (matcher.find()) {
+            pieces += tokenizer.countTokens(matcher.group());
+        }
+        for (int i = 0; i < 3; i++) {
+            assertEquals(pieces, tokenizer.countTokens(text));
+        }
+        assertEquals(0, tokenizer.countTokens((String) null));
+        assertEquals(0, tokenizer.countTokens(""));
+    }
+
+    @Test
+    void loadsTiktokenVocab() throws IOException {
+        String vocab = "YQ== 0\nYg== 1\nYWI= 2\n\n6IA= 3\n6ICz 4\n";
+
+        BpeTokenizer tokenizer = BpeTokenizer.load(new ByteArrayInputStream(vocab.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(5, tokenizer.getVocabSize());
+        assertEquals(1, tokenizer.countTokens("ab"));
+        assertEquals(1, tokenizer.countTokens("耳"));
+    }
+
+    @Test
+    void rejectsInvalidVocabLines() {
+        assertThrows(IOException.class,
+                () -> BpeTokenizer.load(new ByteArrayInputStream("YQ==\n".getBytes(StandardCharsets.UTF_8))));
+        assertThrows(IOException.class,
+                () -> BpeTokenizer.load(new ByteArrayInputStream("Y*== 0\n".getBytes(StandardCharsets.UTF_8))));
+        assertThrows(IOException.class,
+                () -> BpeTokenizer.load(new ByteArrayInputStream("YQ== x\n".getBytes(StandardCharsets.UTF_8))));
+    }
+
+    @Test
+    void decodesBase64WithAndWithoutPadding() {
+        assertArrayEquals(bytes(""), BpeTokenizer.Base64Decoder.decode(""));
+        assertArrayEquals(bytes("f"), BpeTokenizer.Base64Decoder.decode("Zg=="));
+        assertArrayEquals(bytes("fo"), BpeTokenizer.Base64Decoder.decode("Zm8="));
+        assertArrayEquals(bytes("foo"), BpeTokenizer.Base64Decoder.decode("Zm9v"));
+        assertArrayEquals(bytes("foob"), BpeTokenizer.Base64Decoder.decode("Zm9vYg"));
+        assertArrayEquals(new byte[]{(byte) 0xFB, (byte) 0xFF}, BpeTokenizer.Base64Decoder.decode("+/8="));
+    }
+
+    private static String latin1(String text) {
+        return new String(text.getBytes(StandardCharsets.UTF_8), StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
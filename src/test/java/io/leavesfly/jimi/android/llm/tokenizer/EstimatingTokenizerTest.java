@@ -0,0 +1,70 @@
+package io.leavesfly.jimi.android.llm.tokenizer;
+
+import io.leavesfly.jimi.android.llm.message.FunctionCall;
+import io.leavesfly.jimi.android.llm.message.Message;
+import io.leavesfly.jimi.android.llm.message.ToolCall;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EstimatingTokenizerTest {
+
+    private final EstimatingTokenizer tokenizer = new EstimatingTokenizer();
+
+    @Test
+    void countsCjkPerCharacterAndOtherTextPerFourCharacters() {
+        assertEquals(0, tokenizer.countTokens((String) null));
+        assertEquals(0, tokenizer.countTokens(""));
+        assertEquals(1, tokenizer.countTokens("a"));
+        assertEquals(1, tokenizer.countTokens("abcd"));
+        assertEquals(2, tokenizer.countTokens("abcde"));
+        // 4 个汉字 + 全角逗号 + 韩文 1 字，其余 "AirPods " 8 个字符
+        assertEquals(6 + 2, tokenizer.countTokens("AirPods 耳机价格，한"));
+    }
+
+    @Test
+    void countsMessageContentToolCallsAndOverhead() {
+        Message message = Message.assistant("好的", Collections.singletonList(
+                new ToolCall("call_1", new FunctionCall("order_query", "{\"id\":1}"))));
+
+        int expected = Tokenizer.MESSAGE_OVERHEAD_TOKENS + 2
+                + Tokenizer.TOOL_CALL_OVERHEAD_TOKENS
+                + tokenizer.countTokens("order_query") + tokenizer.countTokens("{\"id\":1}");
+        assertEquals(expected, tokenizer.countTokens(message));
+    }
+
+    @Test
+    void messageCachesCountPerTokenizer() {
+        CountingTokenizer counting = new CountingTokenizer();
+        Message message = Message.user("帮我查一下订单");
+
+        int first = message.getTokenCount(counting);
+        int second = message.getTokenCount(counting);
+
+        assertEquals(first, second);
+        assertEquals(1, counting.messageCounts.get());
+        // 换用其他分词器时重新计算
+        assertEquals(tokenizer.countTokens(message), message.getTokenCount(tokenizer));
+        message.getTokenCount(counting);
+        assertEquals(2, counting.messageCounts.get());
+    }
+
+    private static final class CountingTokenizer implements Tokenizer {
+
+        final AtomicInteger messageCounts = new AtomicInteger();
+
+        @Override
+        public int countTokens(String text) {
+            return text == null ? 0 : text.length();
+        }
+
+        @Override
+        public int countTokens(Message message) {
+            messageCounts.incrementAndGet();
+            return Tokenizer.super.countTokens(message);
+        }
+    }
+}
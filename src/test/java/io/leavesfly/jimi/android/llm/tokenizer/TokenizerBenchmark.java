@@ -0,0 +1,46 @@
+package io.leavesfly.jimi.android.llm.tokenizer;
+
+import io.leavesfly.jimi.android.Benchmarks;
+import io.leavesfly.jimi.android.llm.message.Message;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.leavesfly.jimi.android.llm.tokenizer.TokenizerBenchmarkTest.MESSAGES;
+
+/**
+ * token 计数耗时基准：估算、BPE 与消息上缓存的计数，只输出数字，不做断言
+ * <p>
+ * 类名不匹配 surefire 默认的 *Test 规则，mvn test 不会运行；
+ * 手动执行：mvn test -Dtest=TokenizerBenchmark
+ */
+class TokenizerBenchmark {
+
+    @Test
+    void printTimings() throws Exception {
+        List<String> texts = TokenizerBenchmarkTest.sampleTexts(MESSAGES);
+        Tokenizer estimating = new EstimatingTokenizer();
+        BpeTokenizer bpe = new BpeTokenizer(TokenizerBenchmarkTest.train(texts, 500), BpeTokenizer.CL100K_PATTERN);
+        List<Message> messages = new ArrayList<>();
+        for (String text : texts) {
+            Message message = Message.user(text);
+            message.getTokenCount(bpe);
+            messages.add(message);
+        }
+
+        long estimatingNanos = Benchmarks.nanos(() -> TokenizerBenchmarkTest.countAll(estimating, texts));
+        long bpeNanos = Benchmarks.nanos(() -> TokenizerBenchmarkTest.countAll(bpe, texts));
+        long messageNanos = Benchmarks.nanos(() -> {
+            for (Message message : messages) {
+                message.getTokenCount(bpe);
+            }
+        });
+        long bpeBytes = Benchmarks.allocatedBytes(() -> TokenizerBenchmarkTest.countAll(bpe, texts));
+
+        System.out.printf("token counting per message: estimating %.2f us, BPE %.2f us / %d bytes, "
+                        + "cached Message %.3f us%n",
+                estimatingNanos / 1e3 / MESSAGES, bpeNanos / 1e3 / MESSAGES, bpeBytes / MESSAGES,
+                messageNanos / 1e3 / MESSAGES);
+    }
+}
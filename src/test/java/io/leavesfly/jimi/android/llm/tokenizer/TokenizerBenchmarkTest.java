@@ -0,0 +1,133 @@
+package io.leavesfly.jimi.android.llm.tokenizer;
+
+import io.leavesfly.jimi.android.Benchmarks;
+import io.leavesfly.jimi.android.llm.message.Message;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 中英混合商品文本上的计数开销：消息上缓存的计数既不重新分词，也不分配内存
+ * 耗时对比见 TokenizerBenchmark；没有随仓库发布的 cl100k_base 词表，BPE 词表在同类文本上训练 500 次合并得到
+ */
+class TokenizerBenchmarkTest {
+
+    static final int MESSAGES = 200;
+
+    @Test
+    void cachedMessageCountsNeitherRecountNorAllocate() throws Exception {
+        List<String> texts = sampleTexts(MESSAGES);
+        BpeTokenizer bpe = new BpeTokenizer(train(texts, 500), BpeTokenizer.CL100K_PATTERN);
+        AtomicInteger counted = new AtomicInteger();
+        Tokenizer counting = text -> {
+            counted.incrementAndGet();
+            return bpe.countTokens(text);
+        };
+        List<Message> messages = new ArrayList<>();
+        int total = 0;
+        for (String text : texts) {
+            Message message = Message.user(text);
+            total += message.getTokenCount(counting);
+            messages.add(message);
+        }
+        int countedOnce = counted.get();
+
+        long bytes = Benchmarks.allocatedBytes(() -> {
+            for (int i = 0; i < messages.size(); i++) {
+                messages.get(i).getTokenCount(counting);
+            }
+        });
+
+        int again = 0;
+        for (Message message : messages) {
+            again += message.getTokenCount(counting);
+        }
+        assertEquals(total, again);
+        assertEquals(countedOnce, counted.get());
+        assertTrue(bytes < MESSAGES, "cached Message lookups allocated " + bytes + " bytes");
+    }
+
+    static void countAll(Tokenizer tokenizer, List<String> texts) {
+        for (String text : texts) {
+            tokenizer.countTokens(text);
+        }
+    }
+
+    /**
+     * 在样本文本上训练字节级 BPE：256 个单字节 token 之后，每次合并出现最多的相邻对
+     */
+    static Map<String, Integer> train(List<String> texts, int merges) {
+        Map<String, Integer> ranks = new HashMap<>();
+        for (int b = 0; b < 256; b++) {
+            ranks.put(String.valueOf((char) b), b);
+        }
+        List<List<String>> pieces = new ArrayList<>();
+        Pattern pattern = Pattern.compile(BpeTokenizer.CL100K_PATTERN);
+        for (String text : texts) {
+            Matcher matcher = pattern.matcher(text);
+            while (matcher.find()) {
+                String bytes = new String(matcher.group().getBytes(StandardCharsets.UTF_8),
+                        StandardCharsets.ISO_8859_1);
+                List<String> parts = new ArrayList<>();
+                for (int i = 0; i < bytes.length(); i++) {
+                    parts.add(bytes.substring(i, i + 1));
+                }
+                pieces.add(parts);
+            }
+        }
+        for (int m = 0; m < merges; m++) {
+            Map<String, Integer> pairCounts = new HashMap<>();
+            String best = null;
+            int bestCount = 1;
+            for (List<String> parts : pieces) {
+                for (int i = 0; i + 1 < parts.size(); i++) {
+                    String pair = parts.get(i) + parts.get(i + 1);
+                    int count = pairCounts.merge(pair, 1, Integer::sum);
+                    if (count > bestCount) {
+                        best = pair;
+                        bestCount = count;
+                    }
+                }
+            }
+            if (best == null) {
+                break;
+            }
+            ranks.putIfAbsent(best, ranks.size());
+            for (List<String> parts : pieces) {
+                for (int i = 0; i + 1 < parts.size(); i++) {
+                    if ((parts.get(i) + parts.get(i + 1)).equals(best)) {
+                        parts.set(i, best);
+                        parts.remove(i + 1);
+                    }
+                }
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * 购物助手对话中常见的中英混合文本
+     */
+    static List<String> sampleTexts(int count) {
+        String[] products = {"Apple AirPods Pro 2", "索尼 WH-1000XM5 降噪耳机", "华为 MatePad 11.5",
+                "Nike Air Zoom Pegasus 40", "小米 14 Ultra 16GB+512GB", "戴森 V15 Detect 吸尘器"};
+        List<String> texts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String product = products[i % products.length];
+            texts.add("找到商品 " + product + "，价格 ￥" + (199 + i * 37 % 5000) + ".00，库存 " + (i % 50)
+                    + " 件。Rating 4." + (i % 10) + "/5, free shipping over ￥99. 订单 O" + (100000 + i)
+                    + " 已发货，预计 " + (i % 3 + 1) + " 天内送达。");
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,130 @@
+package io.leavesfly.jimi.android.tool;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ArgumentValidatorTest {
+
+    private static final ArgumentValidator SEARCH = ArgumentValidator.compile(new JSONObject(
+            "{\"type\":\"object\",\"required\":[\"keyword\"],\"additionalProperties\":false,\"properties\":{"
+                    + "\"keyword\":{\"type\":\"string\",\"minLength\":1,\"maxLength\":4},"
+                    + "\"sortBy\":{\"type\":\"string\",\"enum\":[\"price_asc\",\"sales\"]},"
+                    + "\"limit\":{\"type\":\"integer\",\"minimum\":1,\"maximum\":20},"
+                    + "\"maxPrice\":{\"type\":\"number\"},"
+                    + "\"category\":{\"type\":[\"string\",\"null\"]},"
+                    + "\"tags\":{\"type\":\"array\",\"minItems\":1,\"maxItems\":2,\"items\":{\"type\":\"string\"}},"
+                    + "\"filter\":{\"type\":\"object\",\"required\":[\"inStock\"],"
+                    + "\"properties\":{\"inStock\":{\"type\":\"boolean\"}}}}}"));
+
+    @Test
+    void acceptsValidArguments() {
+        assertNull(SEARCH.validate("{\"keyword\":\"手机\",\"sortBy\":\"sales\",\"limit\":5,\"maxPrice\":99.5,"
+                + "\"category\":null,\"tags\":[\"5G\"],\"filter\":{\"inStock\":true}}"));
+        // 整数值的浮点表示仍是 integer，integer 也满足 number
+        assertNull(SEARCH.validate("{\"keyword\":\"手机\",\"limit\":5.0,\"maxPrice\":100}"));
+        // maxLength 按码点计，一个表情符号是一个字符
+        assertNull(SEARCH.validate("{\"keyword\":\"😀😀😀😀\"}"));
+    }
+
+    @Test
+    void reportsEveryProblemWithItsPath() {
+        String error = SEARCH.validate("{\"sortBy\":\"newest\",\"limit\":0,\"maxPrice\":\"cheap\","
+                + "\"tags\":[1],\"filter\":{},\"color\":\"red\"}");
+
+        // org.json 不保留属性顺序，逐条比较
+        List<String> errors = Arrays.asList(error.split("; "));
+        assertEquals(7, errors.size(), error);
+        assertTrue(errors.containsAll(Arrays.asList(
+                "$: missing required property 'keyword'",
+                "$.sortBy: must be one of [\"price_asc\",\"sales\"]",
+                "$.limit: must be >= 1",
+                "$.maxPrice: expected number but got string",
+                "$.tags[0]: expected string but got integer",
+                "$.filter: missing required property 'inStock'")), error);
+        assertTrue(error.contains("$.color: unknown property, expected one of ["), error);
+    }
+
+    @Test
+    void checksBounds() {
+        assertEquals("$.limit: expected integer but got number",
+                SEARCH.validate("{\"keyword\":\"a\",\"limit\":2.5}"));
+        assertEquals("$.limit: must be <= 20", SEARCH.validate("{\"keyword\":\"a\",\"limit\":21}"));
+        assertEquals("$.keyword: must be at least 1 characters", SEARCH.validate("{\"keyword\":\"\"}"));
+        assertEquals("$.keyword: must be at most 4 characters", SEARCH.validate("{\"keyword\":\"abcde\"}"));
+        assertEquals("$.tags: must contain at least 1 items", SEARCH.validate("{\"keyword\":\"a\",\"tags\":[]}"));
+        assertEquals("$.tags: must contain at most 2 items",
+                SEARCH.validate("{\"keyword\":\"a\",\"tags\":[\"x\",\"y\",\"z\"]}"));
+        assertEquals("$.category: expected string or null but got integer",
+                SEARCH.validate("{\"keyword\":\"a\",\"category\":1}"));
+    }
+
+    @Test
+    void requiredPropertyMayNotBeNull() {
+        assertEquals("$: missing required property 'keyword'", SEARCH.validate("{\"keyword\":null}"));
+    }
+
+    @Test
+    void rejectsMalformedJson() {
+        assertTrue(SEARCH.validate("{\"keyword\":").startsWith("arguments are not valid JSON: "));
+        assertEquals("arguments are not valid JSON: unexpected content after the top-level value",
+                SEARCH.validate("{\"keyword\":\"a\"} {}"));
+        assertEquals("$: expected object but got array", SEARCH.validate("[]"));
+    }
+
+    @Test
+    void blankArgumentsAreAnEmptyObject() {
+        ArgumentValidator optional = ArgumentValidator.compile(new JSONObject("{\"type\":\"object\"}"));
+
+        assertNull(optional.validate(""));
+        assertNull(optional.validate(null));
+        assertEquals("$: missing required property 'keyword'", SEARCH.validate("  "));
+    }
+
+    @Test
+    void capsReportedErrors() {
+        ArgumentValidator numbers = ArgumentValidator.compile(new JSONObject(
+                "{\"type\":\"array\",\"items\":{\"type\":\"integer\"}}"));
+        StringBuilder arguments = new StringBuilder("[");
+        for (int i = 0; i < 30; i++) {
+            arguments.append(i > 0 ? "," : "").append("\"x\"");
+        }
+
+        String error = numbers.validate(arguments.append("]").toString());
+
+        assertEquals(ArgumentValidator.MAX_ERRORS, error.split("; \\$").length);
+        assertTrue(error.endsWith("; ... 1 more"), error);
+    }
+
+    @Test
+    void ignoresUnsupportedKeywordsAndMissingSchema() {
+        ArgumentValidator oneOf = ArgumentValidator.compile(new JSONObject(
+                "{\"type\":\"object\",\"properties\":{\"id\":{\"oneOf\":[{\"type\":\"string\"}]}}}"));
+
+        assertNull(oneOf.validate("{\"id\":42}"));
+        assertNull(ArgumentValidator.compile(null));
+    }
+
+    @Test
+    void registryRejectsInvalidArgumentsWithoutRunningTool() {
+        JSONObject parameters = new JSONObject(
+                "{\"type\":\"object\",\"required\":[\"keyword\"],\"properties\":{\"keyword\":{\"type\":\"string\"}}}");
+        TestTool tool = new TestTool("search", "搜索商品", parameters, ToolMetadata.DEFAULT,
+                args -> ToolResult.success("ok"));
+        ToolRegistry registry = new ToolRegistry(1, 1);
+        registry.register(tool);
+
+        assertEquals("Invalid arguments for search: $: missing required property 'keyword'",
+                registry.execute("search", "{}").getError());
+        assertEquals(0, tool.calls.get());
+
+        registry.setArgumentValidation(false);
+        assertEquals("ok", registry.execute("search", "{}").getContent());
+    }
+}
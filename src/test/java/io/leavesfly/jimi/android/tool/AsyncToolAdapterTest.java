@@ -0,0 +1,123 @@
+package io.leavesfly.jimi.android.tool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AsyncToolAdapterTest {
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void runsToolOnExecutor() throws Exception {
+        Thread caller = Thread.currentThread();
+        AsyncToolAdapter adapter = new AsyncToolAdapter(new TestTool("search", ToolMetadata.DEFAULT,
+                args -> ToolResult.success(Thread.currentThread() != caller ? "async " + args : "inline")), executor);
+
+        ToolResult result = adapter.executeAsync("{}").get(5, TimeUnit.SECONDS);
+
+        assertEquals("async {}", result.getContent());
+    }
+
+    @Test
+    void cancellingFutureInterruptsRunningTool() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        CompletableFuture<ToolResult> future = AsyncToolAdapter.runAsync(() -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+                return ToolResult.success("done");
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw e;
+            }
+        }, executor);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        assertTrue(future.cancel(true));
+
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS), "tool thread was not interrupted");
+        assertTrue(future.isCancelled());
+    }
+
+    @Test
+    void cancellingQueuedFutureSkipsTool() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> await(release));
+        AtomicInteger runs = new AtomicInteger();
+        CompletableFuture<ToolResult> future = AsyncToolAdapter.runAsync(() -> {
+            runs.incrementAndGet();
+            return ToolResult.success("done");
+        }, executor);
+
+        future.cancel(true);
+        release.countDown();
+        executor.shutdown();
+
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void exceptionBecomesErrorResult() throws Exception {
+        CompletableFuture<ToolResult> future = AsyncToolAdapter.runAsync(() -> {
+            throw new IllegalStateException("backend down");
+        }, executor);
+
+        ToolResult result = future.get(5, TimeUnit.SECONDS);
+
+        assertFalse(future.isCompletedExceptionally());
+        assertFalse(result.isSuccess());
+        assertEquals("Tool execution failed: backend down", result.getError());
+    }
+
+    @Test
+    void rejectionIsThrownToCaller() throws Exception {
+        ThreadPoolExecutor saturated = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>());
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        try {
+            saturated.execute(() -> await(release));
+
+            assertThrows(RejectedExecutionException.class, () -> AsyncToolAdapter.runAsync(() -> {
+                runs.incrementAndGet();
+                return ToolResult.success("done");
+            }, saturated));
+        } finally {
+            release.countDown();
+            saturated.shutdown();
+        }
+
+        assertTrue(saturated.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package io.leavesfly.jimi.android.tool;
+
+import io.leavesfly.jimi.android.llm.message.FunctionCall;
+import io.leavesfly.jimi.android.llm.message.Message;
+import io.leavesfly.jimi.android.llm.message.ToolCall;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LexicalToolSelectorTest {
+
+    private final ToolSnapshot tools = snapshot(
+            tool("product_search", "搜索商品，按关键词、品类和价格筛选",
+                    "{\"type\":\"object\",\"properties\":{"
+                            + "\"keyword\":{\"type\":\"string\",\"description\":\"搜索关键词\"},"
+                            + "\"sortBy\":{\"type\":\"string\",\"enum\":[\"price_asc\",\"sales\"]}}}"),
+            tool("order_query", "查询订单状态和物流信息",
+                    "{\"type\":\"object\",\"properties\":{"
+                            + "\"orderId\":{\"type\":\"string\",\"description\":\"订单号\"}}}"),
+            tool("cart_manager", "管理购物车：查看、添加、移除商品",
+                    "{\"type\":\"object\",\"properties\":{\"action\":{\"type\":\"string\","
+                            + "\"enum\":[\"view\",\"add\",\"remove\"]}}}"),
+            tool("coupon_list", "列出可用的优惠券", null),
+            tool("address_book", "管理收货地址", null),
+            tool("weather", "Get the weather forecast for a city", null));
+
+    private final List<String> candidates = tools.getToolNames();
+
+    @Test
+    void returnsAllCandidatesWhenWithinLimit() {
+        LexicalToolSelector selector = LexicalToolSelector.builder().maxTools(6).build();
+
+        assertSame(candidates, selector.select(tools, candidates, history("查一下我的订单")));
+    }
+
+    @Test
+    void selectsBestMatchingToolsInCandidateOrder() {
+        LexicalToolSelector selector = LexicalToolSelector.builder().maxTools(2).build();
+
+        assertEquals(Arrays.asList("product_search", "order_query"),
+                selector.select(tools, candidates, history("帮我查询订单号 O1001 的物流，再搜索一下耳机")));
+        assertEquals(Collections.singletonList("order_query"),
+                selector.select(tools, candidates, history("订单到哪了")));
+        assertEquals(Collections.singletonList("weather"),
+                selector.select(tools, candidates, history("What is the WEATHER in Paris?")));
+    }
+
+    @Test
+    void usesLatestUserMessage() {
+        LexicalToolSelector selector = LexicalToolSelector.builder().maxTools(1).recentMessages(0).build();
+        List<Message> history = new ArrayList<>(history("搜索商品"));
+        history.add(Message.assistant("找到 3 个商品"));
+        history.add(Message.user("看看优惠券"));
+
+        assertEquals(Collections.singletonList("coupon_list"), selector.select(tools, candidates, history));
+    }
+
+    @Test
+    void alwaysIncludesConfiguredTools() {
+        LexicalToolSelector selector = LexicalToolSelector.builder()
+                .maxTools(2)
+                .alwaysInclude("address_book", "not_a_candidate")
+                .build();
+
+        assertEquals(Arrays.asList("order_query", "address_book"),
+                selector.select(tools, candidates, history("订单物流")));
+    }
+
+    @Test
+    void keepsRecentlyUsedTools() {
+        LexicalToolSelector selector = LexicalToolSelector.builder().maxTools(2).recentMessages(4).build();
+        List<Message> history = new ArrayList<>();
+        history.add(Message.user("把耳机加入购物车"));
+        history.add(Message.assistant(null, Collections.singletonList(
+                new ToolCall("call_1", new FunctionCall("cart_manager", "{\"action\":\"add\"}")))));
+        history.add(Message.toolResult("call_1", "已添加到购物车"));
+        history.add(Message.user("好的，继续"));
+
+        // 最新消息与任何工具都不匹配，仍保留正在使用的工具，而不是退回全部候选
+        assertEquals(Collections.singletonList("cart_manager"), selector.select(tools, candidates, history));
+
+        LexicalToolSelector forgetful = LexicalToolSelector.builder().maxTools(2).recentMessages(2).build();
+        assertEquals(candidates, forgetful.select(tools, candidates, history));
+    }
+
+    @Test
+    void fallsBackToAllCandidatesWithoutMatch() {
+        LexicalToolSelector selector = LexicalToolSelector.builder().maxTools(2).build();
+
+        assertEquals(candidates, selector.select(tools, candidates, history("你好")));
+        assertEquals(candidates, selector.select(tools, candidates, Collections.<Message>emptyList()));
+    }
+
+    @Test
+    void onlySelectsFromCandidates() {
+        LexicalToolSelector selector = LexicalToolSelector.builder().maxTools(1).build();
+        List<String> subset = Arrays.asList("coupon_list", "cart_manager", "weather");
+
+        assertEquals(Collections.singletonList("cart_manager"),
+                selector.select(tools, subset, history("查询订单，然后查看购物车")));
+    }
+
+    @Test
+    void repeatedSelectionReusesCachedSchemas() {
+        LexicalToolSelector selector = LexicalToolSelector.builder().maxTools(2).build();
+
+        List<String> first = selector.select(tools, candidates, history("订单物流"));
+        List<String> second = selector.select(tools, candidates, history("我的订单到哪了"));
+
+        assertEquals(first, second);
+        assertSame(tools.getToolSchemas(first), tools.getToolSchemas(second));
+    }
+
+    @Test
+    void splitsWordsAndCjkBigrams() {
+        assertEquals(Arrays.asList("order", "o1001", "查询", "询订", "订单", "物流"),
+                new ArrayList<>(LexicalToolSelector.terms("Order O1001 查询订单, 物流! a")));
+        assertEquals(Collections.singletonList("单"), new ArrayList<>(LexicalToolSelector.terms("单")));
+        assertEquals(Arrays.asList("product", "search"),
+                new ArrayList<>(LexicalToolSelector.terms("product_search")));
+        assertEquals(Collections.emptySet(), LexicalToolSelector.terms(null));
+    }
+
+    @Test
+    void rejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> LexicalToolSelector.builder().maxTools(0).build());
+        assertThrows(IllegalArgumentException.class, () -> LexicalToolSelector.builder().recentMessages(-1).build());
+    }
+
+    private static List<Message> history(String userMessage) {
+        return Collections.singletonList(Message.user(userMessage));
+    }
+
+    private static Tool tool(String name, String description, String parameters) {
+        return new TestTool(name, description, parameters != null ? new JSONObject(parameters) : null,
+                ToolMetadata.DEFAULT, args -> ToolResult.success(""));
+    }
+
+    private static ToolSnapshot snapshot(Tool... tools) {
+        ToolRegistry registry = new ToolRegistry(1, 1);
+        registry.registerAll(Arrays.asList(tools));
+        return registry.snapshot();
+    }
+}
@@ -0,0 +1,65 @@
+package io.leavesfly.jimi.android.tool;
+
+import org.json.JSONObject;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 测试用工具：行为由函数指定，并记录执行次数
+ */
+public class TestTool implements Tool {
+
+    public final AtomicInteger calls = new AtomicInteger();
+    private final String name;
+    private final String description;
+    private final JSONObject parameters;
+    private final ToolMetadata metadata;
+    private final Function<String, ToolResult> body;
+
+    public TestTool(String name, ToolMetadata metadata, Function<String, ToolResult> body) {
+        this(name, "test tool " + name, null, metadata, body);
+    }
+
+    public TestTool(String name, String description, JSONObject parameters, ToolMetadata metadata,
+             Function<String, ToolResult> body) {
+        this.name = name;
+        this.description = description;
+        this.parameters = parameters;
+        this.metadata = metadata;
+        this.body = body;
+    }
+
+    /**
+     * 返回固定成功结果的工具
+     */
+    public static TestTool returning(String name, ToolMetadata metadata, String content) {
+        return new TestTool(name, metadata, args -> ToolResult.success(content));
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public ToolSchema getSchema() {
+        return new ToolSchema(name, description, parameters);
+    }
+
+    @Override
+    public ToolMetadata getMetadata() {
+        return metadata;
+    }
+
+    @Override
+    public ToolResult execute(String arguments) {
+        calls.incrementAndGet();
+        return body.apply(arguments);
+    }
+}
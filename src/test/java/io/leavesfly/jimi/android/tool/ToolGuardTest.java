@@ -0,0 +1,286 @@
+package io.leavesfly.jimi.android.tool;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * ToolRegistry 中每个工具的熔断、超时、并发上限与线程池背压
+ */
+class ToolGuardTest {
+
+    @Test
+    void errorResultsDoNotOpenCircuit() {
+        ToolRegistry registry = new ToolRegistry(1, 1, 0);
+        registry.setCircuitBreaker(2, 60_000);
+        TestTool tool = new TestTool("search", ToolMetadata.DEFAULT, args -> ToolResult.error("关键词不能为空"));
+        registry.register(tool);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals("关键词不能为空", registry.execute("search", "{}").getError());
+        }
+
+        ToolStats stats = registry.getToolStats().get("search");
+        assertEquals(CircuitBreaker.State.CLOSED, stats.getCircuitState());
+        assertEquals(0, stats.getFailureCount());
+        assertEquals(5, tool.calls.get());
+    }
+
+    @Test
+    void exceptionsOpenCircuit() {
+        ToolRegistry registry = new ToolRegistry(1, 1, 0);
+        registry.setCircuitBreaker(2, 60_000);
+        TestTool tool = new TestTool("search", ToolMetadata.DEFAULT, args -> {
+            throw new IllegalStateException("backend down");
+        });
+        registry.register(tool);
+
+        assertEquals("Tool execution failed: backend down", registry.execute("search", "{}").getError());
+        registry.execute("search", "{}");
+        ToolResult shortCircuited = registry.execute("search", "{}");
+
+        assertFalse(shortCircuited.isSuccess());
+        assertEquals(2, tool.calls.get());
+        ToolStats stats = registry.getToolStats().get("search");
+        assertEquals(CircuitBreaker.State.OPEN, stats.getCircuitState());
+        assertEquals(2, stats.getFailureCount());
+        assertEquals(1, stats.getShortCircuitCount());
+    }
+
+    @Test
+    void asyncToolFailuresOpenCircuit() {
+        ToolRegistry registry = new ToolRegistry(1, 1, 0);
+        registry.setCircuitBreaker(1, 60_000);
+        registry.register(new FailingAsyncTool());
+
+        assertEquals("Tool execution failed: backend down",
+                registry.executeAsync("lookup", "{}").join().getError());
+        assertEquals(CircuitBreaker.State.OPEN, registry.getToolStats().get("lookup").getCircuitState());
+    }
+
+    @Test
+    void timeoutsOpenCircuit() {
+        ToolRegistry registry = new ToolRegistry(1, 1, 0);
+        registry.setCircuitBreaker(1, 60_000);
+        CountDownLatch release = new CountDownLatch(1);
+        registry.register(new TestTool("slow", ToolMetadata.builder().timeoutMillis(50).build(), args -> {
+            await(release);
+            return ToolResult.success("late");
+        }));
+
+        ToolResult result = registry.execute("slow", "{}");
+        release.countDown();
+
+        assertEquals("Tool execution timed out after 50ms: slow", result.getError());
+        ToolStats stats = registry.getToolStats().get("slow");
+        assertEquals(CircuitBreaker.State.OPEN, stats.getCircuitState());
+        assertEquals(1, stats.getTimeoutCount());
+    }
+
+    @Test
+    void returnsBusyWhenExecutorSaturated() throws Exception {
+        ToolRegistry registry = new ToolRegistry(1, 0, 0);
+        registry.setCircuitBreaker(1, 60_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TestTool blocker = new TestTool("blocker", ToolMetadata.DEFAULT, args -> {
+            started.countDown();
+            await(release);
+            return ToolResult.success("done");
+        });
+        TestTool slow = TestTool.returning("slow", ToolMetadata.builder().timeoutMillis(5_000).build(), "done");
+        registry.registerAll(Arrays.<Tool>asList(blocker, slow));
+
+        // 占满唯一的工具线程
+        CompletableFuture<ToolResult> blocking = registry.executeAsync("blocker", "{}");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        ToolResult result = registry.execute("slow", "{}");
+        release.countDown();
+
+        // 不在调用方线程上不限时执行，也不计为失败
+        assertEquals("Tool busy, tool executor saturated: slow", result.getError());
+        assertEquals(0, slow.calls.get());
+        assertEquals("done", blocking.get(5, TimeUnit.SECONDS).getContent());
+        assertEquals(1, registry.getExecutorStats().getRejectedCount());
+        ToolStats stats = registry.getToolStats().get("slow");
+        assertEquals(CircuitBreaker.State.CLOSED, stats.getCircuitState());
+        assertEquals(0, stats.getFailureCount());
+        assertEquals(1, stats.getRejectedCount());
+    }
+
+    @Test
+    void queuedTimeDoesNotCountTowardsTimeout() throws Exception {
+        ToolRegistry registry = new ToolRegistry(1, 1, 0);
+        registry.setCircuitBreaker(1, 60_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        registry.register(new TestTool("blocker", ToolMetadata.DEFAULT, args -> {
+            started.countDown();
+            await(release);
+            return ToolResult.success("done");
+        }));
+        registry.register(new TestTool("search", ToolMetadata.builder().timeoutMillis(500).build(), args -> {
+            sleep(300);
+            return ToolResult.success("found");
+        }));
+
+        CompletableFuture<ToolResult> blocking = registry.executeAsync("blocker", "{}");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<ToolResult> queued = registry.executeAsync("search", "{}");
+        // 排队 300ms 再执行 300ms：总耗时超过 500ms，但执行时间没有
+        sleep(300);
+        release.countDown();
+
+        assertEquals("found", queued.get(5, TimeUnit.SECONDS).getContent());
+        assertEquals("done", blocking.get(5, TimeUnit.SECONDS).getContent());
+        ToolStats stats = registry.getToolStats().get("search");
+        assertEquals(CircuitBreaker.State.CLOSED, stats.getCircuitState());
+        assertEquals(0, stats.getTimeoutCount());
+    }
+
+    @Test
+    void callStillQueuedAfterTimeoutIsBusyNotFailure() throws Exception {
+        ToolRegistry registry = new ToolRegistry(1, 1, 0);
+        registry.setCircuitBreaker(1, 60_000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        registry.register(new TestTool("blocker", ToolMetadata.DEFAULT, args -> {
+            started.countDown();
+            await(release);
+            return ToolResult.success("done");
+        }));
+        TestTool search = TestTool.returning("search", ToolMetadata.builder().timeoutMillis(50).build(), "found");
+        registry.register(search);
+
+        CompletableFuture<ToolResult> blocking = registry.executeAsync("blocker", "{}");
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        ToolResult result = registry.executeAsync("search", "{}").get(5, TimeUnit.SECONDS);
+        release.countDown();
+        blocking.get(5, TimeUnit.SECONDS);
+
+        assertEquals("Tool busy, not started within 50ms: search", result.getError());
+        // 排队超时的调用被移出队列，之后也不会执行
+        assertEquals(0, search.calls.get());
+        ToolStats stats = registry.getToolStats().get("search");
+        assertEquals(CircuitBreaker.State.CLOSED, stats.getCircuitState());
+        assertEquals(0, stats.getFailureCount());
+        assertEquals(1, stats.getRejectedCount());
+        assertEquals("found", registry.execute("search", "{}").getContent());
+    }
+
+    @Test
+    void hungToolCannotTakeWholeExecutor() throws Exception {
+        ToolRegistry registry = new ToolRegistry(4, 8, 0);
+        registry.setCircuitBreaker(0, 60_000);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger running = new AtomicInteger();
+        // 超时后中断也不退出
+        registry.register(new TestTool("hung", ToolMetadata.builder()
+                .sideEffect(ToolMetadata.SideEffect.READ_ONLY)
+                .timeoutMillis(50)
+                .build(), args -> {
+            running.incrementAndGet();
+            while (true) {
+                try {
+                    if (release.await(5, TimeUnit.SECONDS)) {
+                        return ToolResult.success("late");
+                    }
+                } catch (InterruptedException e) {
+                    // 忽略中断
+                }
+            }
+        }));
+        registry.register(TestTool.returning("search", ToolMetadata.builder().timeoutMillis(1_000).build(), "found"));
+
+        try {
+            List<CompletableFuture<ToolResult>> calls = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                calls.add(registry.executeAsync("hung", "{}"));
+            }
+            for (CompletableFuture<ToolResult> call : calls) {
+                assertFalse(call.get(5, TimeUnit.SECONDS).isSuccess());
+            }
+
+            // 默认每个工具最多占用线程池一半的线程，其余工具仍可执行
+            assertEquals(2, running.get());
+            assertEquals(2, registry.getExecutorStats().getActiveCount());
+            assertEquals("found", registry.execute("search", "{}").getContent());
+            assertEquals(2, registry.getToolStats().get("hung").getTimeoutCount());
+            assertEquals(2, registry.getToolStats().get("hung").getRejectedCount());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void perToolCapCanBeDisabled() throws Exception {
+        ToolRegistry registry = new ToolRegistry(2, 0, 0);
+        registry.setDefaultMaxConcurrencyPerTool(0);
+        CountDownLatch bothRunning = new CountDownLatch(2);
+        registry.register(new TestTool("search", ToolMetadata.builder()
+                .sideEffect(ToolMetadata.SideEffect.READ_ONLY)
+                .build(), args -> {
+            bothRunning.countDown();
+            await(bothRunning);
+            return ToolResult.success(bothRunning.getCount() == 0 ? "together" : "alone");
+        }));
+
+        CompletableFuture<ToolResult> first = registry.executeAsync("search", "{}");
+        CompletableFuture<ToolResult> second = registry.executeAsync("search", "{}");
+
+        assertEquals("together", first.get(5, TimeUnit.SECONDS).getContent());
+        assertEquals("together", second.get(5, TimeUnit.SECONDS).getContent());
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class FailingAsyncTool implements AsyncTool {
+
+        @Override
+        public String getName() {
+            return "lookup";
+        }
+
+        @Override
+        public String getDescription() {
+            return "lookup";
+        }
+
+        @Override
+        public ToolSchema getSchema() {
+            return new ToolSchema("lookup", "lookup", null);
+        }
+
+        @Override
+        public CompletableFuture<ToolResult> executeAsync(String arguments) {
+            CompletableFuture<ToolResult> future = new CompletableFuture<>();
+            future.completeExceptionally(new IllegalStateException("backend down"));
+            return future;
+        }
+    }
+}
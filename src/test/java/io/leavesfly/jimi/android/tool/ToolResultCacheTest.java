@@ -0,0 +1,154 @@
+package io.leavesfly.jimi.android.tool;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ToolResultCacheTest {
+
+    private static final ToolMetadata CACHEABLE = ToolMetadata.builder()
+            .sideEffect(ToolMetadata.SideEffect.READ_ONLY)
+            .cacheable(60_000)
+            .build();
+
+    @Test
+    void keyIgnoresKeyOrderAndWhitespace() {
+        assertEquals(ToolResultCache.key("search", "{\"b\":[1, {\"y\":2,\"x\":1}],\"a\":\"商品\"}"),
+                ToolResultCache.key("search", " {\n\"a\" : \"商品\", \"b\":[1,{\"x\":1,\"y\":2}]}"));
+        assertEquals(ToolResultCache.key("search", null), ToolResultCache.key("search", "  "));
+        assertNotEquals(ToolResultCache.key("search", "{\"a\":1}"), ToolResultCache.key("cart", "{\"a\":1}"));
+        assertNotEquals(ToolResultCache.key("search", "[1,2]"), ToolResultCache.key("search", "[2,1]"));
+        // 无法解析的参数按原文比较
+        assertEquals("search\n{oops", ToolResultCache.key("search", " {oops "));
+    }
+
+    @Test
+    void entriesExpireAfterTtl() throws InterruptedException {
+        ToolResultCache cache = new ToolResultCache(8);
+        String key = ToolResultCache.key("search", "{}");
+        ToolResult result = ToolResult.success("ok");
+
+        cache.put("search", key, result, 50, cache.generation("search"));
+        assertSame(result, cache.get(key));
+
+        Thread.sleep(80);
+        assertNull(cache.get(key));
+        ToolCacheStats stats = cache.getStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(0, stats.getSize());
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedEntry() {
+        ToolResultCache cache = new ToolResultCache(2);
+        String a = ToolResultCache.key("search", "{\"q\":\"a\"}");
+        String b = ToolResultCache.key("search", "{\"q\":\"b\"}");
+        String c = ToolResultCache.key("search", "{\"q\":\"c\"}");
+        long generation = cache.generation("search");
+
+        cache.put("search", a, ToolResult.success("a"), 60_000, generation);
+        cache.put("search", b, ToolResult.success("b"), 60_000, generation);
+        cache.get(a);
+        cache.put("search", c, ToolResult.success("c"), 60_000, generation);
+
+        assertEquals("a", cache.get(a).getContent());
+        assertNull(cache.get(b));
+        assertEquals("c", cache.get(c).getContent());
+        assertEquals(1, cache.getStats().getEvictionCount());
+        assertEquals(2, cache.getStats().getSize());
+    }
+
+    @Test
+    void invalidateRemovesOnlyThatToolsEntries() {
+        ToolResultCache cache = new ToolResultCache(8);
+        String search = ToolResultCache.key("search", "{}");
+        String cart = ToolResultCache.key("cart", "{}");
+        cache.put("search", search, ToolResult.success("s"), 60_000, cache.generation("search"));
+        cache.put("cart", cart, ToolResult.success("c"), 60_000, cache.generation("cart"));
+
+        cache.invalidate("cart");
+
+        assertEquals("s", cache.get(search).getContent());
+        assertNull(cache.get(cart));
+        assertEquals(1, cache.getStats().getInvalidationCount());
+    }
+
+    @Test
+    void dropsResultsOfCallsStartedBeforeInvalidation() {
+        ToolResultCache cache = new ToolResultCache(8);
+        String key = ToolResultCache.key("cart", "{}");
+
+        // 执行期间工具被失效，执行前读取的代数已过期，结果不应写回
+        long beforeInvalidate = cache.generation("cart");
+        cache.invalidate("cart");
+        cache.put("cart", key, ToolResult.success("stale"), 60_000, beforeInvalidate);
+        assertNull(cache.get(key));
+
+        long beforeClear = cache.generation("cart");
+        cache.clear();
+        cache.put("cart", key, ToolResult.success("stale"), 60_000, beforeClear);
+        assertNull(cache.get(key));
+
+        cache.put("cart", key, ToolResult.success("fresh"), 60_000, cache.generation("cart"));
+        assertEquals("fresh", cache.get(key).getContent());
+    }
+
+    @Test
+    void registryServesCachedResultsAndInvalidatesAfterMutation() {
+        AtomicInteger version = new AtomicInteger();
+        TestTool cart = new TestTool("cart", CACHEABLE,
+                args -> ToolResult.success("cart v" + version.get()));
+        TestTool addToCart = new TestTool("add_to_cart", ToolMetadata.builder().invalidates("cart").build(),
+                args -> ToolResult.success("added v" + version.incrementAndGet()));
+        ToolRegistry registry = new ToolRegistry(1, 1);
+        registry.register(cart);
+        registry.register(addToCart);
+
+        assertEquals("cart v0", registry.execute("cart", "{\"user\":1,\"page\":1}").getContent());
+        assertEquals("cart v0", registry.execute("cart", "{\"page\":1, \"user\":1}").getContent());
+        assertEquals(1, cart.calls.get());
+
+        registry.execute("add_to_cart", "{}");
+        assertEquals("cart v1", registry.execute("cart", "{\"user\":1,\"page\":1}").getContent());
+        assertEquals(2, cart.calls.get());
+    }
+
+    @Test
+    void registryDoesNotCacheErrorsOrMutatingTools() {
+        AtomicInteger attempts = new AtomicInteger();
+        TestTool flaky = new TestTool("search", CACHEABLE, args -> attempts.incrementAndGet() == 1
+                ? ToolResult.error("backend busy") : ToolResult.success("ok"));
+        // 未声明只读时 cacheable 不生效
+        TestTool mutating = new TestTool("order", ToolMetadata.builder().cacheable(60_000).build(),
+                args -> ToolResult.success("placed"));
+        ToolRegistry registry = new ToolRegistry(1, 1);
+        registry.register(flaky);
+        registry.register(mutating);
+
+        assertFalse(registry.execute("search", "{}").isSuccess());
+        assertEquals("ok", registry.execute("search", "{}").getContent());
+        assertEquals("ok", registry.execute("search", "{}").getContent());
+        assertEquals(2, flaky.calls.get());
+
+        registry.execute("order", "{}");
+        registry.execute("order", "{}");
+        assertEquals(2, mutating.calls.get());
+    }
+
+    @Test
+    void reRegisteringToolInvalidatesItsEntries() {
+        ToolRegistry registry = new ToolRegistry(1, 1);
+        registry.register(TestTool.returning("search", CACHEABLE, "old"));
+        assertEquals("old", registry.execute("search", "{}").getContent());
+
+        registry.register(TestTool.returning("search", CACHEABLE, "new"));
+        assertEquals("new", registry.execute("search", "{}").getContent());
+    }
+}
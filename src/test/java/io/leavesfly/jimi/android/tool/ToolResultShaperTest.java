@@ -0,0 +1,124 @@
+package io.leavesfly.jimi.android.tool;
+
+import io.leavesfly.jimi.android.llm.tokenizer.Tokenizer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ToolResultShaperTest {
+
+    /**
+     * 每 4 个字符计 1 个 token，便于推算预算
+     */
+    private static final Tokenizer TOKENIZER = text -> text == null ? 0 : (text.length() + 3) / 4;
+
+    private final ToolResultShaper shaper = new ToolResultShaper(TOKENIZER, 100);
+
+    @Test
+    void returnsTextWithinBudgetUnchanged() {
+        String text = "找到 3 个商品:\n1. 手机\n2. 耳机\n3. 充电器";
+
+        assertSame(text, shaper.shape(text, 100));
+        assertSame(text, shaper.shape(text, 0));
+        assertNull(shaper.shape(null, 10));
+    }
+
+    @Test
+    void budgetComesFromMetadataOrDefault() {
+        assertEquals(100, shaper.budgetOf(null));
+        assertEquals(100, shaper.budgetOf(ToolMetadata.DEFAULT));
+        assertEquals(20, shaper.budgetOf(ToolMetadata.builder().maxResultTokens(20).build()));
+        assertEquals(0, shaper.budgetOf(ToolMetadata.builder().maxResultTokens(-1).build()));
+        assertEquals(0, new ToolResultShaper(TOKENIZER, 0).budgetOf(null));
+    }
+
+    @Test
+    void collapsesRepeatedRowsIgnoringListIndex() {
+        StringBuilder text = new StringBuilder("找到 50 个商品:\n");
+        for (int i = 1; i <= 50; i++) {
+            text.append(i).append(". 缺货商品 ￥0.00\n");
+        }
+        text.append("\n\n\n共 50 条");
+
+        String shaped = shaper.shape(text.toString(), 40);
+
+        assertEquals("找到 50 个商品:\n1. 缺货商品 ￥0.00\n[以下 49 行与上一行相同，已省略]\n\n共 50 条", shaped);
+    }
+
+    @Test
+    void keepsHeadAndTailOfLongResult() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 200; i++) {
+            text.append("order O").append(1000 + i).append(" shipped\n");
+        }
+        text.append("end of list");
+
+        String shaped = shaper.shape(text.toString(), 100);
+
+        assertTrue(TOKENIZER.countTokens(shaped) <= 100, shaped);
+        assertTrue(shaped.startsWith("order O1000 shipped\norder O1001 shipped\n"), shaped);
+        assertTrue(shaped.endsWith("order O1199 shipped\nend of list"), shaped);
+        int total = TOKENIZER.countTokens(text.toString());
+        assertTrue(shaped.contains("[已截断：原结果约 " + total + " tokens，省略中间约 "), shaped);
+        // 开头约占 2/3
+        int marker = shaped.indexOf("[已截断");
+        assertTrue(marker > shaped.length() - marker, shaped);
+    }
+
+    @Test
+    void truncatesSingleLongLineFromBothEnds() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append((char) ('a' + i % 26));
+        }
+
+        String shaped = shaper.shape(text.toString(), 60);
+
+        assertTrue(TOKENIZER.countTokens(shaped) <= 60, shaped);
+        assertTrue(shaped.startsWith("abcdefghijklmnopqrstuvwxyz"), shaped);
+        assertTrue(shaped.contains("…\n[已截断"), shaped);
+        assertTrue(shaped.contains("tokens]\n…"), shaped);
+        assertTrue(text.toString().endsWith(shaped.substring(shaped.lastIndexOf('…') + 1)), shaped);
+    }
+
+    @Test
+    void neverSplitsSurrogatePairs() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            text.append("😀");
+        }
+
+        for (int budget = 30; budget < 40; budget++) {
+            String shaped = shaper.shape(text.toString(), budget);
+            for (int i = 0; i < shaped.length(); i++) {
+                char c = shaped.charAt(i);
+                if (Character.isHighSurrogate(c)) {
+                    assertTrue(i + 1 < shaped.length() && Character.isLowSurrogate(shaped.charAt(i + 1)),
+                            "budget " + budget + ": " + shaped);
+                    i++;
+                } else {
+                    assertFalse(Character.isLowSurrogate(c), "budget " + budget + ": " + shaped);
+                }
+            }
+        }
+    }
+
+    @Test
+    void shapesByDeclaredBudget() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            sb.append("row ").append(i).append(" of the result\n");
+        }
+        String text = sb.toString();
+
+        String unlimited = shaper.shape(text, ToolMetadata.builder().maxResultTokens(-1).build());
+        String declared = shaper.shape(text, ToolMetadata.builder().maxResultTokens(50).build());
+
+        assertSame(text, unlimited);
+        assertTrue(TOKENIZER.countTokens(declared) <= 50, declared);
+    }
+}
@@ -0,0 +1,90 @@
+package io.leavesfly.jimi.android.tool;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ToolSchemaSetTest {
+
+    @Test
+    void encodedJsonMatchesSchemaToJson() throws Exception {
+        JSONObject parameters = new JSONObject()
+                .put("type", "object")
+                .put("properties", new JSONObject().put("keyword", new JSONObject().put("type", "string")));
+        ToolRegistry registry = new ToolRegistry(1, 1);
+        registry.register(new TestTool("search", "搜索\"商品\"", parameters, ToolMetadata.DEFAULT,
+                args -> ToolResult.success("")));
+        registry.register(TestTool.returning("cart", ToolMetadata.DEFAULT, ""));
+
+        List<ToolSchema> schemas = registry.getToolSchemas(null);
+        JSONArray expected = new JSONArray();
+        for (ToolSchema schema : schemas) {
+            expected.put(schema.toJson());
+        }
+
+        assertTrue(schemas instanceof ToolSchemaSet);
+        JSONArray encoded = new JSONArray(
+                new String(((ToolSchemaSet) schemas).getEncodedJson(), StandardCharsets.UTF_8));
+        assertEquals(expected.toString(), encoded.toString());
+    }
+
+    @Test
+    void cachedPerToolListUntilRegistryChanges() {
+        ToolRegistry registry = new ToolRegistry(1, 1);
+        registry.register(TestTool.returning("a", ToolMetadata.DEFAULT, ""));
+        registry.register(TestTool.returning("b", ToolMetadata.DEFAULT, ""));
+
+        ToolSchemaSet first = registry.getToolSchemaSet(Arrays.asList("a", "b"));
+        assertSame(first, registry.getToolSchemaSet(Arrays.asList("a", "b")));
+        assertEquals(1, registry.getToolSchemas(Arrays.asList("b", "missing")).size());
+
+        registry.register(TestTool.returning("c", ToolMetadata.DEFAULT, ""));
+        assertNotSame(first, registry.getToolSchemaSet(Arrays.asList("a", "b")));
+    }
+
+    @Test
+    void cacheKeepsOnlyRecentlyUsedToolLists() {
+        ToolRegistry registry = new ToolRegistry(1, 1);
+        for (int i = 0; i < 8; i++) {
+            registry.register(TestTool.returning("t" + i, ToolMetadata.DEFAULT, ""));
+        }
+        ToolSnapshot snapshot = registry.snapshot();
+        ToolSchemaSet all = snapshot.getToolSchemas(null);
+
+        // 工具选择器每步可能选出不同子集，缓存不应随子集数量无限增长
+        for (int mask = 1; mask < 256; mask++) {
+            List<String> subset = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    subset.add("t" + i);
+                }
+            }
+            snapshot.getToolSchemas(subset);
+            assertSame(all, snapshot.getToolSchemas(null));
+        }
+
+        assertEquals(ToolSnapshot.SCHEMA_CACHE_MAX_ENTRIES, snapshot.schemaCacheSize());
+        assertSame(all, snapshot.getToolSchemas(null));
+    }
+
+    @Test
+    void isUnmodifiable() {
+        ToolRegistry registry = new ToolRegistry(1, 1);
+        registry.register(TestTool.returning("a", ToolMetadata.DEFAULT, ""));
+
+        List<ToolSchema> schemas = registry.getToolSchemas(null);
+
+        assertThrows(UnsupportedOperationException.class, schemas::clear);
+    }
+}